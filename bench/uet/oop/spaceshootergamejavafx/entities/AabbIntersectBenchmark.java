@@ -0,0 +1,64 @@
+package uet.oop.spaceshootergamejavafx.entities;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Microbenchmark for the primitive AABB collision path in {@link GameObject}.
+ * Runs a large number of {@link GameObject#intersects(GameObject)} tests and
+ * reports the throughput together with the bytes allocated by the benchmark
+ * thread, which is expected to be zero per test.
+ */
+public class AabbIntersectBenchmark {
+
+    private static final int OBJECT_COUNT = 512;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 50;
+
+    /** Sink preventing the JIT from eliminating the tests. */
+    private static int hits;
+
+    public static void main(String[] args) {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        Assets.setHeadless(true); // Only the boxes matter here, not the sprites
+
+        GameObject[] objects = new GameObject[OBJECT_COUNT];
+        java.util.Random random = new java.util.Random(42);
+        for (int i = 0; i < OBJECT_COUNT; i++) {
+            double x = random.nextDouble() * SpaceShooter.WIDTH;
+            double y = random.nextDouble() * SpaceShooter.HEIGHT;
+            objects[i] = (i % 2 == 0) ? new Enemy(x, y) : new PowerUp(x, y, PowerUp.PowerUpType.SHIELD);
+        }
+
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            runRound(objects);
+        }
+
+        long tests = (long) MEASURED_ROUNDS * OBJECT_COUNT * OBJECT_COUNT;
+        long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            runRound(objects);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        System.out.printf("AABB intersects: %d tests in %.1f ms (%.1f M tests/s)%n",
+                tests, elapsed / 1e6, tests / (elapsed / 1e3));
+        System.out.printf("Allocated: %d bytes total, %.4f bytes/test (hits=%d)%n",
+                allocated, (double) allocated / tests, hits);
+    }
+
+    private static void runRound(GameObject[] objects) {
+        int localHits = 0;
+        for (GameObject a : objects) {
+            for (GameObject b : objects) {
+                if (a.intersects(b)) {
+                    localHits++;
+                }
+            }
+        }
+        hits += localHits;
+    }
+}
@@ -0,0 +1,395 @@
+package uet.oop.spaceshootergamejavafx.entities;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH throughput of the engine hot paths on synthetic worlds of 10 to 10,000
+ * entities ({@code size}):
+ * <ul>
+ *     <li>{@code checkCollisions}: grid rebuild plus all collision queries of one tick.
+ *     Entities hit during an operation are revived afterwards so every operation sees
+ *     the same world; the revive loop is included in the timing.</li>
+ *     <li>{@code updateAI}: one {@link WorldSnapshot} capture of the world and one decision of
+ *         {@link AIPlayerController} on it. {@code updateAILight} makes the light decision
+ *         {@link AIScheduler} uses on calm ticks instead, and {@code updateAIReflex} its
+ *         cheapest dodge tier. {@code updateAILookahead} makes one {@link LookaheadPlanner}
+ *         decision on a single thread, with a deadline long enough for a complete search.</li>
+ *     <li>{@code bossUpdate}: one update of {@code size} bosses plus one update and
+ *     compaction of the projectile store their bullets go to.</li>
+ *     <li>{@code explosionUpdate} and {@code explosionRender}: about {@code size} live
+ *     particles. Rendering records into a {@link Canvas}, which needs the JavaFX jars
+ *     but no display.</li>
+ *     <li>{@code layeredRender}: one running frame of the world of
+ *     {@code createWorld(size)} over a scrolling background, drawn by
+ *     {@link LayeredRenderer}. {@code singleCanvasRender} draws the same frame the way
+ *     the single game canvas did before, clearing it and drawing the background image
+ *     twice every frame, for comparison. Both measure the CPU side only: recording the
+ *     draw commands, not rasterizing them. The background image is synthetic.</li>
+ *     <li>{@code registryRemoveDead}: dead-object sweep of {@code size} entities with
+ *     every tenth one dead, as after a boss death and a burst of kills. The dead ones are
+ *     revived and added back afterwards; that is included in the timing.
+ *     {@code iteratorRemove} runs the same workload with the per-element
+ *     {@code Iterator.remove()} sweep the registry replaced, for comparison.</li>
+ * </ul>
+ * Every case runs in two forked JVMs with the software pipeline
+ * ({@code -Dprism.order=sw}), so that no GPU is needed and no case inherits the JIT
+ * profile of another. Build and run with the {@code jmh} profile; {@code -prof gc}
+ * adds the allocation rate, the normalized allocation per operation and the GC
+ * count and time:
+ * <pre>
+ * mvn -P jmh package
+ * java -jar target/benchmarks.jar EngineBenchmark -prof gc
+ * java -jar target/benchmarks.jar EngineBenchmark.checkCollisions -p size=1000 -prof gc
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Dprism.order=sw")
+public class EngineBenchmark {
+
+    private static final long LONG_LIFETIME_MS = 60_000;
+    // Size of the game's background image
+    private static final int BACKGROUND_WIDTH = 2048;
+    private static final int BACKGROUND_HEIGHT = 512;
+
+    /**
+     * A synthetic world of {@link #createWorld(int)} with the AI deciding on it.
+     */
+    @State(Scope.Thread)
+    public static class WorldState {
+
+        @Param({"10", "100", "1000", "10000"})
+        public int size;
+
+        GameWorld world;
+        List<GameObject> objects;
+        ProjectileStore projectiles;
+        AIPlayerController ai;
+        LookaheadPlanner planner;
+        final WorldSnapshot snapshot = new WorldSnapshot();
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            headless();
+            world = createWorld(size);
+            objects = world.getGameObjects();
+            projectiles = world.getProjectiles();
+            ai = new AIPlayerController(world.getPlayer(), world.getClock(), new Random(1L));
+            planner = new LookaheadPlanner(LookaheadPlanner.DEFAULT_HORIZON,
+                    LookaheadPlanner.DEFAULT_ROLLOUTS, 1_000_000, 1);
+        }
+    }
+
+    /**
+     * {@code size} bosses firing into one projectile store.
+     */
+    @State(Scope.Thread)
+    public static class BossState {
+
+        @Param({"10", "100", "1000", "10000"})
+        public int size;
+
+        ProjectileStore projectiles;
+        BossEnemy[] bosses;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            headless();
+            projectiles = new ProjectileStore();
+            bosses = createBosses(size, projectiles);
+        }
+    }
+
+    /**
+     * {@code size} enemies, both in an {@link EntityRegistry} and in a plain list.
+     */
+    @State(Scope.Thread)
+    public static class SweepState {
+
+        @Param({"10", "100", "1000", "10000"})
+        public int size;
+
+        EntityRegistry registry;
+        List<GameObject> list;
+        final List<GameObject> removed = new ArrayList<>();
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            headless();
+            registry = new EntityRegistry();
+            for (Enemy enemy : createEnemies(size)) {
+                registry.add(enemy);
+            }
+            list = new ArrayList<>(List.of(createEnemies(size)));
+        }
+    }
+
+    /**
+     * About {@code size} live particles and a canvas to draw them on.
+     */
+    @State(Scope.Thread)
+    public static class ParticleState {
+
+        @Param({"10", "100", "1000", "10000"})
+        public int size;
+
+        ProceduralExplosion engine;
+        GraphicsContext gc;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            headless();
+            engine = createParticles(size);
+            gc = new Canvas(SpaceShooter.WIDTH, SpaceShooter.HEIGHT).getGraphicsContext2D();
+        }
+    }
+
+    /**
+     * A synthetic world with a background, drawn either by a {@link LayeredRenderer}
+     * or on a single canvas.
+     */
+    @State(Scope.Thread)
+    public static class RenderState {
+
+        @Param({"10", "100", "1000", "10000"})
+        public int size;
+
+        GameWorld world;
+        Image background;
+        LayeredRenderer renderer;
+        GraphicsContext gc;
+        final RenderQueue queue = new RenderQueue();
+        int frame;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            headless();
+            world = createWorld(size);
+            background = new WritableImage(BACKGROUND_WIDTH, BACKGROUND_HEIGHT);
+            renderer = new LayeredRenderer(SpaceShooter.WIDTH, SpaceShooter.HEIGHT);
+            renderer.setBackground(background);
+            gc = new Canvas(SpaceShooter.WIDTH, SpaceShooter.HEIGHT).getGraphicsContext2D();
+        }
+    }
+
+    @Benchmark
+    public void checkCollisions(WorldState state) {
+        state.world.checkCollisions();
+        List<GameObject> objects = state.objects;
+        for (int i = 0; i < objects.size(); i++) {
+            objects.get(i).setDead(false);
+        }
+        ProjectileStore projectiles = state.projectiles;
+        for (int i = 0; i < projectiles.size(); i++) {
+            projectiles.revive(i);
+        }
+    }
+
+    @Benchmark
+    public long updateAI(WorldState state) {
+        state.snapshot.capture(state.world);
+        return state.ai.decide(state.snapshot);
+    }
+
+    @Benchmark
+    public long updateAILight(WorldState state) {
+        state.snapshot.capture(state.world);
+        return state.ai.decideLight(state.snapshot);
+    }
+
+    @Benchmark
+    public long updateAIReflex(WorldState state) {
+        state.snapshot.capture(state.world);
+        return state.ai.decideReflex(state.snapshot, AIScheduler.DEFAULT_ESCALATION_TTI);
+    }
+
+    @Benchmark
+    public long updateAILookahead(WorldState state) {
+        state.snapshot.capture(state.world);
+        return state.planner.decide(state.snapshot);
+    }
+
+    @Benchmark
+    public int bossUpdate(BossState state) {
+        for (BossEnemy boss : state.bosses) {
+            boss.update();
+        }
+        state.projectiles.update();
+        state.projectiles.compact();
+        return state.projectiles.size();
+    }
+
+    @Benchmark
+    public int registryRemoveDead(SweepState state) {
+        List<GameObject> removed = state.removed;
+        killEveryTenth(state.registry.getAll());
+        state.registry.removeDead(removed::add);
+        int count = removed.size();
+        for (int i = 0; i < count; i++) {
+            removed.get(i).setDead(false);
+        }
+        state.registry.addAll(removed);
+        removed.clear();
+        return count;
+    }
+
+    @Benchmark
+    public int iteratorRemove(SweepState state) {
+        List<GameObject> removed = state.removed;
+        killEveryTenth(state.list);
+        Iterator<GameObject> iter = state.list.iterator();
+        while (iter.hasNext()) {
+            GameObject obj = iter.next();
+            if (obj.isDead()) {
+                iter.remove();
+                removed.add(obj);
+            }
+        }
+        int count = removed.size();
+        for (int i = 0; i < count; i++) {
+            removed.get(i).setDead(false);
+        }
+        state.list.addAll(removed);
+        removed.clear();
+        return count;
+    }
+
+    @Benchmark
+    public int explosionUpdate(ParticleState state) {
+        state.engine.update();
+        return state.engine.getLiveParticleCount();
+    }
+
+    @Benchmark
+    public void explosionRender(ParticleState state) {
+        // Clearing the whole canvas also drops the recorded draw commands
+        state.gc.clearRect(0, 0, SpaceShooter.WIDTH, SpaceShooter.HEIGHT);
+        state.engine.render(state.gc);
+    }
+
+    @Benchmark
+    public void layeredRender(RenderState state) {
+        int f = state.frame++;
+        state.renderer.scrollBackground(-BACKGROUND_HEIGHT + (f % BACKGROUND_HEIGHT) * 0.5);
+        state.renderer.render(state.world, (f % 16) / 16.0, false, null);
+    }
+
+    @Benchmark
+    public void singleCanvasRender(RenderState state) {
+        int f = state.frame++;
+        double alpha = (f % 16) / 16.0;
+        double top = -BACKGROUND_HEIGHT + (f % BACKGROUND_HEIGHT) * 0.5;
+        double sx = (BACKGROUND_WIDTH - SpaceShooter.WIDTH) / 2.0;
+        double sw = SpaceShooter.WIDTH;
+        GraphicsContext gc = state.gc;
+        gc.clearRect(0, 0, SpaceShooter.WIDTH, SpaceShooter.HEIGHT);
+        gc.drawImage(state.background, sx, 0, sw, BACKGROUND_HEIGHT, 0, top, sw, BACKGROUND_HEIGHT);
+        gc.drawImage(state.background, sx, 0, sw, BACKGROUND_HEIGHT, 0, top + BACKGROUND_HEIGHT, sw, BACKGROUND_HEIGHT);
+        for (GameObject obj : state.world.getGameObjects()) {
+            obj.renderInterpolated(state.queue, alpha);
+        }
+        state.world.getProjectiles().render(state.queue, alpha);
+        state.queue.flush(gc);
+        state.world.getExplosions().render(gc);
+    }
+
+    /**
+     * Prepares a forked JVM: no sprites or sounds are loaded, and the per-hit
+     * messages of the entities stay out of the results.
+     */
+    private static void headless() {
+        Assets.setHeadless(true);
+        GameLog.setLevel(GameLog.Level.WARN);
+    }
+
+    /**
+     * Builds a world of {@code size} entities spread over the upper part of the screen:
+     * 40% enemies, 30% enemy bullets, 25% player bullets and 5% power-ups. Bullets go
+     * into the world's projectile store. The player stays at its spawn point below
+     * them, so it is never hit.
+     */
+    private static GameWorld createWorld(int size) {
+        GameWorld world = new GameWorld(1L, new GameWorld.Listener() { });
+        world.setExplosionsEnabled(false);
+        ProjectileStore projectiles = world.getProjectiles();
+        Random random = new Random(size);
+        PowerUp.PowerUpType[] types = PowerUp.PowerUpType.values();
+        for (int i = 0; i < size; i++) {
+            double x = random.nextDouble() * SpaceShooter.WIDTH;
+            double y = random.nextDouble() * (SpaceShooter.HEIGHT - 300);
+            int kind = i % 20;
+            if (kind < 8) {
+                world.addEntity(new Enemy(x, y));
+            } else if (kind < 14) {
+                projectiles.spawnEnemyBullet(x, y);
+            } else if (kind < 19) {
+                projectiles.spawnPlayerBullet(x, y, 0, -ProjectileStore.PLAYER_BULLET_SPEED);
+            } else {
+                world.addEntity(new PowerUp(x, y, types[i % types.length]));
+            }
+        }
+        return world;
+    }
+
+    private static Enemy[] createEnemies(int size) {
+        Random random = new Random(size);
+        Enemy[] enemies = new Enemy[size];
+        for (int i = 0; i < size; i++) {
+            enemies[i] = new Enemy(random.nextDouble() * SpaceShooter.WIDTH, random.nextDouble() * SpaceShooter.HEIGHT);
+        }
+        return enemies;
+    }
+
+    private static void killEveryTenth(List<GameObject> objects) {
+        for (int i = 0; i < objects.size(); i += 10) {
+            objects.get(i).setDead(true);
+        }
+    }
+
+    private static BossEnemy[] createBosses(int size, ProjectileStore projectiles) {
+        GameClock clock = new GameClock(FixedTimestep.DEFAULT_TICK_RATE);
+        Player player = new Player(SpaceShooter.WIDTH / 2.0, SpaceShooter.HEIGHT - 120, clock);
+        Random random = new Random(size);
+        BossEnemy[] bosses = new BossEnemy[size];
+        for (int i = 0; i < size; i++) {
+            double x = 60 + random.nextDouble() * (SpaceShooter.WIDTH - 120);
+            double y = 60 + random.nextDouble() * (SpaceShooter.HEIGHT / 2.0 - 120);
+            bosses[i] = new BossEnemy(x, y, player, i % 10 == 0, projectiles, random);
+        }
+        return bosses;
+    }
+
+    private static ProceduralExplosion createParticles(int size) {
+        ProceduralExplosion engine = new ProceduralExplosion(new GameClock(FixedTimestep.DEFAULT_TICK_RATE), 1L);
+        Random random = new Random(size);
+        // The clock never advances here, so particles live for the whole run
+        while (engine.getLiveParticleCount() < size) {
+            engine.spawn(random.nextDouble() * SpaceShooter.WIDTH,
+                    random.nextDouble() * SpaceShooter.HEIGHT, LONG_LIFETIME_MS);
+        }
+        return engine;
+    }
+}
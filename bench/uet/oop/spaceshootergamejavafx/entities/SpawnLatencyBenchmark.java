@@ -0,0 +1,49 @@
+package uet.oop.spaceshootergamejavafx.entities;
+
+import java.util.Random;
+
+/**
+ * Measures how long it takes to construct each kind of spawned entity.
+ * Sprites and clips are resolved through {@link Assets}, so after {@link Assets#preload()}
+ * construction should no longer include any image decoding.
+ * <p>
+ * Run with the resource folders ({@code res}, {@code img}, {@code sfx}) on the classpath.
+ * Still images decode without a window; animated GIFs need a running JavaFX toolkit and
+ * are reported as missing when run headless.
+ */
+public class SpawnLatencyBenchmark {
+
+    private static final int WARMUP_SPAWNS = 200;
+    private static final int MEASURED_SPAWNS = 2_000;
+
+    public static void main(String[] args) {
+        long preloadStart = System.nanoTime();
+        Assets.preload();
+        System.out.printf("Preload: %.1f ms%n", (System.nanoTime() - preloadStart) / 1e6);
+        System.out.println(Assets.report());
+
+        ProjectileStore projectiles = new ProjectileStore();
+        GameClock clock = new GameClock(FixedTimestep.DEFAULT_TICK_RATE);
+        Random random = new Random(1L);
+        Player player = new Player(SpaceShooter.WIDTH / 2.0, SpaceShooter.HEIGHT - 80, clock);
+
+        measure("Enemy", () -> new Enemy(100, 0));
+        measure("PowerUp", () -> new PowerUp(100, 0, PowerUp.PowerUpType.SHIELD));
+        measure("BossEnemy", () -> new BossEnemy(200, 100, player, false, projectiles, random));
+        measure("Player", () -> new Player(200, 700, clock));
+    }
+
+    private static void measure(String name, java.util.function.Supplier<GameObject> spawner) {
+        Object sink = null;
+        for (int i = 0; i < WARMUP_SPAWNS; i++) {
+            sink = spawner.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_SPAWNS; i++) {
+            sink = spawner.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-10s %8.2f us/spawn (%s)%n",
+                name, elapsed / 1e3 / MEASURED_SPAWNS, sink.getClass().getSimpleName());
+    }
+}
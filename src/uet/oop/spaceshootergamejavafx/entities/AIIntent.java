@@ -0,0 +1,71 @@
+package uet.oop.spaceshootergamejavafx.entities;
+
+/**
+ * Packs one AI decision into a single {@code long}, so it can be handed from the
+ * planner thread to the simulation thread through an {@code AtomicLong} without
+ * allocating or locking.
+ * <p>
+ * Layout, from the lowest bit:
+ * <ul>
+ *     <li>bits 0-7: {@link InputFlags} movement and shoot bits, plus {@link #TELEPORT}
+ *         and {@link #VALID};</li>
+ *     <li>bits 8-39: teleport target X as {@code float} bits (teleport targets are
+ *         whole pixel columns, so this is exact);</li>
+ *     <li>bits 40-63: low 24 bits of the tick of the snapshot the decision was made on.</li>
+ * </ul>
+ */
+public final class AIIntent {
+
+    /** The player jumps to the encoded X on the AI's preferred row. */
+    public static final int TELEPORT = 1 << 6;
+    /** Set in every packed intent, so that no intent equals {@link #NONE}. */
+    public static final int VALID = 1 << 7;
+
+    /** No decision. */
+    public static final long NONE = 0L;
+
+    /** Mask of the tick bits; staleness is computed modulo this range. */
+    public static final long TICK_MASK = (1L << 24) - 1;
+
+    private AIIntent() {
+    }
+
+    /**
+     * Packs a decision.
+     *
+     * @param tick      tick of the snapshot the decision was made on
+     * @param flags     {@link InputFlags} movement and shoot bits, optionally {@link #TELEPORT}
+     * @param teleportX teleport target X, ignored without {@link #TELEPORT}
+     * @return packed intent, never {@link #NONE}
+     */
+    public static long pack(long tick, int flags, double teleportX) {
+        long bits = (flags & 0x7F) | VALID;
+        if ((flags & TELEPORT) != 0) {
+            bits |= (Float.floatToRawIntBits((float) teleportX) & 0xFFFFFFFFL) << 8;
+        }
+        return bits | (tick & TICK_MASK) << 40;
+    }
+
+    public static int getFlags(long intent) {
+        return (int) (intent & 0xFF);
+    }
+
+    public static boolean has(long intent, int flag) {
+        return (intent & flag) != 0;
+    }
+
+    public static double getTeleportX(long intent) {
+        return Float.intBitsToFloat((int) (intent >>> 8));
+    }
+
+    /**
+     * Returns how many ticks old a decision is.
+     *
+     * @param intent      packed intent
+     * @param currentTick current tick of the world
+     * @return age in ticks, assuming it is less than 2^24 ticks
+     */
+    public static long getAge(long intent, long currentTick) {
+        return (currentTick - (intent >>> 40)) & TICK_MASK;
+    }
+}
@@ -0,0 +1,233 @@
+package uet.oop.spaceshootergamejavafx.entities;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * Tunable thresholds of the reactive {@link AIPlayerController}. Times are in the
+ * unit the controller compares them with: milliseconds for the {@code *Ms}
+ * components, ticks of bullet travel for the reaction windows and horizons. The
+ * {@code *Factor} components scale the player's width or height.
+ * <p>
+ * Every component has a valid range ({@link #lowerBound(int)},
+ * {@link #upperBound(int)}), checked on construction and used by
+ * {@link AITuner} as its search space. Parameter sets are stored as properties
+ * files with one key per component. A file named by {@value #PARAMETERS_PROPERTY}
+ * replaces {@link #DEFAULTS} in the game and in {@link BatchRunner}.
+ *
+ * @param postShotDecisionPauseMs      pause in other decisions after deciding to shoot
+ * @param attemptShootCooldownMs       minimum time between two attempts to shoot
+ * @param normalEnemyShotExpiryMs      how long a regular enemy that was just shot at is ignored
+ * @param enemyProximityThreshold      distance under which an enemy body counts as a threat
+ * @param yPositionTolerance           allowed deviation from the preferred row
+ * @param powerUpHighYThresholdFactor  fraction of the screen height above which a power-up is too high
+ * @param powerUpHighPenalty           penalty of a power-up above that line
+ * @param dodgeReactionWindow          horizon within which a bullet counts as a threat; also the
+ *                                     safety horizon of tactical moves
+ * @param immediateDodgeThreshold      time to impact under which a dodge is urgent
+ * @param dodgeXDetectionBuffer        extra width of the player when testing bullet paths
+ * @param alignmentToleranceFactor     alignment needed to shoot, as a fraction of the player width
+ * @param safeYDistanceAboveFactor     safe distance above the player, as a fraction of its height
+ * @param safeYDistanceBelowFactor     safe distance below the player, as a fraction of its height
+ * @param strategicDodgeDistanceFactor standard dodge distance, as a fraction of the player width
+ * @param safeZoneRadius               radius kept free of bullets around the player
+ * @param safeZoneHorizon              horizon of that safe zone while idle
+ * @param repositionShiftFactor        length of an idle repositioning move, as a fraction of the player width
+ * @param firingPositionSafeRadius     radius that must be clear around a firing position
+ * @param firingPositionReactionTime   reaction time assumed when checking a firing position
+ */
+public record AIParameters(
+        double postShotDecisionPauseMs,
+        double attemptShootCooldownMs,
+        double normalEnemyShotExpiryMs,
+        double enemyProximityThreshold,
+        double yPositionTolerance,
+        double powerUpHighYThresholdFactor,
+        double powerUpHighPenalty,
+        double dodgeReactionWindow,
+        double immediateDodgeThreshold,
+        double dodgeXDetectionBuffer,
+        double alignmentToleranceFactor,
+        double safeYDistanceAboveFactor,
+        double safeYDistanceBelowFactor,
+        double strategicDodgeDistanceFactor,
+        double safeZoneRadius,
+        double safeZoneHorizon,
+        double repositionShiftFactor,
+        double firingPositionSafeRadius,
+        double firingPositionReactionTime) {
+
+    /** System property naming a parameter file to use instead of {@link #DEFAULTS}. */
+    public static final String PARAMETERS_PROPERTY = "spaceshooter.ai.parameters";
+
+    /** Component names, in declaration order; also the keys of a parameter file. */
+    private static final String[] NAMES = {
+            "postShotDecisionPauseMs", "attemptShootCooldownMs", "normalEnemyShotExpiryMs",
+            "enemyProximityThreshold", "yPositionTolerance", "powerUpHighYThresholdFactor",
+            "powerUpHighPenalty", "dodgeReactionWindow", "immediateDodgeThreshold",
+            "dodgeXDetectionBuffer", "alignmentToleranceFactor", "safeYDistanceAboveFactor",
+            "safeYDistanceBelowFactor", "strategicDodgeDistanceFactor", "safeZoneRadius",
+            "safeZoneHorizon", "repositionShiftFactor", "firingPositionSafeRadius",
+            "firingPositionReactionTime"
+    };
+    /** Valid ranges, a few times wider than the defaults on either side. */
+    private static final double[] LOWER_BOUNDS = {
+            0, 0, 0, 0, 0, 0, 0, 0.1, 0, 0, 0.05, 0, 0, 0.1, 0, 0, 0.05, 0, 0
+    };
+    private static final double[] UPPER_BOUNDS = {
+            50, 100, 600, 200, 30, 1, 3000, 10, 1, 40, 3, 4, 4, 3, 300, 4, 2, 300, 1
+    };
+
+    /** Number of components. */
+    public static final int COUNT = NAMES.length;
+
+    /** The hand-tuned values the controller was written with. */
+    public static final AIParameters DEFAULTS = new AIParameters(
+            1, 20, 150, 55.0, 5.0, 0.50, 700, 1.5, 0.028, 10.0, 0.75,
+            1.2, 0.8, 0.85, 80.0, 0.4, 0.4, 80.0, 0.00001);
+
+    public AIParameters {
+        double[] values = {postShotDecisionPauseMs, attemptShootCooldownMs, normalEnemyShotExpiryMs,
+                enemyProximityThreshold, yPositionTolerance, powerUpHighYThresholdFactor, powerUpHighPenalty,
+                dodgeReactionWindow, immediateDodgeThreshold, dodgeXDetectionBuffer, alignmentToleranceFactor,
+                safeYDistanceAboveFactor, safeYDistanceBelowFactor, strategicDodgeDistanceFactor, safeZoneRadius,
+                safeZoneHorizon, repositionShiftFactor, firingPositionSafeRadius, firingPositionReactionTime};
+        for (int i = 0; i < COUNT; i++) {
+            if (!(values[i] >= LOWER_BOUNDS[i] && values[i] <= UPPER_BOUNDS[i])) {
+                throw new IllegalArgumentException(NAMES[i] + " must be between " + LOWER_BOUNDS[i]
+                        + " and " + UPPER_BOUNDS[i] + ": " + values[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the components in declaration order.
+     *
+     * @return new array of {@link #COUNT} values
+     */
+    public double[] toArray() {
+        return new double[]{postShotDecisionPauseMs, attemptShootCooldownMs, normalEnemyShotExpiryMs,
+                enemyProximityThreshold, yPositionTolerance, powerUpHighYThresholdFactor, powerUpHighPenalty,
+                dodgeReactionWindow, immediateDodgeThreshold, dodgeXDetectionBuffer, alignmentToleranceFactor,
+                safeYDistanceAboveFactor, safeYDistanceBelowFactor, strategicDodgeDistanceFactor, safeZoneRadius,
+                safeZoneHorizon, repositionShiftFactor, firingPositionSafeRadius, firingPositionReactionTime};
+    }
+
+    /**
+     * Creates a parameter set from components in declaration order.
+     *
+     * @param v {@link #COUNT} values, each within its bounds
+     * @return parameter set
+     * @throws IllegalArgumentException if the length is wrong or a value is out of bounds
+     */
+    public static AIParameters fromArray(double[] v) {
+        if (v.length != COUNT) {
+            throw new IllegalArgumentException("Expected " + COUNT + " values, got " + v.length);
+        }
+        return new AIParameters(v[0], v[1], v[2], v[3], v[4], v[5], v[6], v[7], v[8], v[9],
+                v[10], v[11], v[12], v[13], v[14], v[15], v[16], v[17], v[18]);
+    }
+
+    public static String name(int i) {
+        return NAMES[i];
+    }
+
+    public static double lowerBound(int i) {
+        return LOWER_BOUNDS[i];
+    }
+
+    public static double upperBound(int i) {
+        return UPPER_BOUNDS[i];
+    }
+
+    /**
+     * Converts this parameter set to properties, one key per component.
+     *
+     * @return properties
+     */
+    public Properties toProperties() {
+        Properties properties = new Properties();
+        double[] values = toArray();
+        for (int i = 0; i < COUNT; i++) {
+            properties.setProperty(NAMES[i], Double.toString(values[i]));
+        }
+        return properties;
+    }
+
+    /**
+     * Reads a parameter set from properties. Missing keys keep their default value.
+     *
+     * @param properties properties with keys named after the components
+     * @return parameter set
+     * @throws IllegalArgumentException if a value is not a number or out of bounds
+     */
+    public static AIParameters fromProperties(Properties properties) {
+        double[] values = DEFAULTS.toArray();
+        for (int i = 0; i < COUNT; i++) {
+            String value = properties.getProperty(NAMES[i]);
+            if (value != null) {
+                try {
+                    values[i] = Double.parseDouble(value.trim());
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid " + NAMES[i] + ": " + value, e);
+                }
+            }
+        }
+        return fromArray(values);
+    }
+
+    /**
+     * Writes this parameter set to a properties file.
+     *
+     * @param path    file to write
+     * @param comment header comment, or null
+     * @throws IOException if the file cannot be written
+     */
+    public void store(Path path, String comment) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            toProperties().store(writer, comment);
+        }
+    }
+
+    /**
+     * Reads a parameter set from a properties file.
+     *
+     * @param path file to read
+     * @return parameter set
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if a value is invalid
+     */
+    public static AIParameters load(Path path) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return fromProperties(properties);
+    }
+
+    /**
+     * Returns the parameter set from the file named by {@value #PARAMETERS_PROPERTY},
+     * falling back to {@link #DEFAULTS} when the property is missing or the file
+     * cannot be used.
+     *
+     * @return configured parameter set
+     */
+    public static AIParameters fromSystemProperties() {
+        String path = System.getProperty(PARAMETERS_PROPERTY);
+        if (path == null || path.isBlank()) {
+            return DEFAULTS;
+        }
+        try {
+            return load(Paths.get(path));
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Invalid " + PARAMETERS_PROPERTY + " " + path + ": " + e.getMessage());
+            return DEFAULTS;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package uet.oop.spaceshootergamejavafx.entities;
+
+/**
+ * An AI that steers the player from {@link WorldSnapshot}s. Planning and applying
+ * are split so that planning can run on another thread (see {@link AsyncAIDriver}):
+ * {@link #decide(WorldSnapshot)} only reads the snapshot and returns a packed
+ * {@link AIIntent}, and {@link #applyIntent(long, Player)} writes it to the real
+ * player on the simulation thread.
+ * <p>
+ * Implementations: {@link AIScheduler}, which runs the reactive
+ * {@link AIPlayerController}, and {@link LookaheadPlanner}, which searches over
+ * simulated futures.
+ */
+public interface AIPlanner {
+
+    /**
+     * Makes the decision for one snapshot.
+     *
+     * @param snapshot world state to plan on; only read
+     * @return packed {@link AIIntent}
+     */
+    long decide(WorldSnapshot snapshot);
+
+    /**
+     * Applies a decision to the real player. Must be called on the simulation thread.
+     *
+     * @param intent decision from {@link #decide(WorldSnapshot)}; {@link AIIntent#NONE} does nothing
+     * @param target player of the world
+     */
+    void applyIntent(long intent, Player target);
+
+    /**
+     * Returns whether every decision so far depended only on the snapshots, so that
+     * a session steered synchronously by this planner can be replayed.
+     *
+     * @return false once a time limit has changed a decision
+     */
+    boolean isReproducible();
+
+    /**
+     * Builds a one-line report of the decisions made and the time spent.
+     *
+     * @return report
+     */
+    String report();
+
+    /**
+     * Releases threads or other resources held by the planner. It must not be used
+     * afterwards.
+     */
+    default void close() {
+    }
+}
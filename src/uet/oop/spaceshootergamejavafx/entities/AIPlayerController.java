@@ -1,9 +1,7 @@
 package uet.oop.spaceshootergamejavafx.entities;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
 import java.util.Random;
 
@@ -11,68 +9,90 @@ import java.util.Random;
  * AIPlayerController chịu trách nhiệm điều khiển tàu của người chơi (Player)
  * bằng trí tuệ nhân tạo. Nó phân tích trạng thái game, đưa ra quyết định
  * di chuyển, né đạn, tấn công kẻ địch và thu thập vật phẩm.
+ * <p>
+ * AI không đọc trực tiếp thế giới game mà lập kế hoạch trên một {@link WorldSnapshot}
+ * và trả về quyết định dưới dạng {@link AIIntent} đã đóng gói ({@link #decide(WorldSnapshot)}).
+ * Quyết định được áp lên Player thật bằng {@link #applyIntent(long, Player)}. Nhờ vậy AI có thể
+ * chạy trên luồng khác với luồng mô phỏng (xem {@link AsyncAIDriver}).
  */
 public class AIPlayerController {
 
-    /** Đối tượng Player mà AI này điều khiển. */
-    private Player player;
-    /** Danh sách các đối tượng trong tầm nhìn của AI (trạng thái game hiện tại). */
-    private List<GameObject> gameObjectsView;
+    /**
+     * Bản sao riêng của Player mà AI điều khiển trong lúc lập kế hoạch. Đầu mỗi lượt nó được
+     * đặt vào vị trí của Player thật trong snapshot; cuối lượt các cờ của nó được đóng gói thành intent.
+     */
+    private final Player player;
+    /** Trạng thái game mà AI đang lập kế hoạch trên đó (chỉ đọc). */
+    private WorldSnapshot snapshot;
+    /** Bản sao kho đạn trong {@link #snapshot} (đạn player, đạn địch thường và đạn Boss). */
+    private ProjectileStore projectiles;
+    private int livesRemaining; // Số mạng còn lại của người chơi trong thế giới đang điều khiển
+    /** Thời gian game (ms) của snapshot hiện tại, dùng cho các cooldown của AI. */
+    private long now;
+    /** AI đã dịch chuyển tức thời {@link #player} trong lượt lập kế hoạch hiện tại. */
+    private boolean teleported;
+    /** AI đã phải né tránh chiến lược trong lượt lập kế hoạch hiện tại (chỉ dùng cho sự kiện JFR). */
+    private boolean strategicDodged;
     /** Đối tượng sinh số ngẫu nhiên cho các quyết định có tính ngẫu nhiên. */
-    private Random random = new Random();
+    private final Random random;
+
+    /** Bản đồ thời điểm nguy hiểm theo từng cột X tại hàng Y ưa thích, dựng lại mỗi lượt cập nhật AI. */
+    private final ThreatTimeline threatTimeline = new ThreatTimeline(SpaceShooter.WIDTH);
 
-    /** Viên đạn của địch được coi là nguy hiểm nhất hiện tại. */
-    private EnemyBullet threateningBullet = null;
+    /** Chỉ số trong kho đạn của viên đạn địch được coi là nguy hiểm nhất hiện tại, hoặc -1 nếu không có. */
+    private int threateningBullet = -1;
     /** Thời gian ước tính (TTI - Time To Impact) thực tế của viên đạn nguy hiểm nhất. */
     private double threateningBulletActualTTI = Double.MAX_VALUE;
-    /** Đối tượng địch (thân tàu) đang gây ra mối đe dọa va chạm trực tiếp. */
-    private GameObject threateningEnemyBody = null;
-    /** Kẻ địch hiện tại mà AI đang nhắm mục tiêu để tấn công. */
-    private GameObject currentTargetEnemy = null;
-    /** Vật phẩm hiện tại mà AI đang nhắm mục tiêu để thu thập. */
-    private PowerUp targetPowerUp = null;
+    /** Chỉ số trong snapshot của kẻ địch (thân tàu) đang gây ra mối đe dọa va chạm trực tiếp, hoặc -1. */
+    private int threateningEnemyBody = -1;
+    /** Khoảng cách hiệu dụng tới {@link #threateningEnemyBody}, dùng trong lúc đánh giá mối đe dọa thân địch. */
+    private double minEffectiveDistance = Double.MAX_VALUE;
+    /** Chỉ số trong snapshot của kẻ địch mà AI đang nhắm mục tiêu để tấn công, hoặc -1. */
+    private int currentTargetEnemy = -1;
+    /** Chỉ số trong snapshot của vật phẩm mà AI đang nhắm mục tiêu để thu thập, hoặc -1. */
+    private int targetPowerUp = -1;
 
     /** Thời điểm AI đưa ra quyết định bắn lần cuối (dùng cho độ trễ sau khi bắn). */
     private long lastAIShotDecisionTime = 0;
     /** Độ trễ tối thiểu (ms) mà AI sẽ tạm dừng các quyết định khác sau khi quyết định bắn. Giúp AI không hành động quá dồn dập ngay sau khi bắn. */
-    private final long POST_AI_SHOT_DECISION_PAUSE_MS = 1; // Phản ứng sau khi bắn gần như tức thời
+    private final long POST_AI_SHOT_DECISION_PAUSE_MS;
     /** Thời điểm AI cố gắng bắn lần cuối (dùng cho cooldown giữa các lần bắn). */
     private long lastAITriedToShootTime = 0;
     /** Cooldown tối thiểu (ms) giữa các lần AI cố gắng bắn. */
-    private final long AI_ATTEMPT_SHOOT_COOLDOWN_MS = 20; // AI có thể cố gắng bắn cực nhanh (0.02 giây/lần)
+    private final long AI_ATTEMPT_SHOOT_COOLDOWN_MS;
 
-    /** Lưu trữ thời điểm AI bắn vào các kẻ địch thường, để tránh bắn liên tục vào một mục tiêu đã xử lý. */
-    private Map<GameObject, Long> recentlyShotNormalEnemiesTimeStamps = new HashMap<>();
+    /** Lưu trữ thời điểm AI bắn vào các kẻ địch thường (theo entity id), để tránh bắn liên tục vào một mục tiêu đã xử lý. */
+    private Map<Integer, Long> recentlyShotNormalEnemiesTimeStamps = new HashMap<>();
     /** Thời gian (ms) mà một kẻ địch thường sẽ bị bỏ qua sau khi AI bắn vào nó. */
-    private final long NORMAL_ENEMY_SHOT_EXPIRY_MS = 150; // Bỏ qua kẻ địch thường trong thời gian rất ngắn
+    private final long NORMAL_ENEMY_SHOT_EXPIRY_MS;
 
     /** Ngưỡng khoảng cách để xem xét va chạm thân tàu với địch. */
-    private final double ENEMY_PROXIMITY_THRESHOLD = 55.0;
+    private final double ENEMY_PROXIMITY_THRESHOLD;
 
     /** Vị trí Y ưa thích mà AI cố gắng duy trì ở cuối màn hình. */
     private final double AI_PREFERRED_BOTTOM_Y_POSITION;
     /** Ngưỡng sai lệch cho phép so với vị trí Y ưa thích. */
-    private final double AI_Y_POSITION_TOLERANCE = 5.0;
+    private final double AI_Y_POSITION_TOLERANCE;
     /** Hệ số xác định ngưỡng Y cao cho vật phẩm (ví dụ: 50% chiều cao màn hình). */
-    private final double POWERUP_HIGH_Y_THRESHOLD_FACTOR = 0.50;
+    private final double POWERUP_HIGH_Y_THRESHOLD_FACTOR;
     /** Điểm phạt khi vật phẩm ở vị trí quá cao. */
-    private final int POWERUP_HIGH_PENALTY = 700;
+    private final int POWERUP_HIGH_PENALTY;
 
     /**
      * Chân trời dự đoán tối thiểu (giây) để AI xem xét một viên đạn là nguy hiểm.
      * Cũng được sử dụng làm chân trời an toàn cho các di chuyển chiến thuật.
      */
-    private final double DODGE_BULLET_MIN_REACTION_WINDOW_SEC = 1.5; // Tăng tầm nhìn xa để né đạn và di chuyển chiến thuật
+    private final double DODGE_BULLET_MIN_REACTION_WINDOW_SEC;
     /** Chân trời dự đoán an toàn (giây) cho các di chuyển chiến thuật (căn bắn, lấy powerup, né thân địch). */
-    private final double TACTICAL_MOVE_SAFE_HORIZON = DODGE_BULLET_MIN_REACTION_WINDOW_SEC;
+    private final double TACTICAL_MOVE_SAFE_HORIZON;
 
     /** Ngưỡng TTI (giây) để AI thực hiện né tránh khẩn cấp đối với một viên đạn. */
-    private final double DODGE_IMMEDIATE_DODGE_THRESHOLD_SEC = 0.028; // Né tránh trở nên cực kỳ khẩn cấp chỉ khi TTI rất gần
+    private final double DODGE_IMMEDIATE_DODGE_THRESHOLD_SEC;
     /** Vùng đệm theo trục X khi phát hiện đạn có khả năng trúng người chơi. */
-    private final double DODGE_PLAYER_X_DETECTION_BUFFER = 10.0;
+    private final double DODGE_PLAYER_X_DETECTION_BUFFER;
 
     /** Hệ số dung sai khi căn chỉnh theo trục X với mục tiêu. */
-    private final double ALIGNMENT_TOLERANCE_FACTOR = 0.75;
+    private final double ALIGNMENT_TOLERANCE_FACTOR;
     /** Tốc độ di chuyển ngang giả định của người chơi (để tính toán né tránh). */
     private final double ASSUMED_PLAYER_HORIZONTAL_SPEED = Player.SPEED;
 
@@ -91,55 +111,241 @@ public class AIPlayerController {
     private final double REPOSITION_SHIFT_DISTANCE;
 
     /** Bán kính vùng an toàn xung quanh vị trí AI khi bắn. */
-    private final double FIRING_POSITION_SAFE_RADIUS = 80.0;
+    private final double FIRING_POSITION_SAFE_RADIUS;
     /** Thời gian phản ứng (giây) khi kiểm tra an toàn vị trí bắn (gần như tức thời). */
-    private final double FIRING_POSITION_REACTION_TIME = 0.00001;
+    private final double FIRING_POSITION_REACTION_TIME;
 
 
     /**
-     * Khởi tạo AIPlayerController.
-     * @param player Đối tượng Player mà AI sẽ điều khiển.
+     * Khởi tạo AIPlayerController với các ngưỡng mặc định ({@link AIParameters#DEFAULTS}).
+     * @param player Đối tượng Player mà AI sẽ điều khiển; AI chỉ lấy kích thước và vị trí ban đầu, không sửa nó.
+     * @param clock Đồng hồ mô phỏng của thế giới game.
+     * @param random Nguồn ngẫu nhiên có seed. Khi AI chạy trên luồng riêng, nguồn này không được dùng chung với luồng mô phỏng.
      * @throws IllegalArgumentException nếu player là null.
      */
-    public AIPlayerController(Player player) {
+    public AIPlayerController(Player player, GameClock clock, Random random) {
+        this(player, clock, random, AIParameters.DEFAULTS);
+    }
+
+    /**
+     * Khởi tạo AIPlayerController với bộ ngưỡng cho trước (ví dụ bộ ngưỡng tìm được bởi {@link AITuner}).
+     * @param player Đối tượng Player mà AI sẽ điều khiển; AI chỉ lấy kích thước và vị trí ban đầu, không sửa nó.
+     * @param clock Đồng hồ mô phỏng của thế giới game.
+     * @param random Nguồn ngẫu nhiên có seed. Khi AI chạy trên luồng riêng, nguồn này không được dùng chung với luồng mô phỏng.
+     * @param parameters Các ngưỡng điều chỉnh hành vi của AI.
+     * @throws IllegalArgumentException nếu player là null.
+     */
+    public AIPlayerController(Player player, GameClock clock, Random random, AIParameters parameters) {
         if (player == null) {
             throw new IllegalArgumentException("Player object cannot be null in AIPlayerController constructor");
         }
-        this.player = player;
+        this.player = new Player(player.getX(), player.getY(), clock);
+        this.random = random;
         this.AI_PREFERRED_BOTTOM_Y_POSITION = SpaceShooter.HEIGHT * 0.92 - (this.player.getHeight() / 2);
-        this.SAFE_Y_DISTANCE_ABOVE_PLAYER = this.player.getHeight() * 1.2;
-        this.SAFE_Y_DISTANCE_BELOW_PLAYER = this.player.getHeight() * 0.8;
-        this.STRATEGIC_DODGE_DISTANCE = this.player.getWidth() * 0.85;
 
-        this.MAINTAIN_SAFE_ZONE_RADIUS = 80.0;
-        this.MAINTAIN_SAFE_ZONE_HORIZON = 0.4;
-        this.REPOSITION_SHIFT_DISTANCE = player.getWidth() * 0.4;
+        this.POST_AI_SHOT_DECISION_PAUSE_MS = Math.round(parameters.postShotDecisionPauseMs());
+        this.AI_ATTEMPT_SHOOT_COOLDOWN_MS = Math.round(parameters.attemptShootCooldownMs());
+        this.NORMAL_ENEMY_SHOT_EXPIRY_MS = Math.round(parameters.normalEnemyShotExpiryMs());
+        this.ENEMY_PROXIMITY_THRESHOLD = parameters.enemyProximityThreshold();
+        this.AI_Y_POSITION_TOLERANCE = parameters.yPositionTolerance();
+        this.POWERUP_HIGH_Y_THRESHOLD_FACTOR = parameters.powerUpHighYThresholdFactor();
+        this.POWERUP_HIGH_PENALTY = (int) Math.round(parameters.powerUpHighPenalty());
+        this.DODGE_BULLET_MIN_REACTION_WINDOW_SEC = parameters.dodgeReactionWindow();
+        this.TACTICAL_MOVE_SAFE_HORIZON = DODGE_BULLET_MIN_REACTION_WINDOW_SEC;
+        this.DODGE_IMMEDIATE_DODGE_THRESHOLD_SEC = parameters.immediateDodgeThreshold();
+        this.DODGE_PLAYER_X_DETECTION_BUFFER = parameters.dodgeXDetectionBuffer();
+        this.ALIGNMENT_TOLERANCE_FACTOR = parameters.alignmentToleranceFactor();
+        this.SAFE_Y_DISTANCE_ABOVE_PLAYER = this.player.getHeight() * parameters.safeYDistanceAboveFactor();
+        this.SAFE_Y_DISTANCE_BELOW_PLAYER = this.player.getHeight() * parameters.safeYDistanceBelowFactor();
+        this.STRATEGIC_DODGE_DISTANCE = this.player.getWidth() * parameters.strategicDodgeDistanceFactor();
+
+        this.MAINTAIN_SAFE_ZONE_RADIUS = parameters.safeZoneRadius();
+        this.MAINTAIN_SAFE_ZONE_HORIZON = parameters.safeZoneHorizon();
+        this.REPOSITION_SHIFT_DISTANCE = player.getWidth() * parameters.repositionShiftFactor();
+        this.FIRING_POSITION_SAFE_RADIUS = parameters.firingPositionSafeRadius();
+        this.FIRING_POSITION_REACTION_TIME = parameters.firingPositionReactionTime();
     }
 
     /**
-     * Cập nhật logic của AI dựa trên trạng thái game hiện tại.
-     * Đây là phương thức chính điều khiển hành vi của AI mỗi frame.
-     * @param currentGameState Danh sách các đối tượng GameObject hiện có trong game.
+     * Lập kế hoạch cho một tick dựa trên một snapshot của thế giới game.
+     * Đây là phương thức chính điều khiển hành vi của AI mỗi frame. Nó chỉ đọc snapshot và
+     * trạng thái riêng của AI, nên có thể chạy trên bất kỳ luồng nào (mỗi lúc chỉ một luồng).
+     * @param snapshot Trạng thái game; AI chỉ đọc, không sửa.
+     * @return Quyết định đã đóng gói theo {@link AIIntent}, mang tick của snapshot.
      */
-    public void updateAI(List<GameObject> currentGameState) {
-        this.gameObjectsView = new ArrayList<>(currentGameState);
+    public long decide(WorldSnapshot snapshot) {
+        GameEvents.AIDecisionEvent event = new GameEvents.AIDecisionEvent();
+        event.begin();
+        prepare(snapshot);
+        buildThreatTimeline();
+        updateAI();
+        long intent = packIntent();
+        commitDecisionEvent(event, "full");
+        return intent;
+    }
+
+    /**
+     * Lập kế hoạch như {@link #decide(WorldSnapshot)} nhưng không chiếu trước mọi viên đạn vào
+     * {@link #threatTimeline}: mỗi truy vấn an toàn được giải trực tiếp bằng {@link ThreatSolver} trên
+     * các viên đạn. Kết quả gần như giống hệt (bản đồ chỉ thận trọng hơn một chút tại X lẻ), nhưng rẻ
+     * hơn khi chỉ có ít truy vấn, tức là khi không có mối đe dọa nào buộc AI phải tìm đường né.
+     * Nếu AI cần dịch chuyển tức thời, bản đồ được dựng lúc đó.
+     * @param snapshot Trạng thái game; AI chỉ đọc, không sửa.
+     * @return Quyết định đã đóng gói theo {@link AIIntent}, mang tick của snapshot.
+     */
+    public long decideLight(WorldSnapshot snapshot) {
+        GameEvents.AIDecisionEvent event = new GameEvents.AIDecisionEvent();
+        event.begin();
+        prepare(snapshot);
+        updateAI();
+        long intent = packIntent();
+        commitDecisionEvent(event, "light");
+        return intent;
+    }
+
+    /** Chiếu quỹ đạo mọi viên đạn một lần tại hàng Y ưa thích; các truy vấn an toàn sau đó chỉ tra bảng. */
+    private void buildThreatTimeline() {
+        threatTimeline.build(projectiles, AI_PREFERRED_BOTTOM_Y_POSITION, MAINTAIN_SAFE_ZONE_RADIUS,
+                DODGE_BULLET_MIN_REACTION_WINDOW_SEC);
+    }
+
+    /**
+     * Đánh giá nhanh mức độ nguy hiểm của một snapshot mà không lập kế hoạch: chỉ tìm viên đạn
+     * nguy hiểm nhất trong cửa sổ {@code reactionWindow} và mối đe dọa thân địch, không dựng
+     * bản đồ nguy hiểm. Chi phí tuyến tính theo số đạn và số kẻ địch. Dùng bởi {@link AIScheduler}
+     * để quyết định có cần lập kế hoạch đầy đủ hay không.
+     * @param snapshot Trạng thái game; AI chỉ đọc, không sửa.
+     * @param reactionWindow Cửa sổ phản ứng (cùng đơn vị với {@link #getThreateningBulletTTI()}).
+     * @return TTI của viên đạn nguy hiểm nhất ({@link Double#MAX_VALUE} nếu không có),
+     *         hoặc 0 nếu thân địch đang ở quá gần.
+     */
+    public double assessThreat(WorldSnapshot snapshot, double reactionWindow) {
+        prepare(snapshot);
+        assessThreateningBullets(reactionWindow);
+        assessProximityThreats();
+        return threateningEnemyBody >= 0 ? 0 : threateningBulletActualTTI;
+    }
+
+    /**
+     * Tầng né rẻ nhất, dùng khi lập kế hoạch đầy đủ sẽ vượt ngân sách thời gian: không dựng bản đồ
+     * nguy hiểm, không tìm mục tiêu, không bắn, không dịch chuyển tức thời. AI chỉ né ngang khỏi vị trí
+     * dự đoán của viên đạn nguy hiểm nhất (hoặc khỏi thân địch quá gần) và giữ trục Y ở vị trí ưa thích.
+     * @param snapshot Trạng thái game; AI chỉ đọc, không sửa.
+     * @param reactionWindow Cửa sổ phản ứng để tìm viên đạn cần né.
+     * @return Quyết định đã đóng gói theo {@link AIIntent}.
+     */
+    public long decideReflex(WorldSnapshot snapshot, double reactionWindow) {
+        GameEvents.AIDecisionEvent event = new GameEvents.AIDecisionEvent();
+        event.begin();
+        prepare(snapshot);
+        player.setWantsToShoot(false);
+        assessThreateningBullets(reactionWindow);
+        assessProximityThreats();
+        double awayFromX = Double.NaN;
+        if (threateningBullet >= 0) {
+            awayFromX = projectiles.getX(threateningBullet) + projectiles.getVx(threateningBullet) * threateningBulletActualTTI;
+        } else if (threateningEnemyBody >= 0) {
+            awayFromX = snapshot.getEnemyX(threateningEnemyBody);
+        }
+        if (!Double.isNaN(awayFromX)) {
+            // Né về phía ngược với mối đe dọa; nếu sát biên thì né về phía còn lại
+            boolean preferLeft = awayFromX > player.getX();
+            if (preferLeft ? canMoveLeftSafely() : !canMoveRightSafely()) {
+                player.setMoveLeft(true);
+            } else {
+                player.setMoveRight(true);
+            }
+        }
+        adjustYToPreferredPosition();
+        long intent = packIntent();
+        commitDecisionEvent(event, "reflex");
+        return intent;
+    }
+
+    /**
+     * Ghi sự kiện JFR của lượt lập kế hoạch vừa xong, chỉ khi recording đang bật sự kiện này.
+     * @param event Sự kiện đã bắt đầu ở đầu lượt.
+     * @param pipeline Tầng lập kế hoạch: full, light hoặc reflex.
+     */
+    private void commitDecisionEvent(GameEvents.AIDecisionEvent event, String pipeline) {
+        if (event.shouldCommit()) {
+            event.pipeline = pipeline;
+            event.tier = teleported ? "teleport" : strategicDodged ? "strategic dodge" : "normal";
+            event.projectiles = projectiles.size();
+            event.commit();
+        }
+    }
+
+    /**
+     * Trả về TTI của viên đạn nguy hiểm nhất tìm được trong lượt đánh giá gần nhất.
+     * @return TTI, hoặc {@link Double#MAX_VALUE} nếu không có viên đạn nào đe dọa.
+     */
+    public double getThreateningBulletTTI() {
+        return threateningBulletActualTTI;
+    }
+
+    /** Đặt {@link #player} và trạng thái của lượt mới theo snapshot. */
+    private void prepare(WorldSnapshot snapshot) {
+        this.snapshot = snapshot;
+        this.projectiles = snapshot.getProjectiles();
+        this.livesRemaining = snapshot.getLives();
+        this.now = snapshot.getMillis();
+        this.teleported = false;
+        this.strategicDodged = false;
+        threatTimeline.invalidate(); // Bản đồ của lượt trước không còn đúng với snapshot mới
+        player.setPosition(snapshot.getPlayerX(), snapshot.getPlayerY());
+        player.setWantsToShoot(snapshot.getPlayerWantsToShoot());
         player.resetMovementFlags(); // Reset các cờ di chuyển của player ở đầu mỗi lượt cập nhật AI
+    }
+
+    /** Đóng gói các cờ hiện tại của {@link #player} thành intent mang tick của snapshot. */
+    private long packIntent() {
+        int flags = 0;
+        if (player.isMoveLeftSet()) flags |= InputFlags.LEFT;
+        if (player.isMoveRightSet()) flags |= InputFlags.RIGHT;
+        if (player.isMoveForwardSet()) flags |= InputFlags.FORWARD;
+        if (player.isMoveBackwardSet()) flags |= InputFlags.BACKWARD;
+        if (player.getWantsToShoot()) flags |= InputFlags.SHOOT;
+        if (teleported) flags |= AIIntent.TELEPORT;
+        return AIIntent.pack(snapshot.getTick(), flags, player.getX());
+    }
+
+    /**
+     * Áp một quyết định của AI lên Player thật: đặt lại toàn bộ cờ di chuyển và cờ bắn,
+     * và dịch chuyển tức thời nếu quyết định có yêu cầu. Phải gọi trên luồng mô phỏng.
+     * @param intent Quyết định từ {@link #decide(WorldSnapshot)}; {@link AIIntent#NONE} thì không làm gì.
+     * @param target Player thật của thế giới game.
+     */
+    public void applyIntent(long intent, Player target) {
+        if (intent == AIIntent.NONE) {
+            return;
+        }
+        target.setMoveLeft(AIIntent.has(intent, InputFlags.LEFT));
+        target.setMoveRight(AIIntent.has(intent, InputFlags.RIGHT));
+        target.setMoveForward(AIIntent.has(intent, InputFlags.FORWARD));
+        target.setMoveBackward(AIIntent.has(intent, InputFlags.BACKWARD));
+        target.setWantsToShoot(AIIntent.has(intent, InputFlags.SHOOT));
+        if (AIIntent.has(intent, AIIntent.TELEPORT)) {
+            target.teleportTo(AIIntent.getTeleportX(intent), AI_PREFERRED_BOTTOM_Y_POSITION);
+        }
+    }
 
-        // Dọn dẹp danh sách kẻ địch thường đã bị bắn gần đây
-        long currentTimeForCleanup = System.currentTimeMillis();
-        Iterator<Map.Entry<GameObject, Long>> cleanupIterator = recentlyShotNormalEnemiesTimeStamps.entrySet().iterator();
+    /**
+     * Cập nhật logic của AI trên {@link #player} dựa trên {@link #snapshot}.
+     */
+    private void updateAI() {
+        // Dọn dẹp danh sách kẻ địch thường đã bị bắn gần đây. Kẻ địch đã chết không còn
+        // xuất hiện trong snapshot nên chỉ cần loại bỏ các mục đã hết thời gian bỏ qua.
+        Iterator<Map.Entry<Integer, Long>> cleanupIterator = recentlyShotNormalEnemiesTimeStamps.entrySet().iterator();
         while (cleanupIterator.hasNext()) {
-            Map.Entry<GameObject, Long> entry = cleanupIterator.next();
-            GameObject enemy = entry.getKey();
-            Long shotTime = entry.getValue();
-            // Loại bỏ nếu kẻ địch đã chết hoặc đã hết thời gian bỏ qua
-            if (enemy.isDead() || currentTimeForCleanup - shotTime > NORMAL_ENEMY_SHOT_EXPIRY_MS) {
+            Map.Entry<Integer, Long> entry = cleanupIterator.next();
+            if (now - entry.getValue() > NORMAL_ENEMY_SHOT_EXPIRY_MS) {
                 cleanupIterator.remove();
             }
         }
 
         // Đánh giá các mối đe dọa từ đạn và thân địch
-        assessThreateningBullets();
+        assessThreateningBullets(DODGE_BULLET_MIN_REACTION_WINDOW_SEC);
         assessProximityThreats();
 
         // Ưu tiên hàng đầu: Nếu vị trí hiện tại không an toàn trong 1.5 giây tới, thực hiện né tránh
@@ -150,12 +356,12 @@ public class AIPlayerController {
         }
 
         // Nếu AI vừa mới quyết định bắn, tạm dừng một chút (rất ngắn)
-        if (System.currentTimeMillis() - lastAIShotDecisionTime < POST_AI_SHOT_DECISION_PAUSE_MS) {
+        if (now - lastAIShotDecisionTime < POST_AI_SHOT_DECISION_PAUSE_MS) {
             player.setWantsToShoot(false); // Không muốn bắn trong lúc tạm dừng này
             // Trong lúc tạm dừng, vẫn ưu tiên né nếu có mối đe dọa cực kỳ khẩn cấp
-            if (threateningBullet != null && threateningBulletActualTTI < DODGE_IMMEDIATE_DODGE_THRESHOLD_SEC * 1.1) {
+            if (threateningBullet >= 0 && threateningBulletActualTTI < DODGE_IMMEDIATE_DODGE_THRESHOLD_SEC * 1.1) {
                 performStrategicDodge();
-            } else if (threateningEnemyBody != null) {
+            } else if (threateningEnemyBody >= 0) {
                 performEnemyBodyDodge(threateningEnemyBody);
             }
             adjustYToPreferredPosition();
@@ -164,7 +370,7 @@ public class AIPlayerController {
         player.setWantsToShoot(false); // Đảm bảo không bắn nếu không có quyết định bắn mới
 
         // Xử lý né va chạm thân địch nếu có và AI không đang di chuyển né đạn
-        if (threateningEnemyBody != null && !(player.isMoveLeftSet() || player.isMoveRightSet())) {
+        if (threateningEnemyBody >= 0 && !(player.isMoveLeftSet() || player.isMoveRightSet())) {
             performEnemyBodyDodge(threateningEnemyBody);
             if(player.isMoveLeftSet() || player.isMoveRightSet()){ // Nếu đã thực hiện né thân địch
                 adjustYToPreferredPosition();
@@ -177,8 +383,8 @@ public class AIPlayerController {
         boolean shotThisFrame = false;
         boolean isMovingXForAttack = false;
 
-        if (currentTargetEnemy != null) {
-            double desiredTargetX = currentTargetEnemy.getX();
+        if (currentTargetEnemy >= 0) {
+            double desiredTargetX = snapshot.getEnemyX(currentTargetEnemy);
             // Kiểm tra xem có cần căn chỉnh theo trục X để bắn không
             boolean needsToAlignX = Math.abs(player.getX() - desiredTargetX) > player.getWidth() * ALIGNMENT_TOLERANCE_FACTOR * 0.05;
 
@@ -207,7 +413,7 @@ public class AIPlayerController {
                 double totalTimeNeededToShootAndBeReadyToDodge =
                         timeForShotExecution + timeToReactAfterShotAndPause + safetyBufferForShooting;
 
-                boolean canShootAndStillDodgeThreat = (threateningBullet == null || threateningBulletActualTTI >= totalTimeNeededToShootAndBeReadyToDodge);
+                boolean canShootAndStillDodgeThreat = (threateningBullet < 0 || threateningBulletActualTTI >= totalTimeNeededToShootAndBeReadyToDodge);
                 // Vị trí bắn phải an toàn trong 1.5 giây tới
                 boolean currentPosClearForFiring = isZoneAroundXClear(player.getX(), AI_PREFERRED_BOTTOM_Y_POSITION, FIRING_POSITION_SAFE_RADIUS, TACTICAL_MOVE_SAFE_HORIZON);
 
@@ -215,19 +421,19 @@ public class AIPlayerController {
                 if (canShootAndStillDodgeThreat && currentPosClearForFiring) {
                     tryToShoot(); // Cố gắng bắn (kiểm tra cooldown 20ms nội bộ)
                     if (player.getWantsToShoot()) { // Nếu AI thực sự muốn bắn (cooldown đã qua)
-                        this.lastAIShotDecisionTime = System.currentTimeMillis(); // Ghi nhận thời điểm quyết định bắn
+                        this.lastAIShotDecisionTime = now; // Ghi nhận thời điểm quyết định bắn
                         shotThisFrame = true;
-                        if (currentTargetEnemy instanceof Enemy && !(currentTargetEnemy instanceof BossEnemy)) {
-                            recentlyShotNormalEnemiesTimeStamps.put(currentTargetEnemy, System.currentTimeMillis());
+                        if (!snapshot.isBoss(currentTargetEnemy)) {
+                            recentlyShotNormalEnemiesTimeStamps.put(snapshot.getEnemyId(currentTargetEnemy), now);
                         }
                     }
-                } else if (!canShootAndStillDodgeThreat && threateningBullet != null) { // Không đủ thời gian bắn và né đạn chính
+                } else if (!canShootAndStillDodgeThreat && threateningBullet >= 0) { // Không đủ thời gian bắn và né đạn chính
                     performStrategicDodge();
                     shotThisFrame = false;
                     if(player.getWantsToShoot()) player.setWantsToShoot(false);
                 } else if (!currentPosClearForFiring) { // Vị trí bắn không an toàn đủ lâu
                     // Nếu có đạn đang đe dọa, ưu tiên né nó
-                    if(threateningBullet != null) {
+                    if(threateningBullet >= 0) {
                         performStrategicDodge();
                     } else {
                         // Nếu không có đạn cụ thể nào nhưng vị trí vẫn không an toàn, cũng cố gắng né
@@ -243,22 +449,24 @@ public class AIPlayerController {
         boolean isMovingXForPowerUp = false;
         if (!isMovingXForAttack && !shotThisFrame && !(player.isMoveLeftSet() || player.isMoveRightSet())) {
             findBestPowerUpTarget();
-            if (targetPowerUp != null) {
-                boolean powerUpIsReachableY = Math.abs(targetPowerUp.getY() - AI_PREFERRED_BOTTOM_Y_POSITION) < player.getHeight() * 2.8 ||
-                        (targetPowerUp.getY() > AI_PREFERRED_BOTTOM_Y_POSITION && targetPowerUp.getY() < SpaceShooter.HEIGHT - targetPowerUp.getHeight()/2);
-                if (powerUpIsReachableY && Math.abs(targetPowerUp.getX() - player.getX()) < SpaceShooter.WIDTH / 1.8) {
+            if (targetPowerUp >= 0) {
+                double powerUpX = snapshot.getPowerUpX(targetPowerUp);
+                double powerUpY = snapshot.getPowerUpY(targetPowerUp);
+                boolean powerUpIsReachableY = Math.abs(powerUpY - AI_PREFERRED_BOTTOM_Y_POSITION) < player.getHeight() * 2.8 ||
+                        (powerUpY > AI_PREFERRED_BOTTOM_Y_POSITION && powerUpY < SpaceShooter.HEIGHT - snapshot.getPowerUpHalfHeight(targetPowerUp));
+                if (powerUpIsReachableY && Math.abs(powerUpX - player.getX()) < SpaceShooter.WIDTH / 1.8) {
                     // Di chuyển lấy vật phẩm nếu đường đi an toàn trong 1.5 giây
-                    if (isZoneAroundXClear(targetPowerUp.getX(), AI_PREFERRED_BOTTOM_Y_POSITION, MAINTAIN_SAFE_ZONE_RADIUS, TACTICAL_MOVE_SAFE_HORIZON)) {
-                        if (Math.abs(player.getX() - targetPowerUp.getX()) > player.getWidth() * 0.08) {
-                            if (player.getX() < targetPowerUp.getX()) player.setMoveRight(true);
+                    if (isZoneAroundXClear(powerUpX, AI_PREFERRED_BOTTOM_Y_POSITION, MAINTAIN_SAFE_ZONE_RADIUS, TACTICAL_MOVE_SAFE_HORIZON)) {
+                        if (Math.abs(player.getX() - powerUpX) > player.getWidth() * 0.08) {
+                            if (player.getX() < powerUpX) player.setMoveRight(true);
                             else player.setMoveLeft(true);
                             isMovingXForPowerUp = true;
                         }
                     } else {
-                        targetPowerUp = null; // Đường đi không an toàn, bỏ qua vật phẩm này
+                        targetPowerUp = -1; // Đường đi không an toàn, bỏ qua vật phẩm này
                     }
                 } else {
-                    targetPowerUp = null; // Vật phẩm quá xa hoặc không thể với tới, bỏ qua
+                    targetPowerUp = -1; // Vật phẩm quá xa hoặc không thể với tới, bỏ qua
                 }
             }
         }
@@ -303,6 +511,9 @@ public class AIPlayerController {
     /**
      * Kiểm tra xem một vùng cụ thể (tâm tại checkX, playerY với bán kính safeRadius)
      * có bị đạn địch xâm phạm trong khoảng thời gian projectionHorizon hay không.
+     * Đạn bay thẳng nên thời điểm chạm vùng được giải chính xác bằng {@link ThreatSolver}
+     * thay vì lấy mẫu quỹ đạo theo từng bước thời gian. Truy vấn tại hàng Y và bán kính của
+     * {@link #threatTimeline} được trả lời bằng cách tra bảng.
      * @param checkX Hoành độ X của tâm vùng cần kiểm tra.
      * @param playerY Tung độ Y của tâm vùng cần kiểm tra (thường là AI_PREFERRED_BOTTOM_Y_POSITION).
      * @param safeRadius Bán kính của vùng an toàn cần kiểm tra.
@@ -310,30 +521,17 @@ public class AIPlayerController {
      * @return true nếu vùng đó an toàn, false nếu có đạn dự kiến bay vào.
      */
     private boolean isZoneAroundXClear(double checkX, double playerY, double safeRadius, double projectionHorizon) {
-        for (GameObject obj : gameObjectsView) {
-            if (obj instanceof EnemyBullet && !obj.isDead()) {
-                EnemyBullet bullet = (EnemyBullet) obj;
-                // Số bước dự đoán dựa trên chân trời và một bước thời gian nhỏ (0.025s)
-                int numSteps = Math.max(1, (int) (projectionHorizon / 0.025));
-
-                for (int i = 0; i <= numSteps; i++) {
-                    double t = (numSteps == 0) ? 0.001 : ((double) i / numSteps) * projectionHorizon;
-                    if (t < 0.001 && i > 0) t = 0.001; // Đảm bảo t có giá trị dương nhỏ nếu i > 0
-
-                    // Dự đoán vị trí của đạn tại thời điểm t
-                    double predBulletX = bullet.getX() + bullet.getVx() * t;
-                    double predBulletY = bullet.getY() + bullet.getVy() * t;
-                    // Tính khoảng cách bình phương giữa vị trí dự đoán của đạn và tâm vùng kiểm tra
-                    double distanceSq = (checkX - predBulletX) * (checkX - predBulletX) +
-                            (playerY - predBulletY) * (playerY - predBulletY);
-                    // Tính tổng bán kính (vùng an toàn + nửa chiều rộng viên đạn)
-                    double combinedRadius = safeRadius + bullet.getWidth() / 2;
-
-                    // Nếu khoảng cách nhỏ hơn tổng bán kính -> va chạm dự kiến
-                    if (distanceSq < combinedRadius * combinedRadius) {
-                        return false; // Vùng không an toàn
-                    }
-                }
+        if (threatTimeline.covers(playerY, safeRadius, projectionHorizon) && checkX >= 0 && checkX <= SpaceShooter.WIDTH) {
+            return threatTimeline.isClear(checkX, projectionHorizon);
+        }
+        for (int i = 0; i < projectiles.size(); i++) {
+            if (!projectiles.isHostile(i) || projectiles.isDead(i)) continue;
+            // Tổng bán kính (vùng an toàn + nửa chiều rộng viên đạn)
+            double combinedRadius = safeRadius + projectiles.getHalfWidth(i);
+            double contactTime = ThreatSolver.circleContactTime(projectiles.getX(i), projectiles.getY(i),
+                    projectiles.getVx(i), projectiles.getVy(i), checkX, playerY, combinedRadius, projectionHorizon);
+            if (contactTime != ThreatSolver.NO_CONTACT) {
+                return false; // Vùng không an toàn
             }
         }
         return true; // Vùng an toàn
@@ -370,8 +568,8 @@ public class AIPlayerController {
             // Vị trí hiện tại không an toàn, tìm hướng né
             if (leftPosClear && rightPosClear) { // Cả hai hướng đều an toàn
                 // Ưu tiên né khỏi viên đạn nguy hiểm nhất nếu có
-                if (threateningBullet != null) {
-                    double predBulletX = threateningBullet.getX() + threateningBullet.getVx() * threateningBulletActualTTI;
+                if (threateningBullet >= 0) {
+                    double predBulletX = projectiles.getX(threateningBullet) + projectiles.getVx(threateningBullet) * threateningBulletActualTTI;
                     if (predBulletX > currentX) return -1; // Đạn bên phải, né trái
                     else return 1; // Đạn bên trái hoặc giữa, né phải
                 }
@@ -391,17 +589,18 @@ public class AIPlayerController {
      * Được gọi khi vị trí hiện tại của AI được xác định là không an toàn.
      */
     private void performStrategicDodge() {
-        EnemyBullet bulletToDodge = threateningBullet; // Ưu tiên viên đạn nguy hiểm nhất đã được xác định
+        strategicDodged = true;
+        int bulletToDodge = threateningBullet; // Ưu tiên viên đạn nguy hiểm nhất đã được xác định
         // Nếu không có đạn nguy hiểm chính hoặc nó quá xa, tìm viên đạn gần nhất có khả năng va chạm sớm
-        if (bulletToDodge == null || threateningBulletActualTTI > DODGE_IMMEDIATE_DODGE_THRESHOLD_SEC * 1.2) {
+        if (bulletToDodge < 0 || threateningBulletActualTTI > DODGE_IMMEDIATE_DODGE_THRESHOLD_SEC * 1.2) {
             bulletToDodge = findClosestBulletThreateningPosition(AI_PREFERRED_BOTTOM_Y_POSITION, DODGE_IMMEDIATE_DODGE_THRESHOLD_SEC * 1.2);
         }
 
-        // Trường hợp 1: Không xác định được viên đạn cụ thể nào gây nguy hiểm (bulletToDodge là null)
+        // Trường hợp 1: Không xác định được viên đạn cụ thể nào gây nguy hiểm (bulletToDodge là -1)
         // Điều này có thể xảy ra nếu mối nguy hiểm là do thân địch, hoặc do một viên đạn xa hơn
         // (ngoài DODGE_IMMEDIATE_DODGE_THRESHOLD_SEC) khiến isCurrentPositionSafeAndClear(1.5s) thất bại.
-        if (bulletToDodge == null) {
-            if (threateningEnemyBody != null) { // Ưu tiên né thân địch nếu có
+        if (bulletToDodge < 0) {
+            if (threateningEnemyBody >= 0) { // Ưu tiên né thân địch nếu có
                 performEnemyBodyDodge(threateningEnemyBody);
             } else {
                 // Không có đạn hay thân địch cụ thể nào gần, nhưng vị trí hiện tại không an toàn trong 1.5s.
@@ -434,7 +633,7 @@ public class AIPlayerController {
         }
 
         // Dự đoán vị trí X của viên đạn tại tầm Y của người chơi để quyết định hướng né tốt hơn
-        double predictedBulletXAtPlayerYLevel = bulletToDodge.getX() + bulletToDodge.getVx() * Math.min(threateningBulletActualTTI, 0.25);
+        double predictedBulletXAtPlayerYLevel = projectiles.getX(bulletToDodge) + projectiles.getVx(bulletToDodge) * Math.min(threateningBulletActualTTI, 0.25);
 
 
         if (idealSafeLeft || idealSafeRight) { // Nếu có ít nhất một hướng né lý tưởng
@@ -517,29 +716,20 @@ public class AIPlayerController {
         double currentX = player.getX();
         double safeHorizon = DODGE_BULLET_MIN_REACTION_WINDOW_SEC; // Yêu cầu an toàn 1.5s cho điểm đến
 
-        double searchStep = player.getWidth() * 0.20; // Bước nhảy khi tìm kiếm, ví dụ 20% chiều rộng player
+        double searchStep = player.getWidth() * 0.20; // Khoảng cách dịch chuyển tối thiểu, ví dụ 20% chiều rộng player
         double maxSearchRadius = SpaceShooter.WIDTH / 2.5; // Khoảng cách tìm kiếm tối đa
+        double halfWidth = player.getWidth() / 2.0;
 
-        for (double r = searchStep; r <= maxSearchRadius; r += searchStep) {
-            // Kiểm tra bên phải
-            double targetXRight = currentX + r;
-            if (targetXRight + player.getWidth() / 2.0 < SpaceShooter.WIDTH) { // Đảm bảo player không ra ngoài biên
-                if (isZoneAroundXClear(targetXRight, preferredY, MAINTAIN_SAFE_ZONE_RADIUS, safeHorizon)) {
-                    player.teleportTo(targetXRight, preferredY); // Giả định Player có phương thức này
-                    // System.out.println("AI Teleported Right to: " + targetXRight + " at radius " + r);
-                    return; // Đã dịch chuyển
-                }
-            }
-
-            // Kiểm tra bên trái
-            double targetXLeft = currentX - r;
-            if (targetXLeft - player.getWidth() / 2.0 > 0) { // Đảm bảo player không ra ngoài biên
-                if (isZoneAroundXClear(targetXLeft, preferredY, MAINTAIN_SAFE_ZONE_RADIUS, safeHorizon)) {
-                    player.teleportTo(targetXLeft, preferredY); // Giả định Player có phương thức này
-                    // System.out.println("AI Teleported Left to: " + targetXLeft + " at radius " + r);
-                    return; // Đã dịch chuyển
-                }
-            }
+        if (!threatTimeline.covers(preferredY, MAINTAIN_SAFE_ZONE_RADIUS, safeHorizon)) {
+            buildThreatTimeline(); // Lượt lập kế hoạch nhẹ chưa dựng bản đồ nguy hiểm
+        }
+        // Quét ra hai bên từng cột một để tìm cột gần nhất an toàn trong 1.5s (ưu tiên bên phải)
+        double targetX = threatTimeline.nearestClearColumn(currentX, safeHorizon,
+                halfWidth + 1, SpaceShooter.WIDTH - halfWidth - 1, searchStep, maxSearchRadius); // Đảm bảo player không ra ngoài biên
+        if (!Double.isNaN(targetX)) {
+            player.teleportTo(targetX, preferredY);
+            teleported = true;
+            return; // Đã dịch chuyển
         }
         // Không tìm thấy vị trí dịch chuyển an toàn trong phạm vi tìm kiếm
         // System.out.println("AI: No safe teleport spot found.");
@@ -550,43 +740,29 @@ public class AIPlayerController {
      * Tìm viên đạn gần nhất có khả năng gây nguy hiểm cho người chơi trong một chân trời phản ứng nhất định.
      * @param playerYPos Vị trí Y của người chơi.
      * @param reactionHorizon Chân trời phản ứng (giây) để tìm kiếm.
-     * @return EnemyBullet nguy hiểm nhất hoặc null nếu không có.
+     * @return Chỉ số trong kho đạn của viên đạn nguy hiểm nhất, hoặc -1 nếu không có.
      */
-    private EnemyBullet findClosestBulletThreateningPosition(double playerYPos, double reactionHorizon) {
-        EnemyBullet closestThreat = null;
+    private int findClosestBulletThreateningPosition(double playerYPos, double reactionHorizon) {
+        int closestThreat = -1;
         double minTimeToActualCollision = reactionHorizon;
         double playerCurrentX = player.getX();
-        double playerHalfWidth = player.getWidth() / 2;
-        double playerHalfHeight = player.getHeight() / 2;
-
-        for (GameObject obj : gameObjectsView) {
-            if (obj instanceof EnemyBullet && !obj.isDead()) {
-                EnemyBullet bullet = (EnemyBullet) obj;
-                double bulletHalfWidth = bullet.getWidth() / 2;
-                double bulletHalfHeight = bullet.getHeight() / 2;
-
-                for (double t = 0.01; t <= reactionHorizon; t += 0.02) {
-                    double predBulletX = bullet.getX() + bullet.getVx() * t;
-                    double predBulletY = bullet.getY() + bullet.getVy() * t;
-
-                    if (Math.abs(predBulletX - playerCurrentX) < (playerHalfWidth + bulletHalfWidth) &&
-                            Math.abs(predBulletY - playerYPos) < (playerHalfHeight + bulletHalfHeight)) {
-                        double yDiff = playerYPos - predBulletY;
-                        boolean yIsUnsafe;
-                        if (yDiff > 0) {
-                            yIsUnsafe = (yDiff < SAFE_Y_DISTANCE_ABOVE_PLAYER * 0.7);
-                        } else {
-                            yIsUnsafe = (Math.abs(yDiff) < SAFE_Y_DISTANCE_BELOW_PLAYER * 0.7);
-                        }
-                        if (yIsUnsafe) {
-                            if (t < minTimeToActualCollision) {
-                                minTimeToActualCollision = t;
-                                closestThreat = bullet;
-                            }
-                            break;
-                        }
-                    }
-                }
+        double playerHalfWidth = player.getHalfWidth();
+        double playerHalfHeight = player.getHalfHeight();
+
+        for (int i = 0; i < projectiles.size(); i++) {
+            if (!projectiles.isHostile(i) || projectiles.isDead(i)) continue;
+            double halfWidths = projectiles.getHalfWidth(i) + playerHalfWidth;
+            double halfHeights = projectiles.getHalfHeight(i) + playerHalfHeight;
+            // Đạn phải chồng lên hộp bao của người chơi và nằm trong khoảng Y nguy hiểm
+            // (phía trên tối đa SAFE_Y_DISTANCE_ABOVE_PLAYER * 0.7, phía dưới tối đa SAFE_Y_DISTANCE_BELOW_PLAYER * 0.7)
+            double minDy = -Math.min(halfHeights, SAFE_Y_DISTANCE_ABOVE_PLAYER * 0.7);
+            double maxDy = Math.min(halfHeights, SAFE_Y_DISTANCE_BELOW_PLAYER * 0.7);
+            double contactTime = ThreatSolver.boxContactTime(projectiles.getX(i), projectiles.getY(i),
+                    projectiles.getVx(i), projectiles.getVy(i), playerCurrentX, playerYPos,
+                    -halfWidths, halfWidths, minDy, maxDy, reactionHorizon);
+            if (contactTime < minTimeToActualCollision) {
+                minTimeToActualCollision = contactTime;
+                closestThreat = i;
             }
         }
         return closestThreat;
@@ -620,34 +796,38 @@ public class AIPlayerController {
 
     /**
      * Đánh giá tất cả các viên đạn của địch để xác định viên đạn nguy hiểm nhất
-     * (có TTI thấp nhất trong phạm vi DODGE_BULLET_MIN_REACTION_WINDOW_SEC).
+     * (có TTI thấp nhất trong phạm vi {@code currentReactionWindow}; lượt lập kế hoạch
+     * đầy đủ dùng DODGE_BULLET_MIN_REACTION_WINDOW_SEC).
+     * @param currentReactionWindow Cửa sổ phản ứng.
      */
-    private void assessThreateningBullets() {
-        this.threateningBullet = null;
+    private void assessThreateningBullets(double currentReactionWindow) {
+        this.threateningBullet = -1;
         this.threateningBulletActualTTI = Double.MAX_VALUE;
-        double currentReactionWindow = DODGE_BULLET_MIN_REACTION_WINDOW_SEC; // Bây giờ là 1.5 giây
 
-        for (GameObject obj : gameObjectsView) {
-            if (obj instanceof EnemyBullet && !obj.isDead()) {
-                EnemyBullet bullet = (EnemyBullet) obj;
+        for (int i = 0; i < projectiles.size(); i++) {
+            if (projectiles.isHostile(i) && !projectiles.isDead(i)) {
+                double bulletX = projectiles.getX(i);
+                double bulletY = projectiles.getY(i);
+                double bulletVx = projectiles.getVx(i);
+                double bulletVy = projectiles.getVy(i);
                 // Bỏ qua đạn bay lên nếu nó đã ở quá xa phía trên người chơi
-                if (bullet.getVy() < -0.1 && bullet.getY() > player.getY() + player.getHeight() * 1.5) {
+                if (bulletVy < -0.1 && bulletY > player.getY() + player.getHeight() * 1.5) {
                     continue;
                 }
                 double timeToImpactY = Double.MAX_VALUE;
 
                 // Tính thời gian đạn chạm đến Y của người chơi (player.getY() được coi là tâm Y)
-                if (bullet.getVy() > 0.01) { // Đạn bay xuống
-                    if (bullet.getY() < player.getY()) { // Chỉ xét nếu đạn ở trên tâm người chơi
-                        timeToImpactY = (player.getY() - bullet.getY()) / bullet.getVy();
+                if (bulletVy > 0.01) { // Đạn bay xuống
+                    if (bulletY < player.getY()) { // Chỉ xét nếu đạn ở trên tâm người chơi
+                        timeToImpactY = (player.getY() - bulletY) / bulletVy;
                     }
-                } else if (bullet.getVy() < -0.01) { // Đạn bay lên
-                    if (bullet.getY() > player.getY()) { // Chỉ xét nếu đạn ở dưới tâm người chơi
-                        timeToImpactY = (bullet.getY() - player.getY()) / (-bullet.getVy());
+                } else if (bulletVy < -0.01) { // Đạn bay lên
+                    if (bulletY > player.getY()) { // Chỉ xét nếu đạn ở dưới tâm người chơi
+                        timeToImpactY = (bulletY - player.getY()) / (-bulletVy);
                     }
                 } else { // Đạn bay ngang hoặc rất chậm theo trục Y
                     // Nếu đạn gần như cùng độ cao Y với người chơi
-                    if (Math.abs(bullet.getY() - player.getY()) < (player.getHeight() / 2 + bullet.getHeight() / 2 + 5.0)) {
+                    if (Math.abs(bulletY - player.getY()) < (player.getHeight() / 2 + projectiles.getHalfHeight(i) + 5.0)) {
                         timeToImpactY = 0.02; // Coi như là mối đe dọa Y tức thời
                     } else {
                         continue;
@@ -656,7 +836,7 @@ public class AIPlayerController {
 
                 // Nếu TTI nằm trong cửa sổ phản ứng
                 if (timeToImpactY >= 0 && timeToImpactY < currentReactionWindow) {
-                    double predictedBulletX = bullet.getX() + bullet.getVx() * timeToImpactY; // Vị trí X dự đoán của đạn
+                    double predictedBulletX = bulletX + bulletVx * timeToImpactY; // Vị trí X dự đoán của đạn
                     // Vùng phát hiện va chạm X của người chơi (có buffer)
                     double playerDetectionMinX = player.getX() - player.getWidth() / 2 - DODGE_PLAYER_X_DETECTION_BUFFER;
                     double playerDetectionMaxX = player.getX() + player.getWidth() / 2 + DODGE_PLAYER_X_DETECTION_BUFFER;
@@ -665,7 +845,7 @@ public class AIPlayerController {
                     if (predictedBulletX >= playerDetectionMinX && predictedBulletX <= playerDetectionMaxX) {
                         if (timeToImpactY < this.threateningBulletActualTTI) { // Nếu viên đạn này nguy hiểm hơn
                             this.threateningBulletActualTTI = timeToImpactY;
-                            this.threateningBullet = bullet;
+                            this.threateningBullet = i;
                         }
                     }
                 }
@@ -675,54 +855,51 @@ public class AIPlayerController {
 
     /** Tìm kẻ địch tốt nhất để tấn công dựa trên vị trí và loại (ưu tiên Boss). */
     private void findBestEnemyTargetToAttack() {
-        currentTargetEnemy = null;
+        currentTargetEnemy = -1;
         double bestScore = -Double.MAX_VALUE;
-        BossEnemy tempBossTarget = null;
+        int tempBossTarget = -1;
         final double DEEP_ENEMY_BONUS = 11000.0;
         final double VERY_DEEP_ENEMY_BONUS = 16000.0;
-        long currentTimeForTargeting = System.currentTimeMillis();
-
-        for (GameObject obj : gameObjectsView) {
-            if (obj.isDead()) continue;
-            double score = 0;
-            if (obj instanceof BossEnemy) {
-                tempBossTarget = (BossEnemy) obj;
-                continue;
-            } else if (obj instanceof Enemy) {
-                Enemy enemy = (Enemy) obj;
-
-                Long shotTimestamp = recentlyShotNormalEnemiesTimeStamps.get(enemy);
-                if (shotTimestamp != null && currentTimeForTargeting - shotTimestamp < NORMAL_ENEMY_SHOT_EXPIRY_MS) {
-                    continue; // Bỏ qua nếu vừa bắn vào kẻ địch này
-                }
 
-                score = 1000.0;
-                score -= Math.abs(player.getX() - enemy.getX()) * 2.8;
-                score -= Math.abs(AI_PREFERRED_BOTTOM_Y_POSITION - enemy.getY()) * 0.15;
-                if (enemy.getY() > SpaceShooter.HEIGHT * 0.75) score += VERY_DEEP_ENEMY_BONUS * 0.7;
-                else if (enemy.getY() > SpaceShooter.HEIGHT * 0.60) score += DEEP_ENEMY_BONUS * 0.7;
-                if (enemy.getY() < AI_PREFERRED_BOTTOM_Y_POSITION - SpaceShooter.HEIGHT * 0.70) {
-                    score -= 6000;
-                }
-            } else {
-                continue;
+        // Boss còn sống được thêm vào sau cùng là ứng viên Boss
+        if (snapshot.getEnemyCount() > snapshot.getRegularEnemyCount()) {
+            tempBossTarget = snapshot.getEnemyCount() - 1;
+        }
+
+        for (int i = 0; i < snapshot.getRegularEnemyCount(); i++) {
+            Long shotTimestamp = recentlyShotNormalEnemiesTimeStamps.get(snapshot.getEnemyId(i));
+            if (shotTimestamp != null && now - shotTimestamp < NORMAL_ENEMY_SHOT_EXPIRY_MS) {
+                continue; // Bỏ qua nếu vừa bắn vào kẻ địch này
+            }
+
+            double enemyX = snapshot.getEnemyX(i);
+            double enemyY = snapshot.getEnemyY(i);
+            double score = 1000.0;
+            score -= Math.abs(player.getX() - enemyX) * 2.8;
+            score -= Math.abs(AI_PREFERRED_BOTTOM_Y_POSITION - enemyY) * 0.15;
+            if (enemyY > SpaceShooter.HEIGHT * 0.75) score += VERY_DEEP_ENEMY_BONUS * 0.7;
+            else if (enemyY > SpaceShooter.HEIGHT * 0.60) score += DEEP_ENEMY_BONUS * 0.7;
+            if (enemyY < AI_PREFERRED_BOTTOM_Y_POSITION - SpaceShooter.HEIGHT * 0.70) {
+                score -= 6000;
             }
             if (score > bestScore) {
                 bestScore = score;
-                currentTargetEnemy = obj;
+                currentTargetEnemy = i;
             }
         }
 
-        if (tempBossTarget != null) {
+        if (tempBossTarget >= 0) {
+            double bossX = snapshot.getEnemyX(tempBossTarget);
+            double bossY = snapshot.getEnemyY(tempBossTarget);
             double bossScore = 28000.0;
-            bossScore -= Math.abs(player.getX() - tempBossTarget.getX()) * 2.2;
-            bossScore -= Math.abs(AI_PREFERRED_BOTTOM_Y_POSITION - tempBossTarget.getY()) * 0.1;
-            if (tempBossTarget.getY() > SpaceShooter.HEIGHT * 0.75) bossScore += VERY_DEEP_ENEMY_BONUS;
-            else if (tempBossTarget.getY() > SpaceShooter.HEIGHT * 0.60) bossScore += DEEP_ENEMY_BONUS;
-            if (tempBossTarget.getY() < AI_PREFERRED_BOTTOM_Y_POSITION - SpaceShooter.HEIGHT * 0.75) {
+            bossScore -= Math.abs(player.getX() - bossX) * 2.2;
+            bossScore -= Math.abs(AI_PREFERRED_BOTTOM_Y_POSITION - bossY) * 0.1;
+            if (bossY > SpaceShooter.HEIGHT * 0.75) bossScore += VERY_DEEP_ENEMY_BONUS;
+            else if (bossY > SpaceShooter.HEIGHT * 0.60) bossScore += DEEP_ENEMY_BONUS;
+            if (bossY < AI_PREFERRED_BOTTOM_Y_POSITION - SpaceShooter.HEIGHT * 0.75) {
                 bossScore -= 9000;
             }
-            if (bossScore > bestScore || currentTargetEnemy == null) {
+            if (bossScore > bestScore || currentTargetEnemy < 0) {
                 currentTargetEnemy = tempBossTarget;
             }
         }
@@ -730,67 +907,70 @@ public class AIPlayerController {
 
     /** Tìm vật phẩm tốt nhất để thu thập dựa trên loại và khoảng cách. */
     private void findBestPowerUpTarget() {
-        targetPowerUp = null;
+        targetPowerUp = -1;
         double bestScore = -Double.MAX_VALUE;
-        for (GameObject obj : gameObjectsView) {
-            if (obj instanceof PowerUp && !obj.isDead()) {
-                PowerUp pu = (PowerUp) obj;
-                double currentScore = 0;
-                switch (pu.getType()) {
-                    case SHIELD: currentScore = 1350; if(SpaceShooter.numLives <=1) currentScore +=1250; break;
-                    case TRIPLE_SHOT: currentScore = 750; break;
-                    case HEALTH_PACK:
-                        currentScore = (SpaceShooter.numLives == 1) ? 1950 :
-                                ((SpaceShooter.numLives == 2) ? 850 : 250);
-                        break;
-                }
-                currentScore -= getDistance(player.getX(), AI_PREFERRED_BOTTOM_Y_POSITION, pu.getX(), pu.getY()) * 0.8;
-                if (pu.getY() < AI_PREFERRED_BOTTOM_Y_POSITION - player.getHeight() * 3.0) {
-                    currentScore -= POWERUP_HIGH_PENALTY * 1.8;
-                } else if (pu.getY() < AI_PREFERRED_BOTTOM_Y_POSITION - player.getHeight() * 1.5) {
-                    currentScore -= POWERUP_HIGH_PENALTY * 0.6;
-                }
-                if(Math.abs(player.getX() - pu.getX()) > SpaceShooter.WIDTH * 0.40) {
-                    currentScore -= 400;
-                }
-                if (currentScore > bestScore) {
-                    boolean powerUpIsReachableY = Math.abs(pu.getY() - AI_PREFERRED_BOTTOM_Y_POSITION) < player.getHeight() * 3.0 ||
-                            (pu.getY() > AI_PREFERRED_BOTTOM_Y_POSITION && pu.getY() < SpaceShooter.HEIGHT - pu.getHeight()/2);
-                    if (powerUpIsReachableY) {
-                        bestScore = currentScore;
-                        targetPowerUp = pu;
-                    }
+        for (int i = 0; i < snapshot.getPowerUpCount(); i++) {
+            double powerUpX = snapshot.getPowerUpX(i);
+            double powerUpY = snapshot.getPowerUpY(i);
+            double currentScore = 0;
+            switch (snapshot.getPowerUpType(i)) {
+                case SHIELD: currentScore = 1350; if(livesRemaining <=1) currentScore +=1250; break;
+                case TRIPLE_SHOT: currentScore = 750; break;
+                case HEALTH_PACK:
+                    currentScore = (livesRemaining == 1) ? 1950 :
+                            ((livesRemaining == 2) ? 850 : 250);
+                    break;
+            }
+            currentScore -= getDistance(player.getX(), AI_PREFERRED_BOTTOM_Y_POSITION, powerUpX, powerUpY) * 0.8;
+            if (powerUpY < AI_PREFERRED_BOTTOM_Y_POSITION - player.getHeight() * 3.0) {
+                currentScore -= POWERUP_HIGH_PENALTY * 1.8;
+            } else if (powerUpY < AI_PREFERRED_BOTTOM_Y_POSITION - player.getHeight() * 1.5) {
+                currentScore -= POWERUP_HIGH_PENALTY * 0.6;
+            }
+            if(Math.abs(player.getX() - powerUpX) > SpaceShooter.WIDTH * 0.40) {
+                currentScore -= 400;
+            }
+            if (currentScore > bestScore) {
+                boolean powerUpIsReachableY = Math.abs(powerUpY - AI_PREFERRED_BOTTOM_Y_POSITION) < player.getHeight() * 3.0 ||
+                        (powerUpY > AI_PREFERRED_BOTTOM_Y_POSITION && powerUpY < SpaceShooter.HEIGHT - snapshot.getPowerUpHalfHeight(i));
+                if (powerUpIsReachableY) {
+                    bestScore = currentScore;
+                    targetPowerUp = i;
                 }
             }
         }
     }
 
-    /** Đánh giá mối đe dọa va chạm trực tiếp với thân tàu địch. */
+    /** Đánh giá mối đe dọa va chạm trực tiếp với thân tàu địch (kẻ địch thường trước, rồi tới Boss). */
     private void assessProximityThreats() {
-        threateningEnemyBody = null;
-        double minEffectiveDistance = Double.MAX_VALUE;
-        for (GameObject obj : gameObjectsView) {
-            if (obj instanceof Enemy && !obj.isDead()) {
-                double combinedHalfWidths = (player.getWidth() + obj.getWidth()) / 2.0;
-                double combinedHalfHeights = (player.getHeight() + obj.getHeight()) / 2.0;
-                double deltaX = Math.abs(player.getX() - obj.getX());
-                double deltaY = Math.abs(player.getY() - obj.getY());
-
-                if (deltaX < combinedHalfWidths + ENEMY_PROXIMITY_THRESHOLD * 0.4 &&
-                        deltaY < combinedHalfHeights + ENEMY_PROXIMITY_THRESHOLD * 0.4) {
-                    double effectiveDistance = Math.max(0, deltaX - combinedHalfWidths) + Math.max(0, deltaY - combinedHalfHeights);
-                    if (effectiveDistance < minEffectiveDistance) {
-                        minEffectiveDistance = effectiveDistance;
-                        threateningEnemyBody = obj;
-                    }
+        threateningEnemyBody = -1;
+        minEffectiveDistance = Double.MAX_VALUE;
+        double proximityPadding = ENEMY_PROXIMITY_THRESHOLD * 0.4;
+        for (int i = 0; i < snapshot.getEnemyCount(); i++) {
+            double enemyX = snapshot.getEnemyX(i);
+            double enemyY = snapshot.getEnemyY(i);
+            double enemyHalfWidth = snapshot.getEnemyHalfWidth(i);
+            double enemyHalfHeight = snapshot.getEnemyHalfHeight(i);
+            // Hộp bao của player được nới rộng thêm một khoảng đệm để phát hiện sớm va chạm thân tàu
+            if (GameObject.overlaps(player.getX(), player.getY(),
+                    player.getHalfWidth() + proximityPadding, player.getHalfHeight() + proximityPadding,
+                    enemyX, enemyY, enemyHalfWidth, enemyHalfHeight)) {
+                double combinedHalfWidths = player.getHalfWidth() + enemyHalfWidth;
+                double combinedHalfHeights = player.getHalfHeight() + enemyHalfHeight;
+                double deltaX = Math.abs(player.getX() - enemyX);
+                double deltaY = Math.abs(player.getY() - enemyY);
+                double effectiveDistance = Math.max(0, deltaX - combinedHalfWidths) + Math.max(0, deltaY - combinedHalfHeights);
+                if (effectiveDistance < minEffectiveDistance) {
+                    minEffectiveDistance = effectiveDistance;
+                    threateningEnemyBody = i;
                 }
             }
         }
     }
 
-    /** Thực hiện né va chạm với thân tàu địch. */
-    private void performEnemyBodyDodge(GameObject enemy) {
-        double deltaXToEnemy = player.getX() - enemy.getX();
+    /** Thực hiện né va chạm với thân tàu địch có chỉ số {@code enemy} trong snapshot. */
+    private void performEnemyBodyDodge(int enemy) {
+        double deltaXToEnemy = player.getX() - snapshot.getEnemyX(enemy);
         double dodgeOffset = STRATEGIC_DODGE_DISTANCE * 0.6;
         // Né thân địch với tầm nhìn an toàn TACTICAL_MOVE_SAFE_HORIZON (1.5s)
         if (deltaXToEnemy > 0) { // Địch ở bên trái
@@ -808,21 +988,21 @@ public class AIPlayerController {
         }
     }
 
-    /** Kiểm tra xem người chơi có đang căn chỉnh với mục tiêu không. */
-    private boolean isTargetAligned(GameObject target, double tolerance) {
-        if (target == null) return false;
-        boolean targetAbovePlayer = target.getY() < player.getY() - player.getHeight() * 0.25;
-        boolean targetInRangeY = target.getY() > player.getY() - SpaceShooter.HEIGHT * 0.90; // Mục tiêu không quá xa về phía trên
+    /** Kiểm tra xem người chơi có đang căn chỉnh với mục tiêu (chỉ số trong snapshot) không. */
+    private boolean isTargetAligned(int target, double tolerance) {
+        if (target < 0) return false;
+        double targetY = snapshot.getEnemyY(target);
+        boolean targetAbovePlayer = targetY < player.getY() - player.getHeight() * 0.25;
+        boolean targetInRangeY = targetY > player.getY() - SpaceShooter.HEIGHT * 0.90; // Mục tiêu không quá xa về phía trên
         return targetAbovePlayer && targetInRangeY &&
-                Math.abs(player.getX() - target.getX()) < tolerance;
+                Math.abs(player.getX() - snapshot.getEnemyX(target)) < tolerance;
     }
 
     /** Cố gắng thực hiện hành động bắn (nếu cooldown cho phép). */
     private void tryToShoot() {
-        long currentTime = System.currentTimeMillis();
-        if (currentTime - lastAITriedToShootTime > AI_ATTEMPT_SHOOT_COOLDOWN_MS) { // Cooldown 20ms
+        if (now - lastAITriedToShootTime > AI_ATTEMPT_SHOOT_COOLDOWN_MS) { // Cooldown 20ms
             player.setWantsToShoot(true);
-            lastAITriedToShootTime = currentTime;
+            lastAITriedToShootTime = now;
         }
     }
 
@@ -0,0 +1,200 @@
+package uet.oop.spaceshootergamejavafx.entities;
+
+/**
+ * Decides how much work an {@link AIPlayerController} does each tick, and keeps
+ * that work within a time budget.
+ * <p>
+ * Each tick takes one of three tiers:
+ * <ul>
+ *     <li><b>full</b>: the complete threat and target pipeline, which first projects
+ *         every bullet into the threat timeline
+ *         ({@link AIPlayerController#decide(WorldSnapshot)});</li>
+ *     <li><b>light</b>: while the field is calm, the full pipeline only runs every
+ *         {@code calmInterval} ticks. On the ticks in between, a linear threat scan
+ *         ({@link AIPlayerController#assessThreat(WorldSnapshot, double)}) checks that
+ *         no bullet will reach the player within {@code escalationTTI} and no enemy is
+ *         too close, and the AI plans without building the timeline
+ *         ({@link AIPlayerController#decideLight(WorldSnapshot)}). As soon as the scan
+ *         finds a threat, the full pipeline runs again every tick;</li>
+ *     <li><b>reflex</b>: the cheapest dodge tier
+ *         ({@link AIPlayerController#decideReflex(WorldSnapshot, double)}), used instead of
+ *         either of the above when it would overrun the budget.</li>
+ * </ul>
+ * The AI still decides on every tick. It changes its movement on almost every
+ * other tick even when nothing threatens it, so repeating an earlier decision on
+ * calm ticks costs far more games than it saves time.
+ * <p>
+ * The cost of every full and light decision is measured with
+ * {@link System#nanoTime()} and kept, per tier, as an average cost per projectile.
+ * Before a decision the scheduler predicts its cost for the current projectile
+ * count and degrades to the reflex tier if the prediction would exceed the budget.
+ * The estimate decays a little on every degraded tick, so the tier is tried again
+ * once the field thins out or the first, not yet compiled decisions stop
+ * dominating the average.
+ * <p>
+ * The calm and escalation rules only depend on the snapshots, so they keep a
+ * session reproducible. The budget depends on the machine; sessions in which it
+ * degraded a decision cannot be replayed (see {@link #getReflexDecisions()}).
+ */
+public class AIScheduler implements AIPlanner {
+
+    /** Property holding the calm interval, in ticks. */
+    public static final String CALM_INTERVAL_PROPERTY = "spaceshooter.ai.calmInterval";
+    /** Property holding the budget per decision, in microseconds; 0 means unlimited. */
+    public static final String BUDGET_PROPERTY = "spaceshooter.ai.budgetMicros";
+
+    /** A full decision every third tick while nothing threatens the player. */
+    public static final int DEFAULT_CALM_INTERVAL = 3;
+    /**
+     * Time to impact under which the AI plans fully every tick, in the unit of
+     * {@link AIPlayerController#getThreateningBulletTTI()} (ticks of bullet travel).
+     */
+    public static final double DEFAULT_ESCALATION_TTI = 45.0;
+    /** No budget: the planned tier always runs. */
+    public static final long UNLIMITED_BUDGET = 0;
+
+    /** Weight of the newest measurement in the cost averages. */
+    private static final double COST_SMOOTHING = 0.2;
+    /** Factor applied to a cost estimate on every tick it was degraded. */
+    private static final double COST_DECAY = 0.97;
+
+    private final AIPlayerController controller;
+    private final int calmInterval;
+    private final double escalationTTI;
+    private final long budgetNanos;
+
+    /** Set when the next decision must be full: at start and after a reflex. */
+    private boolean fullDecisionDue = true;
+    private int ticksSinceFullDecision;
+    /** Average cost per projectile (plus one) of each tier, in nanoseconds; 0 until measured. */
+    private double fullNanosPerProjectile;
+    private double lightNanosPerProjectile;
+
+    private long fullDecisions;
+    private long lightDecisions;
+    private long reflexDecisions;
+    private long totalNanos;
+    private long maxNanos;
+
+    /**
+     * Creates a scheduler.
+     *
+     * @param controller    AI to schedule
+     * @param calmInterval  ticks between full decisions while calm; 1 plans fully every tick
+     * @param escalationTTI time to impact under which every tick gets a full decision
+     * @param budgetMicros  time budget per decision in microseconds, or {@link #UNLIMITED_BUDGET}
+     */
+    public AIScheduler(AIPlayerController controller, int calmInterval, double escalationTTI, long budgetMicros) {
+        if (calmInterval < 1 || budgetMicros < 0) {
+            throw new IllegalArgumentException("calmInterval must be positive and budgetMicros not negative");
+        }
+        this.controller = controller;
+        this.calmInterval = calmInterval;
+        this.escalationTTI = escalationTTI;
+        this.budgetNanos = budgetMicros * 1000;
+    }
+
+    /**
+     * Makes the decision for one snapshot, choosing the tier as described above.
+     *
+     * @param snapshot world state to plan on
+     * @return packed {@link AIIntent}
+     */
+    @Override
+    public long decide(WorldSnapshot snapshot) {
+        long start = System.nanoTime();
+        boolean full = fullDecisionDue || ticksSinceFullDecision + 1 >= calmInterval
+                || controller.assessThreat(snapshot, escalationTTI) < escalationTTI;
+        int weight = snapshot.getProjectiles().size() + 1;
+        double estimate = full ? fullNanosPerProjectile : lightNanosPerProjectile;
+        long intent;
+        if (budgetNanos != UNLIMITED_BUDGET && System.nanoTime() - start + estimate * weight > budgetNanos) {
+            intent = controller.decideReflex(snapshot, escalationTTI);
+            if (full) {
+                fullNanosPerProjectile *= COST_DECAY;
+            } else {
+                lightNanosPerProjectile *= COST_DECAY;
+            }
+            fullDecisionDue = true;
+            reflexDecisions++;
+        } else {
+            long planStart = System.nanoTime();
+            intent = full ? controller.decide(snapshot) : controller.decideLight(snapshot);
+            double measured = (double) (System.nanoTime() - planStart) / weight;
+            if (full) {
+                fullNanosPerProjectile = smooth(fullNanosPerProjectile, measured);
+                fullDecisionDue = false;
+                ticksSinceFullDecision = 0;
+                fullDecisions++;
+            } else {
+                lightNanosPerProjectile = smooth(lightNanosPerProjectile, measured);
+                ticksSinceFullDecision++;
+                lightDecisions++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        totalNanos += elapsed;
+        maxNanos = Math.max(maxNanos, elapsed);
+        return intent;
+    }
+
+    private static double smooth(double average, double measured) {
+        return average == 0 ? measured : average + COST_SMOOTHING * (measured - average);
+    }
+
+    /**
+     * Applies a decision to the real player. See {@link AIPlayerController#applyIntent(long, Player)}.
+     *
+     * @param intent decision from {@link #decide(WorldSnapshot)}
+     * @param target player of the world
+     */
+    @Override
+    public void applyIntent(long intent, Player target) {
+        controller.applyIntent(intent, target);
+    }
+
+    public AIPlayerController getController() {
+        return controller;
+    }
+
+    public long getFullDecisions() {
+        return fullDecisions;
+    }
+
+    public long getLightDecisions() {
+        return lightDecisions;
+    }
+
+    /**
+     * Returns how many decisions were degraded to the reflex tier because of the budget.
+     *
+     * @return degraded decisions
+     */
+    public long getReflexDecisions() {
+        return reflexDecisions;
+    }
+
+    /**
+     * Returns whether the budget has never degraded a decision.
+     *
+     * @return true if no decision took the reflex tier
+     */
+    @Override
+    public boolean isReproducible() {
+        return reflexDecisions == 0;
+    }
+
+    /**
+     * Builds a one-line report of the tiers taken and the time spent.
+     *
+     * @return decision counts and mean/max cost per decision
+     */
+    @Override
+    public String report() {
+        long decisions = fullDecisions + lightDecisions + reflexDecisions;
+        double meanMicros = decisions == 0 ? 0 : totalNanos / 1000.0 / decisions;
+        return String.format("AI scheduler: %d full, %d light, %d reflex; %.1f us mean, %.1f us max per decision%s",
+                fullDecisions, lightDecisions, reflexDecisions, meanMicros, maxNanos / 1000.0,
+                budgetNanos == UNLIMITED_BUDGET ? "" : " (budget " + budgetNanos / 1000 + " us)");
+    }
+}
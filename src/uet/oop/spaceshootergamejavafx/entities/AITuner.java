@@ -0,0 +1,230 @@
+package uet.oop.spaceshootergamejavafx.entities;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Evolutionary optimizer for {@link AIParameters}.
+ * <p>
+ * Every candidate parameter set plays the same seeded headless games
+ * ({@link BatchRunner#playGame(long)}). Its fitness is the mean of
+ * {@code score + WIN_BONUS * won - LIFE_PENALTY * livesLost} over those games.
+ * Each generation keeps the best candidates unchanged, and breeds the rest by
+ * tournament selection, uniform crossover and Gaussian mutation within each
+ * component's bounds. The first generation is the defaults plus mutated copies
+ * of them.
+ * <p>
+ * All games of a generation, every candidate times every seed, go to one
+ * {@link ForkJoinPool} as independent tasks. Games share no mutable state, so the
+ * pool stays busy until the generation's last game. The design expects throughput
+ * to grow with the number of cores, but that has not been measured; comparing the
+ * games per second logged for each generation across values of {@code threads}
+ * shows how it scales on a given machine. Candidates carried over unchanged keep
+ * their fitness and are not played again. A run is reproducible from its tuner seed.
+ * <p>
+ * The best parameter set found is written as a properties file that the game and
+ * {@link BatchRunner} read through {@value AIParameters#PARAMETERS_PROPERTY}.
+ * <p>
+ * Usage: {@code AITuner [generations] [population] [games] [output] [threads] [baseSeed] [tunerSeed]}
+ */
+public class AITuner {
+
+    /** File the best parameter set is written to unless another one is given. */
+    public static final String DEFAULT_OUTPUT = "ai-parameters.properties";
+
+    /** Fitness bonus of a won game. */
+    private static final double WIN_BONUS = 500;
+    /** Fitness penalty per life lost. */
+    private static final double LIFE_PENALTY = 100;
+
+    /** Candidates copied unchanged into the next generation. */
+    private static final int ELITE_COUNT = 2;
+    private static final int TOURNAMENT_SIZE = 3;
+    /** Chance of each component to mutate, and the mutation size as a fraction of its range. */
+    private static final double MUTATION_RATE = 0.2;
+    private static final double MUTATION_SIGMA = 0.05;
+    /** Larger mutations used to spread the first generation around the defaults. */
+    private static final double INITIAL_SIGMA = 0.1;
+
+    /**
+     * A parameter set with the results of its games.
+     *
+     * @param parameters parameter set
+     * @param fitness    mean fitness over the games
+     * @param wins       games won
+     * @param meanScore  mean final score
+     */
+    public record Candidate(AIParameters parameters, double fitness, int wins, double meanScore) {
+    }
+
+    private final int parallelism;
+    private final int populationSize;
+    private final long[] seeds;
+    private final long maxTicks;
+    private final Random random;
+
+    /**
+     * Creates a tuner.
+     *
+     * @param parallelism    number of worker threads
+     * @param populationSize candidates per generation, more than {@link #ELITE_COUNT}
+     * @param games          games played by every candidate
+     * @param baseSeed       seed of the first game; the games use consecutive seeds
+     * @param maxTicks       tick limit per game
+     * @param tunerSeed      seed of the selection, crossover and mutation decisions
+     */
+    public AITuner(int parallelism, int populationSize, int games, long baseSeed, long maxTicks, long tunerSeed) {
+        if (parallelism <= 0 || populationSize <= ELITE_COUNT || games <= 0 || maxTicks <= 0) {
+            throw new IllegalArgumentException("parallelism, games and maxTicks must be positive and populationSize above "
+                    + ELITE_COUNT);
+        }
+        this.parallelism = parallelism;
+        this.populationSize = populationSize;
+        this.seeds = new long[games];
+        for (int i = 0; i < games; i++) {
+            seeds[i] = baseSeed + i;
+        }
+        this.maxTicks = maxTicks;
+        this.random = new Random(tunerSeed);
+    }
+
+    /**
+     * Runs the optimizer.
+     *
+     * @param generations number of generations
+     * @param log         receives one progress line per generation
+     * @return best candidate found, at least as fit as the defaults
+     */
+    public Candidate run(int generations, PrintStream log) {
+        Assets.setHeadless(true);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<AIParameters> offspring = new ArrayList<>(populationSize);
+            offspring.add(AIParameters.DEFAULTS);
+            while (offspring.size() < populationSize) {
+                offspring.add(mutate(AIParameters.DEFAULTS.toArray(), 1.0, INITIAL_SIGMA));
+            }
+            List<Candidate> population = new ArrayList<>();
+            for (int generation = 1; generation <= generations; generation++) {
+                long start = System.nanoTime();
+                population.addAll(evaluate(pool, offspring));
+                population.sort(Comparator.comparingDouble(Candidate::fitness).reversed());
+                long elapsed = System.nanoTime() - start;
+
+                Candidate best = population.get(0);
+                double meanFitness = population.stream().mapToDouble(Candidate::fitness).average().orElse(0);
+                log.printf("Generation %d: best %.1f (%d/%d wins, score %.1f), mean %.1f; %d games in %.1f s (%.1f games/s)%n",
+                        generation, best.fitness(), best.wins(), seeds.length, best.meanScore(), meanFitness,
+                        offspring.size() * seeds.length, elapsed / 1e9, offspring.size() * seeds.length / (elapsed / 1e9));
+
+                if (generation == generations) {
+                    break;
+                }
+                List<Candidate> elite = new ArrayList<>(population.subList(0, ELITE_COUNT));
+                offspring = new ArrayList<>(populationSize - ELITE_COUNT);
+                while (offspring.size() < populationSize - ELITE_COUNT) {
+                    double[] child = crossover(select(population), select(population));
+                    offspring.add(mutate(child, MUTATION_RATE, MUTATION_SIGMA));
+                }
+                population = elite;
+            }
+            return population.get(0);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Plays every seed with every parameter set, all as separate tasks on the pool.
+     */
+    private List<Candidate> evaluate(ForkJoinPool pool, List<AIParameters> candidates) {
+        List<List<ForkJoinTask<BatchRunner.GameResult>>> tasks = new ArrayList<>(candidates.size());
+        for (AIParameters parameters : candidates) {
+            BatchRunner runner = new BatchRunner(1, maxTicks, parameters);
+            List<ForkJoinTask<BatchRunner.GameResult>> games = new ArrayList<>(seeds.length);
+            for (long seed : seeds) {
+                games.add(pool.submit(() -> runner.playGame(seed)));
+            }
+            tasks.add(games);
+        }
+        List<Candidate> evaluated = new ArrayList<>(candidates.size());
+        for (int c = 0; c < candidates.size(); c++) {
+            double totalFitness = 0;
+            long totalScore = 0;
+            int wins = 0;
+            for (ForkJoinTask<BatchRunner.GameResult> task : tasks.get(c)) {
+                BatchRunner.GameResult result = task.join();
+                totalFitness += fitness(result);
+                totalScore += result.score();
+                if (result.won()) wins++;
+            }
+            evaluated.add(new Candidate(candidates.get(c), totalFitness / seeds.length, wins,
+                    (double) totalScore / seeds.length));
+        }
+        return evaluated;
+    }
+
+    private static double fitness(BatchRunner.GameResult result) {
+        return result.score() + (result.won() ? WIN_BONUS : 0) - LIFE_PENALTY * result.livesLost();
+    }
+
+    private double[] select(List<Candidate> population) {
+        Candidate best = null;
+        for (int i = 0; i < TOURNAMENT_SIZE; i++) {
+            Candidate entrant = population.get(random.nextInt(population.size()));
+            if (best == null || entrant.fitness() > best.fitness()) {
+                best = entrant;
+            }
+        }
+        return best.parameters().toArray();
+    }
+
+    private double[] crossover(double[] a, double[] b) {
+        double[] child = Arrays.copyOf(a, a.length);
+        for (int i = 0; i < child.length; i++) {
+            if (random.nextBoolean()) {
+                child[i] = b[i];
+            }
+        }
+        return child;
+    }
+
+    private AIParameters mutate(double[] genes, double rate, double sigma) {
+        for (int i = 0; i < genes.length; i++) {
+            if (random.nextDouble() < rate) {
+                double low = AIParameters.lowerBound(i);
+                double high = AIParameters.upperBound(i);
+                genes[i] = Math.max(low, Math.min(high, genes[i] + random.nextGaussian() * sigma * (high - low)));
+            }
+        }
+        return AIParameters.fromArray(genes);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int generations = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int population = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int games = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+        Path output = Paths.get(args.length > 3 ? args[3] : DEFAULT_OUTPUT);
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        long baseSeed = args.length > 5 ? Long.parseLong(args[5]) : 1L;
+        long tunerSeed = args.length > 6 ? Long.parseLong(args[6]) : 1L;
+
+        // The entities log a message on every hit; keep them out of the log
+        GameLog.setLevel(GameLog.Level.WARN);
+        PrintStream out = System.out;
+        Candidate best = new AITuner(threads, population, games, baseSeed, BatchRunner.DEFAULT_MAX_TICKS, tunerSeed)
+                .run(generations, out);
+        best.parameters().store(output, String.format("AITuner: fitness %.1f, %d/%d wins, mean score %.1f over seeds %d-%d",
+                best.fitness(), best.wins(), games, best.meanScore(), baseSeed, baseSeed + games - 1));
+        out.println("Best parameters written to " + output.toAbsolutePath());
+    }
+}
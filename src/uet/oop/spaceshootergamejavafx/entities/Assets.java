@@ -0,0 +1,245 @@
+package uet.oop.spaceshootergamejavafx.entities;
+
+import javafx.scene.image.Image;
+import javafx.scene.media.AudioClip;
+
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Central registry for sprites and sound clips.
+ * Every resource is decoded at most once and the same instance is shared by all
+ * entities that use it, so spawning an enemy or power-up no longer decodes an image.
+ * {@link #preload()} loads everything up front at startup; resources requested
+ * before that are loaded lazily on first use. A resource that fails to load is
+ * remembered as missing and reported as {@code null}, so callers keep their
+ * existing fallback rendering.
+ * <p>
+ * Entities draw {@link Sprite}s from {@link #getSprite(String)}. {@link #preload()}
+ * packs the static sprites into one {@link SpriteAtlas}, after which their sprites
+ * are regions of its texture; the animated boss GIF keeps its own image.
+ * <p>
+ * Shared instances must be treated as read-only: play clips with
+ * {@link AudioClip#play(double)} instead of changing their volume.
+ * <p>
+ * Headless simulations (see {@link GameWorld}) call {@link #setHeadless(boolean)} so
+ * that no image or media resource is touched at all and every lookup returns {@code null}.
+ */
+public final class Assets {
+
+    public static final String PLAYER_SPRITE = "/player.png";
+    public static final String ENEMY_SPRITE = "/enemy.png";
+    public static final String BOSS_SPRITE = "/boss.gif";
+    public static final String POWERUP_SPRITE = "/powerup.png";
+    public static final String POWERUP_SHIELD_SPRITE = "/powerup_shield.gif";
+    public static final String POWERUP_TRIPLE_SHOT_SPRITE = "/powerup_tripleshot.png";
+    public static final String BACKGROUND = "/back_ground2.jpg";
+
+    public static final String PLAYER_SHOOT_SOUND = "/player_shoot.wav";
+    public static final String ENEMY_EXPLOSION_SOUND = "/enemy_explosion.wav";
+    public static final String BOSS_DEFEATED_SOUND = "/boss_defeated.mp3";
+    public static final String POWERUP_COLLECT_SOUND = "/powerup_collect.mp3";
+
+    private static final String[] IMAGES = {
+            PLAYER_SPRITE, ENEMY_SPRITE, BOSS_SPRITE, POWERUP_SPRITE,
+            POWERUP_SHIELD_SPRITE, POWERUP_TRIPLE_SHOT_SPRITE, BACKGROUND
+    };
+
+    /** Sprites packed into the atlas. {@link #BOSS_SPRITE} is animated and stays out. */
+    private static final String[] ATLAS_SPRITES = {
+            PLAYER_SPRITE, ENEMY_SPRITE, POWERUP_SPRITE, POWERUP_SHIELD_SPRITE, POWERUP_TRIPLE_SHOT_SPRITE
+    };
+
+    private static final String[] CLIPS = {
+            PLAYER_SHOOT_SOUND, ENEMY_EXPLOSION_SOUND, BOSS_DEFEATED_SOUND, POWERUP_COLLECT_SOUND
+    };
+
+    private static final Map<String, Optional<Image>> images = new ConcurrentHashMap<>();
+    private static final Map<String, Optional<AudioClip>> clips = new ConcurrentHashMap<>();
+    private static final Map<String, Optional<Sprite>> sprites = new ConcurrentHashMap<>();
+    private static volatile SpriteAtlas atlas;
+
+    /** Load statistics, in load order. */
+    private static final List<String> loadLog = new ArrayList<>();
+    private static long totalLoadNanos;
+    private static long totalBytes;
+
+    /** When true, nothing is loaded and every lookup returns null. */
+    private static volatile boolean headless;
+
+    private Assets() {
+    }
+
+    /**
+     * Switches headless mode on or off. In headless mode no resource is loaded,
+     * which avoids the JavaFX imaging and media runtimes on machines without a display.
+     *
+     * @param enabled true to disable all loading
+     */
+    public static void setHeadless(boolean enabled) {
+        headless = enabled;
+    }
+
+    /**
+     * Loads every known sprite and clip and packs the sprite atlas. Safe to call
+     * more than once.
+     */
+    public static void preload() {
+        for (String path : IMAGES) {
+            getImage(path);
+        }
+        for (String path : CLIPS) {
+            getClip(path);
+        }
+        buildAtlas();
+    }
+
+    private static synchronized void buildAtlas() {
+        if (headless || atlas != null) {
+            return;
+        }
+        Map<String, Image> packed = new LinkedHashMap<>();
+        for (String path : ATLAS_SPRITES) {
+            Image image = getImage(path);
+            if (image != null) {
+                packed.put(path, image);
+            }
+        }
+        if (packed.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        SpriteAtlas built = SpriteAtlas.pack(packed);
+        for (String path : packed.keySet()) {
+            sprites.put(path, Optional.of(built.get(path)));
+        }
+        atlas = built;
+        Image texture = built.getTexture();
+        record(String.format("atlas %.0fx%.0f, %d sprites", texture.getWidth(), texture.getHeight(), built.size()),
+                System.nanoTime() - start, (long) texture.getWidth() * (long) texture.getHeight() * 4, true);
+    }
+
+    /**
+     * Returns the shared sprite for an image resource: a region of the atlas once
+     * {@link #preload()} has packed it, or the whole image otherwise.
+     *
+     * @param path classpath resource path, e.g. {@link #ENEMY_SPRITE}
+     * @return the sprite, or {@code null} if the image could not be loaded
+     */
+    public static Sprite getSprite(String path) {
+        if (headless) {
+            return null;
+        }
+        return sprites.computeIfAbsent(path, p -> Optional.ofNullable(getImage(p)).map(Sprite::of)).orElse(null);
+    }
+
+    /**
+     * Returns the sprite atlas.
+     *
+     * @return the atlas, or {@code null} before {@link #preload()} or in headless mode
+     */
+    public static SpriteAtlas getAtlas() {
+        return atlas;
+    }
+
+    /**
+     * Returns the shared image for a resource path, loading it on first use.
+     *
+     * @param path classpath resource path, e.g. {@link #ENEMY_SPRITE}
+     * @return the decoded image, or {@code null} if it could not be loaded
+     */
+    public static Image getImage(String path) {
+        if (headless) {
+            return null;
+        }
+        return images.computeIfAbsent(path, Assets::loadImage).orElse(null);
+    }
+
+    /**
+     * Returns the shared audio clip for a resource path, loading it on first use.
+     *
+     * @param path classpath resource path, e.g. {@link #PLAYER_SHOOT_SOUND}
+     * @return the clip, or {@code null} if it could not be loaded
+     */
+    public static AudioClip getClip(String path) {
+        if (headless) {
+            return null;
+        }
+        return clips.computeIfAbsent(path, Assets::loadClip).orElse(null);
+    }
+
+    /**
+     * Builds a multi-line report with the load time and approximate memory footprint
+     * of every resource loaded so far. Image footprint is the decoded ARGB size of one
+     * frame; clip footprint is the size of the encoded resource.
+     *
+     * @return load report
+     */
+    public static synchronized String report() {
+        StringBuilder sb = new StringBuilder("Assets: ")
+                .append(loadLog.size()).append(" loaded in ")
+                .append(String.format("%.1f ms", totalLoadNanos / 1e6)).append(", ~")
+                .append(totalBytes / 1024).append(" KiB");
+        for (String line : loadLog) {
+            sb.append(System.lineSeparator()).append("  ").append(line);
+        }
+        return sb.toString();
+    }
+
+    private static Optional<Image> loadImage(String path) {
+        long start = System.nanoTime();
+        Image image = null;
+        try (InputStream stream = Assets.class.getResourceAsStream(path)) {
+            if (stream != null) {
+                image = new Image(stream);
+                if (image.isError()) {
+                    System.err.println("Không thể load ảnh " + path + ": " + image.getException());
+                    image = null;
+                }
+            } else {
+                System.err.println("Không tìm thấy " + path);
+            }
+        } catch (Exception e) {
+            System.err.println("Không thể load ảnh " + path + ": " + e.getMessage());
+            image = null;
+        }
+        long bytes = image == null ? 0 : (long) image.getWidth() * (long) image.getHeight() * 4;
+        record(path, System.nanoTime() - start, bytes, image != null);
+        return Optional.ofNullable(image);
+    }
+
+    private static Optional<AudioClip> loadClip(String path) {
+        long start = System.nanoTime();
+        AudioClip clip = null;
+        long bytes = 0;
+        try {
+            URL url = Assets.class.getResource(path);
+            if (url != null) {
+                clip = new AudioClip(url.toExternalForm());
+                URLConnection connection = url.openConnection();
+                bytes = Math.max(0, connection.getContentLengthLong());
+                connection.getInputStream().close();
+            } else {
+                System.err.println("Không tìm thấy " + path);
+            }
+        } catch (Exception e) {
+            System.err.println("Không thể load âm thanh " + path + ": " + e.getMessage());
+            clip = null;
+        }
+        record(path, System.nanoTime() - start, bytes, clip != null);
+        return Optional.ofNullable(clip);
+    }
+
+    private static synchronized void record(String path, long nanos, long bytes, boolean ok) {
+        totalLoadNanos += nanos;
+        totalBytes += bytes;
+        loadLog.add(String.format("%-28s %7.2f ms %8d B%s", path, nanos / 1e6, bytes, ok ? "" : " (missing)"));
+    }
+}
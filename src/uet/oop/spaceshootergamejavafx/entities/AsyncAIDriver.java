@@ -0,0 +1,153 @@
+package uet.oop.spaceshootergamejavafx.entities;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs an {@link AIPlanner} on a worker thread so that expensive decisions never
+ * hold up the simulation or the renderer.
+ * <p>
+ * Every tick the simulation thread {@link #publish(GameWorld) publishes} a
+ * {@link WorldSnapshot} through a {@link SnapshotExchange} and wakes the worker.
+ * The worker plans against the latest snapshot and posts the resulting
+ * {@link AIIntent} to a single-slot mailbox, overwriting any decision that was
+ * never picked up. The simulation thread {@link #applyLatestIntent(Player, long)
+ * takes} the newest decision before it moves the player; when the worker has not
+ * finished yet, the player keeps following the previous decision.
+ * <p>
+ * The age of each applied decision, in ticks between the snapshot it was planned
+ * on and the tick it steers, is recorded and summarized by {@link #report()}.
+ * <p>
+ * Decisions depend on thread timing, so a session steered by this driver cannot be
+ * replayed tick for tick.
+ */
+public class AsyncAIDriver {
+
+    private final AIPlanner planner;
+    private final SnapshotExchange exchange = new SnapshotExchange();
+    private final AtomicLong mailbox = new AtomicLong(AIIntent.NONE);
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    // Staleness statistics, simulation thread only
+    private long decisionsApplied;
+    private long ticksWithoutDecision;
+    private long lastStaleness;
+    private long maxStaleness;
+    private long totalStaleness;
+
+    /**
+     * Creates a driver and starts its worker thread.
+     *
+     * @param planner AI to run; from now on it must only be used by the worker, which
+     *                closes it when the driver is closed
+     */
+    public AsyncAIDriver(AIPlanner planner) {
+        this.planner = planner;
+        this.worker = new Thread(this::runWorker, "ai-planner");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    private void runWorker() {
+        while (running) {
+            WorldSnapshot snapshot = exchange.acquireLatest();
+            if (snapshot == null) {
+                LockSupport.park(this);
+                continue;
+            }
+            mailbox.set(planner.decide(snapshot));
+        }
+        planner.close();
+    }
+
+    /**
+     * Captures the current state of the world and hands it to the worker.
+     * Must be called on the simulation thread.
+     *
+     * @param world world to capture
+     */
+    public void publish(GameWorld world) {
+        exchange.getWriteBuffer().capture(world);
+        exchange.publish();
+        LockSupport.unpark(worker);
+    }
+
+    /**
+     * Applies the newest decision posted since the last call, if any, and records
+     * how old it is. Must be called on the simulation thread.
+     *
+     * @param player      player to steer
+     * @param currentTick tick about to be simulated
+     * @return true if a new decision was applied
+     */
+    public boolean applyLatestIntent(Player player, long currentTick) {
+        long intent = mailbox.getAndSet(AIIntent.NONE);
+        if (intent == AIIntent.NONE) {
+            ticksWithoutDecision++;
+            return false;
+        }
+        long staleness = AIIntent.getAge(intent, currentTick);
+        decisionsApplied++;
+        lastStaleness = staleness;
+        maxStaleness = Math.max(maxStaleness, staleness);
+        totalStaleness += staleness;
+        planner.applyIntent(intent, player);
+        return true;
+    }
+
+    /**
+     * Returns the planner run by the worker. Its counters are written by the
+     * worker thread, so they are only approximate while it runs.
+     *
+     * @return AI planner
+     */
+    public AIPlanner getPlanner() {
+        return planner;
+    }
+
+    /**
+     * Returns how many ticks old the last applied decision was.
+     *
+     * @return staleness of the last decision, in ticks
+     */
+    public long getLastStaleness() {
+        return lastStaleness;
+    }
+
+    /**
+     * Returns the largest staleness of any applied decision.
+     *
+     * @return maximum staleness, in ticks
+     */
+    public long getMaxStaleness() {
+        return maxStaleness;
+    }
+
+    /**
+     * Returns the mean staleness of the applied decisions.
+     *
+     * @return mean staleness in ticks, or 0 if none was applied
+     */
+    public double getMeanStaleness() {
+        return decisionsApplied == 0 ? 0 : (double) totalStaleness / decisionsApplied;
+    }
+
+    /**
+     * Stops the worker thread. Decisions still in flight are discarded.
+     */
+    public void close() {
+        running = false;
+        LockSupport.unpark(worker);
+    }
+
+    /**
+     * Builds a one-line staleness report.
+     *
+     * @return decision count, ticks without a new decision and staleness statistics
+     */
+    public String report() {
+        return String.format("Async AI: %d decisions, %d ticks without a new one, staleness last %d / mean %.2f / max %d ticks",
+                decisionsApplied, ticksWithoutDecision, lastStaleness, getMeanStaleness(), maxStaleness);
+    }
+}
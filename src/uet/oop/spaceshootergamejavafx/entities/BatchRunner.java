@@ -0,0 +1,166 @@
+package uet.oop.spaceshootergamejavafx.entities;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Plays many complete AI-controlled games headless and in parallel, and reports
+ * aggregate results. Every game gets its own {@link GameWorld} seeded from
+ * {@code baseSeed + index}, so a batch can be repeated and a single game can be
+ * replayed by its seed. Games are distributed over a {@link ForkJoinPool}.
+ * <p>
+ * Usage: {@code BatchRunner [games] [baseSeed] [threads] [maxTicks]}; with
+ * {@code -D}{@value LookaheadPlanner#LOOKAHEAD_PROPERTY}{@code =true} the games are
+ * played by the {@link LookaheadPlanner}, searching on the game's own thread, and {@code -D}{@value AIParameters#PARAMETERS_PROPERTY}
+ * {@code =<file>} plays the reactive AI with the thresholds from that file.
+ */
+public class BatchRunner {
+
+    /** Default tick limit per game: 30 minutes of play at 60 ticks per second. */
+    public static final long DEFAULT_MAX_TICKS = 30L * 60 * FixedTimestep.DEFAULT_TICK_RATE;
+
+    /**
+     * Outcome of one simulated game.
+     *
+     * @param seed      seed the world was created with
+     * @param score     final score
+     * @param wave      wave reached
+     * @param livesLost lives lost during the game
+     * @param ticks     ticks survived
+     * @param won       true if all final bosses were defeated
+     */
+    public record GameResult(long seed, int score, int wave, int livesLost, long ticks, boolean won) {
+    }
+
+    private final int parallelism;
+    private final long maxTicks;
+    private final AIParameters parameters;
+
+    /**
+     * Creates a runner that plays with the default AI thresholds.
+     *
+     * @param parallelism number of worker threads
+     * @param maxTicks    tick limit after which an unfinished game is stopped
+     */
+    public BatchRunner(int parallelism, long maxTicks) {
+        this(parallelism, maxTicks, AIParameters.DEFAULTS);
+    }
+
+    /**
+     * Creates a runner.
+     *
+     * @param parallelism number of worker threads
+     * @param maxTicks    tick limit after which an unfinished game is stopped
+     * @param parameters  thresholds of the reactive AI
+     */
+    public BatchRunner(int parallelism, long maxTicks, AIParameters parameters) {
+        if (parallelism <= 0 || maxTicks <= 0) {
+            throw new IllegalArgumentException("parallelism and maxTicks must be positive");
+        }
+        this.parallelism = parallelism;
+        this.maxTicks = maxTicks;
+        this.parameters = parameters;
+    }
+
+    /**
+     * Plays {@code games} games with seeds {@code baseSeed} to {@code baseSeed + games - 1}.
+     *
+     * @param games    number of games to play
+     * @param baseSeed seed of the first game
+     * @return results in seed order
+     */
+    public List<GameResult> run(int games, long baseSeed) {
+        Assets.setHeadless(true);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<ForkJoinTask<GameResult>> tasks = new ArrayList<>(games);
+            for (int i = 0; i < games; i++) {
+                long seed = baseSeed + i;
+                tasks.add(pool.submit(() -> playGame(seed)));
+            }
+            List<GameResult> results = new ArrayList<>(games);
+            for (ForkJoinTask<GameResult> task : tasks) {
+                results.add(task.join());
+            }
+            return results;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Plays one AI-controlled game to the end or to the tick limit.
+     *
+     * @param seed seed for the game's world
+     * @return outcome of the game
+     */
+    public GameResult playGame(long seed) {
+        GameWorld world = new GameWorld(seed, new GameWorld.Listener() { });
+        world.setAIControlled(true);
+        world.setLookaheadAI(Boolean.getBoolean(LookaheadPlanner.LOOKAHEAD_PROPERTY));
+        world.setLookaheadParallelism(1); // Games already run one per core; more threads would race the deadline
+        world.setAIParameters(parameters);
+        world.setExplosionsEnabled(false);
+        while (!world.isGameOver() && world.getTickCount() < maxTicks) {
+            world.tick();
+        }
+        world.getAIPlanner().close();
+        return new GameResult(seed, world.getScore(), world.getWaveNumber(),
+                world.getLivesLost(), world.getTickCount(), world.isGameWon());
+    }
+
+    /**
+     * Builds a summary of a batch.
+     *
+     * @param results     results of the batch
+     * @param elapsedNanos wall-clock duration of the batch
+     * @return multi-line report
+     */
+    public static String report(List<GameResult> results, long elapsedNanos) {
+        int games = results.size();
+        if (games == 0) {
+            return "No games played.";
+        }
+        long totalScore = 0;
+        long totalLivesLost = 0;
+        long totalTicks = 0;
+        int wins = 0;
+        int minScore = Integer.MAX_VALUE;
+        int maxScore = Integer.MIN_VALUE;
+        int[] waves = new int[4];
+        for (GameResult r : results) {
+            totalScore += r.score();
+            totalLivesLost += r.livesLost();
+            totalTicks += r.ticks();
+            if (r.won()) wins++;
+            minScore = Math.min(minScore, r.score());
+            maxScore = Math.max(maxScore, r.score());
+            waves[Math.max(1, Math.min(3, r.wave()))]++;
+        }
+        double seconds = elapsedNanos / 1e9;
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Games: %d in %.2f s (%.0f games/min, %.0f ticks/s)%n",
+                games, seconds, games / seconds * 60, totalTicks / seconds));
+        sb.append(String.format("Wins: %d (%.1f%%)%n", wins, 100.0 * wins / games));
+        sb.append(String.format("Score: mean %.1f, min %d, max %d%n", (double) totalScore / games, minScore, maxScore));
+        sb.append(String.format("Wave reached: 1=%d, 2=%d, 3=%d%n", waves[1], waves[2], waves[3]));
+        sb.append(String.format("Lives lost: mean %.2f%n", (double) totalLivesLost / games));
+        sb.append(String.format("Ticks survived: mean %.0f%n", (double) totalTicks / games));
+        return sb.toString();
+    }
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        long baseSeed = args.length > 1 ? Long.parseLong(args[1]) : 1L;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long maxTicks = args.length > 3 ? Long.parseLong(args[3]) : DEFAULT_MAX_TICKS;
+
+        // The entities log a message on every hit; keep them out of the report
+        GameLog.setLevel(GameLog.Level.WARN);
+        long start = System.nanoTime();
+        List<GameResult> results = new BatchRunner(threads, maxTicks, AIParameters.fromSystemProperties()).run(games, baseSeed);
+        System.out.print(report(results, System.nanoTime() - start));
+    }
+}
@@ -1,12 +1,7 @@
 package uet.oop.spaceshootergamejavafx.entities;
 
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.image.Image;
 import javafx.scene.paint.Color;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
 import java.util.Random;
 
 /**
@@ -23,7 +18,7 @@ public class BossEnemy extends Enemy {
     /** Chiều cao mặc định của Boss. */
     public static final double HEIGHT = 100;
 
-    private Image sprite;
+    private Sprite sprite;
 
     // Các hằng số điều chỉnh hành vi và thuộc tính của Boss
     private static final double ADJ_BASE_HORIZONTAL_SPEED = 1.0;
@@ -58,13 +53,13 @@ public class BossEnemy extends Enemy {
     private int stateTimer; // Bộ đếm thời gian cho trạng thái hiện tại
 
     private Random random;
-    /** Danh sách các viên đạn do Boss này bắn ra. */
-    protected List<EnemyBullet> bullets;
     /** Cooldown giữa các lần bắn. */
     protected int shootCooldown;
 
     private Player targetPlayer; // Mục tiêu của Boss (thường là người chơi)
     private boolean isStationary; // Boss có đứng yên hay không
+    private final ProjectileStore projectiles; // Kho đạn chung nhận đạn do Boss bắn ra
+    private final int emitterId; // Mã định danh của Boss trong kho đạn, dùng để xóa đạn khi Boss chết
 
     /**
      * Khởi tạo một đối tượng BossEnemy.
@@ -73,8 +68,10 @@ public class BossEnemy extends Enemy {
      * @param y            Vị trí ban đầu theo trục Y (tâm).
      * @param targetPlayer Đối tượng Player mà Boss sẽ nhắm tới.
      * @param isStationary True nếu Boss đứng yên, false nếu Boss di chuyển.
+     * @param projectiles  Kho đạn chung của thế giới game, nơi Boss sinh đạn.
+     * @param random       Nguồn ngẫu nhiên có seed của thế giới game.
      */
-    public BossEnemy(double x, double y, Player targetPlayer, boolean isStationary) {
+    public BossEnemy(double x, double y, Player targetPlayer, boolean isStationary, ProjectileStore projectiles, Random random) {
         super(x, y); // Gọi constructor của lớp cha (Enemy)
         this.width = BossEnemy.WIDTH; // Ghi đè kích thước từ lớp cha
         this.height = BossEnemy.HEIGHT;
@@ -84,10 +81,11 @@ public class BossEnemy extends Enemy {
 
         this.targetPlayer = targetPlayer;
         this.isStationary = isStationary;
+        this.projectiles = projectiles;
+        this.emitterId = projectiles.nextEmitterId();
 
         this.angle = 0;
-        this.random = new Random();
-        this.bullets = new ArrayList<>();
+        this.random = random;
 
         if (!this.isStationary) {
             this.state = MovementState.ZIGZAG; // Trạng thái di chuyển ban đầu
@@ -106,19 +104,13 @@ public class BossEnemy extends Enemy {
         this.stateTimer = 0;
         this.shootCooldown = ADJ_SHOOT_INTERVAL / 2; // Bắn lần đầu nhanh hơn một chút
 
-        this.sprite = null;
-        try {
-            // Tải ảnh sprite cho Boss
-            this.sprite = new Image(getClass().getResourceAsStream("/boss.gif"));
-        } catch (Exception e) {
-            System.err.println("Không thể load sprite cho Boss: " + e.getMessage());
-            e.printStackTrace();
-        }
+        // Sprite dùng chung, chỉ giải mã một lần trong Assets
+        this.sprite = Assets.getSprite(Assets.BOSS_SPRITE);
     }
 
     /**
      * Cập nhật trạng thái của Boss mỗi frame.
-     * Bao gồm di chuyển, bắn đạn, và cập nhật đạn của Boss.
+     * Bao gồm di chuyển và bắn đạn; đạn đã bắn do {@link ProjectileStore} cập nhật.
      */
     @Override
     public void update() {
@@ -170,19 +162,6 @@ public class BossEnemy extends Enemy {
             shootCooldown = ADJ_SHOOT_INTERVAL; // Reset cooldown
         }
 
-        // Cập nhật và xóa đạn của Boss nếu chúng ra khỏi màn hình hoặc đã "chết"
-        if (this.bullets != null) {
-            Iterator<EnemyBullet> iter = bullets.iterator();
-            while (iter.hasNext()) {
-                EnemyBullet bullet = iter.next();
-                bullet.update();
-                if (bullet.isDead() || bullet.getY() > SpaceShooter.HEIGHT + bullet.getHeight() || bullet.getY() < -bullet.getHeight() * 2 ||
-                        bullet.getX() > SpaceShooter.WIDTH + bullet.getWidth() || bullet.getX() < -bullet.getWidth() * 2) {
-                    iter.remove();
-                }
-            }
-        }
-
         // Kiểm tra nếu Boss di chuyển ra khỏi màn hình (phía dưới)
         if (!isStationary) {
             if (y + height / 2 < 0) y = -height / 2 + 1; // Đảm bảo không bị kẹt ở mép trên
@@ -229,14 +208,14 @@ public class BossEnemy extends Enemy {
 
         double spawnBulletCenterX = this.x;
         double spawnBulletCenterY = this.y;
-        Color salvoColor; // Màu cho loạt đạn này
+        byte salvoColor; // Màu cho loạt đạn này
 
         // Chọn màu ngẫu nhiên cho loạt đạn
         int colorChoice = random.nextInt(3);
         switch (colorChoice) {
-            case 0: salvoColor = Color.LIMEGREEN; break;
-            case 1: salvoColor = Color.RED; break;
-            default: salvoColor = Color.DEEPSKYBLUE;
+            case 0: salvoColor = ProjectileStore.COLOR_LIMEGREEN; break;
+            case 1: salvoColor = ProjectileStore.COLOR_RED; break;
+            default: salvoColor = ProjectileStore.COLOR_DEEPSKYBLUE;
         }
 
         // Chọn một viên đạn ngẫu nhiên trong loạt để nhắm vào người chơi
@@ -267,28 +246,27 @@ public class BossEnemy extends Enemy {
                 speedX = Math.cos(angleRad) * ADJ_BOSS_BULLET_SPEED;
                 speedY = Math.sin(angleRad) * ADJ_BOSS_BULLET_SPEED;
             }
-            EnemyBullet bullet = new EnemyBullet(spawnBulletCenterX, spawnBulletCenterY, speedX, speedY, salvoColor, true); // true = isBossBullet
-            this.bullets.add(bullet);
+            projectiles.spawnBossBullet(spawnBulletCenterX, spawnBulletCenterY, speedX, speedY, salvoColor, emitterId);
         }
     }
 
     /**
      * Vẽ Boss và thanh máu của nó lên màn hình.
-     * @param gc Đối tượng GraphicsContext để vẽ.
+     * Mỗi phần của thanh máu nằm ở một lớp riêng của hàng đợi để luôn được vẽ đúng thứ tự.
+     * @param queue Hàng đợi lệnh vẽ của frame.
      */
     @Override
-    public void render(GraphicsContext gc) {
+    public void render(RenderQueue queue) {
         if (isDead()) { // Nếu Boss đã chết, không vẽ gì cả
             return;
         }
 
         // Vẽ sprite của Boss
         if (sprite != null) {
-            gc.drawImage(sprite, x - width/2, y - height/2, width, height);
+            queue.drawSprite(RenderQueue.LAYER_BODIES, sprite, x - width/2, y - height/2, width, height);
         } else {
             // Vẽ hình chữ nhật màu tím đậm thay thế nếu không load được sprite
-            gc.setFill(Color.rgb(128, 0, 128, 0.8));
-            gc.fillRect(x - width/2, y - height/2, width, height);
+            queue.fillRect(RenderQueue.LAYER_BODIES, Color.rgb(128, 0, 128, 0.8), x - width/2, y - height/2, width, height);
         }
 
         // Vẽ thanh máu của Boss (chỉ khi Boss còn sống và ở trong tầm nhìn)
@@ -301,8 +279,8 @@ public class BossEnemy extends Enemy {
             double healthBarY_abs = (this.y - this.height / 2) - healthBarOffsetY - healthBarHeight; // Vẽ phía trên Boss
 
             // Vẽ nền thanh máu (màu xám đậm)
-            gc.setFill(Color.rgb(80, 80, 80, 0.9));
-            gc.fillRect(healthBarX_abs, healthBarY_abs, healthBarActualWidth, healthBarHeight);
+            queue.fillRect(RenderQueue.LAYER_BAR_BACKGROUNDS, Color.rgb(80, 80, 80, 0.9),
+                    healthBarX_abs, healthBarY_abs, healthBarActualWidth, healthBarHeight);
 
             // Vẽ phần máu hiện tại
             double currentHealthPercentage = (double)this.health / MAX_HEALTH;
@@ -310,22 +288,15 @@ public class BossEnemy extends Enemy {
             double currentHealthWidth = currentHealthPercentage * healthBarActualWidth;
 
             // Chọn màu cho thanh máu dựa trên phần trăm máu còn lại
-            if (currentHealthPercentage > 0.6) gc.setFill(Color.LIMEGREEN);
-            else if (currentHealthPercentage > 0.3) gc.setFill(Color.YELLOW);
-            else gc.setFill(Color.RED);
-            gc.fillRect(healthBarX_abs, healthBarY_abs, currentHealthWidth, healthBarHeight);
+            Color healthColor;
+            if (currentHealthPercentage > 0.6) healthColor = Color.LIMEGREEN;
+            else if (currentHealthPercentage > 0.3) healthColor = Color.YELLOW;
+            else healthColor = Color.RED;
+            queue.fillRect(RenderQueue.LAYER_BARS, healthColor, healthBarX_abs, healthBarY_abs, currentHealthWidth, healthBarHeight);
 
             // Vẽ viền cho thanh máu
-            gc.setStroke(Color.rgb(200,200,200,0.9));
-            gc.setLineWidth(1.5);
-            gc.strokeRect(healthBarX_abs, healthBarY_abs, healthBarActualWidth, healthBarHeight);
-        }
-
-        // Vẽ đạn của Boss
-        if (this.bullets != null) {
-            for (EnemyBullet bullet : bullets) {
-                bullet.render(gc);
-            }
+            queue.strokeRect(RenderQueue.LAYER_OUTLINES, Color.rgb(200,200,200,0.9), 1.5,
+                    healthBarX_abs, healthBarY_abs, healthBarActualWidth, healthBarHeight);
         }
     }
 
@@ -347,9 +318,7 @@ public class BossEnemy extends Enemy {
             this.shootCooldown = Integer.MAX_VALUE; // Ngăn Boss bắn thêm
 
             // Xóa tất cả đạn hiện tại của Boss để tránh đạn "ma"
-            if(this.bullets != null) {
-                this.bullets.clear();
-            }
+            releaseBullets();
             // Việc xóa Boss khỏi danh sách gameObjects và cộng điểm sẽ được xử lý bởi lớp SpaceShooter.
         }
     }
@@ -373,9 +342,11 @@ public class BossEnemy extends Enemy {
     public int getHealth() { return health; }
 
     /**
-     * Lấy danh sách các viên đạn đang hoạt động của Boss.
-     * @return Danh sách các đối tượng EnemyBullet.
+     * Xóa tất cả đạn còn lại của Boss khỏi kho đạn chung.
+     * Được gọi khi Boss chết hoặc khi Boss bị loại khỏi game.
      */
-    public List<EnemyBullet> getBullets() { return this.bullets; }
+    public void releaseBullets() {
+        projectiles.killEmitter(emitterId);
+    }
     // Phương thức isDead() và setDead(boolean) được kế thừa từ lớp Enemy (GameObject).
 }
\ No newline at end of file
@@ -1,9 +1,6 @@
 package uet.oop.spaceshootergamejavafx.entities;
 
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.image.Image;
 import javafx.scene.paint.Color;
-import java.util.List;
 
 /**
  * Represents an enemy object in the Space Shooter game.
@@ -17,14 +14,17 @@ public class Enemy extends GameObject {
     /** Height of the enemy hitbox. */
     protected static final int HEIGHT = 40;
 
-    /** Vertical movement speed of the enemy. */
-    public static double SPEED = 0.5;
+    /** Default vertical movement speed of an enemy, in pixels per tick. */
+    public static final double DEFAULT_SPEED = 0.5;
+
+    /** Vertical movement speed of this enemy. */
+    private double speed = DEFAULT_SPEED;
 
     /** Indicates whether the enemy is dead and should be removed. */
     private boolean dead;
 
     /** Sprite image for the enemy. */
-    private Image sprite;
+    private Sprite sprite;
 
     /** Flag to track if the enemy has fired its initial shot. */
     private boolean initialShotFired = false;
@@ -38,13 +38,25 @@ public class Enemy extends GameObject {
     public Enemy(double x, double y) {
         super(x, y, WIDTH, HEIGHT);
         this.dead = false;
+        this.sprite = Assets.getSprite(Assets.ENEMY_SPRITE);
+    }
 
-        try {
-            sprite = new Image(getClass().getResourceAsStream("/enemy.png"));
-        } catch (Exception e) {
-            System.err.println("Không thể load enemy sprite!");
-            sprite = null;
-        }
+    /**
+     * Returns the vertical movement speed of this enemy.
+     *
+     * @return speed in pixels per tick
+     */
+    public double getSpeed() {
+        return speed;
+    }
+
+    /**
+     * Sets the vertical movement speed of this enemy.
+     *
+     * @param speed speed in pixels per tick
+     */
+    public void setSpeed(double speed) {
+        this.speed = speed;
     }
 
     /**
@@ -52,22 +64,21 @@ public class Enemy extends GameObject {
      */
     @Override
     public void update() {
-        this.y += SPEED;
+        this.y += speed;
     }
 
     /**
      * Renders the enemy on the canvas.
      * If the sprite is not available, renders a red rectangle instead.
      *
-     * @param gc the GraphicsContext to draw on
+     * @param queue the render queue to draw into
      */
     @Override
-    public void render(GraphicsContext gc) {
+    public void render(RenderQueue queue) {
         if (sprite != null) {
-            gc.drawImage(sprite, x - WIDTH / 2, y - HEIGHT / 2, WIDTH, HEIGHT);
+            queue.drawSprite(RenderQueue.LAYER_BODIES, sprite, x - WIDTH / 2, y - HEIGHT / 2, WIDTH, HEIGHT);
         } else {
-            gc.setFill(Color.RED);
-            gc.fillRect(x - WIDTH / 2, y - HEIGHT / 2, WIDTH, HEIGHT);
+            queue.fillRect(RenderQueue.LAYER_BODIES, Color.RED, x - WIDTH / 2, y - HEIGHT / 2, WIDTH, HEIGHT);
         }
     }
 
@@ -111,13 +122,12 @@ public class Enemy extends GameObject {
     }
 
     /**
-     * Makes the enemy shoot a bullet and adds it to the game objects list.
+     * Makes the enemy shoot a bullet straight down.
      *
-     * @param newObjects the list to add the new bullet to
+     * @param projectiles the projectile store to spawn the bullet into
      */
-    public void shoot(List<GameObject> newObjects) {
-        EnemyBullet bullet = new EnemyBullet(this.x, this.y + HEIGHT / 2);
-        newObjects.add(bullet);
+    public void shoot(ProjectileStore projectiles) {
+        projectiles.spawnEnemyBullet(this.x, this.y + HEIGHT / 2);
     }
 
     /**
@@ -0,0 +1,173 @@
+package uet.oop.spaceshootergamejavafx.entities;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * The game objects of a world, kept both in one list in render order and in
+ * dense per-type buckets: regular enemies, bosses and power-ups. An object is
+ * classified once when it is added, so the passes that only care about one kind
+ * of entity (enemy shooting, the collision broad phase, out-of-bounds checks,
+ * AI targeting) iterate their bucket instead of filtering every object with
+ * {@code instanceof} each tick.
+ * <p>
+ * Bullets are not registered here; they live in the {@link ProjectileStore}.
+ * Explosion particles live in {@link ProceduralExplosion}.
+ * <p>
+ * All lists are exposed read-only. Objects are only removed by
+ * {@link #removeDead(Consumer)}, which keeps the relative order of every list.
+ */
+public class EntityRegistry {
+
+    private final List<GameObject> all = new ArrayList<>();
+    private final List<Enemy> enemies = new ArrayList<>();
+    private final List<BossEnemy> bosses = new ArrayList<>();
+    private final List<PowerUp> powerUps = new ArrayList<>();
+
+    private final List<GameObject> allView = Collections.unmodifiableList(all);
+    private final List<Enemy> enemiesView = Collections.unmodifiableList(enemies);
+    private final List<BossEnemy> bossesView = Collections.unmodifiableList(bosses);
+    private final List<PowerUp> powerUpsView = Collections.unmodifiableList(powerUps);
+
+    /** Last id handed out by {@link #add(GameObject)}; not reset by {@link #clear()}. */
+    private int lastEntityId;
+
+    /**
+     * Adds an object at the end of the render order and to its bucket, and gives it
+     * a new entity id.
+     *
+     * @param obj object to add
+     */
+    public void add(GameObject obj) {
+        obj.setEntityId(++lastEntityId);
+        all.add(obj);
+        if (obj instanceof BossEnemy) {
+            bosses.add((BossEnemy) obj);
+        } else if (obj instanceof Enemy) {
+            enemies.add((Enemy) obj);
+        } else if (obj instanceof PowerUp) {
+            powerUps.add((PowerUp) obj);
+        }
+    }
+
+    /**
+     * Adds objects in order.
+     *
+     * @param objects objects to add
+     */
+    public void addAll(List<? extends GameObject> objects) {
+        for (int i = 0; i < objects.size(); i++) {
+            add(objects.get(i));
+        }
+    }
+
+    /**
+     * Removes every dead object from all lists in one linear pass per list.
+     * Survivors are shifted down in place, so the relative order of every list is
+     * kept and each object moves at most once, however many objects die in the
+     * same tick.
+     *
+     * @param onRemoved called once for each removed object, in render order; it must
+     *                  not add objects to or remove objects from this registry
+     */
+    public void removeDead(Consumer<GameObject> onRemoved) {
+        int size = all.size();
+        int write = 0;
+        for (int read = 0; read < size; read++) {
+            GameObject obj = all.get(read);
+            if (obj.isDead()) {
+                onRemoved.accept(obj);
+            } else {
+                if (write != read) {
+                    all.set(write, obj);
+                }
+                write++;
+            }
+        }
+        truncate(all, write);
+        removeDeadFrom(enemies);
+        removeDeadFrom(bosses);
+        removeDeadFrom(powerUps);
+    }
+
+    private static <T extends GameObject> void removeDeadFrom(List<T> bucket) {
+        int size = bucket.size();
+        int write = 0;
+        for (int read = 0; read < size; read++) {
+            T obj = bucket.get(read);
+            if (!obj.isDead()) {
+                if (write != read) {
+                    bucket.set(write, obj);
+                }
+                write++;
+            }
+        }
+        truncate(bucket, write);
+    }
+
+    /**
+     * Drops the tail of a list. Only the removed elements are touched.
+     */
+    private static void truncate(List<?> list, int newSize) {
+        if (newSize < list.size()) {
+            list.subList(newSize, list.size()).clear();
+        }
+    }
+
+    /**
+     * Removes every object.
+     */
+    public void clear() {
+        all.clear();
+        enemies.clear();
+        bosses.clear();
+        powerUps.clear();
+    }
+
+    /**
+     * Returns every object, including the player, in render order.
+     *
+     * @return read-only list of all objects
+     */
+    public List<GameObject> getAll() {
+        return allView;
+    }
+
+    /**
+     * Returns the regular enemies, in spawn order. Bosses are not included.
+     *
+     * @return read-only list of regular enemies
+     */
+    public List<Enemy> getEnemies() {
+        return enemiesView;
+    }
+
+    /**
+     * Returns the bosses, in spawn order.
+     *
+     * @return read-only list of bosses
+     */
+    public List<BossEnemy> getBosses() {
+        return bossesView;
+    }
+
+    /**
+     * Returns the power-ups, in spawn order.
+     *
+     * @return read-only list of power-ups
+     */
+    public List<PowerUp> getPowerUps() {
+        return powerUpsView;
+    }
+
+    /**
+     * Returns the number of registered objects.
+     *
+     * @return object count
+     */
+    public int size() {
+        return all.size();
+    }
+}
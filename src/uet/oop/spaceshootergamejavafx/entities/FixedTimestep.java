@@ -0,0 +1,155 @@
+package uet.oop.spaceshootergamejavafx.entities;
+
+/**
+ * Fixed-step accumulator that decouples simulation ticks from the render pulse.
+ * Each frame, {@link #advance(long)} adds the elapsed real time to an accumulator
+ * and returns how many whole simulation steps are due. The remainder is exposed
+ * as {@link #getAlpha()} so rendering can interpolate between the previous and
+ * current tick. When a frame falls far behind (e.g. after a stall), the number of
+ * catch-up steps is clamped and the excess time is dropped instead of spiralling.
+ * <p>
+ * All per-tick speeds in the game were tuned for 60 updates per second, which is the
+ * default rate. It can be overridden with the {@value #TICK_RATE_PROPERTY} system property.
+ */
+public class FixedTimestep {
+
+    /** System property holding the tick rate in ticks per second. */
+    public static final String TICK_RATE_PROPERTY = "spaceshooter.tickRate";
+
+    /** Tick rate the game's per-tick constants were designed for. */
+    public static final int DEFAULT_TICK_RATE = 60;
+
+    /** Maximum number of simulation steps run for a single rendered frame. */
+    public static final int DEFAULT_MAX_STEPS_PER_FRAME = 5;
+
+    /** Simulation steps per second. */
+    private final int ticksPerSecond;
+
+    /** Length of one simulation step, in nanoseconds. */
+    private final long stepNanos;
+
+    /** Catch-up limit per frame. */
+    private final int maxStepsPerFrame;
+
+    /** Timestamp of the previous frame, or -1 before the first frame. */
+    private long lastFrameNanos = -1;
+
+    /** Real time not yet consumed by simulation steps. */
+    private long accumulatorNanos;
+
+    /** Total number of steps skipped because of the catch-up limit. */
+    private long droppedSteps;
+
+    /**
+     * Creates a timestep with the given rate and catch-up limit.
+     *
+     * @param ticksPerSecond   simulation steps per second
+     * @param maxStepsPerFrame maximum steps returned by one call to {@link #advance(long)}
+     */
+    public FixedTimestep(int ticksPerSecond, int maxStepsPerFrame) {
+        if (ticksPerSecond <= 0 || maxStepsPerFrame <= 0) {
+            throw new IllegalArgumentException("ticksPerSecond and maxStepsPerFrame must be positive");
+        }
+        this.ticksPerSecond = ticksPerSecond;
+        this.stepNanos = 1_000_000_000L / ticksPerSecond;
+        this.maxStepsPerFrame = maxStepsPerFrame;
+    }
+
+    /**
+     * Creates a timestep using the tick rate from {@value #TICK_RATE_PROPERTY},
+     * falling back to {@link #DEFAULT_TICK_RATE} when it is missing or invalid.
+     *
+     * @return configured timestep
+     */
+    public static FixedTimestep fromSystemProperties() {
+        int rate = DEFAULT_TICK_RATE;
+        String value = System.getProperty(TICK_RATE_PROPERTY);
+        if (value != null) {
+            try {
+                rate = Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid " + TICK_RATE_PROPERTY + ": " + value);
+            }
+            if (rate <= 0) {
+                rate = DEFAULT_TICK_RATE;
+            }
+        }
+        return new FixedTimestep(rate, DEFAULT_MAX_STEPS_PER_FRAME);
+    }
+
+    /**
+     * Accounts for the time elapsed since the previous frame and returns the number
+     * of simulation steps to run now. The first call after construction or
+     * {@link #reset()} only records the timestamp and returns 0.
+     *
+     * @param nowNanos current time in nanoseconds, e.g. the AnimationTimer timestamp
+     * @return number of steps to run, between 0 and the catch-up limit
+     */
+    public int advance(long nowNanos) {
+        if (lastFrameNanos < 0) {
+            lastFrameNanos = nowNanos;
+            return 0;
+        }
+        long delta = nowNanos - lastFrameNanos;
+        lastFrameNanos = nowNanos;
+        if (delta > 0) {
+            accumulatorNanos += delta;
+        }
+
+        long due = accumulatorNanos / stepNanos;
+        int steps = (int) Math.min(due, maxStepsPerFrame);
+        accumulatorNanos -= steps * stepNanos;
+        if (due > steps) {
+            // Too far behind: drop the whole steps we cannot catch up on, keep the fraction
+            droppedSteps += due - steps;
+            accumulatorNanos %= stepNanos;
+        }
+        return steps;
+    }
+
+    /**
+     * Returns how far the render time lies between the last completed step and
+     * the next one, for interpolating positions.
+     *
+     * @return interpolation factor in [0, 1)
+     */
+    public double getAlpha() {
+        return (double) accumulatorNanos / stepNanos;
+    }
+
+    /**
+     * Forgets the previous frame time and any accumulated time, e.g. when the game
+     * starts or resumes from pause, so the pause does not turn into a burst of steps.
+     */
+    public void reset() {
+        lastFrameNanos = -1;
+        accumulatorNanos = 0;
+    }
+
+    /**
+     * Returns the number of simulation steps per second.
+     *
+     * @return tick rate
+     */
+    public int getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+
+    /**
+     * Returns the length of one simulation step.
+     *
+     * @return step length in nanoseconds
+     */
+    public long getStepNanos() {
+        return stepNanos;
+    }
+
+    /**
+     * Returns the total number of steps dropped by the catch-up limit.
+     *
+     * @return dropped steps
+     */
+    public long getDroppedSteps() {
+        return droppedSteps;
+    }
+}
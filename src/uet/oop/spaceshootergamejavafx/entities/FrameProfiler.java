@@ -0,0 +1,356 @@
+package uet.oop.spaceshootergamejavafx.entities;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+
+import java.util.Arrays;
+
+/**
+ * Times the phases of every frame and shows their distribution in an on-canvas
+ * overlay.
+ * <p>
+ * The front end and {@link GameWorld#tick()} mark phase boundaries with
+ * {@link #begin()} and {@link #end(Phase)}, both {@link System#nanoTime()}
+ * readings. Time is added up per phase over all ticks of a frame, and
+ * {@link #endFrame(GameWorld)} pushes the totals into one preallocated ring buffer
+ * per phase, holding the last {@code capacity} frames.
+ * <p>
+ * While the overlay is visible, the p50, p99 and maximum of every phase and of the
+ * whole frame are recomputed every {@link #REFRESH_FRAMES} frames, together with
+ * the entity counts by type. Percentiles are found by selection in a preallocated
+ * scratch array. Measuring, selecting and drawing allocate nothing. The overlay
+ * text is composed in one reused buffer, and a line becomes a new string only when
+ * a value it shows has changed since the last refresh; the other lines, and the
+ * overlay revision, stay as they are.
+ */
+public class FrameProfiler {
+
+    /**
+     * Timed phases: the numbered steps of {@link GameWorld#tick()} plus the work the
+     * front end does around it.
+     */
+    public enum Phase {
+        DIFFICULTY("difficulty"),
+        BACKGROUND("background"),
+        UPDATE("entity update"),
+        AI("AI"),
+        SHOOTING("shooting"),
+        SPAWNING("spawning"),
+        WAVES("wave management"),
+        COLLISIONS("collisions"),
+        BOUNDS("bounds"),
+        ADD("add"),
+        SWEEP("sweep"),
+        WAVE_RECHECK("wave re-check"),
+        HUD("HUD"),
+        RENDER("render");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /** Frames kept per phase: a little over four seconds at 60 fps. */
+    public static final int DEFAULT_CAPACITY = 256;
+    /** Frames between two recomputations of the overlay. */
+    public static final int REFRESH_FRAMES = 30;
+
+    private static final Phase[] PHASES = Phase.values();
+    /** Row of the whole frame, after the phase rows. */
+    private static final int FRAME_ROW = PHASES.length;
+
+    private static final Color OVERLAY_BACKGROUND = Color.rgb(0, 0, 0, 0.65);
+    private static final double LINE_HEIGHT = 13;
+    private static final int LABEL_WIDTH = 16;
+    private static final String HEADER_COLUMNS = "     p50     p99     max";
+
+    private final int capacity;
+    /** Nanoseconds per frame, one ring per phase plus one for the frame total. */
+    private final long[][] samples;
+    private final long[] current = new long[PHASES.length];
+    private final long[] scratch;
+    private int next;
+    private int count;
+    private long frames;
+    private long lastMark;
+
+    // Statistics of the last refresh, in nanoseconds
+    private final long[] p50 = new long[FRAME_ROW + 1];
+    private final long[] p99 = new long[FRAME_ROW + 1];
+    private final long[] max = new long[FRAME_ROW + 1];
+
+    // Entity counts of the last frame
+    private int enemyCount;
+    private int bossCount;
+    private int powerUpCount;
+    private int projectileCount;
+    private int particleCount;
+
+    private boolean overlayVisible;
+    private long overlayRevision; // Changes whenever the overlay would be drawn differently
+    private Font overlayFont; // Created on first draw, so that headless use never touches the toolkit
+    private final String[] overlayLines = new String[FRAME_ROW + 3];
+    private final StringBuilder line = new StringBuilder(64);
+
+    // Values the overlay lines show, to rebuild only the lines that changed
+    private final long[] shownTenths = new long[3 * (FRAME_ROW + 1)]; // p50, p99 and max per row, in 0.1 us
+    private int shownCount;
+    private final int[] shownEntityCounts = new int[5];
+
+    /**
+     * Creates a profiler.
+     *
+     * @param capacity frames kept per phase
+     */
+    public FrameProfiler(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.samples = new long[FRAME_ROW + 1][capacity];
+        this.scratch = new long[capacity];
+    }
+
+    /**
+     * Starts timing: the next {@link #end(Phase)} measures from here.
+     */
+    public void begin() {
+        lastMark = System.nanoTime();
+    }
+
+    /**
+     * Adds the time since the last {@link #begin()} or {@code end} to a phase and
+     * starts timing the next one.
+     *
+     * @param phase phase that just finished
+     */
+    public void end(Phase phase) {
+        long now = System.nanoTime();
+        current[phase.ordinal()] += now - lastMark;
+        lastMark = now;
+    }
+
+    /**
+     * Stores the phase totals of the frame that just ended and the entity counts of
+     * the world, and refreshes the overlay when it is due.
+     *
+     * @param world world shown in this frame
+     */
+    public void endFrame(GameWorld world) {
+        long total = 0;
+        for (int p = 0; p < PHASES.length; p++) {
+            samples[p][next] = current[p];
+            total += current[p];
+            current[p] = 0;
+        }
+        samples[FRAME_ROW][next] = total;
+        next = (next + 1) % capacity;
+        count = Math.min(count + 1, capacity);
+        frames++;
+
+        EntityRegistry entities = world.getEntities();
+        enemyCount = entities.getEnemies().size();
+        bossCount = entities.getBosses().size();
+        powerUpCount = entities.getPowerUps().size();
+        projectileCount = world.getProjectiles().getLiveCount();
+        particleCount = world.getExplosions().getLiveParticleCount();
+
+        if (overlayVisible && (frames % REFRESH_FRAMES == 0 || overlayLines[0] == null)) {
+            refresh();
+        }
+    }
+
+    /**
+     * Recomputes the statistics of every row and rebuilds the overlay lines whose
+     * values changed.
+     */
+    private void refresh() {
+        for (int row = 0; row <= FRAME_ROW; row++) {
+            long[] ring = samples[row];
+            long highest = 0;
+            for (int i = 0; i < count; i++) {
+                scratch[i] = ring[i];
+                highest = Math.max(highest, ring[i]);
+            }
+            max[row] = highest;
+            p50[row] = count == 0 ? 0 : select(scratch, count, (count - 1) / 2);
+            p99[row] = count == 0 ? 0 : select(scratch, count, (int) Math.ceil(0.99 * count) - 1);
+        }
+
+        boolean changed = false;
+        if (overlayLines[0] == null || count != shownCount) {
+            line.setLength(0);
+            line.append("last ").append(count).append(" fr (us)");
+            while (line.length() < LABEL_WIDTH) line.append(' ');
+            line.append(HEADER_COLUMNS);
+            overlayLines[0] = line.toString();
+            shownCount = count;
+            changed = true;
+        }
+        for (int row = 0; row <= FRAME_ROW; row++) {
+            long median = toTenths(p50[row]);
+            long tail = toTenths(p99[row]);
+            long highest = toTenths(max[row]);
+            int shown = 3 * row;
+            if (overlayLines[row + 1] != null && median == shownTenths[shown]
+                    && tail == shownTenths[shown + 1] && highest == shownTenths[shown + 2]) {
+                continue;
+            }
+            line.setLength(0);
+            line.append(row == FRAME_ROW ? "frame" : PHASES[row].getLabel());
+            while (line.length() < LABEL_WIDTH) line.append(' ');
+            appendTenths(median);
+            appendTenths(tail);
+            appendTenths(highest);
+            overlayLines[row + 1] = line.toString();
+            shownTenths[shown] = median;
+            shownTenths[shown + 1] = tail;
+            shownTenths[shown + 2] = highest;
+            changed = true;
+        }
+        if (overlayLines[FRAME_ROW + 2] == null || enemyCount != shownEntityCounts[0]
+                || bossCount != shownEntityCounts[1] || powerUpCount != shownEntityCounts[2]
+                || projectileCount != shownEntityCounts[3] || particleCount != shownEntityCounts[4]) {
+            line.setLength(0);
+            line.append("enemies ").append(enemyCount).append("  bosses ").append(bossCount)
+                    .append("  power-ups ").append(powerUpCount).append("  bullets ").append(projectileCount)
+                    .append("  particles ").append(particleCount);
+            overlayLines[FRAME_ROW + 2] = line.toString();
+            shownEntityCounts[0] = enemyCount;
+            shownEntityCounts[1] = bossCount;
+            shownEntityCounts[2] = powerUpCount;
+            shownEntityCounts[3] = projectileCount;
+            shownEntityCounts[4] = particleCount;
+            changed = true;
+        }
+        if (changed) {
+            overlayRevision++;
+        }
+    }
+
+    /** Rounds nanoseconds to tenths of a microsecond, the resolution the overlay shows. */
+    private static long toTenths(long nanos) {
+        return (nanos + 50) / 100;
+    }
+
+    /** Appends tenths of a microsecond as microseconds with one decimal, right-aligned in 8 columns. */
+    private void appendTenths(long tenths) {
+        int start = line.length();
+        line.append(tenths / 10).append('.').append(tenths % 10);
+        while (line.length() - start < 8) line.insert(start, ' ');
+    }
+
+    /**
+     * Returns the k-th smallest of the first n values, reordering them in place
+     * (Hoare's selection).
+     */
+    private static long select(long[] a, int n, int k) {
+        int lo = 0;
+        int hi = n - 1;
+        while (lo < hi) {
+            long pivot = a[(lo + hi) >>> 1];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (a[i] < pivot) i++;
+                while (a[j] > pivot) j--;
+                if (i <= j) {
+                    long t = a[i];
+                    a[i] = a[j];
+                    a[j] = t;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return a[k];
+            }
+        }
+        return a[k];
+    }
+
+    /**
+     * Draws the overlay in the top-left corner below the HUD, if it is visible.
+     *
+     * @param gc graphics context of the game canvas
+     */
+    public void renderOverlay(GraphicsContext gc) {
+        if (!overlayVisible || overlayLines[0] == null) {
+            return;
+        }
+        double x = 8;
+        double y = 36;
+        gc.setFill(OVERLAY_BACKGROUND);
+        gc.fillRect(x - 4, y - 2, 330, overlayLines.length * LINE_HEIGHT + 6);
+        if (overlayFont == null) {
+            overlayFont = Font.font("Monospaced", 11);
+        }
+        gc.setFont(overlayFont);
+        gc.setFill(Color.LIMEGREEN);
+        for (int i = 0; i < overlayLines.length; i++) {
+            gc.fillText(overlayLines[i], x, y + (i + 1) * LINE_HEIGHT);
+        }
+    }
+
+    /**
+     * Shows or hides the overlay. The measurements continue either way.
+     */
+    public void toggleOverlay() {
+        overlayVisible = !overlayVisible;
+        Arrays.fill(overlayLines, null); // Rebuild every line on the next frame instead of showing stale text
+        overlayRevision++;
+    }
+
+    public boolean isOverlayVisible() {
+        return overlayVisible;
+    }
+
+    /**
+     * Returns a counter that changes whenever the overlay is shown, hidden or
+     * refreshed, so that a renderer can skip redrawing an unchanged overlay.
+     *
+     * @return overlay revision
+     */
+    public long getOverlayRevision() {
+        return overlayRevision;
+    }
+
+    /**
+     * Returns a percentile of a phase over the frames kept, computed on the spot.
+     *
+     * @param phase    phase, or null for the whole frame
+     * @param fraction percentile as a fraction, e.g. 0.99
+     * @return frame time at that percentile in nanoseconds, 0 before the first frame
+     */
+    public long getPercentile(Phase phase, double fraction) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] ring = samples[phase == null ? FRAME_ROW : phase.ordinal()];
+        System.arraycopy(ring, 0, scratch, 0, count);
+        int k = Math.max(0, Math.min(count - 1, (int) Math.ceil(fraction * count) - 1));
+        return select(scratch, count, k);
+    }
+
+    /**
+     * Builds a one-line summary of the frames kept.
+     *
+     * @return frame count and frame-time percentiles
+     */
+    public String report() {
+        return String.format("Frame profiler: %d frames, frame time p50 %.1f us, p99 %.1f us; render p99 %.1f us",
+                frames, getPercentile(null, 0.5) / 1000.0, getPercentile(null, 0.99) / 1000.0,
+                getPercentile(Phase.RENDER, 0.99) / 1000.0);
+    }
+}
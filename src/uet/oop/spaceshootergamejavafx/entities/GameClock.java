@@ -0,0 +1,69 @@
+package uet.oop.spaceshootergamejavafx.entities;
+
+/**
+ * Simulation clock measured in ticks.
+ * Game code reads time from here instead of {@link System#currentTimeMillis()}, so
+ * durations such as power-up timeouts depend only on the number of simulated ticks
+ * and a session replays identically no matter how fast it is simulated.
+ */
+public class GameClock {
+
+    /** Number of ticks per simulated second. */
+    private final int ticksPerSecond;
+
+    /** Ticks elapsed since the last reset. */
+    private long ticks;
+
+    /**
+     * Creates a clock at tick 0.
+     *
+     * @param ticksPerSecond number of ticks per simulated second
+     */
+    public GameClock(int ticksPerSecond) {
+        if (ticksPerSecond <= 0) {
+            throw new IllegalArgumentException("ticksPerSecond must be positive");
+        }
+        this.ticksPerSecond = ticksPerSecond;
+    }
+
+    /**
+     * Advances the clock by one tick.
+     */
+    public void advance() {
+        ticks++;
+    }
+
+    /**
+     * Sets the clock back to tick 0.
+     */
+    public void reset() {
+        ticks = 0;
+    }
+
+    /**
+     * Returns the number of ticks since the last reset.
+     *
+     * @return elapsed ticks
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Returns the simulated time since the last reset.
+     *
+     * @return elapsed simulated milliseconds
+     */
+    public long millis() {
+        return ticks * 1000 / ticksPerSecond;
+    }
+
+    /**
+     * Returns the number of ticks per simulated second.
+     *
+     * @return tick rate
+     */
+    public int getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+}
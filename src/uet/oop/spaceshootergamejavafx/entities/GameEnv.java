@@ -0,0 +1,340 @@
+package uet.oop.spaceshootergamejavafx.entities;
+
+import java.util.List;
+
+/**
+ * Reinforcement-learning environment over the game rules, in the style of a Gym
+ * environment: {@link #reset(long)} starts a seeded episode and {@link #step(int)}
+ * plays one tick with the agent's action.
+ * <p>
+ * An action is a combination of the {@link InputFlags} movement and shoot bits,
+ * so there are {@link #ACTION_COUNT} of them; opposite directions cancel out as
+ * they do on the keyboard. The built-in AI is never used.
+ * <p>
+ * The observation is a fixed layout of {@link #OBSERVATION_SIZE} floats, roughly
+ * within [-1, 1]:
+ * <ul>
+ *     <li>the player: x and y as fractions of the playfield, lives left, shield,
+ *         invincibility and the wave;</li>
+ *     <li>the {@link #BULLET_SLOTS} hostile bullets nearest to the player: a presence
+ *         flag, the offset from the player and the velocity;</li>
+ *     <li>the {@link #ENEMY_SLOTS} nearest enemies and bosses: a presence flag, the
+ *         offset and, for bosses, the health left (0 for regular enemies);</li>
+ *     <li>the {@link #POWER_UP_SLOTS} nearest power-ups: a presence flag, the offset
+ *         and the type.</li>
+ * </ul>
+ * Nearer objects come first and empty slots are zero. The observation is written
+ * into a caller-provided {@code float[]} at a fixed offset, so
+ * {@link VectorGameEnv} can lay many environments out in one array and no step
+ * allocates.
+ * <p>
+ * The reward of a step is the score gained divided by 10 (one point per regular
+ * enemy), minus {@link #LIFE_PENALTY} per life lost, plus {@link #WIN_REWARD} when
+ * the episode is won. An episode is done when the game is over or after
+ * {@code maxTicks} ticks; the latter is reported as truncated.
+ * <p>
+ * An environment belongs to one thread at a time. Headless mode is switched on
+ * when the first one is created.
+ */
+public class GameEnv {
+
+    /** One action per combination of the LEFT, RIGHT, FORWARD, BACKWARD and SHOOT bits. */
+    public static final int ACTION_COUNT = InputFlags.SHOOT << 1;
+
+    public static final int BULLET_SLOTS = 16;
+    public static final int ENEMY_SLOTS = 8;
+    public static final int POWER_UP_SLOTS = 2;
+
+    private static final int PLAYER_FEATURES = 6;  // x, y, lives, shield, invincible, wave
+    private static final int BULLET_FEATURES = 5;  // present, dx, dy, vx, vy
+    private static final int ENEMY_FEATURES = 4;   // present, dx, dy, boss health
+    private static final int POWER_UP_FEATURES = 4; // present, dx, dy, type
+
+    private static final int BULLETS_OFFSET = PLAYER_FEATURES;
+    private static final int ENEMIES_OFFSET = BULLETS_OFFSET + BULLET_SLOTS * BULLET_FEATURES;
+    private static final int POWER_UPS_OFFSET = ENEMIES_OFFSET + ENEMY_SLOTS * ENEMY_FEATURES;
+
+    /** Floats written per observation. */
+    public static final int OBSERVATION_SIZE = POWER_UPS_OFFSET + POWER_UP_SLOTS * POWER_UP_FEATURES;
+
+    /** Reward per point of score. */
+    public static final float SCORE_REWARD = 0.1f;
+    /** Reward lost per life lost. */
+    public static final float LIFE_PENALTY = 5f;
+    /** Reward of winning the game. */
+    public static final float WIN_REWARD = 20f;
+
+    /** Scales used to bring the observed values near [-1, 1]. */
+    private static final float MAX_LIVES = 5f;
+    private static final float MAX_WAVE = 3f;
+    private static final float BULLET_VELOCITY_SCALE = 2f;
+    private static final float BOSS_HEALTH_SCALE = 25f;
+    private static final float POWER_UP_TYPES = PowerUp.PowerUpType.values().length;
+
+    private final GameWorld world;
+    private final long maxTicks;
+    private final float[] observation;
+    private final int offset;
+    private final Transition transition = new Transition();
+
+    private int lastScore;
+    private int lastLivesLost;
+
+    // Nearest-first selection buffers, reused by every observation
+    private final int[] nearest = new int[Math.max(BULLET_SLOTS, Math.max(ENEMY_SLOTS, POWER_UP_SLOTS))];
+    private final double[] nearestDistance = new double[nearest.length];
+
+    /**
+     * The result of a step. Every call of {@link #step(int)} returns the same
+     * instance, overwritten in place.
+     */
+    public final class Transition {
+
+        private float reward;
+        private boolean done;
+        private boolean truncated;
+
+        private Transition() {
+        }
+
+        /**
+         * Returns the array holding the new observation, at {@link #getObservationOffset()}.
+         *
+         * @return observation buffer
+         */
+        public float[] getObservation() {
+            return observation;
+        }
+
+        public int getObservationOffset() {
+            return offset;
+        }
+
+        public float getReward() {
+            return reward;
+        }
+
+        public boolean isDone() {
+            return done;
+        }
+
+        /**
+         * Returns whether the episode was cut off by the tick limit rather than ended
+         * by a win or a loss.
+         *
+         * @return true if truncated
+         */
+        public boolean isTruncated() {
+            return truncated;
+        }
+    }
+
+    /**
+     * Creates an environment with its own observation buffer and the tick limit of
+     * {@link BatchRunner}.
+     */
+    public GameEnv() {
+        this(new float[OBSERVATION_SIZE], 0, BatchRunner.DEFAULT_MAX_TICKS);
+    }
+
+    /**
+     * Creates an environment writing its observations into a shared buffer.
+     *
+     * @param observation buffer with room for {@link #OBSERVATION_SIZE} floats at {@code offset}
+     * @param offset      index of the first float of this environment's observation
+     * @param maxTicks    ticks after which an episode is truncated
+     */
+    public GameEnv(float[] observation, int offset, long maxTicks) {
+        if (offset < 0 || offset + OBSERVATION_SIZE > observation.length || maxTicks <= 0) {
+            throw new IllegalArgumentException("Observation slice out of bounds or maxTicks not positive");
+        }
+        Assets.setHeadless(true);
+        this.observation = observation;
+        this.offset = offset;
+        this.maxTicks = maxTicks;
+        this.world = new GameWorld(0L, new GameWorld.Listener() { });
+        world.setExplosionsEnabled(false);
+    }
+
+    /**
+     * Starts a new episode.
+     *
+     * @param seed seed of the game
+     * @return array holding the first observation, at {@link Transition#getObservationOffset()}
+     */
+    public float[] reset(long seed) {
+        world.reset(seed);
+        world.setAIControlled(false);
+        lastScore = 0;
+        lastLivesLost = 0;
+        transition.reward = 0;
+        transition.done = false;
+        transition.truncated = false;
+        observe();
+        return observation;
+    }
+
+    /**
+     * Plays one tick with the given action. Stepping a finished episode does
+     * nothing and returns a reward of 0.
+     *
+     * @param action combination of {@link InputFlags} movement and shoot bits, below {@link #ACTION_COUNT}
+     * @return this environment's transition, overwritten in place
+     */
+    public Transition step(int action) {
+        if (action < 0 || action >= ACTION_COUNT) {
+            throw new IllegalArgumentException("Action out of range: " + action);
+        }
+        if (transition.done) {
+            transition.reward = 0;
+            return transition;
+        }
+        InputFlags.apply(world, (byte) action);
+        world.tick();
+
+        int score = world.getScore();
+        int livesLost = world.getLivesLost();
+        float reward = (score - lastScore) * SCORE_REWARD - (livesLost - lastLivesLost) * LIFE_PENALTY;
+        if (world.isGameWon()) {
+            reward += WIN_REWARD;
+        }
+        lastScore = score;
+        lastLivesLost = livesLost;
+
+        transition.reward = reward;
+        transition.truncated = !world.isGameOver() && world.getTickCount() >= maxTicks;
+        transition.done = world.isGameOver() || transition.truncated;
+        observe();
+        return transition;
+    }
+
+    /**
+     * Writes the observation of the current world state.
+     */
+    private void observe() {
+        Player player = world.getPlayer();
+        double px = player.getX();
+        double py = player.getY();
+        int o = offset;
+        observation[o] = (float) (px / GameWorld.WIDTH);
+        observation[o + 1] = (float) (py / GameWorld.HEIGHT);
+        observation[o + 2] = world.getLives() / MAX_LIVES;
+        observation[o + 3] = player.isShieldActive() ? 1f : 0f;
+        observation[o + 4] = player.isTempInvincible() ? 1f : 0f;
+        observation[o + 5] = world.getWaveNumber() / MAX_WAVE;
+
+        ProjectileStore projectiles = world.getProjectiles();
+        int count = 0;
+        for (int i = 0; i < projectiles.size(); i++) {
+            if (!projectiles.isHostile(i) || projectiles.isDead(i)) continue;
+            count = insertNearest(count, BULLET_SLOTS, i, distanceSquared(px, py, projectiles.getX(i), projectiles.getY(i)));
+        }
+        int base = o + BULLETS_OFFSET;
+        for (int s = 0; s < BULLET_SLOTS; s++, base += BULLET_FEATURES) {
+            if (s >= count) {
+                clear(base, BULLET_FEATURES);
+                continue;
+            }
+            int i = nearest[s];
+            observation[base] = 1f;
+            observation[base + 1] = (float) ((projectiles.getX(i) - px) / GameWorld.WIDTH);
+            observation[base + 2] = (float) ((projectiles.getY(i) - py) / GameWorld.HEIGHT);
+            observation[base + 3] = (float) projectiles.getVx(i) / BULLET_VELOCITY_SCALE;
+            observation[base + 4] = (float) projectiles.getVy(i) / BULLET_VELOCITY_SCALE;
+        }
+
+        // Regular enemies are numbered first, then bosses after them
+        List<Enemy> enemies = world.getEntities().getEnemies();
+        List<BossEnemy> bosses = world.getEntities().getBosses();
+        count = 0;
+        for (int i = 0; i < enemies.size(); i++) {
+            Enemy enemy = enemies.get(i);
+            if (enemy.isDead()) continue;
+            count = insertNearest(count, ENEMY_SLOTS, i, distanceSquared(px, py, enemy.getX(), enemy.getY()));
+        }
+        for (int i = 0; i < bosses.size(); i++) {
+            BossEnemy boss = bosses.get(i);
+            if (boss.isDead()) continue;
+            count = insertNearest(count, ENEMY_SLOTS, enemies.size() + i, distanceSquared(px, py, boss.getX(), boss.getY()));
+        }
+        base = o + ENEMIES_OFFSET;
+        for (int s = 0; s < ENEMY_SLOTS; s++, base += ENEMY_FEATURES) {
+            if (s >= count) {
+                clear(base, ENEMY_FEATURES);
+                continue;
+            }
+            int i = nearest[s];
+            GameObject enemy = i < enemies.size() ? enemies.get(i) : bosses.get(i - enemies.size());
+            observation[base] = 1f;
+            observation[base + 1] = (float) ((enemy.getX() - px) / GameWorld.WIDTH);
+            observation[base + 2] = (float) ((enemy.getY() - py) / GameWorld.HEIGHT);
+            observation[base + 3] = enemy instanceof BossEnemy boss ? boss.getHealth() / BOSS_HEALTH_SCALE : 0f;
+        }
+
+        List<PowerUp> powerUps = world.getEntities().getPowerUps();
+        count = 0;
+        for (int i = 0; i < powerUps.size(); i++) {
+            PowerUp powerUp = powerUps.get(i);
+            if (powerUp.isDead()) continue;
+            count = insertNearest(count, POWER_UP_SLOTS, i, distanceSquared(px, py, powerUp.getX(), powerUp.getY()));
+        }
+        base = o + POWER_UPS_OFFSET;
+        for (int s = 0; s < POWER_UP_SLOTS; s++, base += POWER_UP_FEATURES) {
+            if (s >= count) {
+                clear(base, POWER_UP_FEATURES);
+                continue;
+            }
+            PowerUp powerUp = powerUps.get(nearest[s]);
+            observation[base] = 1f;
+            observation[base + 1] = (float) ((powerUp.getX() - px) / GameWorld.WIDTH);
+            observation[base + 2] = (float) ((powerUp.getY() - py) / GameWorld.HEIGHT);
+            observation[base + 3] = (powerUp.getType().ordinal() + 1f) / POWER_UP_TYPES;
+        }
+    }
+
+    /**
+     * Inserts a candidate into the sorted list of the nearest {@code slots} found so
+     * far, dropping the farthest one when the list is full.
+     *
+     * @return new length of the list
+     */
+    private int insertNearest(int count, int slots, int index, double distance) {
+        if (count == slots && distance >= nearestDistance[slots - 1]) {
+            return count;
+        }
+        int k = count < slots ? count++ : slots - 1;
+        while (k > 0 && nearestDistance[k - 1] > distance) {
+            nearest[k] = nearest[k - 1];
+            nearestDistance[k] = nearestDistance[k - 1];
+            k--;
+        }
+        nearest[k] = index;
+        nearestDistance[k] = distance;
+        return count;
+    }
+
+    private static double distanceSquared(double x1, double y1, double x2, double y2) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        return dx * dx + dy * dy;
+    }
+
+    private void clear(int from, int length) {
+        for (int i = from; i < from + length; i++) {
+            observation[i] = 0f;
+        }
+    }
+
+    /**
+     * Returns the world being played, e.g. to read the score or render it.
+     *
+     * @return world of this environment
+     */
+    public GameWorld getWorld() {
+        return world;
+    }
+
+    public Transition getTransition() {
+        return transition;
+    }
+}
@@ -0,0 +1,132 @@
+package uet.oop.spaceshootergamejavafx.entities;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events of the game, in the "Space Shooter" category.
+ * <p>
+ * Every event is disabled by default, so a plain recording does not contain them
+ * and the JIT reduces each emission site to a disabled check. The recording
+ * profile {@code jfr/spaceshooter.jfc} enables them, together with the
+ * garbage-collection and safepoint events needed to line pauses up with the game:
+ * <pre>
+ * java -XX:StartFlightRecording:settings=jfr/spaceshooter.jfc,filename=game.jfr ...
+ * </pre>
+ * Fields that take work to compute are only filled in when
+ * {@link Event#shouldCommit()} says the event will be kept. None of the events
+ * records a stack trace.
+ */
+public final class GameEvents {
+
+    private static final String CATEGORY = "Space Shooter";
+
+    private GameEvents() {
+    }
+
+    /** Duration of one {@link GameWorld#tick()}. */
+    @Name("spaceshooter.Tick")
+    @Label("Game Tick")
+    @Category(CATEGORY)
+    @Description("One fixed simulation step of the game world")
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class TickEvent extends Event {
+
+        @Label("Tick")
+        long tick;
+
+        @Label("Entities")
+        int entities;
+
+        @Label("Live Projectiles")
+        int projectiles;
+    }
+
+    /** Duration and results of one collision pass. */
+    @Name("spaceshooter.CollisionPass")
+    @Label("Collision Pass")
+    @Category(CATEGORY)
+    @Description("Narrow-phase collision tests of one tick")
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class CollisionPassEvent extends Event {
+
+        @Label("Pairs Tested")
+        @Description("Overlap tests after the spatial-grid broad phase")
+        int pairsTested;
+
+        @Label("Hits")
+        int hits;
+    }
+
+    /** Duration and outcome of one decision of the reactive AI. */
+    @Name("spaceshooter.AIDecision")
+    @Label("AI Decision")
+    @Category(CATEGORY)
+    @Description("One decision of the reactive AI player controller")
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class AIDecisionEvent extends Event {
+
+        @Label("Pipeline")
+        @Description("Planning tier chosen by the scheduler: full, light or reflex")
+        String pipeline;
+
+        @Label("Tier")
+        @Description("What the decision did: normal, strategic dodge or teleport")
+        String tier;
+
+        @Label("Projectiles")
+        int projectiles;
+    }
+
+    /** A change in the wave and boss progression. */
+    @Name("spaceshooter.WaveTransition")
+    @Label("Wave Transition")
+    @Category(CATEGORY)
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class WaveTransitionEvent extends Event {
+
+        @Label("Wave")
+        @Description("Wave after the transition")
+        int wave;
+
+        @Label("Transition")
+        String transition;
+
+        @Label("Score")
+        int score;
+
+        @Label("Tick")
+        long tick;
+    }
+
+    /** An explosion requested by a hit. */
+    @Name("spaceshooter.Explosion")
+    @Label("Explosion")
+    @Category(CATEGORY)
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class ExplosionEvent extends Event {
+
+        @Label("X")
+        double x;
+
+        @Label("Y")
+        double y;
+
+        @Label("Particles Spawned")
+        @Description("False when the world runs with explosion particles disabled")
+        boolean particles;
+
+        @Label("Live Particles")
+        int liveParticles;
+    }
+}
@@ -0,0 +1,239 @@
+package uet.oop.spaceshootergamejavafx.entities;
+
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Leveled, asynchronous logger for the game code.
+ * <p>
+ * A log call below the current level costs one volatile read and returns. A call
+ * at or above it claims a slot in a preallocated ring buffer and stores a
+ * fixed-size record: the level, the message and up to two {@code long} arguments.
+ * The message must be a constant; its {@code {}} placeholders are filled in with
+ * the arguments by the writer thread, so logging allocates nothing and never
+ * formats or writes on the calling thread.
+ * <p>
+ * Any number of threads may log at once. A writer claims its slot with a
+ * compare-and-set on the sequence counter and publishes it with a release store.
+ * A daemon flusher thread, started with the first record, drains the published
+ * records in order every {@link #FLUSH_INTERVAL_MS} milliseconds and prints them to
+ * the {@code System.out} of that moment. When the ring is full, new records are
+ * dropped and counted rather than making the game wait; the count is printed with
+ * the next flush. Records still pending at exit are flushed by a shutdown hook.
+ * <p>
+ * The level is read from {@value #LEVEL_PROPERTY} at startup (default
+ * {@link Level#INFO}) and can be changed at runtime with {@link #setLevel(Level)}.
+ * Headless tools raise it to {@link Level#WARN} to keep the per-hit messages out of
+ * their reports.
+ */
+public final class GameLog {
+
+    /** Property holding the initial level: DEBUG, INFO, WARN, ERROR or OFF. */
+    public static final String LEVEL_PROPERTY = "spaceshooter.log.level";
+
+    /** Records the ring holds before new ones are dropped. */
+    public static final int CAPACITY = 4096;
+    /** Time between two flushes. */
+    public static final long FLUSH_INTERVAL_MS = 50;
+
+    /**
+     * Severity of a record. {@link #OFF} only serves as a level that lets nothing through.
+     */
+    public enum Level {
+        DEBUG, INFO, WARN, ERROR, OFF
+    }
+
+    private static final Level[] LEVELS = Level.values();
+    private static final int MASK = CAPACITY - 1;
+
+    private static volatile int threshold = initialLevel().ordinal();
+
+    // The ring: one record per slot, valid once published[slot] holds its sequence
+    private static final byte[] levels = new byte[CAPACITY];
+    private static final String[] messages = new String[CAPACITY];
+    private static final byte[] argCounts = new byte[CAPACITY];
+    private static final long[] firstArgs = new long[CAPACITY];
+    private static final long[] secondArgs = new long[CAPACITY];
+    private static final AtomicLongArray published = new AtomicLongArray(CAPACITY);
+
+    private static final AtomicLong nextSequence = new AtomicLong();
+    /** Sequence of the next record to print; written by the flushing thread only. */
+    private static volatile long consumed;
+    private static final AtomicLong dropped = new AtomicLong();
+
+    private static final Object flushLock = new Object();
+    private static final StringBuilder line = new StringBuilder(128);
+    private static volatile Thread flusher;
+
+    static {
+        for (int i = 0; i < CAPACITY; i++) {
+            published.set(i, -1);
+        }
+    }
+
+    private GameLog() {
+    }
+
+    private static Level initialLevel() {
+        String value = System.getProperty(LEVEL_PROPERTY);
+        if (value == null || value.isBlank()) {
+            return Level.INFO;
+        }
+        try {
+            return Level.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid " + LEVEL_PROPERTY + ": " + value);
+            return Level.INFO;
+        }
+    }
+
+    public static Level getLevel() {
+        return LEVELS[threshold];
+    }
+
+    /**
+     * Sets the lowest level that is recorded.
+     *
+     * @param level new level; {@link Level#OFF} records nothing
+     */
+    public static void setLevel(Level level) {
+        threshold = level.ordinal();
+    }
+
+    /**
+     * Returns whether records of a level are kept, e.g. to skip computing an argument.
+     *
+     * @param level level to test
+     * @return true if a record of that level would be written
+     */
+    public static boolean isEnabled(Level level) {
+        return level.ordinal() >= threshold && level != Level.OFF;
+    }
+
+    public static void debug(String message) {
+        if (Level.DEBUG.ordinal() >= threshold) append(Level.DEBUG, message, 0, 0, 0);
+    }
+
+    public static void debug(String message, long arg) {
+        if (Level.DEBUG.ordinal() >= threshold) append(Level.DEBUG, message, 1, arg, 0);
+    }
+
+    public static void debug(String message, long first, long second) {
+        if (Level.DEBUG.ordinal() >= threshold) append(Level.DEBUG, message, 2, first, second);
+    }
+
+    public static void info(String message) {
+        if (Level.INFO.ordinal() >= threshold) append(Level.INFO, message, 0, 0, 0);
+    }
+
+    public static void info(String message, long arg) {
+        if (Level.INFO.ordinal() >= threshold) append(Level.INFO, message, 1, arg, 0);
+    }
+
+    public static void warn(String message) {
+        if (Level.WARN.ordinal() >= threshold) append(Level.WARN, message, 0, 0, 0);
+    }
+
+    public static void error(String message) {
+        if (Level.ERROR.ordinal() >= threshold) append(Level.ERROR, message, 0, 0, 0);
+    }
+
+    /**
+     * Claims a slot and publishes one record, or counts it as dropped if the ring
+     * is full.
+     */
+    private static void append(Level level, String message, int argCount, long first, long second) {
+        long sequence;
+        do {
+            sequence = nextSequence.get();
+            if (sequence - consumed >= CAPACITY) {
+                dropped.incrementAndGet();
+                return;
+            }
+        } while (!nextSequence.compareAndSet(sequence, sequence + 1));
+
+        int slot = (int) (sequence & MASK);
+        levels[slot] = (byte) level.ordinal();
+        messages[slot] = message;
+        argCounts[slot] = (byte) argCount;
+        firstArgs[slot] = first;
+        secondArgs[slot] = second;
+        published.lazySet(slot, sequence); // Release: the fields above are visible to whoever sees the sequence
+
+        if (flusher == null) {
+            startFlusher();
+        }
+    }
+
+    private static synchronized void startFlusher() {
+        if (flusher != null) {
+            return;
+        }
+        Thread thread = new Thread(GameLog::runFlusher, "game-log");
+        thread.setDaemon(true);
+        Runtime.getRuntime().addShutdownHook(new Thread(GameLog::flush, "game-log-shutdown"));
+        flusher = thread;
+        thread.start();
+    }
+
+    private static void runFlusher() {
+        while (true) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(FLUSH_INTERVAL_MS));
+            flush();
+        }
+    }
+
+    /**
+     * Prints every record published so far. Called by the flusher thread; callers
+     * may also use it before reading the console, e.g. at the end of a run.
+     */
+    public static void flush() {
+        synchronized (flushLock) {
+            PrintStream out = System.out;
+            long sequence = consumed;
+            while (true) {
+                int slot = (int) (sequence & MASK);
+                if (published.get(slot) != sequence) {
+                    break; // Not yet published, or nothing left
+                }
+                format(slot);
+                messages[slot] = null;
+                out.println(line);
+                sequence++;
+                consumed = sequence; // Frees the slot for writers
+            }
+            long lost = dropped.getAndSet(0);
+            if (lost > 0) {
+                out.println("[WARN] Log ring full: " + lost + " records dropped");
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * Formats one record into {@link #line}, replacing each {@code {}} of the
+     * message with the next argument and appending any arguments left over.
+     */
+    private static void format(int slot) {
+        String message = messages[slot];
+        int argCount = argCounts[slot];
+        line.setLength(0);
+        line.append('[').append(LEVELS[levels[slot]]).append("] ");
+        int used = 0;
+        int from = 0;
+        int at;
+        while (used < argCount && (at = message.indexOf("{}", from)) >= 0) {
+            line.append(message, from, at).append(used == 0 ? firstArgs[slot] : secondArgs[slot]);
+            used++;
+            from = at + 2;
+        }
+        line.append(message, from, message.length());
+        for (; used < argCount; used++) {
+            line.append(' ').append(used == 0 ? firstArgs[slot] : secondArgs[slot]);
+        }
+    }
+}
@@ -1,8 +1,5 @@
 package uet.oop.spaceshootergamejavafx.entities;
 
-import javafx.scene.canvas.GraphicsContext;
-import javafx.geometry.Bounds;
-import javafx.scene.shape.Rectangle;
 
 /**
  * Abstract base class for all game objects.
@@ -23,6 +20,15 @@ public abstract class GameObject {
     /** Height of the object. */
     protected double height;
 
+    /** X coordinate at the start of the current simulation tick, used for interpolation. */
+    protected double prevX;
+
+    /** Y coordinate at the start of the current simulation tick, used for interpolation. */
+    protected double prevY;
+
+    /** Id assigned by the {@link EntityRegistry} the object was added to, or 0 if none. */
+    private int entityId;
+
     /**
      * Constructs a game object at the specified position with given dimensions.
      *
@@ -36,6 +42,8 @@ public abstract class GameObject {
         this.y = y;
         this.width = width;
         this.height = height;
+        this.prevX = x;
+        this.prevY = y;
     }
 
     /**
@@ -45,11 +53,41 @@ public abstract class GameObject {
     public abstract void update();
 
     /**
-     * Renders the game object on the canvas.
+     * Queues the draw commands of the game object.
      *
-     * @param gc the GraphicsContext used for drawing
+     * @param queue the render queue of the frame
+     */
+    public abstract void render(RenderQueue queue);
+
+    /**
+     * Records the current position as the previous position.
+     * Called once before every simulation tick.
      */
-    public abstract void render(GraphicsContext gc);
+    public void snapshotPosition() {
+        prevX = x;
+        prevY = y;
+    }
+
+    /**
+     * Renders the object at a position interpolated between the previous tick and
+     * the current tick. The position is only changed for the duration of the
+     * {@link #render(RenderQueue)} call.
+     *
+     * @param queue the render queue of the frame
+     * @param alpha interpolation factor, 0 for the previous tick and 1 for the current one
+     */
+    public void renderInterpolated(RenderQueue queue, double alpha) {
+        double currentX = x;
+        double currentY = y;
+        x = prevX + (currentX - prevX) * alpha;
+        y = prevY + (currentY - prevY) * alpha;
+        try {
+            render(queue);
+        } finally {
+            x = currentX;
+            y = currentY;
+        }
+    }
 
     /**
      * Checks whether this object should be removed from the game.
@@ -65,6 +103,26 @@ public abstract class GameObject {
      */
     public abstract void setDead(boolean dead);
 
+    /**
+     * Returns the id of this object within its world. Ids are unique for the
+     * lifetime of an {@link EntityRegistry} and never reused, so they identify an
+     * object across world snapshots.
+     *
+     * @return entity id, or 0 if the object was never registered
+     */
+    public int getEntityId() {
+        return entityId;
+    }
+
+    /**
+     * Sets the id of this object. Called by {@link EntityRegistry#add(GameObject)}.
+     *
+     * @param entityId new id
+     */
+    void setEntityId(int entityId) {
+        this.entityId = entityId;
+    }
+
     /**
      * Returns the current X coordinate of the object.
      *
@@ -84,17 +142,55 @@ public abstract class GameObject {
     }
 
     /**
-     * Returns the bounding box of this object for collision detection.
+     * Returns half of the object's width, i.e. the horizontal half-extent of its
+     * axis-aligned bounding box around (x, y).
+     *
+     * @return horizontal half-extent
+     */
+    public double getHalfWidth() {
+        return getWidth() / 2.0;
+    }
+
+    /**
+     * Returns half of the object's height, i.e. the vertical half-extent of its
+     * axis-aligned bounding box around (x, y).
+     *
+     * @return vertical half-extent
+     */
+    public double getHalfHeight() {
+        return getHeight() / 2.0;
+    }
+
+    /**
+     * Checks whether the bounding boxes of this object and another object overlap.
+     * Touching edges count as an overlap. This test works on primitive doubles only
+     * and does not allocate.
+     *
+     * @param other the object to test against
+     * @return true if the two bounding boxes overlap
+     */
+    public boolean intersects(GameObject other) {
+        return overlaps(x, y, getHalfWidth(), getHalfHeight(),
+                other.x, other.y, other.getHalfWidth(), other.getHalfHeight());
+    }
+
+    /**
+     * Checks whether two axis-aligned boxes given by center and half-extents overlap.
+     * Touching edges count as an overlap.
      *
-     * @return Bounds representing the object's collision area
+     * @param ax  center X of the first box
+     * @param ay  center Y of the first box
+     * @param ahw half-width of the first box
+     * @param ahh half-height of the first box
+     * @param bx  center X of the second box
+     * @param by  center Y of the second box
+     * @param bhw half-width of the second box
+     * @param bhh half-height of the second box
+     * @return true if the boxes overlap
      */
-    public Bounds getBounds() {
-        return new Rectangle(
-                x - getWidth() / 2,
-                y - getHeight() / 2,
-                getWidth(),
-                getHeight()
-        ).getBoundsInLocal();
+    public static boolean overlaps(double ax, double ay, double ahw, double ahh,
+                                   double bx, double by, double bhw, double bhh) {
+        return Math.abs(ax - bx) <= ahw + bhw && Math.abs(ay - by) <= ahh + bhh;
     }
 
     /**
@@ -112,7 +208,9 @@ public abstract class GameObject {
     public abstract double getHeight();
 
     /**
-     * Sets the position of this object.
+     * Sets the position of this object. This is a jump, not a move, so the
+     * previous position is reset as well and the object is not interpolated
+     * across the screen.
      *
      * @param x new X coordinate
      * @param y new Y coordinate
@@ -120,5 +218,7 @@ public abstract class GameObject {
     public void setPosition(double x, double y) {
         this.x = x;
         this.y = y;
+        this.prevX = x;
+        this.prevY = y;
     }
 }
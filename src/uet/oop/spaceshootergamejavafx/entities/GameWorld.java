@@ -0,0 +1,1268 @@
+package uet.oop.spaceshootergamejavafx.entities;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Simulation engine for one game session.
+ * Holds the entity list, spawning, wave and boss progression, collisions and
+ * scoring, and advances everything by one fixed step per {@link #tick()}.
+ * It does not touch any JavaFX scene, label or sound: everything the UI needs to
+ * react to is reported through a {@link Listener}. This lets the game rules run
+ * without a display, e.g. for automated AI runs on a build server; the JavaFX
+ * {@link SpaceShooter} application is a renderer and input source on top of it.
+ */
+public class GameWorld {
+
+    public static final int WIDTH = 512;  // Width of the playfield
+    public static final int HEIGHT = 800; // Height of the playfield
+
+    static final double ENEMY_FIRE_MIN_Y = 20;            // Regular enemies fire their single shot once
+    static final double ENEMY_FIRE_MAX_Y = HEIGHT * 0.65; // their Y is strictly inside this band
+
+    /**
+     * Sound effects the world asks the front end to play.
+     */
+    public enum Sound {
+        ENEMY_EXPLOSION,
+        BOSS_DEFEATED,
+        POWERUP_COLLECTED
+    }
+
+    /**
+     * Receives the events of a running world. All methods are called from
+     * {@link #tick()} on the simulation thread and default to doing nothing.
+     */
+    public interface Listener {
+
+        /**
+         * Called when a sound effect should be played.
+         *
+         * @param sound the sound effect
+         */
+        default void onSound(Sound sound) {
+        }
+
+        /**
+         * Called when a short announcement such as "WAVE 2" should be shown.
+         *
+         * @param message text to show
+         */
+        default void onMessage(String message) {
+        }
+
+        /**
+         * Called once when all final bosses have been defeated.
+         */
+        default void onGameWon() {
+        }
+
+        /**
+         * Called once when the player has run out of lives.
+         */
+        default void onGameOver() {
+        }
+    }
+
+    private final Listener listener;
+
+    private int score;                    // Current player score
+    private int numLives;                 // Number of player lives left in this session
+    private int livesLost;                // Lives lost so far in this session
+    private boolean gameOver;             // True once the session has been won or lost
+    private boolean gameWon;              // True if the session ended with a win
+
+    private final EntityRegistry entities = new EntityRegistry();     // All active game objects, in render order and by type
+    private final List<GameObject> newObjects = new ArrayList<>();   // List of newly spawned game objects to add
+    private Player player;                 // Player object, recreated for every session
+    private AIPlanner aiPlanner;           // AI for the player (optional), recreated for every session
+    private boolean lookaheadAI = false;   // Search-based LookaheadPlanner instead of the scheduled reactive AI
+    private int lookaheadHorizon = LookaheadPlanner.DEFAULT_HORIZON;              // Ticks per lookahead rollout
+    private int lookaheadRollouts = LookaheadPlanner.DEFAULT_ROLLOUTS;            // Lookahead rollouts per action
+    private long lookaheadDeadlineMicros = LookaheadPlanner.DEFAULT_DEADLINE_MICROS; // Time per lookahead decision
+    private int lookaheadParallelism = 1;  // Threads per lookahead search; batch runs already use one game per core
+    private AIParameters aiParameters = AIParameters.DEFAULTS; // Thresholds of the reactive AI
+    private int aiCalmInterval = AIScheduler.DEFAULT_CALM_INTERVAL;       // Ticks between full AI decisions while calm
+    private double aiEscalationTTI = AIScheduler.DEFAULT_ESCALATION_TTI;  // Threat under which the AI plans every tick
+    private long aiBudgetMicros = AIScheduler.UNLIMITED_BUDGET;           // Time budget per AI decision
+    private boolean isAIControlled = false;      // Flag to toggle AI control
+    private final WorldSnapshot aiSnapshot = new WorldSnapshot(); // Reused input of the synchronous AI
+    private boolean asyncAI = false;             // Plan on a worker thread instead of inside tick()
+    private AsyncAIDriver asyncAIDriver;         // Worker of the asynchronous AI, created on first use in a session
+    private boolean deterministic = true;        // False once the asynchronous AI has steered in this session
+
+    private long seed;                    // Seed of the current session
+    private final Random random = new Random(); // Single seeded random source for all game decisions
+    private final GameClock clock;        // Simulation time of the current session, in ticks
+    private final SpatialHashGrid collisionGrid = new SpatialHashGrid(WIDTH, HEIGHT, 64); // Broad phase for collisions
+    private final List<GameObject> nearbyObjects = new ArrayList<>(); // Reused buffer for grid query results
+    private final ProjectileStore projectiles = new ProjectileStore(); // Every player, enemy and boss bullet
+    private final ProceduralExplosion explosions; // Shared particle engine for all explosions
+    private boolean explosionsEnabled = true; // Headless runs can skip the purely visual particles
+    private FrameProfiler profiler;           // Phase timings for the front end's overlay, null when not profiled
+    private int enemySpawnTimer = 0;      // Timer counter to control enemy spawning
+
+    // --- WAVE AND BOSS MANAGEMENT ---
+    private int waveNumber = 1;            // Current wave number
+    private boolean waveBossFightActive = false;  // Flag if boss fight in wave is active
+    private int bossesToDefeatInWave;      // Number of bosses to defeat in current wave
+    private int bossesDefeatedThisWave;    // Bosses defeated so far in current wave
+
+    private BossEnemy stationaryBossInstance = null; // Reference to stationary boss instance
+    private boolean stationaryBossSpawned = false;   // Whether stationary boss has spawned
+    private boolean stationaryBossDefeated = false;  // Whether stationary boss is defeated
+    private boolean finalBossesTriggered = false;    // Whether final bosses have been triggered
+    private boolean finalBossFightActive = false;    // Whether final boss fight is active
+
+    private final int SCORE_REWARD_PER_BOSS = 50;          // Score reward for defeating normal boss
+    private final int SCORE_REWARD_STATIONARY_BOSS = 150;  // Score reward for defeating stationary boss
+
+    private final int SCORE_THRESHOLD_WAVE1_BOSS = 150;        // Score needed to spawn wave 1 boss
+    private final int SCORE_THRESHOLD_WAVE2_BOSSES = 450;      // Score needed for wave 2 bosses
+    private final int SCORE_THRESHOLD_WAVE3_FINAL_BOSSES = 900; // Score needed for final bosses
+
+    private final int BASE_ENEMY_SPAWN_INTERVAL = 170;    // Base interval for enemy spawning
+    private int currentEnemySpawnInterval;                 // Current spawn interval (may vary)
+
+    private int powerUpSpawnTimer = 0;          // Timer for spawning power-ups
+    private final int POWERUP_SPAWN_INTERVAL = 500; // Interval to spawn power-ups
+
+    /**
+     * Creates a world with a random seed and prepares the first session.
+     *
+     * @param listener receives sounds, messages and the end of the session
+     */
+    public GameWorld(Listener listener) {
+        this(new Random().nextLong(), listener);
+    }
+
+    /**
+     * Creates a world running at the default tick rate and prepares the first session.
+     *
+     * @param seed     seed for the first session
+     * @param listener receives sounds, messages and the end of the session
+     */
+    public GameWorld(long seed, Listener listener) {
+        this(seed, FixedTimestep.DEFAULT_TICK_RATE, listener);
+    }
+
+    /**
+     * Creates a world and prepares the first session.
+     * Given the same seed, tick rate and per-tick player input, a session always
+     * plays out identically.
+     *
+     * @param seed           seed for the first session
+     * @param ticksPerSecond simulation rate, used to convert ticks to game time
+     * @param listener       receives sounds, messages and the end of the session
+     */
+    public GameWorld(long seed, int ticksPerSecond, Listener listener) {
+        this.listener = listener;
+        this.clock = new GameClock(ticksPerSecond);
+        this.explosions = new ProceduralExplosion(clock, particleSeed(seed));
+        reset(seed);
+    }
+
+    /**
+     * Starts a new session with the same seed as the current one.
+     */
+    public void reset() {
+        reset(seed);
+    }
+
+    /**
+     * Resets the game state and mechanics to start a new game session.
+     * Resets scores, lives, timers, wave states, difficulty, the clock, the random
+     * source, and creates a fresh player and AI controller.
+     *
+     * @param seed seed for the new session
+     */
+    public void reset(long seed) {
+        this.seed = seed;
+        this.random.setSeed(seed);
+        this.clock.reset();
+        this.score = 0;
+        this.numLives = 3;
+        this.livesLost = 0;
+        this.gameOver = false;
+        this.gameWon = false;
+        this.enemySpawnTimer = 0;
+        this.powerUpSpawnTimer = 0;
+        this.waveNumber = 1;
+        this.waveBossFightActive = false;
+        this.bossesToDefeatInWave = 0;
+        this.bossesDefeatedThisWave = 0;
+        this.stationaryBossInstance = null;
+        this.stationaryBossSpawned = false;
+        this.stationaryBossDefeated = false;
+        this.finalBossesTriggered = false;
+        this.finalBossFightActive = false;
+        this.deterministic = true;
+        closeAsyncAI();
+
+        adjustDifficulty();
+        entities.clear();
+        newObjects.clear();
+        projectiles.clear();
+        explosions.reset(particleSeed(seed));
+        // A fresh player and AI carry no timers or targets over from the previous session
+        player = new Player(WIDTH / 2.0, HEIGHT - 120, clock);
+        replaceAIPlanner();
+        entities.add(player);
+    }
+
+    /**
+     * Lưu vị trí hiện tại của mọi đối tượng làm vị trí "tick trước" để nội suy khi vẽ.
+     * Gọi ngay trước mỗi lần tick().
+     */
+    public void snapshotPositions() {
+        List<GameObject> all = entities.getAll();
+        for (int i = 0; i < all.size(); i++) {
+            all.get(i).snapshotPosition();
+        }
+        projectiles.snapshotPositions();
+    }
+
+    /**
+     * Cập nhật trạng thái game một tick mô phỏng.
+     * Bao gồm:
+     * - Điều chỉnh độ khó theo wave và điểm
+     * - Cập nhật trạng thái tất cả các đối tượng trong game (player, enemy, boss,...) và toàn bộ đạn
+     * - Xử lý AI hoặc input người chơi
+     * - Xử lý bắn đạn của player và enemy
+     * - Sinh các đối tượng mới (enemy, power-up)
+     * - Quản lý trạng thái wave, spawn boss
+     * - Kiểm tra va chạm và loại bỏ các đối tượng chết hoặc ra khỏi màn hình
+     * - Kiểm tra điều kiện kết thúc game
+     * Sau khi game kết thúc (thắng hoặc thua), tick() không làm gì nữa cho tới khi gọi reset().
+     */
+    public void tick() {
+        if (gameOver) {
+            return;
+        }
+        GameEvents.TickEvent tickEvent = new GameEvents.TickEvent();
+        tickEvent.begin();
+        clock.advance();
+        beginPhase();
+        adjustDifficulty();  // Điều chỉnh độ khó (spawn interval,...)
+        endPhase(FrameProfiler.Phase.DIFFICULTY);
+
+        // 1. Cập nhật trạng thái tất cả đối tượng (gọi update của từng đối tượng)
+        // update() không thêm đối tượng vào danh sách nên có thể duyệt theo chỉ số mà không cần sao chép danh sách
+        List<GameObject> all = entities.getAll();
+        for (int i = 0; i < all.size(); i++) {
+            all.get(i).update();
+        }
+        // Di chuyển mọi viên đạn (kể cả đạn Boss vừa bắn trong update() ở trên) trong một lượt duyệt
+        projectiles.update();
+        explosions.update();
+        endPhase(FrameProfiler.Phase.UPDATE);
+
+        // 2. Nếu AI được bật, cập nhật hành vi AI cho player
+        if (isAIControlled && !player.isDead()) {
+            if (asyncAI) {
+                // AI lập kế hoạch trên luồng riêng: gửi snapshot mới và áp quyết định mới nhất đã có
+                if (asyncAIDriver == null) {
+                    asyncAIDriver = new AsyncAIDriver(createAIPlanner(new Random(~seed)));
+                }
+                asyncAIDriver.publish(this);
+                asyncAIDriver.applyLatestIntent(player, clock.getTicks());
+                deterministic = false;
+            } else {
+                aiSnapshot.capture(this);
+                aiPlanner.applyIntent(aiPlanner.decide(aiSnapshot), player);
+            }
+        }
+        endPhase(FrameProfiler.Phase.AI);
+
+        // 3. Xử lý hành động bắn của player (AI hoặc người chơi)
+        if (player.getWantsToShoot() && !player.isDead()) {
+            player.shoot(projectiles);
+            player.setWantsToShoot(false);
+        }
+
+        // 4. Cho phép enemy thường bắn đạn khi thỏa điều kiện (không phải boss)
+        List<Enemy> enemies = entities.getEnemies();
+        for (int i = 0; i < enemies.size(); i++) {
+            Enemy enemy = enemies.get(i);
+            if (!enemy.isDead() && !enemy.hasFiredInitialShot() && enemy.getY() > ENEMY_FIRE_MIN_Y && enemy.getY() < ENEMY_FIRE_MAX_Y) {
+                enemy.shoot(projectiles);
+                enemy.setInitialShotFired(true);
+            }
+        }
+        endPhase(FrameProfiler.Phase.SHOOTING);
+
+        // 5. Spawn thêm enemy thường và power-up mới nếu tới thời điểm
+        spawnNormalEnemies();
+        spawnPowerUp();
+        endPhase(FrameProfiler.Phase.SPAWNING);
+
+        // 6. Quản lý trạng thái wave và spawn boss
+        manageWaveStateAndBossSpawning();
+        endPhase(FrameProfiler.Phase.WAVES);
+
+        // 7. Kiểm tra va chạm giữa các đối tượng
+        checkCollisions();
+        endPhase(FrameProfiler.Phase.COLLISIONS);
+
+        // 8. Loại bỏ các đối tượng ra khỏi màn hình (enemy, power-up); đạn tự chết khi rời màn hình trong projectiles.update()
+        checkEntitiesOutOfBounds();
+        endPhase(FrameProfiler.Phase.BOUNDS);
+
+        // 9. Thêm các đối tượng mới sinh ra (enemy, boss, power-up) vào danh sách đối tượng
+        entities.addAll(newObjects);
+        newObjects.clear();
+        endPhase(FrameProfiler.Phase.ADD);
+
+        // 10. Loại bỏ các đối tượng đã chết khỏi danh sách đối tượng
+        entities.removeDead(this::onEntityRemoved);
+        projectiles.compact(); // Dồn các viên đạn còn sống, giữ nguyên thứ tự bắn
+        endPhase(FrameProfiler.Phase.SWEEP);
+
+        // 11. Cập nhật lại trạng thái wave và spawn boss ngay nếu có thay đổi do loại bỏ boss
+        manageWaveStateAndBossSpawning();
+
+        // 12. Kiểm tra điều kiện kết thúc game (player chết hoặc hết mạng)
+        if (!gameOver && (player.isDead() || numLives <= 0)) {
+            gameOver = true;
+            listener.onGameOver();
+        }
+        endPhase(FrameProfiler.Phase.WAVE_RECHECK);
+        if (tickEvent.shouldCommit()) {
+            tickEvent.tick = clock.getTicks();
+            tickEvent.entities = entities.size();
+            tickEvent.projectiles = projectiles.getLiveCount();
+            tickEvent.commit();
+        }
+    }
+
+    /**
+     * Emits a {@link GameEvents.WaveTransitionEvent} for a step of the wave and boss progression.
+     *
+     * @param transition what happened
+     */
+    private void recordWaveTransition(String transition) {
+        GameEvents.WaveTransitionEvent event = new GameEvents.WaveTransitionEvent();
+        if (event.shouldCommit()) {
+            event.wave = waveNumber;
+            event.transition = transition;
+            event.score = score;
+            event.tick = clock.getTicks();
+            event.commit();
+        }
+    }
+
+    private void beginPhase() {
+        if (profiler != null) {
+            profiler.begin();
+        }
+    }
+
+    private void endPhase(FrameProfiler.Phase phase) {
+        if (profiler != null) {
+            profiler.end(phase);
+        }
+    }
+
+    /**
+     * Xử lý một đối tượng vừa bị loại khỏi danh sách vì đã chết.
+     * Boss chết (bị hạ hoặc thoát khỏi màn hình) mang theo đạn của nó và được cộng điểm thưởng.
+     *
+     * @param obj đối tượng vừa bị loại bỏ
+     */
+    private void onEntityRemoved(GameObject obj) {
+        if (obj instanceof BossEnemy) {
+            BossEnemy deadBoss = (BossEnemy) obj;
+            deadBoss.releaseBullets(); // Boss thoát khỏi màn hình cũng mang theo đạn của nó
+            GameLog.debug("Boss object ({}) is dead and removed from gameObjects.", deadBoss.hashCode());
+            // Tăng điểm thưởng tùy boss
+            score += (deadBoss == stationaryBossInstance && stationaryBossSpawned) ? SCORE_REWARD_STATIONARY_BOSS : SCORE_REWARD_PER_BOSS;
+
+            if (waveBossFightActive || finalBossFightActive) {
+                if (deadBoss != stationaryBossInstance) {
+                    bossesDefeatedThisWave++;
+                    GameLog.debug("A wave/final Boss fully died. Defeated count: {}", bossesDefeatedThisWave);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adjusts the difficulty dynamically based on current wave and score.
+     * Decreases enemy spawn interval as wave number and score increase.
+     */
+    private void adjustDifficulty() {
+        int waveFactor = waveNumber - 1;
+        // Minimum spawn interval capped at 40
+        currentEnemySpawnInterval = Math.max(40, BASE_ENEMY_SPAWN_INTERVAL - (waveFactor * 28) - (score / 90));
+    }
+
+    /**
+     * Creates a procedural explosion effect at the specified coordinates
+     * and requests the explosion sound.
+     *
+     * @param x X-coordinate of the explosion
+     * @param y Y-coordinate of the explosion
+     */
+    private void createProceduralExplosion(double x, double y) {
+        if (explosionsEnabled) {
+            long explosionDuration = 700; // Duration of the explosion effect in milliseconds
+            explosions.spawn(x, y, explosionDuration);
+        }
+        GameEvents.ExplosionEvent event = new GameEvents.ExplosionEvent();
+        if (event.shouldCommit()) {
+            event.x = x;
+            event.y = y;
+            event.particles = explosionsEnabled;
+            event.liveParticles = explosions.getLiveParticleCount();
+            event.commit();
+        }
+        listener.onSound(Sound.ENEMY_EXPLOSION);
+    }
+
+    /**
+     * Spawn enemy thường theo thời gian và điều kiện game hiện tại.
+     * Không spawn khi đang có boss fight (trừ trường hợp wave 3 có stationary boss đang sống).
+     * Enemy được spawn ngẫu nhiên ở vị trí ngang trên màn hình.
+     */
+    private void spawnNormalEnemies() {
+        boolean canSpawnNormal = true;
+
+        // Không spawn enemy thường khi đang fight boss (trừ trường hợp đặc biệt wave 3)
+        if (waveBossFightActive || finalBossFightActive) {
+            canSpawnNormal = false;
+        }
+        if (waveNumber == 3 && stationaryBossSpawned && (stationaryBossInstance != null && !stationaryBossInstance.isDead()) && !finalBossFightActive) {
+            canSpawnNormal = true;
+        }
+
+        if (canSpawnNormal) {
+            enemySpawnTimer++;
+            if (enemySpawnTimer >= currentEnemySpawnInterval) {
+                enemySpawnTimer = 0;
+
+                double minCenterX = Enemy.WIDTH / 2.0;
+                double maxCenterX = WIDTH - (Enemy.WIDTH / 2.0);
+                double spawnableWidthForCenter = maxCenterX - minCenterX;
+                if (spawnableWidthForCenter <= 0) spawnableWidthForCenter = Math.max(1, WIDTH - Enemy.WIDTH);
+
+                double centerX = minCenterX + random.nextDouble() * spawnableWidthForCenter;
+                double centerY = -Enemy.HEIGHT / 2.0;  // Spawn ngay trên màn hình
+
+                Enemy enemy = new Enemy(centerX, centerY);
+                newObjects.add(enemy);
+            }
+        }
+    }
+
+    /**
+     * Spawn power-up theo thời gian.
+     * Power-up có 3 loại: SHIELD, TRIPLE_SHOT, HEALTH_PACK được chọn ngẫu nhiên.
+     * Spawn ở vị trí ngẫu nhiên ngang trên màn hình.
+     */
+    private void spawnPowerUp() {
+        powerUpSpawnTimer++;
+        if (powerUpSpawnTimer >= POWERUP_SPAWN_INTERVAL) {
+            powerUpSpawnTimer = 0;
+
+            double centerX = PowerUp.WIDTH / 2.0 + random.nextDouble() * (WIDTH - PowerUp.WIDTH);
+            double centerY = -PowerUp.HEIGHT / 2.0;
+
+            PowerUp.PowerUpType randomType;
+            int typeChoice = random.nextInt(3);
+            switch (typeChoice) {
+                case 0:
+                    randomType = PowerUp.PowerUpType.SHIELD;
+                    break;
+                case 1:
+                    randomType = PowerUp.PowerUpType.TRIPLE_SHOT;
+                    break;
+                default:
+                    randomType = PowerUp.PowerUpType.HEALTH_PACK;
+                    break;
+            }
+            PowerUp powerUp = new PowerUp(centerX, centerY, randomType);
+            newObjects.add(powerUp);
+        }
+    }
+
+    /**
+     * Quản lý trạng thái các wave và spawn boss theo điểm và tình trạng boss đã bị hạ.
+     * - Wave 1, 2: spawn các boss tương ứng khi đạt điểm nhất định
+     * - Wave 3: spawn stationary boss, sau đó final bosses khi đạt điểm
+     * - Kết thúc game khi final bosses bị hạ hết
+     */
+    private void manageWaveStateAndBossSpawning() {
+        switch (waveNumber) {
+            case 1:
+                if (!waveBossFightActive && score >= SCORE_THRESHOLD_WAVE1_BOSS) {
+                    spawnBossesForWave(1);
+                    recordWaveTransition("boss fight");
+                }
+                if (waveBossFightActive && bossesDefeatedThisWave >= bossesToDefeatInWave) {
+                    listener.onSound(Sound.BOSS_DEFEATED);
+                    waveNumber = 2;
+                    waveBossFightActive = false;
+                    bossesDefeatedThisWave = 0;
+                    recordWaveTransition("wave bosses defeated");
+                    listener.onMessage("WAVE 2");
+                }
+                break;
+
+            case 2:
+                if (!waveBossFightActive && score >= SCORE_THRESHOLD_WAVE2_BOSSES) {
+                    spawnBossesForWave(2);
+                    recordWaveTransition("boss fight");
+                }
+                if (waveBossFightActive && bossesDefeatedThisWave >= bossesToDefeatInWave) {
+                    listener.onSound(Sound.BOSS_DEFEATED);
+                    waveNumber = 3;
+                    waveBossFightActive = false;
+                    bossesDefeatedThisWave = 0;
+                    spawnStationaryBoss();
+                    recordWaveTransition("wave bosses defeated");
+                    listener.onMessage("WAVE 3");
+                }
+                break;
+
+            case 3:
+                if (stationaryBossSpawned && stationaryBossInstance != null && stationaryBossInstance.isDead() && !stationaryBossDefeated) {
+                    stationaryBossDefeated = true;
+                    GameLog.info("Stationary Boss DEFEATED and processed in manageWaveState! Score: {}", score);
+                    listener.onSound(Sound.BOSS_DEFEATED);
+                    listener.onMessage("Stationary Boss Defeated!");
+                    stationaryBossInstance = null;
+                    recordWaveTransition("stationary boss defeated");
+                }
+
+                if (stationaryBossDefeated && score >= SCORE_THRESHOLD_WAVE3_FINAL_BOSSES && !finalBossesTriggered && !finalBossFightActive) {
+                    spawnBossesForWave(3);
+                    recordWaveTransition("final bosses");
+                    listener.onMessage("FINAL BOSSES!");
+                }
+
+                if (finalBossFightActive && bossesDefeatedThisWave >= bossesToDefeatInWave && !gameOver) {
+                    GameLog.info("ALL FINAL BOSSES DEFEATED! YOU WIN! Final Score: {}", score);
+                    gameOver = true;
+                    gameWon = true;
+                    recordWaveTransition("final bosses defeated");
+                    listener.onSound(Sound.BOSS_DEFEATED);
+                    listener.onGameWon();
+                }
+                break;
+        }
+    }
+
+
+    /**
+     * Spawns bosses for the given wave number.
+     * Resets the count of defeated bosses and sets the appropriate flags.
+     *
+     * @param waveNum the wave number to spawn bosses for
+     */
+    private void spawnBossesForWave(int waveNum) {
+        bossesDefeatedThisWave = 0;
+        if (waveNum == 1) {
+            BossEnemy boss = new BossEnemy(WIDTH / 2.0, 120, this.player, false, projectiles, random);
+            newObjects.add(boss);
+            waveBossFightActive = true;
+            finalBossFightActive = false;
+            bossesToDefeatInWave = 1;
+        } else if (waveNum == 2) {
+            BossEnemy boss1 = new BossEnemy(WIDTH / 4.0 + 30, 120, this.player, false, projectiles, random);
+            BossEnemy boss2 = new BossEnemy(WIDTH * 3.0 / 4.0 - 30, 150, this.player, false, projectiles, random);
+            newObjects.add(boss1);
+            newObjects.add(boss2);
+            waveBossFightActive = true;
+            finalBossFightActive = false;
+            bossesToDefeatInWave = 2;
+        } else if (waveNum == 3) {
+            BossEnemy bossA = new BossEnemy(WIDTH / 4.0, 100, this.player, false, projectiles, random);
+            BossEnemy bossB = new BossEnemy(WIDTH / 2.0, 130, this.player, false, projectiles, random);
+            BossEnemy bossC = new BossEnemy(WIDTH * 3.0 / 4.0, 100, this.player, false, projectiles, random);
+            newObjects.add(bossA);
+            newObjects.add(bossB);
+            newObjects.add(bossC);
+            finalBossesTriggered = true;
+            finalBossFightActive = true;
+            waveBossFightActive = false;
+            bossesToDefeatInWave = 3;
+        }
+    }
+
+    /**
+     * Spawns a stationary boss if not already spawned or if the previous one is dead.
+     */
+    private void spawnStationaryBoss() {
+        if (!stationaryBossSpawned && (stationaryBossInstance == null || stationaryBossInstance.isDead())) {
+            stationaryBossInstance = new BossEnemy(WIDTH / 2.0, 100, this.player, true, projectiles, random);
+            newObjects.add(stationaryBossInstance);
+            stationaryBossSpawned = true;
+            stationaryBossDefeated = false;
+        }
+    }
+
+    /**
+     * Rebuilds the collision broad phase from the current entity list.
+     * Enemies (including bosses) and power-ups are inserted; player bullets and the
+     * player only ever query the grid.
+     */
+    private void rebuildCollisionGrid() {
+        collisionGrid.clear();
+        insertLive(entities.getEnemies());
+        insertLive(entities.getBosses());
+        insertLive(entities.getPowerUps());
+    }
+
+    private void insertLive(List<? extends GameObject> bucket) {
+        for (int i = 0; i < bucket.size(); i++) {
+            GameObject obj = bucket.get(i);
+            if (!obj.isDead()) {
+                collisionGrid.insert(obj);
+            }
+        }
+    }
+
+    /**
+     * Checks all relevant collisions:
+     * - Player bullets vs enemies (including bosses)
+     * - Player vs enemies (direct collision)
+     * - Player vs enemy bullets (normal and boss bullets)
+     * - Player vs power-ups
+     * The grid is rebuilt once per tick and every query only reads the cells
+     * around the querying object, so the cost grows with local density instead
+     * of bullets x objects. Hostile bullets are tested against the single player
+     * in one linear pass over the {@link ProjectileStore}.
+     * Package-private so benchmarks can run it on synthetic worlds.
+     */
+    void checkCollisions() {
+        GameEvents.CollisionPassEvent event = new GameEvents.CollisionPassEvent();
+        event.begin();
+        int pairsTested = 0;
+        int hits = 0;
+        rebuildCollisionGrid();
+
+        // Player bullets vs enemies
+        for (int i = 0; i < projectiles.size(); i++) {
+            if (projectiles.getOwner(i) != ProjectileStore.OWNER_PLAYER || projectiles.isDead(i)) continue;
+            double bulletX = projectiles.getX(i);
+            double bulletY = projectiles.getY(i);
+            double bulletHalfWidth = projectiles.getHalfWidth(i);
+            double bulletHalfHeight = projectiles.getHalfHeight(i);
+            collisionGrid.query(bulletX - bulletHalfWidth, bulletY - bulletHalfHeight,
+                    bulletX + bulletHalfWidth, bulletY + bulletHalfHeight, nearbyObjects);
+            for (int j = 0; j < nearbyObjects.size(); j++) {
+                GameObject enemyObj = nearbyObjects.get(j);
+                if (enemyObj instanceof Enemy && !enemyObj.isDead()) {
+                    Enemy enemy = (Enemy) enemyObj;
+                    pairsTested++;
+                    if (GameObject.overlaps(bulletX, bulletY, bulletHalfWidth, bulletHalfHeight,
+                            enemy.getX(), enemy.getY(), enemy.getHalfWidth(), enemy.getHalfHeight())) {
+                        hits++;
+                        createProceduralExplosion(bulletX, bulletY);
+                        projectiles.kill(i);
+                        if (enemy instanceof BossEnemy) {
+                            BossEnemy bossHit = (BossEnemy) enemy;
+                            bossHit.reduceHealth(1);
+                        } else {
+                            createProceduralExplosion(enemy.getX(), enemy.getY());
+                            enemy.setDead(true);
+                            score += 10;
+                        }
+                    }
+                }
+            }
+        }
+
+        if (!player.isDead()) {
+            // Player vs enemies (direct collision)
+            collisionGrid.queryAround(player, nearbyObjects);
+            for (int i = 0; i < nearbyObjects.size(); i++) {
+                GameObject enemyObj = nearbyObjects.get(i);
+                if (enemyObj instanceof Enemy && !enemyObj.isDead()) {
+                    pairsTested++;
+                    if (player.intersects(enemyObj)) {
+                        hits++;
+                        if (!player.isShieldActive() && !player.isTempInvincible()) {
+                            handlePlayerHit();
+                        } else {
+                            if (player.isShieldActive()) GameLog.debug("Shield blocked direct enemy collision!");
+                            if (player.isTempInvincible()) GameLog.debug("Temp Invincibility blocked direct enemy collision!");
+                        }
+                        if (!(enemyObj instanceof BossEnemy)) {
+                            createProceduralExplosion(enemyObj.getX(), enemyObj.getY());
+                            enemyObj.setDead(true);
+                        }
+                        if (player.isDead()) break;
+                    }
+                }
+            }
+
+            // Player vs enemy bullets (normal and boss bullets live in the same store)
+            if (!player.isDead()) {
+                for (int i = 0; i < projectiles.size(); i++) {
+                    if (!projectiles.isHostile(i) || projectiles.isDead(i)) continue;
+                    // Read the player every time: a hit moves it back to the spawn point
+                    pairsTested++;
+                    if (GameObject.overlaps(player.getX(), player.getY(), player.getHalfWidth(), player.getHalfHeight(),
+                            projectiles.getX(i), projectiles.getY(i), projectiles.getHalfWidth(i), projectiles.getHalfHeight(i))) {
+                        hits++;
+                        boolean isBossBullet = projectiles.getOwner(i) == ProjectileStore.OWNER_BOSS;
+                        if (!player.isShieldActive() && !player.isTempInvincible()) {
+                            handlePlayerHit();
+                        } else {
+                            if (player.isShieldActive()) GameLog.debug(isBossBullet ? "Shield blocked a BOSS bullet!" : "Shield blocked an enemy bullet!");
+                            if (player.isTempInvincible()) GameLog.debug(isBossBullet ? "Temp Invincibility blocked a BOSS bullet!" : "Temp Invincibility blocked an enemy bullet!");
+                        }
+                        createProceduralExplosion(projectiles.getX(i), projectiles.getY(i));
+                        projectiles.kill(i);
+                        if (player.isDead()) break;
+                    }
+                }
+            }
+
+            // Player vs power-ups
+            if (!player.isDead()) {
+                collisionGrid.queryAround(player, nearbyObjects);
+                for (int i = 0; i < nearbyObjects.size(); i++) {
+                    GameObject powerUpObj = nearbyObjects.get(i);
+                    if (powerUpObj instanceof PowerUp && !powerUpObj.isDead()) {
+                        PowerUp powerUp = (PowerUp) powerUpObj;
+                        pairsTested++;
+                        if (player.intersects(powerUp)) {
+                            hits++;
+                            listener.onSound(Sound.POWERUP_COLLECTED);
+                            switch (powerUp.getType()) {
+                                case HEALTH_PACK:
+                                    if (numLives < 5) numLives++;
+                                    score += 5;
+                                    GameLog.debug("Player collected Health Pack!");
+                                    break;
+                                case SHIELD:
+                                    player.activateShield();
+                                    break;
+                                case TRIPLE_SHOT:
+                                    player.activateTripleShot();
+                                    break;
+                            }
+                            powerUp.setDead(true);
+                        }
+                    }
+                }
+            }
+        }
+        nearbyObjects.clear();
+        if (event.shouldCommit()) {
+            event.pairsTested = pairsTested;
+            event.hits = hits;
+            event.commit();
+        }
+    }
+
+    /**
+     * Applies the consequences of an unshielded hit on the player:
+     * explosion, life loss, respawn at the start position and temporary invincibility.
+     */
+    private void handlePlayerHit() {
+        createProceduralExplosion(player.getX(), player.getY());
+        loseLives(1);
+        player.resetMovementFlags();
+        player.setPosition(WIDTH / 2.0, HEIGHT - 120);
+        if (numLives <= 0) {
+            player.setDead(true);
+        } else {
+            player.activateTempInvincibility();
+        }
+    }
+
+    /**
+     * Derives the seed of the visual particle stream from the session seed.
+     *
+     * @param seed session seed
+     * @return particle seed
+     */
+    private static long particleSeed(long seed) {
+        return seed ^ 0x5DEECE66DL;
+    }
+
+    /**
+     * Removes lives from the player and counts them as lost.
+     *
+     * @param count number of lives to remove
+     */
+    private void loseLives(int count) {
+        numLives -= count;
+        livesLost += count;
+    }
+
+    /**
+     * Checks all game entities to determine if they have moved out of the visible screen bounds.
+     * Marks entities as dead if they are out of bounds, and updates lives or counters accordingly.
+     */
+    private void checkEntitiesOutOfBounds() {
+        List<Enemy> enemies = entities.getEnemies();
+        for (int i = 0; i < enemies.size(); i++) {
+            Enemy enemy = enemies.get(i);
+            if (!enemy.isDead() && enemy.getY() - enemy.getHeight() / 2 > HEIGHT) {
+                enemy.setDead(true);
+                loseLives(1);
+                if (numLives <= 0) player.setDead(true);
+            }
+        }
+
+        List<BossEnemy> bosses = entities.getBosses();
+        for (int i = 0; i < bosses.size(); i++) {
+            BossEnemy boss = bosses.get(i);
+            if (!boss.isDead() && boss.getY() - boss.getHeight() / 2 > HEIGHT) {
+                boss.setDead(true);
+                if (boss != stationaryBossInstance) {
+                    if (waveBossFightActive || finalBossFightActive) {
+                        bossesDefeatedThisWave++;
+                    }
+                    loseLives(2);
+                    GameLog.debug("A non-stationary Boss escaped. Lives: {}. Defeated count for wave: {}", numLives, bossesDefeatedThisWave);
+                }
+                if (numLives <= 0) player.setDead(true);
+            }
+        }
+
+        List<PowerUp> powerUps = entities.getPowerUps();
+        for (int i = 0; i < powerUps.size(); i++) {
+            PowerUp powerUp = powerUps.get(i);
+            if (!powerUp.isDead() && powerUp.getY() - powerUp.getHeight() / 2 > HEIGHT) {
+                powerUp.setDead(true);
+            }
+        }
+    }
+
+    /**
+     * Adds an entity directly, bypassing wave spawning. Used by benchmarks to build
+     * synthetic worlds of a chosen size.
+     *
+     * @param obj entity to add
+     */
+    void addEntity(GameObject obj) {
+        entities.add(obj);
+    }
+
+    /**
+     * Returns the live entity list, in render order. The list is read-only.
+     *
+     * @return active game objects
+     */
+    public List<GameObject> getGameObjects() {
+        return entities.getAll();
+    }
+
+    /**
+     * Returns the entity registry of this world, with the objects grouped by type.
+     *
+     * @return entity registry
+     */
+    public EntityRegistry getEntities() {
+        return entities;
+    }
+
+    /**
+     * Returns the player of this world.
+     *
+     * @return player
+     */
+    public Player getPlayer() {
+        return player;
+    }
+
+    /**
+     * Returns the particle engine holding the explosions of this world.
+     *
+     * @return explosion particles
+     */
+    public ProceduralExplosion getExplosions() {
+        return explosions;
+    }
+
+    /**
+     * Returns the projectile store holding every bullet of this world.
+     *
+     * @return projectile store
+     */
+    public ProjectileStore getProjectiles() {
+        return projectiles;
+    }
+
+    /**
+     * Returns the current score.
+     *
+     * @return score
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Returns the number of lives the player has left.
+     *
+     * @return lives left
+     */
+    public int getLives() {
+        return numLives;
+    }
+
+    /**
+     * Returns the number of lives lost so far in this session.
+     * Lives regained from health packs are not subtracted.
+     *
+     * @return lives lost
+     */
+    public int getLivesLost() {
+        return livesLost;
+    }
+
+    /**
+     * Returns the number of ticks simulated in this session.
+     *
+     * @return tick count
+     */
+    public long getTickCount() {
+        return clock.getTicks();
+    }
+
+    /**
+     * Returns the simulation clock of this world.
+     *
+     * @return game clock
+     */
+    public GameClock getClock() {
+        return clock;
+    }
+
+    /**
+     * Computes a hash of the simulation state: clock, score, lives, wave and the
+     * type and exact position of every entity and projectile. Two runs of the same replay must
+     * produce the same checksum after every tick.
+     *
+     * @return state checksum
+     */
+    public long checksum() {
+        long h = seed;
+        h = 31 * h + clock.getTicks();
+        h = 31 * h + score;
+        h = 31 * h + numLives;
+        h = 31 * h + waveNumber;
+        List<GameObject> all = entities.getAll();
+        for (int i = 0; i < all.size(); i++) {
+            GameObject obj = all.get(i);
+            h = 31 * h + obj.getClass().getName().hashCode();
+            h = 31 * h + Double.doubleToLongBits(obj.getX());
+            h = 31 * h + Double.doubleToLongBits(obj.getY());
+        }
+        return projectiles.checksum(h);
+    }
+
+    /**
+     * Returns the seed of the current session.
+     *
+     * @return seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the current wave number (1 to 3).
+     *
+     * @return wave number
+     */
+    public int getWaveNumber() {
+        return waveNumber;
+    }
+
+    /**
+     * Returns whether the session has ended, by winning or losing.
+     *
+     * @return true once the game is over
+     */
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    /**
+     * Returns whether the session ended with all final bosses defeated.
+     *
+     * @return true if the game was won
+     */
+    public boolean isGameWon() {
+        return gameWon;
+    }
+
+    /**
+     * Returns whether the AI controller steers the player.
+     *
+     * @return true if AI controlled
+     */
+    public boolean isAIControlled() {
+        return isAIControlled;
+    }
+
+    /**
+     * Enables or disables AI control of the player.
+     *
+     * @param aiControlled true to let the AI steer the player
+     */
+    public void setAIControlled(boolean aiControlled) {
+        this.isAIControlled = aiControlled;
+    }
+
+    /**
+     * Returns whether the AI plans on a worker thread.
+     *
+     * @return true if the AI runs asynchronously
+     */
+    public boolean isAsyncAI() {
+        return asyncAI;
+    }
+
+    /**
+     * Chooses where the AI plans. By default it decides inside {@link #tick()} from
+     * a snapshot taken in the same tick, with the world's seeded random source, so
+     * sessions stay reproducible. Asynchronously, it plans on a worker thread with
+     * its own random source and each tick applies the newest decision available,
+     * which may be a few ticks old; such sessions are not reproducible.
+     *
+     * @param asyncAI true to run the AI on a worker thread
+     */
+    public void setAsyncAI(boolean asyncAI) {
+        this.asyncAI = asyncAI;
+        if (!asyncAI) {
+            closeAsyncAI();
+        }
+    }
+
+    /**
+     * Returns the worker of the asynchronous AI in this session.
+     *
+     * @return async AI driver, or null if the asynchronous AI has not run in this session
+     */
+    public AsyncAIDriver getAsyncAIDriver() {
+        return asyncAIDriver;
+    }
+
+    /**
+     * Sets how often the reactive AI plans and how much time it may spend per
+     * decision (see {@link AIScheduler}). Takes effect immediately with a fresh AI.
+     * A budget makes decisions depend on the machine: a session in which the
+     * budget degraded a decision cannot be replayed.
+     *
+     * @param calmInterval  ticks between full decisions while nothing threatens the player
+     * @param escalationTTI time to impact under which the AI plans every tick
+     * @param budgetMicros  time budget per decision, or {@link AIScheduler#UNLIMITED_BUDGET}
+     */
+    public void configureAI(int calmInterval, double escalationTTI, long budgetMicros) {
+        this.aiCalmInterval = calmInterval;
+        this.aiEscalationTTI = escalationTTI;
+        this.aiBudgetMicros = budgetMicros;
+        replaceAIPlanner();
+        closeAsyncAI(); // Recreated with the new settings on its next use
+    }
+
+    /**
+     * Returns the ticks between full decisions of the reactive AI while calm.
+     *
+     * @return calm interval
+     */
+    public int getAICalmInterval() {
+        return aiCalmInterval;
+    }
+
+    /**
+     * Returns the time to impact under which the reactive AI plans every tick.
+     *
+     * @return escalation threshold
+     */
+    public double getAIEscalationTTI() {
+        return aiEscalationTTI;
+    }
+
+    /**
+     * Returns the thresholds the reactive AI is created with.
+     *
+     * @return AI parameters
+     */
+    public AIParameters getAIParameters() {
+        return aiParameters;
+    }
+
+    /**
+     * Sets the thresholds of the reactive AI. Takes effect immediately with a fresh AI.
+     *
+     * @param parameters AI parameters, e.g. loaded from a file written by {@link AITuner}
+     */
+    public void setAIParameters(AIParameters parameters) {
+        this.aiParameters = parameters;
+        replaceAIPlanner();
+        closeAsyncAI();
+    }
+
+    /**
+     * Returns whether the AI searches over simulated futures ({@link LookaheadPlanner})
+     * instead of running the reactive rules ({@link AIScheduler}).
+     *
+     * @return true if the lookahead planner steers the player
+     */
+    public boolean isLookaheadAI() {
+        return lookaheadAI;
+    }
+
+    /**
+     * Chooses which AI steers the player. Takes effect immediately with a fresh AI.
+     *
+     * @param lookaheadAI true for the {@link LookaheadPlanner}, false for the reactive AI
+     */
+    public void setLookaheadAI(boolean lookaheadAI) {
+        this.lookaheadAI = lookaheadAI;
+        replaceAIPlanner();
+        closeAsyncAI();
+    }
+
+    /**
+     * Sets how far and how widely the {@link LookaheadPlanner} searches. Takes effect
+     * immediately with a fresh AI if the lookahead AI is chosen.
+     *
+     * @param horizon        ticks simulated per rollout
+     * @param rollouts       rollouts per movement action
+     * @param deadlineMicros time allowed per decision, in microseconds
+     */
+    public void configureLookahead(int horizon, int rollouts, long deadlineMicros) {
+        this.lookaheadHorizon = horizon;
+        this.lookaheadRollouts = rollouts;
+        this.lookaheadDeadlineMicros = deadlineMicros;
+        replaceAIPlanner();
+        closeAsyncAI();
+    }
+
+    /**
+     * Returns the ticks the lookahead AI simulates per rollout.
+     *
+     * @return rollout horizon
+     */
+    public int getLookaheadHorizon() {
+        return lookaheadHorizon;
+    }
+
+    /**
+     * Returns the rollouts the lookahead AI runs per movement action.
+     *
+     * @return rollouts per action
+     */
+    public int getLookaheadRollouts() {
+        return lookaheadRollouts;
+    }
+
+    /**
+     * Returns the time the lookahead AI is allowed per decision.
+     *
+     * @return deadline in microseconds
+     */
+    public long getLookaheadDeadlineMicros() {
+        return lookaheadDeadlineMicros;
+    }
+
+    /**
+     * Returns the number of threads a lookahead search runs on.
+     *
+     * @return lookahead parallelism, the calling thread included
+     */
+    public int getLookaheadParallelism() {
+        return lookaheadParallelism;
+    }
+
+    /**
+     * Sets the number of threads a lookahead search runs on. The default of one
+     * suits runs that play one game per core; only the interactive game, which plays
+     * a single one, should give the search every core. More threads than cores make
+     * the searches compete for them and hit their deadline, which makes decisions
+     * depend on the machine. Takes effect immediately with a fresh AI if the
+     * lookahead AI is chosen.
+     *
+     * @param parallelism threads per search, the calling one included
+     */
+    public void setLookaheadParallelism(int parallelism) {
+        this.lookaheadParallelism = parallelism;
+        replaceAIPlanner();
+        closeAsyncAI();
+    }
+
+    /**
+     * Returns the synchronous AI of this session.
+     *
+     * @return AI planner
+     */
+    public AIPlanner getAIPlanner() {
+        return aiPlanner;
+    }
+
+    /**
+     * Returns whether this session can be reproduced from its seed and per-tick
+     * input, i.e. whether neither the asynchronous AI nor a time limit of the AI
+     * has influenced the player.
+     *
+     * @return true if the session is replayable
+     */
+    public boolean isDeterministic() {
+        return deterministic && aiPlanner.isReproducible();
+    }
+
+    private AIPlanner createAIPlanner(Random aiRandom) {
+        if (lookaheadAI) {
+            return new LookaheadPlanner(lookaheadHorizon, lookaheadRollouts, lookaheadDeadlineMicros,
+                    lookaheadParallelism);
+        }
+        return new AIScheduler(new AIPlayerController(player, clock, aiRandom, aiParameters),
+                aiCalmInterval, aiEscalationTTI, aiBudgetMicros);
+    }
+
+    private void replaceAIPlanner() {
+        if (aiPlanner != null) {
+            aiPlanner.close();
+        }
+        aiPlanner = createAIPlanner(random);
+    }
+
+    private void closeAsyncAI() {
+        if (asyncAIDriver != null) {
+            asyncAIDriver.close();
+            asyncAIDriver = null;
+        }
+    }
+
+    /**
+     * Enables or disables explosion particles. They do not affect the game rules,
+     * so headless runs can turn them off.
+     *
+     * @param enabled false to skip spawning explosion particles
+     */
+    public void setExplosionsEnabled(boolean enabled) {
+        this.explosionsEnabled = enabled;
+        if (!enabled) {
+            explosions.clear();
+        }
+    }
+
+    /**
+     * Returns the profiler timing the phases of {@link #tick()}.
+     *
+     * @return profiler, or null when the world is not profiled
+     */
+    public FrameProfiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * Attaches a profiler that times each phase of {@link #tick()}.
+     *
+     * @param profiler profiler to report to, or null to stop profiling
+     */
+    public void setProfiler(FrameProfiler profiler) {
+        this.profiler = profiler;
+    }
+}
@@ -0,0 +1,57 @@
+package uet.oop.spaceshootergamejavafx.entities;
+
+/**
+ * Packs the player's input for one tick into a single byte.
+ * Together with the session seed, the sequence of these bytes is all that is
+ * needed to reproduce a session tick for tick (see {@link ReplayRecorder}).
+ */
+public final class InputFlags {
+
+    public static final byte LEFT = 1;
+    public static final byte RIGHT = 1 << 1;
+    public static final byte FORWARD = 1 << 2;
+    public static final byte BACKWARD = 1 << 3;
+    public static final byte SHOOT = 1 << 4;
+    /** The AI controls the player during this tick. */
+    public static final byte AI = 1 << 5;
+
+    /** Mask of all bits a valid input byte may use. */
+    public static final int MASK = LEFT | RIGHT | FORWARD | BACKWARD | SHOOT | AI;
+
+    private InputFlags() {
+    }
+
+    /**
+     * Captures the current input of the world's player.
+     *
+     * @param world world about to be ticked
+     * @return input byte
+     */
+    public static byte capture(GameWorld world) {
+        Player player = world.getPlayer();
+        int flags = 0;
+        if (player.isMoveLeftSet()) flags |= LEFT;
+        if (player.isMoveRightSet()) flags |= RIGHT;
+        if (player.isMoveForwardSet()) flags |= FORWARD;
+        if (player.isMoveBackwardSet()) flags |= BACKWARD;
+        if (player.getWantsToShoot()) flags |= SHOOT;
+        if (world.isAIControlled()) flags |= AI;
+        return (byte) flags;
+    }
+
+    /**
+     * Restores a captured input on the world's player before a tick.
+     *
+     * @param world world about to be ticked
+     * @param flags input byte from {@link #capture(GameWorld)}
+     */
+    public static void apply(GameWorld world, byte flags) {
+        Player player = world.getPlayer();
+        player.setMoveLeft((flags & LEFT) != 0);
+        player.setMoveRight((flags & RIGHT) != 0);
+        player.setMoveForward((flags & FORWARD) != 0);
+        player.setMoveBackward((flags & BACKWARD) != 0);
+        player.setWantsToShoot((flags & SHOOT) != 0);
+        world.setAIControlled((flags & AI) != 0);
+    }
+}
@@ -0,0 +1,232 @@
+package uet.oop.spaceshootergamejavafx.entities;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.WritableImage;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.Text;
+
+import java.util.List;
+
+/**
+ * Draws the game on three stacked canvases, each repainted only when its content
+ * changes:
+ * <ol>
+ *     <li><b>Background</b>: the centred crop of the background image, copied once
+ *     into a {@link WritableImage} and painted twice, one copy above the other, when
+ *     the image is set. Scrolling moves the canvas with a translate transform, so the
+ *     background is never redrawn; the scene graph only composites it at a new offset.</li>
+ *     <li><b>Entities</b>: the game objects and projectiles at their interpolated
+ *     positions, queued in a {@link RenderQueue} and drawn sorted by texture and
+ *     paint. Repainted when the world ticked or the interpolation factor changed,
+ *     which is every frame while the game runs but never while it is paused.</li>
+ *     <li><b>Effects</b>: explosion particles, the profiler overlay and the pause
+ *     overlay. Repainted after a tick while particles are alive (and once more when
+ *     the last one dies), when the overlay text changes, or when the game is paused or
+ *     resumed. Most frames without explosions leave it untouched.</li>
+ * </ol>
+ * Everything the entity layer draws depends only on the tick count and the
+ * interpolation factor, since the entities read time from {@link GameClock}. The one
+ * exception is an animated sprite, which keeps its current frame while the game is
+ * paused.
+ */
+public class LayeredRenderer {
+
+    /** Fill used when there is no background image. */
+    public static final Color FALLBACK_BACKGROUND = Color.rgb(0, 0, 26);
+
+    private static final Color PAUSE_SHADE = Color.rgb(0, 0, 0, 0.5);
+    private static final String PAUSE_TEXT = "PAUSED";
+
+    private final int width;
+    private final int height;
+    private final Canvas backgroundCanvas;
+    private final Canvas entityCanvas;
+    private final Canvas effectsCanvas;
+    private final GraphicsContext entityGc;
+    private final GraphicsContext effectsGc;
+    private final RenderQueue queue = new RenderQueue();
+
+    // What each layer shows, to tell whether it must be repainted
+    private GameWorld shownWorld;
+    private long shownTick = -1;
+    private double shownAlpha = Double.NaN;
+    private long effectsTick = -1;
+    private boolean particlesShown;
+    private boolean pauseShown;
+    private long overlayRevisionShown = -1;
+
+    private Font pauseFont;        // Created on first pause, with the width of the text
+    private double pauseTextWidth;
+
+    private long frames;
+    private long entityRepaints;
+    private long effectsRepaints;
+
+    /**
+     * Creates the layers of a view. The background is a solid fill until
+     * {@link #setBackground(Image)} is called.
+     *
+     * @param width  view width
+     * @param height view height
+     */
+    public LayeredRenderer(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.backgroundCanvas = new Canvas(width, height);
+        this.entityCanvas = new Canvas(width, height);
+        this.effectsCanvas = new Canvas(width, height);
+        this.entityGc = entityCanvas.getGraphicsContext2D();
+        this.effectsGc = effectsCanvas.getGraphicsContext2D();
+        // The background canvas may be taller than the view; only the view is shown
+        backgroundCanvas.setManaged(false);
+        setBackground(null);
+    }
+
+    /**
+     * Adds the layers to a pane, bottom first, below the nodes already in it.
+     *
+     * @param pane pane showing the game
+     */
+    public void addTo(Pane pane) {
+        pane.getChildren().addAll(0, List.of(backgroundCanvas, entityCanvas, effectsCanvas));
+    }
+
+    /**
+     * Paints the background layer once. The crop of {@code image} that covers the
+     * view width is copied into a new image; the layer is two copies of it stacked
+     * vertically, so that any scroll offset between minus the image height and zero
+     * covers the same area as the two images the single-canvas renderer drew.
+     *
+     * @param image background image, or null for {@link #FALLBACK_BACKGROUND}
+     */
+    public void setBackground(Image image) {
+        GraphicsContext gc = backgroundCanvas.getGraphicsContext2D();
+        if (image == null || image.getHeight() <= 0) {
+            backgroundCanvas.setWidth(width);
+            backgroundCanvas.setHeight(height);
+            backgroundCanvas.setTranslateX(0);
+            backgroundCanvas.setTranslateY(0);
+            gc.setFill(FALLBACK_BACKGROUND);
+            gc.fillRect(0, 0, width, height);
+            return;
+        }
+        int imageWidth = (int) image.getWidth();
+        int imageHeight = (int) image.getHeight();
+        int cropX = imageWidth < width ? 0 : (imageWidth - width) / 2; // Centred crop of the view width
+        int cropWidth = Math.min(imageWidth, width);
+
+        backgroundCanvas.setWidth(cropWidth);
+        backgroundCanvas.setHeight(2.0 * imageHeight);
+        backgroundCanvas.setTranslateX((width - cropWidth) / 2.0);
+        gc.clearRect(0, 0, cropWidth, 2.0 * imageHeight);
+        PixelReader reader = image.getPixelReader();
+        if (reader != null) {
+            WritableImage crop = new WritableImage(reader, cropX, 0, cropWidth, imageHeight);
+            gc.drawImage(crop, 0, 0);
+            gc.drawImage(crop, 0, imageHeight);
+        } else {
+            // Pixels not readable (still loading): let the canvas crop instead
+            gc.drawImage(image, cropX, 0, cropWidth, imageHeight, 0, 0, cropWidth, imageHeight);
+            gc.drawImage(image, cropX, 0, cropWidth, imageHeight, 0, imageHeight, cropWidth, imageHeight);
+        }
+    }
+
+    /**
+     * Moves the background layer. Nothing is redrawn.
+     *
+     * @param top Y of the upper of the two background copies, between minus the
+     *            image height and the view height
+     */
+    public void scrollBackground(double top) {
+        backgroundCanvas.setTranslateY(top);
+    }
+
+    /**
+     * Repaints the layers whose content changed since the last frame.
+     *
+     * @param world    world to draw
+     * @param alpha    interpolation factor from {@link FixedTimestep}
+     * @param paused   whether the pause overlay is shown
+     * @param profiler profiler whose overlay is drawn, or null
+     */
+    public void render(GameWorld world, double alpha, boolean paused, FrameProfiler profiler) {
+        frames++;
+        long tick = world.getTickCount();
+        boolean newWorld = world != shownWorld;
+        shownWorld = world;
+
+        if (newWorld || tick != shownTick || alpha != shownAlpha) {
+            entityGc.clearRect(0, 0, width, height);
+            for (GameObject obj : world.getGameObjects()) {
+                obj.renderInterpolated(queue, alpha);
+            }
+            world.getProjectiles().render(queue, alpha);
+            queue.flush(entityGc);
+            shownTick = tick;
+            shownAlpha = alpha;
+            entityRepaints++;
+        }
+
+        ProceduralExplosion explosions = world.getExplosions();
+        boolean particles = explosions.getLiveParticleCount() > 0;
+        long overlayRevision = profiler == null ? -1 : profiler.getOverlayRevision();
+        boolean particlesMoved = tick != effectsTick && (particles || particlesShown);
+        if (newWorld || particlesMoved || paused != pauseShown || overlayRevision != overlayRevisionShown) {
+            effectsGc.clearRect(0, 0, width, height);
+            explosions.render(effectsGc);
+            if (profiler != null) {
+                profiler.renderOverlay(effectsGc);
+            }
+            if (paused) {
+                renderPause(effectsGc);
+            }
+            effectsTick = tick;
+            particlesShown = particles;
+            pauseShown = paused;
+            overlayRevisionShown = overlayRevision;
+            effectsRepaints++;
+        }
+    }
+
+    private void renderPause(GraphicsContext gc) {
+        gc.setFill(PAUSE_SHADE);
+        gc.fillRect(0, 0, width, height);
+        if (pauseFont == null) {
+            pauseFont = Font.font("Arial", FontWeight.BOLD, 50);
+            Text text = new Text(PAUSE_TEXT);
+            text.setFont(pauseFont);
+            pauseTextWidth = text.getLayoutBounds().getWidth();
+        }
+        gc.setFill(Color.WHITE);
+        gc.setFont(pauseFont);
+        gc.fillText(PAUSE_TEXT, (width - pauseTextWidth) / 2, height / 2.0);
+    }
+
+    /**
+     * Makes the next {@link #render} repaint the entity and effects layers.
+     */
+    public void invalidate() {
+        shownWorld = null;
+    }
+
+    /**
+     * Builds a one-line summary of how often each layer was repainted, and of the
+     * last entity repaint.
+     *
+     * @return frame count, repaints per layer and render queue statistics
+     */
+    public String report() {
+        return String.format("Layered renderer: %d frames, entity layer repainted in %.1f%%, effects layer in %.1f%%. %s",
+                frames, percent(entityRepaints), percent(effectsRepaints), queue.report());
+    }
+
+    private double percent(long repaints) {
+        return frames == 0 ? 0 : 100.0 * repaints / frames;
+    }
+}
@@ -0,0 +1,370 @@
+package uet.oop.spaceshootergamejavafx.entities;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AI that plans by Monte-Carlo search over simulated futures instead of by rules.
+ * <p>
+ * Each decision loads the snapshot into a flat {@link LookaheadState} and scores the
+ * nine movement actions the {@code Player.setMove*} flags allow (none, one direction
+ * or two perpendicular ones). For each action it runs a fixed number of rollouts of
+ * {@code horizon} ticks. The action is held for the first ticks; after that the
+ * first rollout keeps holding it, the second stops, and the rest pick random
+ * actions and hold each one for a few ticks. A rollout that gets hit scores a large
+ * penalty, smaller the later the hit. Otherwise it loses a little on every tick for
+ * being away from the target column and the preferred row, and for every bullet
+ * passing close by. An action is worth its best rollout, because the future only
+ * depends on the player's own moves as far as the rollouts model it. The planner
+ * shoots whenever an enemy is straight above the player.
+ * <p>
+ * The actions are split over {@code parallelism} workers. The calling thread is one
+ * of them, and the others run on a small pool of daemon threads that exit when
+ * idle. Each worker owns its rollout state. Rollouts run round-robin over the
+ * worker's actions, so if the deadline ends the search early, every action has had
+ * about the same number of rollouts. Rollout random streams are derived from the
+ * snapshot tick, the action and the rollout number, so a search that finishes
+ * before the deadline gives the same decision on every run and with any number of
+ * workers.
+ */
+public class LookaheadPlanner implements AIPlanner {
+
+    /** Property choosing this planner instead of the reactive AI; defaults to false. */
+    public static final String LOOKAHEAD_PROPERTY = "spaceshooter.ai.lookahead";
+
+    /** Ticks simulated per rollout: 0.8 seconds at 60 ticks per second. */
+    public static final int DEFAULT_HORIZON = 48;
+    /** Rollouts per action. */
+    public static final int DEFAULT_ROLLOUTS = 24;
+    /** Time allowed per decision: a quarter of a 60 Hz frame. */
+    public static final long DEFAULT_DEADLINE_MICROS = 4000;
+
+    /** Every movement the player's flags allow; index 0, standing still, wins ties. */
+    private static final int[] ACTIONS = {
+            0,
+            InputFlags.LEFT, InputFlags.RIGHT, InputFlags.FORWARD, InputFlags.BACKWARD,
+            InputFlags.LEFT | InputFlags.FORWARD, InputFlags.LEFT | InputFlags.BACKWARD,
+            InputFlags.RIGHT | InputFlags.FORWARD, InputFlags.RIGHT | InputFlags.BACKWARD
+    };
+    /** Ticks the action being scored is held before a rollout continues with other actions. */
+    private static final int FIRST_ACTION_TICKS = 6;
+    /** Shortest and longest hold of a random action within a rollout. */
+    private static final int MIN_HOLD_TICKS = 4;
+    private static final int MAX_HOLD_TICKS = 12;
+
+    /** Score of a rollout that gets hit on its first tick; each later tick adds one. */
+    private static final double HIT_SCORE = -10_000;
+    /** Weight per tick of the distance to the target column, as a fraction of the width. */
+    private static final double ALIGN_WEIGHT = 1.0;
+    /** Weight per tick of the distance to the preferred row, as a fraction of the height. */
+    private static final double ROW_WEIGHT = 2.0;
+    /** Penalty per tick and per bullet within {@link #NEAR_MISS_MARGIN} of the player. */
+    private static final double NEAR_MISS_WEIGHT = 0.5;
+    private static final double NEAR_MISS_MARGIN = 12.0;
+
+    /** Row the player returns to; the same as the reactive AI's. */
+    private static final double PREFERRED_Y = GameWorld.HEIGHT * 0.92 - Player.HEIGHT / 2.0;
+    /** Regular enemies below this line are about to escape and are targeted first. */
+    private static final double URGENT_ENEMY_Y = GameWorld.HEIGHT * 0.35;
+
+    private final int horizon;
+    private final int rolloutsPerAction;
+    private final long deadlineNanos;
+    private final Worker[] workers;
+    private final ThreadPoolExecutor pool;      // Null when the search runs on the calling thread only
+    private final Future<?>[] pending;
+
+    private final LookaheadState root = new LookaheadState();
+    /** Best rollout score and number of finished rollouts per action; each entry belongs to one worker. */
+    private final double[] actionScore = new double[ACTIONS.length];
+    private final int[] actionRollouts = new int[ACTIONS.length];
+
+    // Inputs of the current search, written before the workers start
+    private long searchTick;
+    private long searchDeadline;
+    private boolean hasTarget;
+    private double targetX;
+
+    private long decisions;
+    private long truncatedDecisions;
+    private long totalRollouts;
+    private long totalNanos;
+    private long maxNanos;
+
+    /**
+     * Creates a planner.
+     *
+     * @param horizon           ticks simulated per rollout
+     * @param rolloutsPerAction rollouts per movement action
+     * @param deadlineMicros    time allowed per decision, in microseconds
+     * @param parallelism       number of threads searching, the calling one included
+     */
+    public LookaheadPlanner(int horizon, int rolloutsPerAction, long deadlineMicros, int parallelism) {
+        if (horizon <= FIRST_ACTION_TICKS || rolloutsPerAction <= 0 || deadlineMicros <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("horizon must exceed " + FIRST_ACTION_TICKS
+                    + " and rolloutsPerAction, deadlineMicros and parallelism must be positive");
+        }
+        this.horizon = horizon;
+        this.rolloutsPerAction = rolloutsPerAction;
+        this.deadlineNanos = deadlineMicros * 1000;
+        int workerCount = Math.min(parallelism, ACTIONS.length);
+        this.workers = new Worker[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new Worker(i, workerCount);
+        }
+        this.pending = new Future<?>[workerCount];
+        if (workerCount > 1) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            pool = new ThreadPoolExecutor(workerCount - 1, workerCount - 1, 1, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), task -> {
+                        Thread thread = new Thread(task, "lookahead-planner-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            pool.allowCoreThreadTimeOut(true);
+        } else {
+            pool = null;
+        }
+    }
+
+    @Override
+    public long decide(WorldSnapshot snapshot) {
+        long start = System.nanoTime();
+        root.load(snapshot, horizon, NEAR_MISS_MARGIN);
+        chooseTarget(snapshot);
+        searchTick = snapshot.getTick();
+        searchDeadline = start + deadlineNanos;
+        for (int a = 0; a < ACTIONS.length; a++) {
+            actionScore[a] = Double.NEGATIVE_INFINITY;
+            actionRollouts[a] = 0;
+        }
+
+        for (int i = 1; i < workers.length; i++) {
+            pending[i] = pool.submit(workers[i]);
+        }
+        workers[0].run();
+        for (int i = 1; i < workers.length; i++) {
+            awaitWorker(i);
+        }
+
+        int best = 0;
+        boolean truncated = false;
+        for (int a = 0; a < ACTIONS.length; a++) {
+            totalRollouts += actionRollouts[a];
+            truncated |= actionRollouts[a] < rolloutsPerAction;
+            if (actionScore[a] > actionScore[best]) {
+                best = a;
+            }
+        }
+        int flags = ACTIONS[best];
+        if (isEnemyAbove(snapshot)) {
+            flags |= InputFlags.SHOOT;
+        }
+
+        long elapsed = System.nanoTime() - start;
+        decisions++;
+        if (truncated) truncatedDecisions++;
+        totalNanos += elapsed;
+        maxNanos = Math.max(maxNanos, elapsed);
+        return AIIntent.pack(snapshot.getTick(), flags, 0);
+    }
+
+    /**
+     * Waits for a worker to finish, even if the calling thread is interrupted: until
+     * it does, the worker still writes the scores that {@link #decide} is about to
+     * read, and it would overlap the next search. The deadline bounds the wait. An
+     * interrupt is restored once the worker is done.
+     */
+    private void awaitWorker(int i) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    pending[i].get();
+                    return;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Lookahead worker failed", e.getCause());
+        } finally {
+            pending[i] = null;
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Picks the column rollouts are pulled towards: the lowest regular enemy if it is
+     * about to escape, otherwise a power-up in the lower half, otherwise the lowest
+     * regular enemy, otherwise the boss nearest to the player.
+     */
+    private void chooseTarget(WorldSnapshot snapshot) {
+        int lowest = -1;
+        for (int i = 0; i < snapshot.getRegularEnemyCount(); i++) {
+            if (snapshot.getEnemyY(i) < snapshot.getPlayerY() && (lowest < 0 || snapshot.getEnemyY(i) > snapshot.getEnemyY(lowest))) {
+                lowest = i;
+            }
+        }
+        hasTarget = true;
+        if (lowest >= 0 && snapshot.getEnemyY(lowest) > URGENT_ENEMY_Y) {
+            targetX = snapshot.getEnemyX(lowest);
+            return;
+        }
+        for (int i = 0; i < snapshot.getPowerUpCount(); i++) {
+            if (snapshot.getPowerUpY(i) > GameWorld.HEIGHT * 0.5) {
+                targetX = snapshot.getPowerUpX(i);
+                return;
+            }
+        }
+        if (lowest >= 0) {
+            targetX = snapshot.getEnemyX(lowest);
+            return;
+        }
+        int nearestBoss = -1;
+        for (int i = snapshot.getRegularEnemyCount(); i < snapshot.getEnemyCount(); i++) {
+            if (nearestBoss < 0 || Math.abs(snapshot.getEnemyX(i) - snapshot.getPlayerX())
+                    < Math.abs(snapshot.getEnemyX(nearestBoss) - snapshot.getPlayerX())) {
+                nearestBoss = i;
+            }
+        }
+        hasTarget = nearestBoss >= 0;
+        if (hasTarget) {
+            targetX = snapshot.getEnemyX(nearestBoss);
+        }
+    }
+
+    private static boolean isEnemyAbove(WorldSnapshot snapshot) {
+        double x = snapshot.getPlayerX();
+        double y = snapshot.getPlayerY();
+        for (int i = 0; i < snapshot.getEnemyCount(); i++) {
+            if (snapshot.getEnemyY(i) < y && Math.abs(snapshot.getEnemyX(i) - x)
+                    <= snapshot.getEnemyHalfWidth(i) + ProjectileStore.PLAYER_BULLET_WIDTH / 2.0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Searches the actions {@code index, index + stride, ...} with its own rollout state.
+     */
+    private final class Worker implements Runnable {
+
+        private final int index;
+        private final int stride;
+        private final LookaheadState state = new LookaheadState();
+
+        Worker(int index, int stride) {
+            this.index = index;
+            this.stride = stride;
+        }
+
+        @Override
+        public void run() {
+            for (int r = 0; r < rolloutsPerAction; r++) {
+                for (int a = index; a < ACTIONS.length; a += stride) {
+                    if (System.nanoTime() > searchDeadline) {
+                        return;
+                    }
+                    double score = rollout(a, r);
+                    if (score > actionScore[a]) {
+                        actionScore[a] = score;
+                    }
+                    actionRollouts[a]++;
+                }
+            }
+        }
+
+        private double rollout(int a, int r) {
+            state.copyFrom(root);
+            long randomState = mix(searchTick * 0x9E3779B97F4A7C15L + a * 0xBF58476D1CE4E5B9L + r);
+            int action = ACTIONS[a];
+            int hold = r == 0 ? horizon : FIRST_ACTION_TICKS;
+            double score = 0;
+            for (int k = 1; k <= horizon; k++) {
+                if (hold == 0) {
+                    if (r == 1) {
+                        action = 0;
+                        hold = horizon;
+                    } else {
+                        randomState = mix(randomState);
+                        action = ACTIONS[(int) ((randomState >>> 33) % ACTIONS.length)];
+                        hold = MIN_HOLD_TICKS + (int) ((randomState >>> 7) % (MAX_HOLD_TICKS - MIN_HOLD_TICKS + 1));
+                    }
+                }
+                hold--;
+                if (state.step(action)) {
+                    return HIT_SCORE + k;
+                }
+                if (hasTarget) {
+                    score -= ALIGN_WEIGHT * Math.abs(state.getPlayerX() - targetX) / GameWorld.WIDTH;
+                }
+                score -= ROW_WEIGHT * Math.abs(state.getPlayerY() - PREFERRED_Y) / GameWorld.HEIGHT
+                        + NEAR_MISS_WEIGHT * state.getNearMisses();
+            }
+            return score;
+        }
+    }
+
+    /** SplitMix64 finalizer, used as a cheap stateless random stream. */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    @Override
+    public void applyIntent(long intent, Player target) {
+        if (intent == AIIntent.NONE) {
+            return;
+        }
+        target.setMoveLeft(AIIntent.has(intent, InputFlags.LEFT));
+        target.setMoveRight(AIIntent.has(intent, InputFlags.RIGHT));
+        target.setMoveForward(AIIntent.has(intent, InputFlags.FORWARD));
+        target.setMoveBackward(AIIntent.has(intent, InputFlags.BACKWARD));
+        target.setWantsToShoot(AIIntent.has(intent, InputFlags.SHOOT));
+    }
+
+    /**
+     * Returns whether every search so far finished before its deadline.
+     *
+     * @return true if no decision was cut short
+     */
+    @Override
+    public boolean isReproducible() {
+        return truncatedDecisions == 0;
+    }
+
+    /**
+     * Returns how many searches the deadline ended early.
+     *
+     * @return truncated decisions
+     */
+    public long getTruncatedDecisions() {
+        return truncatedDecisions;
+    }
+
+    @Override
+    public String report() {
+        double meanMicros = decisions == 0 ? 0 : totalNanos / 1000.0 / decisions;
+        double meanRollouts = decisions == 0 ? 0 : (double) totalRollouts / decisions;
+        return String.format("Lookahead AI: %d decisions, %.0f rollouts each, %d cut short by the %d us deadline;"
+                        + " %.1f us mean, %.1f us max per decision on %d threads",
+                decisions, meanRollouts, truncatedDecisions, deadlineNanos / 1000, meanMicros, maxNanos / 1000.0,
+                workers.length);
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+}
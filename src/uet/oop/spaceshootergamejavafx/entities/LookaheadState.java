@@ -0,0 +1,248 @@
+package uet.oop.spaceshootergamejavafx.entities;
+
+import java.util.Arrays;
+
+/**
+ * Minimal headless copy of a world that {@link LookaheadPlanner} simulates forward:
+ * the player position, the hostile bullets and the enemy bodies, as flat primitive
+ * arrays. Cloning a state is a handful of {@link System#arraycopy} calls, so a
+ * planner can restore the root state before every rollout without allocating.
+ * <p>
+ * {@link #step(int)} follows the order of {@link GameWorld#tick()}: enemies and
+ * bullets move, the player moves by the given {@link InputFlags}, regular enemies
+ * fire their pending shot, and the player is tested against enemy bodies and
+ * bullets. Only what can hurt the player is modelled. Player bullets, power-ups,
+ * spawns, boss movement and boss salvoes are left out, so a rollout is an
+ * estimate of the danger ahead, not a replay of the game.
+ */
+public class LookaheadState {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private static final double PLAYER_HALF_WIDTH = Player.WIDTH / 2.0;
+    private static final double PLAYER_HALF_HEIGHT = Player.HEIGHT / 2.0;
+    private static final double ENEMY_BULLET_HALF = ProjectileStore.ENEMY_BULLET_DIAMETER / 2.0;
+
+    private double playerX;
+    private double playerY;
+    /** Bullets that came within the near-miss margin of the player in the last step. */
+    private int nearMisses;
+
+    private int bulletCount;
+    private double[] bulletX = new double[INITIAL_CAPACITY];
+    private double[] bulletY = new double[INITIAL_CAPACITY];
+    private double[] bulletVx = new double[INITIAL_CAPACITY];
+    private double[] bulletVy = new double[INITIAL_CAPACITY];
+    private double[] bulletHalfWidth = new double[INITIAL_CAPACITY];
+    private double[] bulletHalfHeight = new double[INITIAL_CAPACITY];
+
+    private int enemyCount;
+    private double[] enemyX = new double[INITIAL_CAPACITY];
+    private double[] enemyY = new double[INITIAL_CAPACITY];
+    private double[] enemySpeed = new double[INITIAL_CAPACITY];
+    private double[] enemyHalfWidth = new double[INITIAL_CAPACITY];
+    private double[] enemyHalfHeight = new double[INITIAL_CAPACITY];
+    private boolean[] enemyShotPending = new boolean[INITIAL_CAPACITY];
+
+    /** Margin around the player inside which a passing bullet counts as a near miss. */
+    private double nearMissMargin;
+
+    /**
+     * Loads the parts of a snapshot a rollout needs. Bullets whose path over the
+     * horizon cannot come near any position the player can reach in that time are
+     * left out.
+     *
+     * @param snapshot       world state to copy
+     * @param horizon        number of ticks rollouts will simulate
+     * @param nearMissMargin margin around the player that counts as a near miss
+     */
+    public void load(WorldSnapshot snapshot, int horizon, double nearMissMargin) {
+        this.playerX = snapshot.getPlayerX();
+        this.playerY = snapshot.getPlayerY();
+        this.nearMisses = 0;
+        this.nearMissMargin = nearMissMargin;
+
+        // Box the player can reach within the horizon, grown by the near-miss margin
+        double reach = Player.SPEED * horizon;
+        double minX = playerX - reach - PLAYER_HALF_WIDTH - nearMissMargin;
+        double maxX = playerX + reach + PLAYER_HALF_WIDTH + nearMissMargin;
+        double minY = playerY - reach - PLAYER_HALF_HEIGHT - nearMissMargin;
+        double maxY = playerY + reach + PLAYER_HALF_HEIGHT + nearMissMargin;
+
+        enemyCount = 0;
+        for (int i = 0; i < snapshot.getEnemyCount(); i++) {
+            if (enemyCount == enemyX.length) {
+                growEnemies();
+            }
+            int k = enemyCount++;
+            enemyX[k] = snapshot.getEnemyX(i);
+            enemyY[k] = snapshot.getEnemyY(i);
+            enemySpeed[k] = snapshot.getEnemySpeed(i);
+            enemyHalfWidth[k] = snapshot.getEnemyHalfWidth(i);
+            enemyHalfHeight[k] = snapshot.getEnemyHalfHeight(i);
+            enemyShotPending[k] = snapshot.isEnemyShotPending(i);
+        }
+
+        ProjectileStore projectiles = snapshot.getProjectiles();
+        bulletCount = 0;
+        for (int i = 0; i < projectiles.size(); i++) {
+            if (!projectiles.isHostile(i) || projectiles.isDead(i)) continue;
+            double x = projectiles.getX(i);
+            double y = projectiles.getY(i);
+            double vx = projectiles.getVx(i);
+            double vy = projectiles.getVy(i);
+            double hw = projectiles.getHalfWidth(i);
+            double hh = projectiles.getHalfHeight(i);
+            double endX = x + vx * horizon;
+            double endY = y + vy * horizon;
+            if (Math.max(x, endX) + hw < minX || Math.min(x, endX) - hw > maxX
+                    || Math.max(y, endY) + hh < minY || Math.min(y, endY) - hh > maxY) {
+                continue;
+            }
+            addBullet(x, y, vx, vy, hw, hh);
+        }
+    }
+
+    /**
+     * Makes this state an exact copy of another one.
+     *
+     * @param source state to copy
+     */
+    public void copyFrom(LookaheadState source) {
+        playerX = source.playerX;
+        playerY = source.playerY;
+        nearMisses = source.nearMisses;
+        nearMissMargin = source.nearMissMargin;
+
+        bulletCount = source.bulletCount;
+        if (bulletX.length < source.bulletX.length) {
+            allocateBullets(source.bulletX.length);
+        }
+        System.arraycopy(source.bulletX, 0, bulletX, 0, bulletCount);
+        System.arraycopy(source.bulletY, 0, bulletY, 0, bulletCount);
+        System.arraycopy(source.bulletVx, 0, bulletVx, 0, bulletCount);
+        System.arraycopy(source.bulletVy, 0, bulletVy, 0, bulletCount);
+        System.arraycopy(source.bulletHalfWidth, 0, bulletHalfWidth, 0, bulletCount);
+        System.arraycopy(source.bulletHalfHeight, 0, bulletHalfHeight, 0, bulletCount);
+
+        enemyCount = source.enemyCount;
+        if (enemyX.length < source.enemyX.length) {
+            allocateEnemies(source.enemyX.length);
+        }
+        System.arraycopy(source.enemyX, 0, enemyX, 0, enemyCount);
+        System.arraycopy(source.enemyY, 0, enemyY, 0, enemyCount);
+        System.arraycopy(source.enemySpeed, 0, enemySpeed, 0, enemyCount);
+        System.arraycopy(source.enemyHalfWidth, 0, enemyHalfWidth, 0, enemyCount);
+        System.arraycopy(source.enemyHalfHeight, 0, enemyHalfHeight, 0, enemyCount);
+        System.arraycopy(source.enemyShotPending, 0, enemyShotPending, 0, enemyCount);
+    }
+
+    /**
+     * Simulates one tick.
+     *
+     * @param flags {@link InputFlags} movement bits of the player for this tick
+     * @return true if the player was hit by an enemy body or a bullet
+     */
+    public boolean step(int flags) {
+        for (int i = 0; i < enemyCount; i++) {
+            enemyY[i] += enemySpeed[i];
+        }
+        for (int i = 0; i < bulletCount; i++) {
+            bulletX[i] += bulletVx[i];
+            bulletY[i] += bulletVy[i];
+        }
+
+        // Same movement and clamping as Player.update()
+        if ((flags & InputFlags.LEFT) != 0) playerX = Math.max(PLAYER_HALF_WIDTH, playerX - Player.SPEED);
+        if ((flags & InputFlags.RIGHT) != 0) playerX = Math.min(GameWorld.WIDTH - PLAYER_HALF_WIDTH, playerX + Player.SPEED);
+        if ((flags & InputFlags.FORWARD) != 0) playerY = Math.max(PLAYER_HALF_HEIGHT, playerY - Player.SPEED);
+        if ((flags & InputFlags.BACKWARD) != 0) playerY = Math.min(GameWorld.HEIGHT - PLAYER_HALF_HEIGHT, playerY + Player.SPEED);
+
+        for (int i = 0; i < enemyCount; i++) {
+            if (enemyShotPending[i] && enemyY[i] > GameWorld.ENEMY_FIRE_MIN_Y && enemyY[i] < GameWorld.ENEMY_FIRE_MAX_Y) {
+                enemyShotPending[i] = false;
+                addBullet(enemyX[i], enemyY[i] + Enemy.HEIGHT / 2, 0, 1, ENEMY_BULLET_HALF, ENEMY_BULLET_HALF);
+            }
+            if (GameObject.overlaps(playerX, playerY, PLAYER_HALF_WIDTH, PLAYER_HALF_HEIGHT,
+                    enemyX[i], enemyY[i], enemyHalfWidth[i], enemyHalfHeight[i])) {
+                return true;
+            }
+        }
+
+        nearMisses = 0;
+        double missHalfWidth = PLAYER_HALF_WIDTH + nearMissMargin;
+        double missHalfHeight = PLAYER_HALF_HEIGHT + nearMissMargin;
+        for (int i = 0; i < bulletCount; i++) {
+            double dx = Math.abs(bulletX[i] - playerX);
+            double dy = Math.abs(bulletY[i] - playerY);
+            if (dx > missHalfWidth + bulletHalfWidth[i] || dy > missHalfHeight + bulletHalfHeight[i]) continue;
+            if (dx <= PLAYER_HALF_WIDTH + bulletHalfWidth[i] && dy <= PLAYER_HALF_HEIGHT + bulletHalfHeight[i]) {
+                return true;
+            }
+            nearMisses++;
+        }
+        return false;
+    }
+
+    private void addBullet(double x, double y, double vx, double vy, double hw, double hh) {
+        if (bulletCount == bulletX.length) {
+            allocateBullets(bulletCount * 2);
+        }
+        int k = bulletCount++;
+        bulletX[k] = x;
+        bulletY[k] = y;
+        bulletVx[k] = vx;
+        bulletVy[k] = vy;
+        bulletHalfWidth[k] = hw;
+        bulletHalfHeight[k] = hh;
+    }
+
+    private void allocateBullets(int capacity) {
+        bulletX = Arrays.copyOf(bulletX, capacity);
+        bulletY = Arrays.copyOf(bulletY, capacity);
+        bulletVx = Arrays.copyOf(bulletVx, capacity);
+        bulletVy = Arrays.copyOf(bulletVy, capacity);
+        bulletHalfWidth = Arrays.copyOf(bulletHalfWidth, capacity);
+        bulletHalfHeight = Arrays.copyOf(bulletHalfHeight, capacity);
+    }
+
+    private void growEnemies() {
+        allocateEnemies(enemyX.length * 2);
+    }
+
+    private void allocateEnemies(int capacity) {
+        enemyX = Arrays.copyOf(enemyX, capacity);
+        enemyY = Arrays.copyOf(enemyY, capacity);
+        enemySpeed = Arrays.copyOf(enemySpeed, capacity);
+        enemyHalfWidth = Arrays.copyOf(enemyHalfWidth, capacity);
+        enemyHalfHeight = Arrays.copyOf(enemyHalfHeight, capacity);
+        enemyShotPending = Arrays.copyOf(enemyShotPending, capacity);
+    }
+
+    public double getPlayerX() {
+        return playerX;
+    }
+
+    public double getPlayerY() {
+        return playerY;
+    }
+
+    /**
+     * Returns how many bullets passed within the near-miss margin of the player,
+     * without hitting it, in the last {@link #step(int)}.
+     *
+     * @return near misses in the last step
+     */
+    public int getNearMisses() {
+        return nearMisses;
+    }
+
+    /**
+     * Returns the number of bullets kept by {@link #load}, plus any fired since.
+     *
+     * @return bullet count
+     */
+    public int getBulletCount() {
+        return bulletCount;
+    }
+}
@@ -1,11 +1,7 @@
 package uet.oop.spaceshootergamejavafx.entities;
 
 import javafx.scene.paint.Color;
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.image.Image;
 import javafx.scene.media.AudioClip;
-import java.util.List;
-import java.net.URL;
 
 /**
  * Player class đại diện cho người chơi điều khiển được trong game.
@@ -22,7 +18,7 @@ public class Player extends GameObject {
     static final double SPEED = 3; // [7]
 
     /** Ảnh đại diện của Player */
-    private Image sprite; // [7]
+    private Sprite sprite; // [7]
 
     /** Trạng thái di chuyển */
     private boolean moveLeft, moveRight, moveForward, moveBackward; // [7]
@@ -53,57 +49,46 @@ public class Player extends GameObject {
 
     private boolean forceSingleShotByAI = false; // [1]
 
+    /** Đồng hồ mô phỏng (tính theo tick) dùng cho thời hạn power-up và bất tử */
+    private final GameClock clock;
+
     /**
      * Khởi tạo Player với vị trí ban đầu.
      * @param x hoành độ tâm Player
      * @param y tung độ tâm Player
+     * @param clock đồng hồ mô phỏng của thế giới game
      */
-    public Player(double x, double y) {
+    public Player(double x, double y, GameClock clock) {
         super(x, y, WIDTH, HEIGHT); // [7]
         this.dead = false; // [7]
+        this.clock = clock;
 
-        // Load sprite hình ảnh player
-        try {
-            this.sprite = new Image(getClass().getResourceAsStream("/player.png")); // [7]
-        } catch (Exception e) {
-            System.err.println("Không thể load player sprite: " + e.getMessage()); // [7]
-            this.sprite = null; // [7]
-        }
-
-        // Load âm thanh bắn
-        try {
-            URL soundURL = getClass().getResource("/player_shoot.wav"); // [7]
-            if (soundURL != null) { // [7]
-                shootSound = new AudioClip(soundURL.toExternalForm()); // [7]
-            } else {
-                System.err.println("Không tìm thấy file âm thanh bắn!"); // [7]
-            }
-        } catch (Exception e) {
-            System.err.println("Lỗi khi load âm thanh bắn: " + e.getMessage()); // [7]
-        }
+        // Sprite và âm thanh bắn dùng chung, chỉ load một lần trong Assets
+        this.sprite = Assets.getSprite(Assets.PLAYER_SPRITE);
+        this.shootSound = Assets.getClip(Assets.PLAYER_SHOOT_SOUND);
     }
 
     /** Kích hoạt power-up Khiên */
     public void activateShield() {
         this.shieldActive = true; // [7]
-        this.shieldActivationTime = System.currentTimeMillis(); // [7]
+        this.shieldActivationTime = clock.millis(); // [7]
         this.tempInvincible = false; // [7]
-        System.out.println("Player: Shield Activated!"); // [7]
+        GameLog.debug("Player: Shield Activated!"); // [7]
     }
 
     /** Kích hoạt power-up Triple Shot */
     public void activateTripleShot() {
         this.tripleShotActive = true; // [7]
-        this.tripleShotActivationTime = System.currentTimeMillis(); // [7]
-        System.out.println("Player: Triple Shot Activated!"); // [7]
+        this.tripleShotActivationTime = clock.millis(); // [7]
+        GameLog.debug("Player: Triple Shot Activated!"); // [7]
     }
 
     /** Kích hoạt trạng thái bất tử tạm thời (khi hồi sinh) */
     public void activateTempInvincibility() {
         if (!this.shieldActive) { // [7]
             this.tempInvincible = true; // [7]
-            this.tempInvincibilityStartTime = System.currentTimeMillis(); // [7]
-            System.out.println("Player: Temp Invincibility Activated!"); // [7]
+            this.tempInvincibilityStartTime = clock.millis(); // [7]
+            GameLog.debug("Player: Temp Invincibility Activated!"); // [7]
         }
     }
 
@@ -134,21 +119,21 @@ public class Player extends GameObject {
     @Override
     public void update() {
         // Hết hạn power-up Khiên
-        if (shieldActive && System.currentTimeMillis() - shieldActivationTime > SHIELD_DURATION_MS) { // [7]
+        if (shieldActive && clock.millis() - shieldActivationTime > SHIELD_DURATION_MS) { // [7]
             shieldActive = false; // [7]
-            System.out.println("Player: Shield Deactivated."); // [7]
+            GameLog.debug("Player: Shield Deactivated."); // [7]
         }
 
         // Hết hạn Triple Shot
-        if (tripleShotActive && System.currentTimeMillis() - tripleShotActivationTime > TRIPLE_SHOT_DURATION_MS) { // [7]
+        if (tripleShotActive && clock.millis() - tripleShotActivationTime > TRIPLE_SHOT_DURATION_MS) { // [7]
             tripleShotActive = false; // [7]
-            System.out.println("Player: Triple Shot Deactivated."); // [7]
+            GameLog.debug("Player: Triple Shot Deactivated."); // [7]
         }
 
         // Hết bất tử tạm thời
-        if (tempInvincible && System.currentTimeMillis() - tempInvincibilityStartTime > TEMP_INVINCIBILITY_DURATION_MS) { // [7]
+        if (tempInvincible && clock.millis() - tempInvincibilityStartTime > TEMP_INVINCIBILITY_DURATION_MS) { // [7]
             tempInvincible = false; // [7]
-            System.out.println("Player: Temp Invincibility Deactivated."); // [7]
+            GameLog.debug("Player: Temp Invincibility Deactivated."); // [7]
         }
 
         // Di chuyển — kiểm tra giới hạn biên màn hình
@@ -163,33 +148,33 @@ public class Player extends GameObject {
 
     /**
      * Vẽ player, hiệu ứng khiên và hiệu ứng nhấp nháy nếu bất tử.
-     * @param gc GraphicsContext của canvas game
+     * @param queue Hàng đợi lệnh vẽ của frame
      */
     @Override
-    public void render(GraphicsContext gc) {
+    public void render(RenderQueue queue) {
         boolean shouldDrawPlayer = true; // [7]
 
         // Hiệu ứng nhấp nháy nếu bất tử tạm thời và không có khiên
         if (tempInvincible && !shieldActive) { // [7]
-            long timeSinceInvincible = System.currentTimeMillis() - tempInvincibilityStartTime; // [7]
+            long timeSinceInvincible = clock.millis() - tempInvincibilityStartTime; // [7]
             if ((timeSinceInvincible / 150) % 2 != 0) shouldDrawPlayer = false; // [7]
         }
 
         if (shouldDrawPlayer) { // [7]
             if (sprite != null) { // [7]
-                gc.drawImage(sprite, this.x - this.width / 2, this.y - this.height / 2, this.width, this.height); // [7]
+                queue.drawSprite(RenderQueue.LAYER_BODIES, sprite,
+                        this.x - this.width / 2, this.y - this.height / 2, this.width, this.height); // [7]
             } else {
-                gc.setFill(Color.BLUE); // [7]
-                gc.fillRect(this.x - this.width / 2, this.y - this.height / 2, this.width, this.height); // [7]
+                queue.fillRect(RenderQueue.LAYER_BODIES, Color.BLUE,
+                        this.x - this.width / 2, this.y - this.height / 2, this.width, this.height); // [7]
             }
         }
 
         // Vẽ viền khiên nếu đang bật
         if (shieldActive) { // [7]
-            gc.setStroke(Color.CYAN); // [7]
-            gc.setLineWidth(2.5); // [7]
             double shieldPadding = 8; // [7]
-            gc.strokeOval(this.x - this.width / 2 - shieldPadding / 2, // [7]
+            queue.strokeOval(RenderQueue.LAYER_OUTLINES, Color.CYAN, 2.5, // [7]
+                    this.x - this.width / 2 - shieldPadding / 2, // [7]
                     this.y - this.height / 2 - shieldPadding / 2, // [7]
                     this.width + shieldPadding, this.height + shieldPadding); // [7]
         }
@@ -203,12 +188,12 @@ public class Player extends GameObject {
 
     /**
      * Bắn đạn: nếu có power-up Triple Shot thì bắn 3, không thì bắn 1.
-     * @param newObjects danh sách object mới cần thêm vào game loop
+     * @param projectiles kho đạn chung của thế giới game
      */
-    public void shoot(List<GameObject> newObjects) {
+    public void shoot(ProjectileStore projectiles) {
         double bulletSpawnX = this.x; // [7]
         double playerTopEdgeY = this.y - (this.height / 2.0); // [7]
-        double bulletCenterY = playerTopEdgeY - (Bullet.HEIGHT / 2.0); // [3, 7]
+        double bulletCenterY = playerTopEdgeY - (ProjectileStore.PLAYER_BULLET_HEIGHT / 2.0); // [3, 7]
 
         boolean currentShotIsTriple = this.tripleShotActive; // [1, 7]
         if (this.forceSingleShotByAI) { // [1]
@@ -218,21 +203,20 @@ public class Player extends GameObject {
 
         if (currentShotIsTriple) { // [7]
             double spreadAngle = 0.25; // [7]
-            double bulletSpeed = Bullet.DEFAULT_SPEED; // [3, 7]
+            double bulletSpeed = ProjectileStore.PLAYER_BULLET_SPEED; // [3, 7]
 
             // Tia giữa
-            newObjects.add(new Bullet(bulletSpawnX, bulletCenterY, 0, -bulletSpeed)); // [3, 7]
+            projectiles.spawnPlayerBullet(bulletSpawnX, bulletCenterY, 0, -bulletSpeed); // [3, 7]
             // Tia trái
-            newObjects.add(new Bullet(bulletSpawnX, bulletCenterY, -Math.sin(spreadAngle) * bulletSpeed, -Math.cos(spreadAngle) * bulletSpeed)); // [3, 7]
+            projectiles.spawnPlayerBullet(bulletSpawnX, bulletCenterY, -Math.sin(spreadAngle) * bulletSpeed, -Math.cos(spreadAngle) * bulletSpeed); // [3, 7]
             // Tia phải
-            newObjects.add(new Bullet(bulletSpawnX, bulletCenterY, Math.sin(spreadAngle) * bulletSpeed, -Math.cos(spreadAngle) * bulletSpeed)); // [3, 7]
+            projectiles.spawnPlayerBullet(bulletSpawnX, bulletCenterY, Math.sin(spreadAngle) * bulletSpeed, -Math.cos(spreadAngle) * bulletSpeed); // [3, 7]
         } else {
-            newObjects.add(new Bullet(bulletSpawnX, bulletCenterY)); // [3, 7]
+            projectiles.spawnPlayerBullet(bulletSpawnX, bulletCenterY, 0, -ProjectileStore.PLAYER_BULLET_SPEED); // [3, 7]
         }
 
         if (shootSound != null) { // [7]
-            shootSound.setVolume(0.3); // [7]
-            shootSound.play(); // [7]
+            shootSound.play(0.3); // Không đổi volume của clip dùng chung
         }
     }
 
@@ -263,7 +247,8 @@ public class Player extends GameObject {
         double halfWidth = this.getWidth() / 2.0;
         double halfHeight = this.getHeight() / 2.0;
 
-        this.x = Math.max(halfWidth, Math.min(SpaceShooter.WIDTH - halfWidth, newX));
-        this.y = Math.max(halfHeight, Math.min(SpaceShooter.HEIGHT - halfHeight, newY));
+        // Dịch chuyển tức thời: dùng setPosition để không nội suy vệt di chuyển khi vẽ
+        setPosition(Math.max(halfWidth, Math.min(SpaceShooter.WIDTH - halfWidth, newX)),
+                Math.max(halfHeight, Math.min(SpaceShooter.HEIGHT - halfHeight, newY)));
     }
 }
\ No newline at end of file
@@ -1,7 +1,5 @@
 package uet.oop.spaceshootergamejavafx.entities;
 
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.image.Image;
 import javafx.scene.paint.Color;
 
 /**
@@ -25,9 +23,9 @@ public class PowerUp extends GameObject {
 
     private boolean dead;
     private PowerUpType type;
-    private Image sprite;
-    private Image shieldSprite;
-    private Image tripleShotSprite;
+    private Sprite sprite;
+    private Sprite shieldSprite;
+    private Sprite tripleShotSprite;
 
     /**
      * Tạo một PowerUp mới tại vị trí (x, y) với loại được chỉ định.
@@ -40,35 +38,10 @@ public class PowerUp extends GameObject {
         this.dead = false;
         this.type = type;
 
-        try {
-            // Load sprite mặc định cho HEALTH_PACK hoặc power-up chung
-            this.sprite = new Image(getClass().getResourceAsStream("/powerup.png"));
-
-            // Load sprite riêng cho Shield
-            java.io.InputStream shieldStream = getClass().getResourceAsStream("/powerup_shield.gif");
-            if (shieldStream != null) {
-                this.shieldSprite = new Image(shieldStream);
-                shieldStream.close();
-            } else {
-                System.err.println("Không tìm thấy /powerup_shield.gif");
-            }
-
-            // Load sprite riêng cho Triple Shot
-            java.io.InputStream tripleShotStream = getClass().getResourceAsStream("/powerup_tripleshot.png");
-            if (tripleShotStream != null) {
-                this.tripleShotSprite = new Image(tripleShotStream);
-                tripleShotStream.close();
-            } else {
-                System.err.println("Không tìm thấy /powerup_tripleshot.png");
-            }
-
-        } catch (Exception e) {
-            System.err.println("Không thể load power-up sprite(s): " + e.getMessage());
-            e.printStackTrace();
-            this.sprite = null;
-            this.shieldSprite = null;
-            this.tripleShotSprite = null;
-        }
+        // Sprite dùng chung, chỉ giải mã một lần trong Assets
+        this.sprite = Assets.getSprite(Assets.POWERUP_SPRITE);
+        this.shieldSprite = Assets.getSprite(Assets.POWERUP_SHIELD_SPRITE);
+        this.tripleShotSprite = Assets.getSprite(Assets.POWERUP_TRIPLE_SHOT_SPRITE);
     }
 
     /**
@@ -94,11 +67,11 @@ public class PowerUp extends GameObject {
     /**
      * Vẽ PowerUp lên canvas.
      * Nếu có sprite tương ứng sẽ vẽ, không thì vẽ hình chữ nhật màu thay thế.
-     * @param gc GraphicsContext của canvas game
+     * @param queue Hàng đợi lệnh vẽ của frame
      */
     @Override
-    public void render(GraphicsContext gc) {
-        Image currentSprite = null;
+    public void render(RenderQueue queue) {
+        Sprite currentSprite = null;
         Color fallbackColor = Color.GOLD;
 
         switch (type) {
@@ -118,12 +91,10 @@ public class PowerUp extends GameObject {
         }
 
         if (currentSprite != null) {
-            gc.drawImage(currentSprite, x - width / 2, y - height / 2, width, height);
+            queue.drawSprite(RenderQueue.LAYER_BODIES, currentSprite, x - width / 2, y - height / 2, width, height);
         } else {
-            gc.setFill(fallbackColor);
-            gc.fillRect(x - width / 2, y - height / 2, width, height);
-            gc.setStroke(Color.WHITE);
-            gc.strokeRect(x - width / 2, y - height / 2, width, height);
+            queue.fillRect(RenderQueue.LAYER_BODIES, fallbackColor, x - width / 2, y - height / 2, width, height);
+            queue.strokeRect(RenderQueue.LAYER_OUTLINES, Color.WHITE, 1.0, x - width / 2, y - height / 2, width, height);
         }
     }
 
@@ -3,167 +3,242 @@ package uet.oop.spaceshootergamejavafx.entities;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Random;
 
 /**
- * Lớp ProceduralExplosion tạo hiệu ứng vụ nổ với các hạt (particles) di chuyển và mờ dần theo thời gian.
- * Vụ nổ kéo dài trong khoảng thời gian nhất định và tự động kết thúc.
+ * Hệ thống hạt (particle engine) dùng chung cho mọi vụ nổ trong game.
+ * Mỗi vụ nổ sinh ra các hạt di chuyển, nhỏ dần và đổi độ trong suốt theo thời gian.
+ * <p>
+ * Thay vì mỗi vụ nổ giữ một danh sách đối tượng Particle riêng, toàn bộ hạt được lưu
+ * trong các mảng nguyên thủy song song (structure-of-arrays): vị trí, vận tốc, kích thước,
+ * thời điểm sinh và chỉ số màu. Hạt hết hạn được xóa bằng cách hoán đổi với hạt cuối
+ * (swap-remove) nên mảng luôn liền mạch. Màu theo từng mức alpha được tính sẵn trong một
+ * bảng tra (lookup table), và khi vẽ các hạt được sắp xếp theo màu để giảm số lần gọi setFill.
+ * Sau khi các mảng đã đạt kích thước làm việc, update và render không cấp phát bộ nhớ.
  */
-public abstract class ProceduralExplosion extends GameObject {
+public class ProceduralExplosion {
 
-    private List<Particle> particles;
-    private boolean animationFinished = false;
-    private long startTime;
-    private final long DURATION_MS; // Thời gian tồn tại của vụ nổ (ms)
-
-    private static final int NUM_PARTICLES = 45; // Số lượng hạt
+    private static final int NUM_PARTICLES = 45; // Số lượng hạt mỗi vụ nổ
     private static final double MAX_PARTICLE_SPEED = 2.5;
     private static final double MIN_PARTICLE_SPEED = 0.5;
     private static final double PARTICLE_DECELERATION = 0.03; // Tỷ lệ giảm tốc hạt
     private static final int MAX_PARTICLE_SIZE = 8;
     private static final int MIN_PARTICLE_SIZE = 2;
 
+    /** Dung lượng ban đầu của các mảng hạt. */
+    private static final int INITIAL_CAPACITY = 2048;
+
     // Mảng màu sắc dùng cho các hạt vụ nổ
     private static final Color[] EXPLOSION_COLORS = {
             Color.YELLOW, Color.ORANGE, Color.RED, Color.DARKRED
     };
 
-    private Random random = new Random();
-    private boolean dead;
+    /** Số mức alpha được lượng tử hóa trong bảng tra màu. */
+    private static final int ALPHA_LEVELS = 32;
+
+    /** Bảng tra màu: phần tử [màu * ALPHA_LEVELS + mức alpha]. */
+    private static final Color[] COLOR_LUT = buildColorLut();
+
+    private final Random random = new Random();
+    private final GameClock clock; // Đồng hồ mô phỏng, thời gian sống của hạt tính theo thời gian mô phỏng
+
+    // --- Dữ liệu hạt dạng structure-of-arrays ---
+    private float[] posX;
+    private float[] posY;
+    private float[] velX;
+    private float[] velY;
+    private float[] size;
+    private float[] initialSize;
+    private long[] birthTime;   // Thời điểm sinh (ms)
+    private int[] lifetime;     // Thời gian sống (ms)
+    private byte[] colorIndex;  // Chỉ số trong EXPLOSION_COLORS
+    private short[] lutIndex;   // Chỉ số màu trong COLOR_LUT, tính ở update()
+    private int count;          // Số hạt đang sống
+
+    // Bộ đệm cho sắp xếp đếm (counting sort) theo màu khi vẽ
+    private final int[] lutCounts = new int[COLOR_LUT.length + 1];
+    private int[] renderOrder;
 
     /**
-     * Tạo một vụ nổ tại tọa độ (x, y) với thời lượng chỉ định.
-     * @param x hoành độ tâm vụ nổ
-     * @param y tung độ tâm vụ nổ
-     * @param durationMs thời gian tồn tại vụ nổ (millisecond)
+     * Tạo hệ thống hạt rỗng.
+     * Các hạt chỉ mang tính hiển thị nên dùng nguồn ngẫu nhiên riêng (suy ra từ seed của
+     * thế giới game), để việc bật/tắt hiệu ứng nổ không làm thay đổi diễn biến ván chơi.
+     * @param clock đồng hồ mô phỏng của thế giới game
+     * @param seed seed cho nguồn ngẫu nhiên của các hạt
      */
-    public ProceduralExplosion(double x, double y, long durationMs) {
-        super(x, y, 0, 0); // Kích thước không xác định cụ thể do phụ thuộc các hạt
-        this.DURATION_MS = durationMs;
-        this.startTime = System.currentTimeMillis();
-        this.particles = new ArrayList<>();
-        createParticles();
+    public ProceduralExplosion(GameClock clock, long seed) {
+        this.clock = clock;
+        this.random.setSeed(seed);
+        allocate(INITIAL_CAPACITY);
     }
 
     /**
-     * Khởi tạo danh sách các hạt với vị trí, vận tốc, kích thước, màu sắc ngẫu nhiên.
+     * Tạo một vụ nổ tại tọa độ (x, y) với thời lượng chỉ định.
+     * @param x hoành độ tâm vụ nổ
+     * @param y tung độ tâm vụ nổ
+     * @param durationMs thời gian tồn tại vụ nổ (millisecond)
      */
-    private void createParticles() {
+    public void spawn(double x, double y, long durationMs) {
+        ensureCapacity(count + NUM_PARTICLES);
+        long now = clock.millis();
         for (int i = 0; i < NUM_PARTICLES; i++) {
             double angle = random.nextDouble() * 2 * Math.PI; // Góc di chuyển ngẫu nhiên
             double speed = MIN_PARTICLE_SPEED + random.nextDouble() * (MAX_PARTICLE_SPEED - MIN_PARTICLE_SPEED);
-            double velocityX = Math.cos(angle) * speed;
-            double velocityY = Math.sin(angle) * speed;
-            int size = MIN_PARTICLE_SIZE + random.nextInt(MAX_PARTICLE_SIZE - MIN_PARTICLE_SIZE + 1);
-            Color color = EXPLOSION_COLORS[random.nextInt(EXPLOSION_COLORS.length)];
-
-            particles.add(new Particle(this.x, this.y, velocityX, velocityY, size, color));
+            int particleSize = MIN_PARTICLE_SIZE + random.nextInt(MAX_PARTICLE_SIZE - MIN_PARTICLE_SIZE + 1);
+
+            int p = count++;
+            posX[p] = (float) x;
+            posY[p] = (float) y;
+            velX[p] = (float) (Math.cos(angle) * speed);
+            velY[p] = (float) (Math.sin(angle) * speed);
+            size[p] = particleSize;
+            initialSize[p] = particleSize;
+            birthTime[p] = now;
+            lifetime[p] = (int) durationMs;
+            colorIndex[p] = (byte) random.nextInt(EXPLOSION_COLORS.length);
+            lutIndex[p] = (short) (colorIndex[p] * ALPHA_LEVELS);
         }
     }
 
     /**
-     * Cập nhật trạng thái vụ nổ.
-     * Khi thời gian vượt quá DURATION_MS sẽ đánh dấu vụ nổ kết thúc và chết.
+     * Cập nhật vị trí, vận tốc, kích thước và màu của mọi hạt.
+     * Hạt hết thời gian sống bị xóa bằng swap-remove.
      */
-    @Override
     public void update() {
-        if (isDead()) {
-            return;
-        }
-
-        long elapsedTime = System.currentTimeMillis() - startTime;
-        if (elapsedTime > DURATION_MS) {
-            animationFinished = true;
-            this.setDead(true);
-            return;
-        }
-
-        for (Particle p : particles) {
-            p.update(PARTICLE_DECELERATION, elapsedTime, DURATION_MS);
+        long now = clock.millis();
+        float damping = (float) (1 - PARTICLE_DECELERATION);
+        int i = 0;
+        while (i < count) {
+            long elapsed = now - birthTime[i];
+            if (elapsed > lifetime[i]) {
+                removeAt(i); // Hạt cuối được chuyển vào vị trí i, xét lại ở vòng lặp kế tiếp
+                continue;
+            }
+            posX[i] += velX[i];
+            posY[i] += velY[i];
+            velX[i] *= damping;
+            velY[i] *= damping;
+
+            float lifeRatio = lifetime[i] > 0 ? (float) elapsed / lifetime[i] : 1f;
+            float s = initialSize[i] * (1 - lifeRatio);
+            size[i] = s < 0 ? 0 : s;
+
+            // Độ trong suốt tăng dần khi hạt nhỏ lại: alpha = 1 - size / initialSize
+            float alpha = 1f - size[i] / initialSize[i];
+            int level = (int) (alpha * (ALPHA_LEVELS - 1) + 0.5f);
+            if (level < 0) level = 0;
+            if (level >= ALPHA_LEVELS) level = ALPHA_LEVELS - 1;
+            lutIndex[i] = (short) (colorIndex[i] * ALPHA_LEVELS + level);
+            i++;
         }
     }
 
     /**
-     * Vẽ vụ nổ lên canvas.
-     * Bỏ qua nếu vụ nổ đã chết hoặc kết thúc animation.
+     * Vẽ toàn bộ hạt lên canvas. Các hạt được nhóm theo màu nên mỗi màu chỉ gọi setFill một lần.
      * @param gc GraphicsContext của canvas
      */
-    @Override
     public void render(GraphicsContext gc) {
-        if (isDead() || animationFinished) {
-            return;
-        }
-        for (Particle p : particles) {
-            p.render(gc);
+        int drawCount = sortByColor();
+        int currentLut = -1;
+        for (int k = 0; k < drawCount; k++) {
+            int p = renderOrder[k];
+            float s = size[p];
+            if (lutIndex[p] != currentLut) {
+                currentLut = lutIndex[p];
+                gc.setFill(COLOR_LUT[currentLut]);
+            }
+            gc.fillOval(posX[p] - s / 2, posY[p] - s / 2, s, s);
         }
     }
 
     /**
-     * Lớp nội bộ đại diện cho một hạt của vụ nổ.
+     * Sắp xếp các hạt có kích thước dương theo chỉ số màu bằng counting sort,
+     * kết quả nằm trong renderOrder.
+     * @return số hạt cần vẽ
      */
-    private static class Particle {
-        double x, y;
-        double velX, velY;
-        double size;
-        Color baseColor;
-        double initialSize;
-
-        /**
-         * Khởi tạo hạt với vị trí, vận tốc, kích thước và màu sắc ban đầu.
-         * @param x vị trí x
-         * @param y vị trí y
-         * @param velX vận tốc theo trục x
-         * @param velY vận tốc theo trục y
-         * @param size kích thước ban đầu
-         * @param color màu sắc
-         */
-        public Particle(double x, double y, double velX, double velY, double size, Color color) {
-            this.x = x;
-            this.y = y;
-            this.velX = velX;
-            this.velY = velY;
-            this.size = size;
-            this.initialSize = size;
-            this.baseColor = color;
+    int sortByColor() {
+        Arrays.fill(lutCounts, 0);
+        for (int i = 0; i < count; i++) {
+            if (size[i] > 0) lutCounts[lutIndex[i] + 1]++;
         }
+        for (int c = 1; c < lutCounts.length; c++) {
+            lutCounts[c] += lutCounts[c - 1];
+        }
+        int drawCount = lutCounts[lutCounts.length - 1];
+        for (int i = 0; i < count; i++) {
+            if (size[i] > 0) renderOrder[lutCounts[lutIndex[i]]++] = i;
+        }
+        return drawCount;
+    }
+
+    /**
+     * Xóa toàn bộ hạt (ví dụ khi bắt đầu ván mới).
+     */
+    public void clear() {
+        count = 0;
+    }
+
+    /**
+     * Xóa toàn bộ hạt và đặt lại seed cho nguồn ngẫu nhiên của các hạt.
+     * @param seed seed mới
+     */
+    public void reset(long seed) {
+        clear();
+        random.setSeed(seed);
+    }
+
+    /**
+     * Lấy số hạt đang sống.
+     * @return số hạt
+     */
+    public int getLiveParticleCount() {
+        return count;
+    }
 
-        /**
-         * Cập nhật vị trí, giảm vận tốc và giảm kích thước dựa trên thời gian trôi qua.
-         * @param deceleration tỉ lệ giảm vận tốc mỗi lần update
-         * @param elapsedTime thời gian đã trôi qua kể từ khi vụ nổ bắt đầu
-         * @param totalDuration tổng thời gian tồn tại vụ nổ
-         */
-        public void update(double deceleration, long elapsedTime, long totalDuration) {
-            x += velX;
-            y += velY;
-
-            velX *= (1 - deceleration);
-            velY *= (1 - deceleration);
-
-            double lifeRatio = (double) elapsedTime / totalDuration;
-            size = initialSize * (1 - lifeRatio);
-            if (size < 0) size = 0;
+    private void removeAt(int i) {
+        int last = --count;
+        posX[i] = posX[last];
+        posY[i] = posY[last];
+        velX[i] = velX[last];
+        velY[i] = velY[last];
+        size[i] = size[last];
+        initialSize[i] = initialSize[last];
+        birthTime[i] = birthTime[last];
+        lifetime[i] = lifetime[last];
+        colorIndex[i] = colorIndex[last];
+        lutIndex[i] = lutIndex[last];
+    }
+
+    private void ensureCapacity(int required) {
+        if (required > posX.length) {
+            allocate(Math.max(required, posX.length * 2));
         }
+    }
+
+    private void allocate(int capacity) {
+        posX = posX == null ? new float[capacity] : Arrays.copyOf(posX, capacity);
+        posY = posY == null ? new float[capacity] : Arrays.copyOf(posY, capacity);
+        velX = velX == null ? new float[capacity] : Arrays.copyOf(velX, capacity);
+        velY = velY == null ? new float[capacity] : Arrays.copyOf(velY, capacity);
+        size = size == null ? new float[capacity] : Arrays.copyOf(size, capacity);
+        initialSize = initialSize == null ? new float[capacity] : Arrays.copyOf(initialSize, capacity);
+        birthTime = birthTime == null ? new long[capacity] : Arrays.copyOf(birthTime, capacity);
+        lifetime = lifetime == null ? new int[capacity] : Arrays.copyOf(lifetime, capacity);
+        colorIndex = colorIndex == null ? new byte[capacity] : Arrays.copyOf(colorIndex, capacity);
+        lutIndex = lutIndex == null ? new short[capacity] : Arrays.copyOf(lutIndex, capacity);
+        renderOrder = new int[capacity];
+    }
 
-        /**
-         * Vẽ hạt lên canvas dưới dạng hình tròn với độ trong suốt theo kích thước.
-         * @param gc GraphicsContext của canvas
-         */
-        public void render(GraphicsContext gc) {
-            if (size <= 0) return;
-
-            double alpha = 1.0 - (size / initialSize);
-            if(alpha < 0) alpha = 0;
-            if(alpha > 1) alpha = 1;
-
-            gc.setFill(Color.rgb(
-                    (int)(baseColor.getRed() * 255),
-                    (int)(baseColor.getGreen() * 255),
-                    (int)(baseColor.getBlue() * 255),
-                    alpha));
-            gc.fillOval(x - size / 2, y - size / 2, size, size);
+    private static Color[] buildColorLut() {
+        Color[] lut = new Color[EXPLOSION_COLORS.length * ALPHA_LEVELS];
+        for (int c = 0; c < EXPLOSION_COLORS.length; c++) {
+            Color base = EXPLOSION_COLORS[c];
+            for (int level = 0; level < ALPHA_LEVELS; level++) {
+                double alpha = (double) level / (ALPHA_LEVELS - 1);
+                lut[c * ALPHA_LEVELS + level] = new Color(base.getRed(), base.getGreen(), base.getBlue(), alpha);
+            }
         }
+        return lut;
     }
 }
@@ -0,0 +1,422 @@
+package uet.oop.spaceshootergamejavafx.entities;
+
+import javafx.scene.paint.Color;
+
+import java.util.Arrays;
+
+/**
+ * Central store for every projectile in a world: player bullets, regular enemy
+ * bullets and boss bullets. Projectiles are kept as parallel primitive arrays
+ * (structure of arrays) instead of objects, and every emitter writes into the
+ * same store, so the collision pass, the AI and the renderer each make one linear
+ * pass over all of them per tick.
+ * <p>
+ * Slots are addressed by index. Killing a projectile only marks it; dead slots
+ * are removed by {@link #compact()} at the end of a tick, which keeps the
+ * survivors in spawn order. Indices are therefore stable between two compactions.
+ * <p>
+ * Each projectile remembers the id of its emitter, so a boss can take all of its
+ * bullets with it when it dies (see {@link #killEmitter(int)}).
+ */
+public class ProjectileStore {
+
+    /** Projectile fired by the player. */
+    public static final byte OWNER_PLAYER = 0;
+    /** Projectile fired by a regular enemy. */
+    public static final byte OWNER_ENEMY = 1;
+    /** Projectile fired by a boss. */
+    public static final byte OWNER_BOSS = 2;
+
+    /** Emitter id of projectiles that do not belong to a boss. */
+    public static final int NO_EMITTER = 0;
+
+    /** Width of a player bullet. */
+    public static final int PLAYER_BULLET_WIDTH = 4;
+    /** Height of a player bullet. */
+    public static final int PLAYER_BULLET_HEIGHT = 15;
+    /** Speed of a player bullet, in pixels per tick. */
+    public static final double PLAYER_BULLET_SPEED = 5.0;
+    /** Diameter of a regular enemy bullet. */
+    public static final int ENEMY_BULLET_DIAMETER = 8;
+    /** Diameter of a boss bullet. */
+    public static final int BOSS_BULLET_DIAMETER = 10;
+
+    /** Palette indexed by {@link #getColor(int)}. */
+    private static final Color[] PALETTE = {Color.YELLOW, Color.RED, Color.LIMEGREEN, Color.DEEPSKYBLUE};
+    public static final byte COLOR_YELLOW = 0;
+    public static final byte COLOR_RED = 1;
+    public static final byte COLOR_LIMEGREEN = 2;
+    public static final byte COLOR_DEEPSKYBLUE = 3;
+
+    /** Initial capacity: three bosses firing 8-bullet salvoes plus player bullets. */
+    private static final int INITIAL_CAPACITY = 256;
+
+    private double[] x;
+    private double[] y;
+    private double[] prevX;
+    private double[] prevY;
+    private double[] vx;
+    private double[] vy;
+    private double[] halfWidth;
+    private double[] halfHeight;
+    private byte[] color;
+    private byte[] owner;
+    private int[] emitter;
+    private boolean[] dead;
+
+    /** Number of slots in use, live or dead. */
+    private int count;
+
+    /** Highest number of slots in use at once. */
+    private int highWaterMark;
+
+    /** Last id handed out by {@link #nextEmitterId()}. */
+    private int lastEmitterId = NO_EMITTER;
+
+    /**
+     * Creates an empty store.
+     */
+    public ProjectileStore() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Returns a new emitter id, unique within this store.
+     *
+     * @return emitter id, never {@link #NO_EMITTER}
+     */
+    public int nextEmitterId() {
+        return ++lastEmitterId;
+    }
+
+    /**
+     * Spawns a player bullet.
+     *
+     * @param x  center X
+     * @param y  center Y
+     * @param vx horizontal velocity
+     * @param vy vertical velocity
+     * @return slot index
+     */
+    public int spawnPlayerBullet(double x, double y, double vx, double vy) {
+        return spawn(x, y, vx, vy, PLAYER_BULLET_WIDTH / 2.0, PLAYER_BULLET_HEIGHT / 2.0,
+                COLOR_YELLOW, OWNER_PLAYER, NO_EMITTER);
+    }
+
+    /**
+     * Spawns a regular enemy bullet flying straight down.
+     *
+     * @param x center X
+     * @param y center Y
+     * @return slot index
+     */
+    public int spawnEnemyBullet(double x, double y) {
+        double half = ENEMY_BULLET_DIAMETER / 2.0;
+        return spawn(x, y, 0, 1, half, half, COLOR_RED, OWNER_ENEMY, NO_EMITTER);
+    }
+
+    /**
+     * Spawns a boss bullet.
+     *
+     * @param x         center X
+     * @param y         center Y
+     * @param vx        horizontal velocity
+     * @param vy        vertical velocity
+     * @param colorCode one of the {@code COLOR_*} constants
+     * @param emitterId id of the firing boss
+     * @return slot index
+     */
+    public int spawnBossBullet(double x, double y, double vx, double vy, byte colorCode, int emitterId) {
+        double half = BOSS_BULLET_DIAMETER / 2.0;
+        return spawn(x, y, vx, vy, half, half, colorCode, OWNER_BOSS, emitterId);
+    }
+
+    private int spawn(double px, double py, double pvx, double pvy, double hw, double hh,
+                      byte colorCode, byte ownerCode, int emitterId) {
+        if (count == x.length) {
+            allocate(count * 2);
+        }
+        int i = count++;
+        x[i] = px;
+        y[i] = py;
+        prevX[i] = px;
+        prevY[i] = py;
+        vx[i] = pvx;
+        vy[i] = pvy;
+        halfWidth[i] = hw;
+        halfHeight[i] = hh;
+        color[i] = colorCode;
+        owner[i] = ownerCode;
+        emitter[i] = emitterId;
+        dead[i] = false;
+        highWaterMark = Math.max(highWaterMark, count);
+        return i;
+    }
+
+    /**
+     * Moves every live projectile by its velocity and kills those that have
+     * completely left the playfield. Projectiles fly in straight lines, so one that
+     * has left can never come back.
+     */
+    public void update() {
+        double width = GameWorld.WIDTH;
+        double height = GameWorld.HEIGHT;
+        for (int i = 0; i < count; i++) {
+            if (dead[i]) continue;
+            double nx = x[i] + vx[i];
+            double ny = y[i] + vy[i];
+            x[i] = nx;
+            y[i] = ny;
+            if (nx + halfWidth[i] < 0 || nx - halfWidth[i] > width
+                    || ny + halfHeight[i] < 0 || ny - halfHeight[i] > height) {
+                dead[i] = true;
+            }
+        }
+    }
+
+    /**
+     * Stores the current positions as the previous-tick positions used for interpolation.
+     */
+    public void snapshotPositions() {
+        System.arraycopy(x, 0, prevX, 0, count);
+        System.arraycopy(y, 0, prevY, 0, count);
+    }
+
+    /**
+     * Removes dead slots, keeping the survivors in spawn order. Invalidates indices.
+     */
+    public void compact() {
+        int write = 0;
+        for (int read = 0; read < count; read++) {
+            if (dead[read]) continue;
+            if (write != read) {
+                x[write] = x[read];
+                y[write] = y[read];
+                prevX[write] = prevX[read];
+                prevY[write] = prevY[read];
+                vx[write] = vx[read];
+                vy[write] = vy[read];
+                halfWidth[write] = halfWidth[read];
+                halfHeight[write] = halfHeight[read];
+                color[write] = color[read];
+                owner[write] = owner[read];
+                emitter[write] = emitter[read];
+                dead[write] = false;
+            }
+            write++;
+        }
+        count = write;
+    }
+
+    /**
+     * Kills every projectile fired by the given emitter.
+     *
+     * @param emitterId id from {@link #nextEmitterId()}
+     */
+    public void killEmitter(int emitterId) {
+        for (int i = 0; i < count; i++) {
+            if (emitter[i] == emitterId) {
+                dead[i] = true;
+            }
+        }
+    }
+
+    /**
+     * Replaces the contents of this store with the live projectiles of another
+     * store, in the same order. Dead slots are not copied, so this store comes out
+     * compacted. Only the arrays grow; nothing is allocated once they are large enough.
+     *
+     * @param source store to copy from; it is only read
+     */
+    public void copyFrom(ProjectileStore source) {
+        allocate(source.count);
+        int write = 0;
+        for (int read = 0; read < source.count; read++) {
+            if (source.dead[read]) continue;
+            x[write] = source.x[read];
+            y[write] = source.y[read];
+            prevX[write] = source.prevX[read];
+            prevY[write] = source.prevY[read];
+            vx[write] = source.vx[read];
+            vy[write] = source.vy[read];
+            halfWidth[write] = source.halfWidth[read];
+            halfHeight[write] = source.halfHeight[read];
+            color[write] = source.color[read];
+            owner[write] = source.owner[read];
+            emitter[write] = source.emitter[read];
+            dead[write] = false;
+            write++;
+        }
+        count = write;
+        highWaterMark = Math.max(highWaterMark, count);
+    }
+
+    /**
+     * Removes every projectile.
+     */
+    public void clear() {
+        count = 0;
+    }
+
+    /**
+     * Queues every live projectile at its position interpolated between the previous
+     * and the current tick. Player bullets are yellow bars; enemy and boss bullets are
+     * colored discs with a white outline.
+     *
+     * @param queue render queue of the frame
+     * @param alpha interpolation factor (0 = previous tick, 1 = current tick)
+     */
+    public void render(RenderQueue queue, double alpha) {
+        for (int i = 0; i < count; i++) {
+            if (dead[i]) continue;
+            double px = prevX[i] + (x[i] - prevX[i]) * alpha;
+            double py = prevY[i] + (y[i] - prevY[i]) * alpha;
+            double w = halfWidth[i] * 2;
+            double h = halfHeight[i] * 2;
+            if (owner[i] == OWNER_PLAYER) {
+                queue.fillRect(RenderQueue.LAYER_PROJECTILES, PALETTE[color[i]], px - halfWidth[i], py - halfHeight[i], w, h);
+            } else {
+                queue.fillOval(RenderQueue.LAYER_PROJECTILES, PALETTE[color[i]], px - halfWidth[i], py - halfHeight[i], w, h);
+                queue.strokeOval(RenderQueue.LAYER_PROJECTILE_OUTLINES, Color.WHITE, 1.5,
+                        px - halfWidth[i], py - halfHeight[i], w, h);
+            }
+        }
+    }
+
+    /**
+     * Mixes the state of every live projectile into a world checksum.
+     *
+     * @param h checksum so far
+     * @return updated checksum
+     */
+    public long checksum(long h) {
+        for (int i = 0; i < count; i++) {
+            if (dead[i]) continue;
+            h = 31 * h + owner[i];
+            h = 31 * h + Double.doubleToLongBits(x[i]);
+            h = 31 * h + Double.doubleToLongBits(y[i]);
+        }
+        return h;
+    }
+
+    /**
+     * Returns the number of slots in use, including dead slots not yet compacted.
+     * Valid indices are {@code 0 .. size() - 1}.
+     *
+     * @return slot count
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns the number of live projectiles.
+     *
+     * @return live projectiles
+     */
+    public int getLiveCount() {
+        int live = 0;
+        for (int i = 0; i < count; i++) {
+            if (!dead[i]) live++;
+        }
+        return live;
+    }
+
+    public double getX(int i) {
+        return x[i];
+    }
+
+    public double getY(int i) {
+        return y[i];
+    }
+
+    public double getVx(int i) {
+        return vx[i];
+    }
+
+    public double getVy(int i) {
+        return vy[i];
+    }
+
+    public double getHalfWidth(int i) {
+        return halfWidth[i];
+    }
+
+    public double getHalfHeight(int i) {
+        return halfHeight[i];
+    }
+
+    public byte getOwner(int i) {
+        return owner[i];
+    }
+
+    /**
+     * Returns the color of a projectile.
+     *
+     * @param i slot index
+     * @return fill color
+     */
+    public Color getColor(int i) {
+        return PALETTE[color[i]];
+    }
+
+    /**
+     * Returns whether a projectile was fired by an enemy or a boss, i.e. can hurt the player.
+     *
+     * @param i slot index
+     * @return true for enemy and boss bullets
+     */
+    public boolean isHostile(int i) {
+        return owner[i] != OWNER_PLAYER;
+    }
+
+    public boolean isDead(int i) {
+        return dead[i];
+    }
+
+    /**
+     * Marks a projectile as dead; it is removed at the next {@link #compact()}.
+     *
+     * @param i slot index
+     */
+    public void kill(int i) {
+        dead[i] = true;
+    }
+
+    /**
+     * Marks a killed projectile as live again. Used by benchmarks to replay the same
+     * collisions on every operation.
+     *
+     * @param i slot index
+     */
+    void revive(int i) {
+        dead[i] = false;
+    }
+
+    /**
+     * Builds a one-line occupancy report.
+     *
+     * @return slot count, high-water mark and capacity
+     */
+    public String report() {
+        return "Projectiles: " + count + " in use, high-water " + highWaterMark + ", capacity " + x.length;
+    }
+
+    private void allocate(int capacity) {
+        if (x != null && capacity <= x.length) {
+            return;
+        }
+        x = x == null ? new double[capacity] : Arrays.copyOf(x, capacity);
+        y = y == null ? new double[capacity] : Arrays.copyOf(y, capacity);
+        prevX = prevX == null ? new double[capacity] : Arrays.copyOf(prevX, capacity);
+        prevY = prevY == null ? new double[capacity] : Arrays.copyOf(prevY, capacity);
+        vx = vx == null ? new double[capacity] : Arrays.copyOf(vx, capacity);
+        vy = vy == null ? new double[capacity] : Arrays.copyOf(vy, capacity);
+        halfWidth = halfWidth == null ? new double[capacity] : Arrays.copyOf(halfWidth, capacity);
+        halfHeight = halfHeight == null ? new double[capacity] : Arrays.copyOf(halfHeight, capacity);
+        color = color == null ? new byte[capacity] : Arrays.copyOf(color, capacity);
+        owner = owner == null ? new byte[capacity] : Arrays.copyOf(owner, capacity);
+        emitter = emitter == null ? new int[capacity] : Arrays.copyOf(emitter, capacity);
+        dead = dead == null ? new boolean[capacity] : Arrays.copyOf(dead, capacity);
+    }
+}
@@ -0,0 +1,355 @@
+package uet.oop.spaceshootergamejavafx.entities;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Paint;
+
+import java.util.Arrays;
+
+/**
+ * Collects the draw commands of one frame and submits them sorted by texture and
+ * paint, so that the graphics context changes state as rarely as possible.
+ * <p>
+ * Every command goes to a layer. Layers are drawn in order, which keeps what must
+ * stay on top on top: a boss's health bar over all bodies, its outline over the bar,
+ * bullets over everything. Within a layer, commands are grouped by kind (sprites,
+ * fills, then strokes) and by state: the texture of a sprite, the paint of a fill,
+ * the paint and line width of a stroke. Commands with the same state keep their
+ * submission order, so sprites of one texture still overlap as they were submitted.
+ * <p>
+ * With the sprites in one {@link SpriteAtlas}, all bodies of a frame share one
+ * texture, and the fills and strokes need one {@code setFill}, {@code setStroke}
+ * or {@code setLineWidth} per distinct state instead of one per object.
+ * <p>
+ * The queue keeps its arrays between frames and grows them when needed, so a frame
+ * allocates nothing once the largest frame has been seen. It must only be used from
+ * the thread that renders.
+ */
+public final class RenderQueue {
+
+    /** Sprites, and the shapes drawn in place of missing sprites. */
+    public static final int LAYER_BODIES = 0;
+    /** Backgrounds of health bars. */
+    public static final int LAYER_BAR_BACKGROUNDS = 1;
+    /** Health bars. */
+    public static final int LAYER_BARS = 2;
+    /** Outlines of bodies and bars, such as the shield ring. */
+    public static final int LAYER_OUTLINES = 3;
+    /** Bullet bodies. */
+    public static final int LAYER_PROJECTILES = 4;
+    /** Bullet outlines. */
+    public static final int LAYER_PROJECTILE_OUTLINES = 5;
+
+    private static final int LAYER_COUNT = 6;
+
+    private static final int KIND_SPRITE = 0;
+    private static final int KIND_FILL_RECT = 1;
+    private static final int KIND_FILL_OVAL = 2;
+    private static final int KIND_STROKE_RECT = 3;
+    private static final int KIND_STROKE_OVAL = 4;
+
+    // Commands are grouped by kind within a layer: sprites, fills (rects and ovals share paints), strokes
+    private static final int GROUP_COUNT = 3;
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    // Commands in submission order
+    private int count;
+    private byte[] layers = new byte[INITIAL_CAPACITY];
+    private byte[] kinds = new byte[INITIAL_CAPACITY];
+    private int[] states = new int[INITIAL_CAPACITY];
+    private Sprite[] sprites = new Sprite[INITIAL_CAPACITY];
+    private double[] xs = new double[INITIAL_CAPACITY];
+    private double[] ys = new double[INITIAL_CAPACITY];
+    private double[] widths = new double[INITIAL_CAPACITY];
+    private double[] heights = new double[INITIAL_CAPACITY];
+
+    // Counting sort of the commands by bucket: layer, group, then state
+    private int[] order = new int[INITIAL_CAPACITY];
+    private int[] bucketStarts = new int[LAYER_COUNT * GROUP_COUNT * 16 + 1];
+
+    // States of the current frame: a texture, a fill paint, or a stroke paint with its line width
+    private int stateCount;
+    private Object[] stateObjects = new Object[16];
+    private double[] stateLineWidths = new double[16];
+    private boolean[] stateIsStroke = new boolean[16];
+
+    // Last state interned for each kind, checked before searching
+    private int lastTextureState = -1;
+    private int lastFillState = -1;
+    private int lastStrokeState = -1;
+
+    // State of the previous command in submission order, to count what unsorted drawing would change
+    private int submittedTexture = -1;
+    private Object submittedFill;
+    private Object submittedStroke;
+    private double submittedLineWidth = Double.NaN;
+    private int unsortedStateChanges;
+
+    // Statistics of the last flush
+    private int lastCommands;
+    private int lastStateChanges;
+    private int lastUnsortedStateChanges;
+
+    /**
+     * Queues a sprite scaled into a rectangle.
+     *
+     * @param layer  layer, one of the {@code LAYER_} constants
+     * @param sprite sprite to draw
+     * @param x      left edge
+     * @param y      top edge
+     * @param width  width
+     * @param height height
+     */
+    public void drawSprite(int layer, Sprite sprite, double x, double y, double width, double height) {
+        int state = internState(sprite.getTexture(), false, 0);
+        if (state != submittedTexture) {
+            submittedTexture = state;
+            unsortedStateChanges++;
+        }
+        int i = add(layer, KIND_SPRITE, state, x, y, width, height);
+        sprites[i] = sprite;
+    }
+
+    public void fillRect(int layer, Paint paint, double x, double y, double width, double height) {
+        add(layer, KIND_FILL_RECT, internFill(paint), x, y, width, height);
+    }
+
+    public void fillOval(int layer, Paint paint, double x, double y, double width, double height) {
+        add(layer, KIND_FILL_OVAL, internFill(paint), x, y, width, height);
+    }
+
+    public void strokeRect(int layer, Paint paint, double lineWidth, double x, double y, double width, double height) {
+        add(layer, KIND_STROKE_RECT, internStroke(paint, lineWidth), x, y, width, height);
+    }
+
+    public void strokeOval(int layer, Paint paint, double lineWidth, double x, double y, double width, double height) {
+        add(layer, KIND_STROKE_OVAL, internStroke(paint, lineWidth), x, y, width, height);
+    }
+
+    private int internFill(Paint paint) {
+        int state = internState(paint, false, 0);
+        if (stateObjects[state] != submittedFill) {
+            submittedFill = stateObjects[state];
+            unsortedStateChanges++;
+        }
+        return state;
+    }
+
+    private int internStroke(Paint paint, double lineWidth) {
+        int state = internState(paint, true, lineWidth);
+        if (stateObjects[state] != submittedStroke) {
+            submittedStroke = stateObjects[state];
+            unsortedStateChanges++;
+        }
+        if (lineWidth != submittedLineWidth) {
+            submittedLineWidth = lineWidth;
+            unsortedStateChanges++;
+        }
+        return state;
+    }
+
+    private int add(int layer, int kind, int state, double x, double y, double width, double height) {
+        if (layer < 0 || layer >= LAYER_COUNT) {
+            throw new IllegalArgumentException("Unknown layer " + layer);
+        }
+        if (count == kinds.length) {
+            grow();
+        }
+        int i = count++;
+        layers[i] = (byte) layer;
+        kinds[i] = (byte) kind;
+        states[i] = state;
+        xs[i] = x;
+        ys[i] = y;
+        widths[i] = width;
+        heights[i] = height;
+        return i;
+    }
+
+    /**
+     * Returns the id of a state in this frame, adding it if it is new. Paints are
+     * compared with {@code equals}, so a color built anew every frame still shares
+     * its state; textures are compared by identity.
+     */
+    private int internState(Object object, boolean stroke, double lineWidth) {
+        // Runs of one texture or paint are the common case, e.g. a wave of enemies
+        int last = stroke ? lastStrokeState : object instanceof Image ? lastTextureState : lastFillState;
+        if (last >= 0 && stateObjects[last] == object && stateLineWidths[last] == lineWidth) {
+            return last;
+        }
+        int state = findState(object, stroke, lineWidth);
+        if (stroke) {
+            lastStrokeState = state;
+        } else if (object instanceof Image) {
+            lastTextureState = state;
+        } else {
+            lastFillState = state;
+        }
+        return state;
+    }
+
+    private int findState(Object object, boolean stroke, double lineWidth) {
+        // Shared constants are the common case: look for the same instance first
+        for (int s = 0; s < stateCount; s++) {
+            if (stateObjects[s] == object && stateIsStroke[s] == stroke && stateLineWidths[s] == lineWidth) {
+                return s;
+            }
+        }
+        if (!(object instanceof Image)) {
+            for (int s = 0; s < stateCount; s++) {
+                if (stateIsStroke[s] == stroke && stateLineWidths[s] == lineWidth && object.equals(stateObjects[s])) {
+                    return s;
+                }
+            }
+        }
+        if (stateCount == stateObjects.length) {
+            int capacity = stateCount * 2;
+            stateObjects = Arrays.copyOf(stateObjects, capacity);
+            stateLineWidths = Arrays.copyOf(stateLineWidths, capacity);
+            stateIsStroke = Arrays.copyOf(stateIsStroke, capacity);
+        }
+        stateObjects[stateCount] = object;
+        stateLineWidths[stateCount] = lineWidth;
+        stateIsStroke[stateCount] = stroke;
+        return stateCount++;
+    }
+
+    private void grow() {
+        int capacity = kinds.length * 2;
+        layers = Arrays.copyOf(layers, capacity);
+        order = new int[capacity];
+        kinds = Arrays.copyOf(kinds, capacity);
+        states = Arrays.copyOf(states, capacity);
+        sprites = Arrays.copyOf(sprites, capacity);
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        widths = Arrays.copyOf(widths, capacity);
+        heights = Arrays.copyOf(heights, capacity);
+    }
+
+    /**
+     * Draws every queued command in sorted order and empties the queue.
+     *
+     * @param gc graphics context to draw on
+     */
+    public void flush(GraphicsContext gc) {
+        sort();
+
+        // Nothing is known about the state of gc, so the first use of each setter always goes through
+        int texture = -1;
+        Object fill = null;
+        Object stroke = null;
+        double lineWidth = Double.NaN;
+        int changes = 0;
+        for (int k = 0; k < count; k++) {
+            int i = order[k];
+            int state = states[i];
+            switch (kinds[i]) {
+                case KIND_SPRITE:
+                    if (state != texture) {
+                        texture = state;
+                        changes++;
+                    }
+                    sprites[i].draw(gc, xs[i], ys[i], widths[i], heights[i]);
+                    sprites[i] = null;
+                    break;
+                case KIND_FILL_RECT:
+                case KIND_FILL_OVAL:
+                    if (stateObjects[state] != fill) {
+                        fill = stateObjects[state];
+                        gc.setFill((Paint) fill);
+                        changes++;
+                    }
+                    if (kinds[i] == KIND_FILL_RECT) {
+                        gc.fillRect(xs[i], ys[i], widths[i], heights[i]);
+                    } else {
+                        gc.fillOval(xs[i], ys[i], widths[i], heights[i]);
+                    }
+                    break;
+                default:
+                    if (stateObjects[state] != stroke) {
+                        stroke = stateObjects[state];
+                        gc.setStroke((Paint) stroke);
+                        changes++;
+                    }
+                    if (stateLineWidths[state] != lineWidth) {
+                        lineWidth = stateLineWidths[state];
+                        gc.setLineWidth(lineWidth);
+                        changes++;
+                    }
+                    if (kinds[i] == KIND_STROKE_RECT) {
+                        gc.strokeRect(xs[i], ys[i], widths[i], heights[i]);
+                    } else {
+                        gc.strokeOval(xs[i], ys[i], widths[i], heights[i]);
+                    }
+                    break;
+            }
+        }
+
+        lastCommands = count;
+        lastStateChanges = changes;
+        lastUnsortedStateChanges = unsortedStateChanges;
+        count = 0;
+        Arrays.fill(stateObjects, 0, stateCount, null);
+        stateCount = 0;
+        lastTextureState = -1;
+        lastFillState = -1;
+        lastStrokeState = -1;
+        submittedTexture = -1;
+        submittedFill = null;
+        submittedStroke = null;
+        submittedLineWidth = Double.NaN;
+        unsortedStateChanges = 0;
+    }
+
+    /**
+     * Fills {@link #order} with the command indices sorted by layer, group and
+     * state. A counting sort: linear in the commands plus the buckets, and stable, so
+     * commands of one bucket stay in submission order.
+     */
+    private void sort() {
+        int buckets = LAYER_COUNT * GROUP_COUNT * stateCount;
+        if (bucketStarts.length < buckets + 1) {
+            bucketStarts = new int[buckets + 1];
+        }
+        Arrays.fill(bucketStarts, 0, buckets + 1, 0);
+        for (int i = 0; i < count; i++) {
+            bucketStarts[bucket(i) + 1]++;
+        }
+        for (int b = 0; b < buckets; b++) {
+            bucketStarts[b + 1] += bucketStarts[b];
+        }
+        for (int i = 0; i < count; i++) {
+            order[bucketStarts[bucket(i)]++] = i;
+        }
+    }
+
+    private int bucket(int i) {
+        int kind = kinds[i];
+        int group = kind == KIND_SPRITE ? 0 : kind <= KIND_FILL_OVAL ? 1 : 2;
+        return (layers[i] * GROUP_COUNT + group) * stateCount + states[i];
+    }
+
+    /**
+     * Builds a one-line summary of the last flush.
+     *
+     * @return commands drawn and state changes, sorted and in submission order
+     */
+    public String report() {
+        return String.format("Render queue: %d commands, %d state changes (%d in submission order)",
+                lastCommands, lastStateChanges, lastUnsortedStateChanges);
+    }
+
+    public int getLastCommandCount() {
+        return lastCommands;
+    }
+
+    public int getLastStateChanges() {
+        return lastStateChanges;
+    }
+
+    public int getLastUnsortedStateChanges() {
+        return lastUnsortedStateChanges;
+    }
+}
@@ -0,0 +1,266 @@
+package uet.oop.spaceshootergamejavafx.entities;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Loads a replay written by {@link ReplayRecorder} and plays it back through a
+ * headless {@link GameWorld} configured with the recorded AI settings. Because the
+ * world is fully determined by its seed, those settings and the per-tick input,
+ * playback reaches exactly the recorded final state, which {@link #verify()} checks
+ * against the stored checksum. Replays of older versions, which predate a setting,
+ * are played with its default.
+ * <p>
+ * Usage: {@code ReplayReader <replay file>}
+ */
+public class ReplayReader {
+
+    /**
+     * Deadline of the lookahead AI during playback. A saved session never had a search
+     * cut short, and a search that completes decides the same regardless of how long
+     * it was allowed, so playback only needs a deadline no machine will hit.
+     */
+    private static final long PLAYBACK_LOOKAHEAD_DEADLINE_MICROS = 1_000_000;
+
+    private final long seed;
+    private final int ticksPerSecond;
+    private final AIParameters aiParameters;
+    private final int aiCalmInterval;
+    private final double aiEscalationTTI;
+    private final boolean lookaheadAI;
+    private final int lookaheadHorizon;
+    private final int lookaheadRollouts;
+    private final long lookaheadDeadlineMicros;
+    private final byte[] runFlags;
+    private final int[] runLengths;
+    private final int runCount;
+    private final long totalTicks;
+    private final long checksum;
+
+    private ReplayReader(long seed, int ticksPerSecond, AIParameters aiParameters, int aiCalmInterval,
+                         double aiEscalationTTI, boolean lookaheadAI, int lookaheadHorizon,
+                         int lookaheadRollouts, long lookaheadDeadlineMicros, byte[] runFlags,
+                         int[] runLengths, int runCount, long totalTicks, long checksum) {
+        this.seed = seed;
+        this.ticksPerSecond = ticksPerSecond;
+        this.aiParameters = aiParameters;
+        this.aiCalmInterval = aiCalmInterval;
+        this.aiEscalationTTI = aiEscalationTTI;
+        this.lookaheadAI = lookaheadAI;
+        this.lookaheadHorizon = lookaheadHorizon;
+        this.lookaheadRollouts = lookaheadRollouts;
+        this.lookaheadDeadlineMicros = lookaheadDeadlineMicros;
+        this.runFlags = runFlags;
+        this.runLengths = runLengths;
+        this.runCount = runCount;
+        this.totalTicks = totalTicks;
+        this.checksum = checksum;
+    }
+
+    /**
+     * Reads a replay file.
+     *
+     * @param path replay file
+     * @return loaded replay
+     * @throws IOException if the file cannot be read or is not a valid replay
+     */
+    public static ReplayReader load(Path path) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+            return read(in);
+        }
+    }
+
+    /**
+     * Reads a replay from a stream.
+     *
+     * @param stream source stream, left open
+     * @return loaded replay
+     * @throws IOException if the stream cannot be read or is not a valid replay
+     */
+    public static ReplayReader read(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        if (in.readInt() != ReplayRecorder.MAGIC) {
+            throw new IOException("Not a replay file");
+        }
+        byte version = in.readByte();
+        if (version < 1 || version > ReplayRecorder.VERSION) {
+            throw new IOException("Unsupported replay version " + version);
+        }
+        long seed = in.readLong();
+        int ticksPerSecond = in.readInt();
+        if (ticksPerSecond <= 0) {
+            throw new IOException("Invalid tick rate " + ticksPerSecond);
+        }
+        AIParameters aiParameters = AIParameters.DEFAULTS;
+        if (version >= 2) {
+            double[] values = new double[AIParameters.COUNT];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = in.readDouble();
+            }
+            try {
+                aiParameters = AIParameters.fromArray(values);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid AI parameters: " + e.getMessage(), e);
+            }
+        }
+        int aiCalmInterval = AIScheduler.DEFAULT_CALM_INTERVAL;
+        double aiEscalationTTI = AIScheduler.DEFAULT_ESCALATION_TTI;
+        if (version >= 3) {
+            aiCalmInterval = in.readInt();
+            aiEscalationTTI = in.readDouble();
+            if (aiCalmInterval < 1) {
+                throw new IOException("Invalid AI calm interval " + aiCalmInterval);
+            }
+        }
+        boolean lookaheadAI = false;
+        int lookaheadHorizon = LookaheadPlanner.DEFAULT_HORIZON;
+        int lookaheadRollouts = LookaheadPlanner.DEFAULT_ROLLOUTS;
+        long lookaheadDeadlineMicros = LookaheadPlanner.DEFAULT_DEADLINE_MICROS;
+        if (version >= 4) {
+            lookaheadAI = in.readBoolean();
+            lookaheadHorizon = in.readInt();
+            lookaheadRollouts = in.readInt();
+            lookaheadDeadlineMicros = in.readLong();
+            if (lookaheadHorizon <= 0 || lookaheadRollouts <= 0 || lookaheadDeadlineMicros <= 0) {
+                throw new IOException("Invalid lookahead settings " + lookaheadHorizon + "/"
+                        + lookaheadRollouts + "/" + lookaheadDeadlineMicros);
+            }
+        }
+
+        byte[] flags = new byte[64];
+        int[] lengths = new int[64];
+        int count = 0;
+        long ticks = 0;
+        byte b;
+        while ((b = in.readByte()) != ReplayRecorder.END_MARKER) {
+            if ((b & ~InputFlags.MASK) != 0) {
+                throw new IOException("Invalid input byte " + b);
+            }
+            int length = in.readUnsignedShort();
+            if (count == flags.length) {
+                flags = Arrays.copyOf(flags, count * 2);
+                lengths = Arrays.copyOf(lengths, count * 2);
+            }
+            flags[count] = b;
+            lengths[count] = length;
+            count++;
+            ticks += length;
+        }
+        long totalTicks = in.readLong();
+        long checksum = in.readLong();
+        if (totalTicks != ticks) {
+            throw new IOException("Replay is truncated: " + ticks + " of " + totalTicks + " ticks");
+        }
+        return new ReplayReader(seed, ticksPerSecond, aiParameters, aiCalmInterval, aiEscalationTTI,
+                lookaheadAI, lookaheadHorizon, lookaheadRollouts, lookaheadDeadlineMicros,
+                flags, lengths, count, totalTicks, checksum);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+
+    public AIParameters getAIParameters() {
+        return aiParameters;
+    }
+
+    public int getAICalmInterval() {
+        return aiCalmInterval;
+    }
+
+    public double getAIEscalationTTI() {
+        return aiEscalationTTI;
+    }
+
+    public boolean isLookaheadAI() {
+        return lookaheadAI;
+    }
+
+    public int getLookaheadHorizon() {
+        return lookaheadHorizon;
+    }
+
+    public int getLookaheadRollouts() {
+        return lookaheadRollouts;
+    }
+
+    public long getLookaheadDeadlineMicros() {
+        return lookaheadDeadlineMicros;
+    }
+
+    public long getTotalTicks() {
+        return totalTicks;
+    }
+
+    public long getChecksum() {
+        return checksum;
+    }
+
+    /**
+     * Plays the replay through a fresh headless world.
+     *
+     * @return the world after the last recorded tick
+     */
+    public GameWorld play() {
+        GameWorld world = new GameWorld(seed, ticksPerSecond, new GameWorld.Listener() { });
+        world.setExplosionsEnabled(false);
+        world.setAIParameters(aiParameters);
+        // A recorded session never had a decision degraded by its budget, so no budget is needed
+        world.configureAI(aiCalmInterval, aiEscalationTTI, AIScheduler.UNLIMITED_BUDGET);
+        world.configureLookahead(lookaheadHorizon, lookaheadRollouts,
+                Math.max(lookaheadDeadlineMicros, PLAYBACK_LOOKAHEAD_DEADLINE_MICROS));
+        world.setLookaheadAI(lookaheadAI);
+        world.reset(seed); // Start from a fresh session with the recorded settings, as the game did
+        for (int r = 0; r < runCount; r++) {
+            byte flags = runFlags[r];
+            for (int i = 0; i < runLengths[r]; i++) {
+                InputFlags.apply(world, flags);
+                world.tick();
+            }
+        }
+        return world;
+    }
+
+    /**
+     * Plays the replay and compares the final state with the recorded checksum.
+     *
+     * @return true if playback reproduced the recorded session exactly
+     */
+    public boolean verify() {
+        return play().checksum() == checksum;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: ReplayReader <replay file>");
+            System.exit(2);
+        }
+        ReplayReader replay = load(Paths.get(args[0]));
+        Assets.setHeadless(true);
+
+        // The entities log a message on every hit; keep them out of the report
+        GameLog.setLevel(GameLog.Level.WARN);
+        GameWorld world = replay.play();
+        PrintStream out = System.out;
+        boolean ok = world.checksum() == replay.checksum;
+        out.printf("Seed %d, %d ticks at %d/s: score %d, wave %d, lives %d%n",
+                replay.seed, replay.totalTicks, replay.ticksPerSecond,
+                world.getScore(), world.getWaveNumber(), world.getLives());
+        out.println(ok ? "Checksum OK" : String.format("Checksum MISMATCH: expected %016x, got %016x",
+                replay.checksum, world.checksum()));
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package uet.oop.spaceshootergamejavafx.entities;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Records a session as its seed and AI settings plus one {@link InputFlags} byte per tick.
+ * Input rarely changes between ticks, so the bytes are stored run-length encoded:
+ * a minute of play usually takes a few hundred bytes.
+ * <p>
+ * File layout (big-endian):
+ * <pre>
+ * int   magic 'SSRP'
+ * byte  version
+ * long  seed
+ * int   ticks per second
+ * double[{@link AIParameters#COUNT}] AI parameters, in declaration order (since version 2)
+ * int   AI calm interval (since version 3)
+ * double AI escalation time to impact (since version 3)
+ * boolean lookahead AI (since version 4)
+ * int   lookahead horizon (since version 4)
+ * int   lookahead rollouts per action (since version 4)
+ * long  lookahead deadline in microseconds (since version 4)
+ * runs: byte flags, unsigned short count (1..65535)
+ * byte  {@link #END_MARKER}
+ * long  total ticks
+ * long  {@link GameWorld#checksum()} after the last tick
+ * </pre>
+ */
+public class ReplayRecorder {
+
+    public static final int MAGIC = 0x53535250; // "SSRP"
+    public static final byte VERSION = 4;
+    /** Terminates the run list; never a valid input byte. */
+    public static final byte END_MARKER = (byte) 0x80;
+
+    /** Property naming the file the game writes its replay to when a session ends. */
+    public static final String REPLAY_PROPERTY = "spaceshooter.replay";
+
+    private static final int MAX_RUN = 0xFFFF;
+
+    private final long seed;
+    private final int ticksPerSecond;
+    private final AIParameters aiParameters;
+    private final int aiCalmInterval;
+    private final double aiEscalationTTI;
+    private final boolean lookaheadAI;
+    private final int lookaheadHorizon;
+    private final int lookaheadRollouts;
+    private final long lookaheadDeadlineMicros;
+    private final ByteArrayOutputStream runs = new ByteArrayOutputStream(256);
+
+    private byte currentFlags;
+    private int currentRun;
+    private long totalTicks;
+    private long checksum;
+    private boolean finished;
+
+    /**
+     * Starts a recording of the session a world has just been reset to. The seed and
+     * the AI settings are taken from the world, since they decide what the AI does.
+     *
+     * @param world          world at the start of the session
+     * @param ticksPerSecond tick rate of the session
+     */
+    public ReplayRecorder(GameWorld world, int ticksPerSecond) {
+        this.seed = world.getSeed();
+        this.ticksPerSecond = ticksPerSecond;
+        this.aiParameters = world.getAIParameters();
+        this.aiCalmInterval = world.getAICalmInterval();
+        this.aiEscalationTTI = world.getAIEscalationTTI();
+        this.lookaheadAI = world.isLookaheadAI();
+        this.lookaheadHorizon = world.getLookaheadHorizon();
+        this.lookaheadRollouts = world.getLookaheadRollouts();
+        this.lookaheadDeadlineMicros = world.getLookaheadDeadlineMicros();
+    }
+
+    /**
+     * Records the input of the next tick.
+     *
+     * @param flags input byte from {@link InputFlags#capture(GameWorld)}
+     */
+    public void record(byte flags) {
+        if (finished) {
+            throw new IllegalStateException("Recording already finished");
+        }
+        if (currentRun > 0 && (flags != currentFlags || currentRun == MAX_RUN)) {
+            flushRun();
+        }
+        currentFlags = flags;
+        currentRun++;
+        totalTicks++;
+    }
+
+    /**
+     * Ends the recording.
+     *
+     * @param finalChecksum {@link GameWorld#checksum()} after the last recorded tick
+     */
+    public void finish(long finalChecksum) {
+        if (finished) {
+            return;
+        }
+        if (currentRun > 0) {
+            flushRun();
+        }
+        checksum = finalChecksum;
+        finished = true;
+    }
+
+    /**
+     * Returns the number of ticks recorded so far.
+     *
+     * @return recorded ticks
+     */
+    public long getTotalTicks() {
+        return totalTicks;
+    }
+
+    /**
+     * Writes the finished recording to a file.
+     *
+     * @param path target file
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path path) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path))) {
+            writeTo(out);
+        }
+    }
+
+    /**
+     * Writes the finished recording to a stream.
+     *
+     * @param stream target stream, left open
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeTo(OutputStream stream) throws IOException {
+        if (!finished) {
+            throw new IllegalStateException("Recording not finished");
+        }
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(seed);
+        out.writeInt(ticksPerSecond);
+        for (double value : aiParameters.toArray()) {
+            out.writeDouble(value);
+        }
+        out.writeInt(aiCalmInterval);
+        out.writeDouble(aiEscalationTTI);
+        out.writeBoolean(lookaheadAI);
+        out.writeInt(lookaheadHorizon);
+        out.writeInt(lookaheadRollouts);
+        out.writeLong(lookaheadDeadlineMicros);
+        runs.writeTo(out);
+        out.writeByte(END_MARKER);
+        out.writeLong(totalTicks);
+        out.writeLong(checksum);
+        out.flush();
+    }
+
+    private void flushRun() {
+        runs.write(currentFlags);
+        runs.write(currentRun >>> 8);
+        runs.write(currentRun);
+        currentRun = 0;
+    }
+}
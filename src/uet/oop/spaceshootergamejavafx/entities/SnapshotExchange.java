@@ -0,0 +1,53 @@
+package uet.oop.spaceshootergamejavafx.entities;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free triple buffer that passes {@link WorldSnapshot}s from the simulation
+ * thread to one reader thread. The writer owns one buffer and the reader another;
+ * the third sits in an atomic slot and is swapped with whichever side is done with
+ * its own. Neither side ever waits for the other, the writer never overwrites a
+ * snapshot the reader holds, and the reader always gets the latest published one.
+ * Snapshots the reader was too slow to see are simply overwritten.
+ * <p>
+ * Exactly one thread may call {@link #getWriteBuffer()} and {@link #publish()}, and
+ * exactly one thread may call {@link #acquireLatest()}.
+ */
+public class SnapshotExchange {
+
+    private final AtomicReference<WorldSnapshot> middle = new AtomicReference<>(new WorldSnapshot());
+    private WorldSnapshot back = new WorldSnapshot();  // Owned by the writer
+    private WorldSnapshot front = new WorldSnapshot(); // Owned by the reader
+    private long lastSequence;                          // Writer side only
+
+    /**
+     * Returns the buffer the writer fills next. It stays valid until {@link #publish()}.
+     *
+     * @return writer-owned snapshot
+     */
+    public WorldSnapshot getWriteBuffer() {
+        return back;
+    }
+
+    /**
+     * Makes the write buffer the latest snapshot and takes back a free buffer.
+     */
+    public void publish() {
+        back.setSequence(++lastSequence);
+        back = middle.getAndSet(back);
+    }
+
+    /**
+     * Takes the latest published snapshot if it is newer than the one the reader
+     * already holds. The returned snapshot stays valid until the next call.
+     *
+     * @return newer snapshot, or null if nothing new has been published
+     */
+    public WorldSnapshot acquireLatest() {
+        if (middle.get().getSequence() <= front.getSequence()) {
+            return null;
+        }
+        front = middle.getAndSet(front);
+        return front;
+    }
+}
@@ -5,8 +5,6 @@ import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
-import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
 import javafx.scene.control.Dialog;
@@ -20,25 +18,22 @@ import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.stage.Stage;
 import javafx.scene.media.AudioClip;
-import java.net.URL;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Random;
+import java.io.IOException;
+import java.nio.file.Paths;
 
 /**
  * Main game class for the Space Shooter game.
- * This class manages the game lifecycle, rendering, input handling,
- * game state updates, waves, bosses, and UI elements.
+ * This class manages the game lifecycle, rendering, input handling and UI elements.
+ * The game rules (entities, waves, bosses, collisions, scoring) live in {@link GameWorld},
+ * which this class ticks from its fixed-step loop and renders.
  */
 public class SpaceShooter extends Application {
 
-    public static final int WIDTH = 512;  // Width of the game window
-    public static final int HEIGHT = 800; // Height of the game window
-    public static int numLives = 3;       // Number of player lives (static)
+    public static final int WIDTH = GameWorld.WIDTH;   // Width of the game window
+    public static final int HEIGHT = GameWorld.HEIGHT; // Height of the game window
 
-    private int score;                    // Current player score
+    private GameWorld world;              // Simulation of the current game session
     private boolean gameRunning;          // Flag to track if the game is running
     private boolean gamePaused = false;   // Flag to track if the game is paused
 
@@ -46,54 +41,36 @@ public class SpaceShooter extends Application {
     private Label livesLabel;             // UI label to display lives left
     private Label waveLabel;              // UI label to display current wave
 
-    private List<GameObject> gameObjects;  // List of all active game objects
-    private List<GameObject> newObjects;   // List of newly spawned game objects to add
-    private Player player;                 // Player object
-    private AIPlayerController aiController; // AI controller for player (optional)
-    private boolean isAIControlled = false;   // Flag to toggle AI control
-
     private Pane gameRootPane;             // Root pane for game scene
-    private Canvas canvas;                 // Canvas for rendering graphics
-    private GraphicsContext gc;            // Graphics context for drawing on canvas
+    private LayeredRenderer renderer;      // Background, entity and effects canvases
 
     private Scene gameScene;               // Main game scene
     private Scene menuScene;               // Menu scene
     private Scene gameOverScene;           // Game over scene
     private Stage primaryStage;            // Primary stage (window)
 
-    private Random random = new Random(); // Random generator for spawning and events
-    private int enemySpawnTimer = 0;      // Timer counter to control enemy spawning
-
     private AudioClip enemyExplosionSound;    // Sound effect for enemy explosion
     private AudioClip bossDefeatedSound;      // Sound effect for boss defeat
     private AudioClip powerUpCollectedSound;  // Sound effect for power-up collection
 
-    // --- WAVE AND BOSS MANAGEMENT ---
-    private int waveNumber = 1;            // Current wave number
-    private boolean waveBossFightActive = false;  // Flag if boss fight in wave is active
-    private int bossesToDefeatInWave;      // Number of bosses to defeat in current wave
-    private int bossesDefeatedThisWave;    // Bosses defeated so far in current wave
-
-    private BossEnemy stationaryBossInstance = null; // Reference to stationary boss instance
-    private boolean stationaryBossSpawned = false;   // Whether stationary boss has spawned
-    private boolean stationaryBossDefeated = false;  // Whether stationary boss is defeated
-    private boolean finalBossesTriggered = false;    // Whether final bosses have been triggered
-    private boolean finalBossFightActive = false;    // Whether final boss fight is active
-
-    private final int SCORE_REWARD_PER_BOSS = 50;          // Score reward for defeating normal boss
-    private final int SCORE_REWARD_STATIONARY_BOSS = 150;  // Score reward for defeating stationary boss
+    private javafx.animation.AnimationTimer gameLoop;  // Main game loop timer
+    private final FixedTimestep timestep = FixedTimestep.fromSystemProperties(); // Fixed simulation rate
+    private ReplayRecorder replayRecorder; // Seed and per-tick input of the current session
+    private final FrameProfiler profiler = new FrameProfiler(FrameProfiler.DEFAULT_CAPACITY); // Phase timings, F3 overlay
 
-    private final int SCORE_THRESHOLD_WAVE1_BOSS = 150;        // Score needed to spawn wave 1 boss
-    private final int SCORE_THRESHOLD_WAVE2_BOSSES = 450;      // Score needed for wave 2 bosses
-    private final int SCORE_THRESHOLD_WAVE3_FINAL_BOSSES = 900; // Score needed for final bosses
+    /** Property fixing the seed of every session; a fresh seed is used when it is missing. */
+    public static final String SEED_PROPERTY = "spaceshooter.seed";
 
-    private final int BASE_ENEMY_SPAWN_INTERVAL = 170;    // Base interval for enemy spawning
-    private int currentEnemySpawnInterval;                 // Current spawn interval (may vary)
+    /** Property choosing whether the AI plans on a worker thread; defaults to true. */
+    public static final String ASYNC_AI_PROPERTY = "spaceshooter.asyncAI";
 
-    private int powerUpSpawnTimer = 0;          // Timer for spawning power-ups
-    private final int POWERUP_SPAWN_INTERVAL = 500; // Interval to spawn power-ups
+    /** AI time budget per decision when {@value AIScheduler#BUDGET_PROPERTY} is not set: 1 ms of a 16 ms frame. */
+    private static final long DEFAULT_AI_BUDGET_MICROS = 1000;
 
-    private javafx.animation.AnimationTimer gameLoop;  // Main game loop timer
+    // Last values written to the HUD labels, so the labels are only updated on change
+    private int shownScore = -1;
+    private int shownLives = -1;
+    private int shownWave = -1;
 
     // --- BACKGROUND SCROLLING VARIABLES ---
     private Image backgroundImage;          // Background image
@@ -126,18 +103,39 @@ public class SpaceShooter extends Application {
             public void handle(long now) {
                 if (gameRunning) {
                     if (!gamePaused) {
-                        updateGame();
+                        // Run as many fixed simulation ticks as the elapsed time requires
+                        int steps = timestep.advance(now);
+                        for (int i = 0; i < steps && gameRunning; i++) {
+                            world.snapshotPositions();
+                            replayRecorder.record(InputFlags.capture(world));
+                            world.tick();
+                            profiler.begin();
+                            updateBackground();
+                            profiler.end(FrameProfiler.Phase.BACKGROUND);
+                            if (!gameRunning) {
+                                saveReplay();
+                                logSessionReports();
+                            }
+                        }
+                        profiler.begin();
+                        updateHud();
+                        profiler.end(FrameProfiler.Phase.HUD);
                     }
-                    renderGame();
+                    profiler.begin();
+                    renderGame(timestep.getAlpha());
+                    profiler.end(FrameProfiler.Phase.RENDER);
+                    profiler.endFrame(world);
                 }
             }
         };
 
         gameRootPane = new Pane();
-        canvas = new Canvas(WIDTH, HEIGHT);
-        gc = canvas.getGraphicsContext2D();
-        gameRootPane.getChildren().add(canvas);
+        renderer = new LayeredRenderer(WIDTH, HEIGHT);
+        renderer.addTo(gameRootPane);
 
+        // Decode every sprite and clip once before the first spawn
+        Assets.preload();
+        System.out.println(Assets.report());
         loadBackgroundImage();
 
         // Initialize score label UI
@@ -148,7 +146,7 @@ public class SpaceShooter extends Application {
         scoreLabel.setLayoutY(10);
 
         // Initialize lives label UI
-        livesLabel = new Label("Lives: " + SpaceShooter.numLives);
+        livesLabel = new Label("Lives: 3");
         livesLabel.setTextFill(Color.WHITE);
         livesLabel.setFont(Font.font("Arial", FontWeight.BOLD, 16));
         livesLabel.setLayoutX(WIDTH - 80);
@@ -167,11 +165,38 @@ public class SpaceShooter extends Application {
         gameScene = new Scene(gameRootPane, WIDTH, HEIGHT);
         initEventHandlers(gameScene);
 
-        // Initialize game object lists and player
-        gameObjects = new ArrayList<>();
-        newObjects = new ArrayList<>();
-        player = new Player(WIDTH / 2.0, HEIGHT - 120);
-        aiController = new AIPlayerController(player);
+        // Create the simulation; its events are forwarded to the UI
+        world = new GameWorld(nextSessionSeed(), timestep.getTicksPerSecond(), new GameWorld.Listener() {
+            @Override
+            public void onSound(GameWorld.Sound sound) {
+                playSound(sound);
+            }
+
+            @Override
+            public void onMessage(String message) {
+                showTempMessage(message, WIDTH / 2.0, HEIGHT / 3.0, 2.5);
+            }
+
+            @Override
+            public void onGameWon() {
+                gameRunning = false;
+                Platform.runLater(SpaceShooter.this::showGameWonScreen);
+            }
+
+            @Override
+            public void onGameOver() {
+                resetGame();
+            }
+        });
+        // The AI plans off the FX thread so that expensive decisions do not stall rendering
+        world.setAsyncAI(Boolean.parseBoolean(System.getProperty(ASYNC_AI_PROPERTY, "true")));
+        world.setLookaheadAI(Boolean.getBoolean(LookaheadPlanner.LOOKAHEAD_PROPERTY));
+        world.setLookaheadParallelism(Runtime.getRuntime().availableProcessors()); // The only game running
+        world.setAIParameters(AIParameters.fromSystemProperties());
+        world.setProfiler(profiler);
+        world.configureAI((int) longProperty(AIScheduler.CALM_INTERVAL_PROPERTY, AIScheduler.DEFAULT_CALM_INTERVAL, 1),
+                AIScheduler.DEFAULT_ESCALATION_TTI,
+                longProperty(AIScheduler.BUDGET_PROPERTY, DEFAULT_AI_BUDGET_MICROS, AIScheduler.UNLIMITED_BUDGET));
 
         loadSounds();
 
@@ -189,31 +214,17 @@ public class SpaceShooter extends Application {
      * If loading fails or image not found, sets a fallback background color.
      */
     private void loadBackgroundImage() {
-        try {
-            // Load image as InputStream from resource path
-            java.io.InputStream bgStream = getClass().getResourceAsStream("/back_ground2.jpg");
-            if (bgStream != null) {
-                backgroundImage = new Image(bgStream);
-                actualBackgroundImageHeight = backgroundImage.getHeight();
-                if (actualBackgroundImageHeight > 0) {
-                    // Set initial position for second background image for scrolling loop
-                    backgroundY2 = backgroundY1 - actualBackgroundImageHeight;
-                } else {
-                    backgroundImage = null;
-                }
-                try {
-                    bgStream.close();
-                } catch (java.io.IOException e) {
-                    e.printStackTrace();
-                }
+        backgroundImage = Assets.getImage(Assets.BACKGROUND);
+        if (backgroundImage != null) {
+            actualBackgroundImageHeight = backgroundImage.getHeight();
+            if (actualBackgroundImageHeight > 0) {
+                // Set initial position for second background image for scrolling loop
+                backgroundY2 = backgroundY1 - actualBackgroundImageHeight;
+                // Cắt và vẽ ảnh nền một lần duy nhất lên lớp nền
+                renderer.setBackground(backgroundImage);
             } else {
-                System.err.println("Lỗi: Không tìm thấy file ảnh nền /back_ground2.jpg");
                 backgroundImage = null;
             }
-        } catch (Exception e) {
-            System.err.println("Lỗi khi load ảnh nền: " + e.getMessage());
-            e.printStackTrace();
-            backgroundImage = null;
         }
         // Fallback background color if image failed to load
         if (backgroundImage == null) {
@@ -226,169 +237,46 @@ public class SpaceShooter extends Application {
      * Prints error messages if files are missing or failed to load.
      */
     private void loadSounds() {
-        try {
-            URL explosionURL = getClass().getResource("/enemy_explosion.wav");
-            if (explosionURL != null)
-                enemyExplosionSound = new AudioClip(explosionURL.toExternalForm());
-            else
-                System.err.println("Lỗi: Không tìm thấy /enemy_explosion.wav");
-
-            URL bossDefeatedURL = getClass().getResource("/boss_defeated.mp3");
-            if (bossDefeatedURL != null)
-                bossDefeatedSound = new AudioClip(bossDefeatedURL.toExternalForm());
-            else
-                System.err.println("Lỗi: Không tìm thấy /boss_defeated.mp3");
-
-            URL powerUpCollectURL = getClass().getResource("/powerup_collect.mp3"); // Hoặc .wav
-            if (powerUpCollectURL != null) {
-                powerUpCollectedSound = new AudioClip(powerUpCollectURL.toExternalForm());
-            } else {
-                System.err.println("Lỗi: Không tìm thấy /powerup_collect.mp3"); // Hoặc .wav
-            }
-
-        } catch (Exception e) {
-            System.err.println("Lỗi khi load âm thanh: " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
-
-    /**
-     * Adjusts the difficulty dynamically based on current wave and score.
-     * Decreases enemy spawn interval as wave number and score increase.
-     */
-    private void adjustDifficulty() {
-        int waveFactor = waveNumber - 1;
-        // Minimum spawn interval capped at 40
-        currentEnemySpawnInterval = Math.max(40, BASE_ENEMY_SPAWN_INTERVAL - (waveFactor * 28) - (score / 90));
+        enemyExplosionSound = Assets.getClip(Assets.ENEMY_EXPLOSION_SOUND);
+        bossDefeatedSound = Assets.getClip(Assets.BOSS_DEFEATED_SOUND);
+        powerUpCollectedSound = Assets.getClip(Assets.POWERUP_COLLECT_SOUND);
     }
 
     /**
-     * Creates a procedural explosion effect at the specified coordinates.
-     * Plays the explosion sound if available.
+     * Plays the sound effect requested by the game world, if it was loaded.
      *
-     * @param x X-coordinate of the explosion
-     * @param y Y-coordinate of the explosion
+     * @param sound the sound effect to play
      */
-    private void createProceduralExplosion(double x, double y) {
-        long explosionDuration = 700; // Duration of the explosion effect in milliseconds
-        ProceduralExplosion explosion = new ProceduralExplosion(x, y, explosionDuration) {
-            private boolean actualDead = false;
-
-            @Override
-            public boolean isDead() { return actualDead; }
-
-            @Override
-            public double getWidth() { return 0; }
-
-            @Override
-            public double getHeight() { return 0; }
-
-            @Override
-            public void setDead(boolean dead) { this.actualDead = dead; }
-        };
-        newObjects.add(explosion);
-
-        if (enemyExplosionSound != null) {
-            enemyExplosionSound.play();
+    private void playSound(GameWorld.Sound sound) {
+        switch (sound) {
+            case ENEMY_EXPLOSION:
+                if (enemyExplosionSound != null) enemyExplosionSound.play();
+                break;
+            case BOSS_DEFEATED:
+                if (bossDefeatedSound != null) bossDefeatedSound.play();
+                break;
+            case POWERUP_COLLECTED:
+                if (powerUpCollectedSound != null) powerUpCollectedSound.play(0.6);
+                break;
         }
     }
 
-
     /**
-     * Cập nhật trạng thái game mỗi frame trong vòng lặp game.
-     * Bao gồm:
-     * - Điều chỉnh độ khó theo wave và điểm
-     * - Cập nhật vị trí background cho hiệu ứng cuộn
-     * - Cập nhật trạng thái tất cả các đối tượng trong game (player, enemy, đạn,...)
-     * - Xử lý AI hoặc input người chơi
-     * - Xử lý bắn đạn của player và enemy
-     * - Sinh các đối tượng mới (enemy, power-up)
-     * - Quản lý trạng thái wave, spawn boss
-     * - Kiểm tra va chạm và loại bỏ các đối tượng chết hoặc ra khỏi màn hình
-     * - Cập nhật giao diện điểm số, mạng, wave
-     * - Kiểm tra điều kiện kết thúc game
+     * Cập nhật UI hiển thị điểm số, số mạng, wave hiện tại
+     * (chỉ khi giá trị thay đổi để tránh tạo chuỗi mới mỗi frame).
      */
-    private void updateGame() {
-        adjustDifficulty();  // Điều chỉnh độ khó (spawn interval,...)
-        updateBackground();  // Cập nhật vị trí background (cuộn nền)
-
-        // 1. Cập nhật trạng thái tất cả đối tượng (gọi update của từng đối tượng)
-        for (GameObject obj : new ArrayList<>(gameObjects)) {
-            obj.update();
-        }
-
-        // 2. Nếu AI được bật, cập nhật hành vi AI cho player
-        if (isAIControlled && !player.isDead()) {
-            aiController.updateAI(this.gameObjects);
-        }
-
-        // 3. Xử lý hành động bắn của player (AI hoặc người chơi)
-        if (player.getWantsToShoot() && !player.isDead()) {
-            player.shoot(newObjects);
-            player.setWantsToShoot(false);
-        }
-
-        // 4. Cho phép enemy thường bắn đạn khi thỏa điều kiện (không phải boss)
-        for (GameObject obj : gameObjects) {
-            if (obj instanceof Enemy && !(obj instanceof BossEnemy) && !obj.isDead()) {
-                Enemy enemy = (Enemy) obj;
-                if (!enemy.hasFiredInitialShot() && enemy.getY() > 20 && enemy.getY() < HEIGHT * 0.65) {
-                    enemy.shoot(newObjects);
-                    enemy.setInitialShotFired(true);
-                }
-            }
+    private void updateHud() {
+        if (world.getScore() != shownScore) {
+            shownScore = world.getScore();
+            scoreLabel.setText("Score: " + shownScore);
         }
-
-        // 5. Spawn thêm enemy thường và power-up mới nếu tới thời điểm
-        spawnNormalEnemies();
-        spawnPowerUp();
-
-        // 6. Quản lý trạng thái wave và spawn boss
-        manageWaveStateAndBossSpawning();
-
-        // 7. Kiểm tra va chạm giữa các đối tượng
-        checkCollisions();
-
-        // 8. Loại bỏ các đối tượng ra khỏi màn hình (đạn, enemy,...)
-        checkEntitiesOutOfBounds();
-
-        // 9. Thêm các đối tượng mới sinh ra (đạn, power-up, explosion) vào danh sách gameObjects
-        gameObjects.addAll(newObjects);
-        newObjects.clear();
-
-        // 10. Loại bỏ các đối tượng đã chết khỏi danh sách gameObjects
-        Iterator<GameObject> iter = gameObjects.iterator();
-        while (iter.hasNext()) {
-            GameObject iterObj = iter.next();
-            if (iterObj.isDead()) {
-                if (iterObj instanceof BossEnemy) {
-                    BossEnemy deadBoss = (BossEnemy) iterObj;
-                    System.out.println("DEBUG: Boss object (" + deadBoss.hashCode() + ") is dead and removed from gameObjects.");
-                    // Tăng điểm thưởng tùy boss
-                    score += (deadBoss == stationaryBossInstance && stationaryBossSpawned) ? SCORE_REWARD_STATIONARY_BOSS : SCORE_REWARD_PER_BOSS;
-
-                    if (waveBossFightActive || finalBossFightActive) {
-                        if (deadBoss != stationaryBossInstance) {
-                            bossesDefeatedThisWave++;
-                            System.out.println("DEBUG: A wave/final Boss fully died. Defeated count: " + bossesDefeatedThisWave);
-                        }
-                    }
-                }
-                iter.remove();
-            }
+        if (world.getLives() != shownLives) {
+            shownLives = world.getLives();
+            livesLabel.setText("Lives: " + shownLives);
         }
-
-        // 11. Cập nhật lại trạng thái wave và spawn boss ngay nếu có thay đổi do loại bỏ boss
-        manageWaveStateAndBossSpawning();
-
-        // 12. Cập nhật UI hiển thị điểm số, số mạng, wave hiện tại
-        scoreLabel.setText("Score: " + score);
-        livesLabel.setText("Lives: " + SpaceShooter.numLives);
-        waveLabel.setText("Wave: " + waveNumber);
-
-        // 13. Kiểm tra điều kiện kết thúc game (player chết hoặc hết mạng)
-        if (player.isDead() || SpaceShooter.numLives <= 0) {
-            resetGame();
+        if (world.getWaveNumber() != shownWave) {
+            shownWave = world.getWaveNumber();
+            waveLabel.setText("Wave: " + shownWave);
         }
     }
 
@@ -414,456 +302,128 @@ public class SpaceShooter extends Application {
 
 
     /**
-     * Vẽ lại toàn bộ khung hình game mỗi frame.
-     * - Xóa màn hình hiện tại
-     * - Vẽ background (cuộn nền liên tục với 2 ảnh nền)
-     * - Vẽ tất cả các đối tượng game (player, enemy, đạn, power-up,...)
+     * Vẽ khung hình game lên ba lớp canvas, mỗi lớp chỉ vẽ lại khi nội dung thay đổi.
+     * - Lớp nền: ảnh nền đã cắt sẵn, chỉ dịch chuyển theo vị trí cuộn, không vẽ lại
+     * - Lớp đối tượng: player, enemy, đạn, power-up,... tại vị trí nội suy
+     *   giữa tick trước và tick hiện tại
+     * - Lớp hiệu ứng: vụ nổ, bảng thời gian (F3) và lớp phủ tạm dừng
+     * @param alpha hệ số nội suy từ FixedTimestep (0 = tick trước, 1 = tick hiện tại)
      */
-    private void renderGame() {
-        gc.clearRect(0, 0, WIDTH, HEIGHT);
-
+    private void renderGame(double alpha) {
         if (backgroundImage != null && actualBackgroundImageHeight > 0) {
-            double imgOriginalWidth = backgroundImage.getWidth();
-            double sx = (imgOriginalWidth - WIDTH) / 2.0;  // Lấy vùng ảnh nền cắt theo chiều ngang
-            double sw = WIDTH;
-
-            if (imgOriginalWidth < WIDTH) {
-                sx = 0;
-                sw = imgOriginalWidth;
-            }
-
-            // Vẽ 2 ảnh nền liên tục để tạo hiệu ứng cuộn nền seamless
-            gc.drawImage(backgroundImage, sx, 0, sw, actualBackgroundImageHeight,
-                    (WIDTH - sw) / 2.0, backgroundY1, sw, actualBackgroundImageHeight);
-            gc.drawImage(backgroundImage, sx, 0, sw, actualBackgroundImageHeight,
-                    (WIDTH - sw) / 2.0, backgroundY2, sw, actualBackgroundImageHeight);
-        } else {
-            // Nếu không có ảnh nền, vẽ màu nền mặc định
-            gc.setFill(Color.rgb(0, 0, 26));
-            gc.fillRect(0, 0, WIDTH, HEIGHT);
-        }
-
-        // Vẽ tất cả đối tượng game
-        for (GameObject obj : gameObjects) {
-            obj.render(gc);
-        }
-
-        if (gamePaused) {
-            // Vẽ một lớp phủ mờ
-            gc.setFill(Color.rgb(0, 0, 0, 0.5)); // Màu đen với 50% độ trong suốt
-            gc.fillRect(0, 0, WIDTH, HEIGHT);
-
-            // Vẽ chữ "PAUSED"
-            gc.setFill(Color.WHITE);
-            gc.setFont(Font.font("Arial", FontWeight.BOLD, 50));
-            String pauseText = "PAUSED";
-
-            // Tính toán để căn giữa chữ
-            javafx.scene.text.Text text = new javafx.scene.text.Text(pauseText);
-            text.setFont(gc.getFont());
-            double textWidth = text.getLayoutBounds().getWidth();
-            gc.fillText(pauseText, (WIDTH - textWidth) / 2, HEIGHT / 2.0);
+            // Hai ảnh nền luôn nằm liền nhau; lớp nền bắt đầu từ ảnh nằm trên
+            renderer.scrollBackground(Math.min(backgroundY1, backgroundY2));
         }
+        renderer.render(world, alpha, gamePaused, profiler);
     }
 
     /**
-     * Spawn enemy thường theo thời gian và điều kiện game hiện tại.
-     * Không spawn khi đang có boss fight (trừ trường hợp wave 3 có stationary boss đang sống).
-     * Enemy được spawn ngẫu nhiên ở vị trí ngang trên màn hình.
+     * Resets the game state and mechanics to start a new game session.
+     * Resets the world (score, lives, waves, entities) and the background position.
      */
-    private void spawnNormalEnemies() {
-        boolean canSpawnNormal = true;
-
-        // Không spawn enemy thường khi đang fight boss (trừ trường hợp đặc biệt wave 3)
-        if (waveBossFightActive || finalBossFightActive) {
-            canSpawnNormal = false;
-        }
-        if (waveNumber == 3 && stationaryBossSpawned && (stationaryBossInstance != null && !stationaryBossInstance.isDead()) && !finalBossFightActive) {
-            canSpawnNormal = true;
-        }
-
-        if (canSpawnNormal) {
-            enemySpawnTimer++;
-            if (enemySpawnTimer >= currentEnemySpawnInterval) {
-                enemySpawnTimer = 0;
-
-                double minCenterX = Enemy.WIDTH / 2.0;
-                double maxCenterX = SpaceShooter.WIDTH - (Enemy.WIDTH / 2.0);
-                double spawnableWidthForCenter = maxCenterX - minCenterX;
-                if (spawnableWidthForCenter <= 0) spawnableWidthForCenter = Math.max(1, SpaceShooter.WIDTH - Enemy.WIDTH);
-
-                double centerX = minCenterX + random.nextDouble() * spawnableWidthForCenter;
-                double centerY = -Enemy.HEIGHT / 2.0;  // Spawn ngay trên màn hình
+    private void restartGameMechanics() {
+        long seed = nextSessionSeed();
+        world.reset(seed);
+        replayRecorder = new ReplayRecorder(world, timestep.getTicksPerSecond());
+        renderer.invalidate(); // Thế giới mới bắt đầu lại từ tick 0
 
-                Enemy enemy = new Enemy(centerX, centerY);
-                newObjects.add(enemy);
-            }
+        if (backgroundImage != null && actualBackgroundImageHeight > 0) {
+            this.backgroundY1 = 0;
+            this.backgroundY2 = -actualBackgroundImageHeight;
+        } else if (backgroundImage != null && backgroundImage.getHeight() > 0) {
+            actualBackgroundImageHeight = backgroundImage.getHeight();
+            this.backgroundY1 = 0;
+            this.backgroundY2 = -actualBackgroundImageHeight;
         }
     }
 
     /**
-     * Spawn power-up theo thời gian.
-     * Power-up có 3 loại: SHIELD, TRIPLE_SHOT, HEALTH_PACK được chọn ngẫu nhiên.
-     * Spawn ở vị trí ngẫu nhiên ngang trên màn hình.
+     * Returns the seed for the next session: the value of {@value #SEED_PROPERTY}
+     * if it is set and valid, otherwise a fresh one.
+     *
+     * @return session seed
      */
-    private void spawnPowerUp() {
-        powerUpSpawnTimer++;
-        if (powerUpSpawnTimer >= POWERUP_SPAWN_INTERVAL) {
-            powerUpSpawnTimer = 0;
-
-            double centerX = PowerUp.WIDTH / 2.0 + random.nextDouble() * (WIDTH - PowerUp.WIDTH);
-            double centerY = -PowerUp.HEIGHT / 2.0;
-
-            PowerUp.PowerUpType randomType;
-            int typeChoice = random.nextInt(3);
-            switch (typeChoice) {
-                case 0:
-                    randomType = PowerUp.PowerUpType.SHIELD;
-                    break;
-                case 1:
-                    randomType = PowerUp.PowerUpType.TRIPLE_SHOT;
-                    break;
-                default:
-                    randomType = PowerUp.PowerUpType.HEALTH_PACK;
-                    break;
+    private static long nextSessionSeed() {
+        String value = System.getProperty(SEED_PROPERTY);
+        if (value != null) {
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid " + SEED_PROPERTY + ": " + value);
             }
-            PowerUp powerUp = new PowerUp(centerX, centerY, randomType);
-            newObjects.add(powerUp);
         }
+        return System.nanoTime();
     }
 
     /**
-     * Quản lý trạng thái các wave và spawn boss theo điểm và tình trạng boss đã bị hạ.
-     * - Wave 1, 2: spawn các boss tương ứng khi đạt điểm nhất định
-     * - Wave 3: spawn stationary boss, sau đó final bosses khi đạt điểm
-     * - Kết thúc game khi final bosses bị hạ hết
-     */
-    private void manageWaveStateAndBossSpawning() {
-        switch (waveNumber) {
-            case 1:
-                if (!waveBossFightActive && score >= SCORE_THRESHOLD_WAVE1_BOSS) {
-                    spawnBossesForWave(1);
-                }
-                if (waveBossFightActive && bossesDefeatedThisWave >= bossesToDefeatInWave) {
-                    if (bossDefeatedSound != null) bossDefeatedSound.play();
-                    waveNumber = 2;
-                    waveBossFightActive = false;
-                    bossesDefeatedThisWave = 0;
-                    showTempMessage("WAVE 2", WIDTH / 2.0, HEIGHT / 3.0, 2.5);
-                }
-                break;
-
-            case 2:
-                if (!waveBossFightActive && score >= SCORE_THRESHOLD_WAVE2_BOSSES) {
-                    spawnBossesForWave(2);
-                }
-                if (waveBossFightActive && bossesDefeatedThisWave >= bossesToDefeatInWave) {
-                    if (bossDefeatedSound != null) bossDefeatedSound.play();
-                    waveNumber = 3;
-                    waveBossFightActive = false;
-                    bossesDefeatedThisWave = 0;
-                    spawnStationaryBoss();
-                    showTempMessage("WAVE 3", WIDTH / 2.0, HEIGHT / 3.0, 2.5);
-                }
-                break;
-
-            case 3:
-                if (stationaryBossSpawned && stationaryBossInstance != null && stationaryBossInstance.isDead() && !stationaryBossDefeated) {
-                    stationaryBossDefeated = true;
-                    System.out.println("Stationary Boss DEFEATED and processed in manageWaveState! Score: " + score);
-                    if (bossDefeatedSound != null) bossDefeatedSound.play();
-                    showTempMessage("Stationary Boss Defeated!", WIDTH / 2.0, HEIGHT / 3.0, 2.5);
-                    stationaryBossInstance = null;
-                }
-
-                if (stationaryBossDefeated && score >= SCORE_THRESHOLD_WAVE3_FINAL_BOSSES && !finalBossesTriggered && !finalBossFightActive) {
-                    spawnBossesForWave(3);
-                    showTempMessage("FINAL BOSSES!", WIDTH / 2.0, HEIGHT / 3.0, 2.5);
-                }
-
-                if (finalBossFightActive && bossesDefeatedThisWave >= bossesToDefeatInWave) {
-                    System.out.println("ALL FINAL BOSSES DEFEATED! YOU WIN! Final Score: " + score);
-                    gameRunning = false;
-                    if (bossDefeatedSound != null) bossDefeatedSound.play();
-                    Platform.runLater(this::showGameWonScreen);
-                }
-                break;
-        }
-    }
-
-
-    /**
-     * Spawns bosses for the given wave number.
-     * Resets the count of defeated bosses and sets the appropriate flags.
+     * Reads a whole-number system property, falling back to a default when it is
+     * missing, malformed or below the minimum.
      *
-     * @param waveNum the wave number to spawn bosses for
+     * @param name         property name
+     * @param defaultValue value used when the property is not usable
+     * @param minimum      smallest accepted value
+     * @return property value or the default
      */
-    private void spawnBossesForWave(int waveNum) {
-        bossesDefeatedThisWave = 0;
-        if (waveNum == 1) {
-            BossEnemy boss = new BossEnemy(WIDTH / 2.0, 120, this.player, false);
-            newObjects.add(boss);
-            waveBossFightActive = true;
-            finalBossFightActive = false;
-            bossesToDefeatInWave = 1;
-        } else if (waveNum == 2) {
-            BossEnemy boss1 = new BossEnemy(WIDTH / 4.0 + 30, 120, this.player, false);
-            BossEnemy boss2 = new BossEnemy(WIDTH * 3.0 / 4.0 - 30, 150, this.player, false);
-            newObjects.add(boss1);
-            newObjects.add(boss2);
-            waveBossFightActive = true;
-            finalBossFightActive = false;
-            bossesToDefeatInWave = 2;
-        } else if (waveNum == 3) {
-            BossEnemy bossA = new BossEnemy(WIDTH / 4.0, 100, this.player, false);
-            BossEnemy bossB = new BossEnemy(WIDTH / 2.0, 130, this.player, false);
-            BossEnemy bossC = new BossEnemy(WIDTH * 3.0 / 4.0, 100, this.player, false);
-            newObjects.add(bossA);
-            newObjects.add(bossB);
-            newObjects.add(bossC);
-            finalBossesTriggered = true;
-            finalBossFightActive = true;
-            waveBossFightActive = false;
-            bossesToDefeatInWave = 3;
-        }
-    }
-
-    /**
-     * Spawns a stationary boss if not already spawned or if the previous one is dead.
-     */
-    private void spawnStationaryBoss() {
-        if (!stationaryBossSpawned && (stationaryBossInstance == null || stationaryBossInstance.isDead())) {
-            stationaryBossInstance = new BossEnemy(WIDTH / 2.0, 100, this.player, true);
-            newObjects.add(stationaryBossInstance);
-            stationaryBossSpawned = true;
-            stationaryBossDefeated = false;
-        }
-    }
-
-    /**
-     * Checks all relevant collisions:
-     * - Player bullets vs enemies (including bosses)
-     * - Player vs enemies (direct collision)
-     * - Player vs enemy bullets (normal and boss bullets)
-     * - Player vs power-ups
-     */
-    private void checkCollisions() {
-        // Player bullets vs enemies
-        for (GameObject bulletObj : new ArrayList<>(gameObjects)) {
-            if (bulletObj instanceof Bullet && !bulletObj.isDead()) {
-                Bullet bullet = (Bullet) bulletObj;
-                for (GameObject enemyObj : new ArrayList<>(gameObjects)) {
-                    if (enemyObj instanceof Enemy && !enemyObj.isDead()) {
-                        Enemy enemy = (Enemy) enemyObj;
-                        if (bullet.getBounds().intersects(enemy.getBounds())) {
-                            createProceduralExplosion(bullet.getX(), bullet.getY());
-                            bullet.setDead(true);
-                            if (enemy instanceof BossEnemy) {
-                                BossEnemy bossHit = (BossEnemy) enemy;
-                                bossHit.reduceHealth(1);
-                            } else {
-                                createProceduralExplosion(enemy.getX(), enemy.getY());
-                                enemy.setDead(true);
-                                score += 10;
-                            }
-                        }
-                    }
-                }
-            }
-        }
-
-        if (!player.isDead()) {
-            // Player vs enemies (direct collision)
-            for (GameObject enemyObj : new ArrayList<>(gameObjects)) {
-                if (enemyObj instanceof Enemy && !enemyObj.isDead()) {
-                    if (player.getBounds().intersects(enemyObj.getBounds())) {
-                        if (!player.isShieldActive() && !player.isTempInvincible()) {
-                            createProceduralExplosion(player.getX(), player.getY());
-                            SpaceShooter.numLives--;
-                            player.resetMovementFlags();
-                            player.setPosition(WIDTH / 2.0, HEIGHT - 120);
-                            if (SpaceShooter.numLives <= 0) {
-                                player.setDead(true);
-                            } else {
-                                player.activateTempInvincibility();
-                            }
-                        } else {
-                            if (player.isShieldActive()) System.out.println("Shield blocked direct enemy collision!");
-                            if (player.isTempInvincible()) System.out.println("Temp Invincibility blocked direct enemy collision!");
-                        }
-                        if (!(enemyObj instanceof BossEnemy)) {
-                            createProceduralExplosion(enemyObj.getX(), enemyObj.getY());
-                            enemyObj.setDead(true);
-                        }
-                        if (player.isDead()) break;
-                    }
-                }
-            }
-
-            // Player vs enemy bullets (normal)
-            if (!player.isDead()) {
-                for (GameObject enemyBulletObj : new ArrayList<>(gameObjects)) {
-                    if (enemyBulletObj instanceof EnemyBullet && !enemyBulletObj.isDead()) {
-                        if (player.getBounds().intersects(enemyBulletObj.getBounds())) {
-                            if (!player.isShieldActive() && !player.isTempInvincible()) {
-                                createProceduralExplosion(player.getX(), player.getY());
-                                SpaceShooter.numLives--;
-                                player.resetMovementFlags();
-                                player.setPosition(WIDTH / 2.0, HEIGHT - 120);
-                                if (SpaceShooter.numLives <= 0) {
-                                    player.setDead(true);
-                                } else {
-                                    player.activateTempInvincibility();
-                                }
-                            } else {
-                                if (player.isShieldActive()) System.out.println("Shield blocked an enemy bullet!");
-                                if (player.isTempInvincible()) System.out.println("Temp Invincibility blocked an enemy bullet!");
-                            }
-                            createProceduralExplosion(enemyBulletObj.getX(), enemyBulletObj.getY());
-                            enemyBulletObj.setDead(true);
-                            if (player.isDead()) break;
-                        }
-                    }
-                }
-            }
-
-            // Player vs boss bullets
-            if (!player.isDead()) {
-                for (GameObject gameObject : new ArrayList<>(gameObjects)) {
-                    if (gameObject instanceof BossEnemy && !gameObject.isDead()) {
-                        BossEnemy boss = (BossEnemy) gameObject;
-                        List<EnemyBullet> bossBullets = boss.getBullets();
-                        if (bossBullets != null) {
-                            for (EnemyBullet bossBullet : new ArrayList<>(bossBullets)) {
-                                if (bossBullet.isDead()) continue;
-                                if (player.getBounds().intersects(bossBullet.getBounds())) {
-                                    if (!player.isShieldActive() && !player.isTempInvincible()) {
-                                        createProceduralExplosion(player.getX(), player.getY());
-                                        SpaceShooter.numLives--;
-                                        player.resetMovementFlags();
-                                        player.setPosition(WIDTH / 2.0, HEIGHT - 120);
-                                        if (SpaceShooter.numLives <= 0) {
-                                            player.setDead(true);
-                                        } else {
-                                            player.activateTempInvincibility();
-                                        }
-                                    } else {
-                                        if (player.isShieldActive()) System.out.println("Shield blocked a BOSS bullet!");
-                                        if (player.isTempInvincible()) System.out.println("Temp Invincibility blocked a BOSS bullet!");
-                                    }
-                                    createProceduralExplosion(bossBullet.getX(), bossBullet.getY());
-                                    bossBullet.setDead(true);
-                                    if (player.isDead()) break;
-                                }
-                            }
-                        }
-                        if (player.isDead()) break;
-                    }
-                }
-            }
-
-            // Player vs power-ups
-            if (!player.isDead()) {
-                for (GameObject powerUpObj : new ArrayList<>(gameObjects)) {
-                    if (powerUpObj instanceof PowerUp && !powerUpObj.isDead()) {
-                        PowerUp powerUp = (PowerUp) powerUpObj;
-                        if (player.getBounds().intersects(powerUp.getBounds())) {
-                            if (powerUpCollectedSound != null) {
-                                powerUpCollectedSound.setVolume(0.6);
-                                powerUpCollectedSound.play();
-                            }
-                            switch (powerUp.getType()) {
-                                case HEALTH_PACK:
-                                    if (SpaceShooter.numLives < 5) SpaceShooter.numLives++;
-                                    score += 5;
-                                    System.out.println("Player collected Health Pack!");
-                                    break;
-                                case SHIELD:
-                                    player.activateShield();
-                                    break;
-                                case TRIPLE_SHOT:
-                                    player.activateTripleShot();
-                                    break;
-                            }
-                            powerUp.setDead(true);
-                        }
-                    }
+    private static long longProperty(String name, long defaultValue, long minimum) {
+        String value = System.getProperty(name);
+        if (value != null) {
+            try {
+                long parsed = Long.parseLong(value.trim());
+                if (parsed >= minimum && parsed <= Integer.MAX_VALUE) {
+                    return parsed;
                 }
+            } catch (NumberFormatException e) {
+                // Reported below
             }
+            System.err.println("Invalid " + name + ": " + value);
         }
+        return defaultValue;
     }
 
-
-
     /**
-     * Checks all game entities to determine if they have moved out of the visible screen bounds.
-     * Marks entities as dead if they are out of bounds, and updates lives or counters accordingly.
+     * Finishes the replay of the session that just ended and writes it to the file
+     * named by {@value ReplayRecorder#REPLAY_PROPERTY}, if that property is set.
+     * Sessions steered by the asynchronous AI, or in which a time limit of the AI
+     * changed a decision, cannot be replayed and are not saved.
      */
-    private void checkEntitiesOutOfBounds() {
-        for (GameObject obj : gameObjects) {
-            if (obj.isDead()) continue;
-
-            if (obj instanceof Enemy) {
-                if (obj.getY() - obj.getHeight() / 2 > HEIGHT) {
-                    if (!obj.isDead()) {
-                        obj.setDead(true);
-                        if (!(obj instanceof BossEnemy)) {
-                            SpaceShooter.numLives--;
-                        } else {
-                            if (obj != stationaryBossInstance) {
-                                if (waveBossFightActive || finalBossFightActive) {
-                                    bossesDefeatedThisWave++;
-                                }
-                                SpaceShooter.numLives -= 2;
-                                System.out.println("DEBUG: A non-stationary Boss escaped. Lives: " + SpaceShooter.numLives + ". Defeated count for wave: " + bossesDefeatedThisWave);
-                            }
-                        }
-                        if (SpaceShooter.numLives <= 0) player.setDead(true);
-                    }
-                }
-            } else if (obj instanceof Bullet && (obj.getY() + obj.getHeight() / 2) < 0) {
-                obj.setDead(true);
-            } else if ((obj instanceof EnemyBullet || obj instanceof PowerUp) && (obj.getY() - obj.getHeight() / 2) > HEIGHT) {
-                obj.setDead(true);
-            }
+    private void saveReplay() {
+        replayRecorder.finish(world.checksum());
+        String path = System.getProperty(ReplayRecorder.REPLAY_PROPERTY);
+        if (path == null || path.isBlank()) {
+            return;
+        }
+        if (!world.isDeterministic()) {
+            System.out.println("Replay not saved: the asynchronous AI or an AI time limit steered this session (run with -D"
+                    + ASYNC_AI_PROPERTY + "=false -D" + AIScheduler.BUDGET_PROPERTY + "=0 to record AI sessions)");
+            return;
+        }
+        try {
+            replayRecorder.save(Paths.get(path));
+            System.out.println("Replay saved to " + path + " (seed " + world.getSeed()
+                    + ", " + replayRecorder.getTotalTicks() + " ticks)");
+        } catch (IOException e) {
+            System.err.println("Không thể lưu replay " + path + ": " + e.getMessage());
         }
     }
 
     /**
-     * Resets the game state and mechanics to start a new game session.
-     * Resets scores, lives, timers, wave states, background positions, difficulty, and player state.
+     * Logs the statistics of the session that just ended, won or lost, at
+     * {@link GameLog.Level#INFO}. Unlike the constant messages of the hot paths, the
+     * reports are built strings, so they are only built if that level is enabled.
      */
-    private void restartGameMechanics() {
-        this.score = 0;
-        SpaceShooter.numLives = 3;
-        this.enemySpawnTimer = 0;
-        this.powerUpSpawnTimer = 0;
-        this.waveNumber = 1;
-        this.waveBossFightActive = false;
-        this.bossesToDefeatInWave = 0;
-        this.bossesDefeatedThisWave = 0;
-        this.stationaryBossInstance = null;
-        this.stationaryBossSpawned = false;
-        this.stationaryBossDefeated = false;
-        this.finalBossesTriggered = false;
-        this.finalBossFightActive = false;
-
-        if (backgroundImage != null && actualBackgroundImageHeight > 0) {
-            this.backgroundY1 = 0;
-            this.backgroundY2 = -actualBackgroundImageHeight;
-        } else if (backgroundImage != null && backgroundImage.getHeight() > 0) {
-            actualBackgroundImageHeight = backgroundImage.getHeight();
-            this.backgroundY1 = 0;
-            this.backgroundY2 = -actualBackgroundImageHeight;
+    private void logSessionReports() {
+        if (!GameLog.isEnabled(GameLog.Level.INFO)) {
+            return;
+        }
+        GameLog.info(world.getProjectiles().report());
+        if (world.getAsyncAIDriver() != null) {
+            GameLog.info(world.getAsyncAIDriver().report());
+            GameLog.info(world.getAsyncAIDriver().getPlanner().report());
+        } else {
+            GameLog.info(world.getAIPlanner().report());
         }
-
-        adjustDifficulty();
-        player.setPosition(WIDTH / 2.0, HEIGHT - 120);
-        player.setDead(false);
-        player.resetMovementFlags();
-        gameObjects.clear();
-        newObjects.clear();
-        gameObjects.add(player);
+        GameLog.info(profiler.report());
+        GameLog.info(renderer.report());
     }
 
     /**
@@ -943,6 +503,7 @@ public class SpaceShooter extends Application {
         restartGameMechanics();
         gameRunning = true;
         this.gamePaused = false; // Đảm bảo game bắt đầu không bị pause
+        timestep.reset();
         primaryStage.setScene(gameScene);
         if (gameLoop != null) {
             gameLoop.start();
@@ -973,7 +534,7 @@ public class SpaceShooter extends Application {
         gameOverLabel.setFont(Font.font("Arial", FontWeight.BOLD, 52));
         gameOverLabel.setTextFill(Color.RED);
 
-        Label finalScoreLabel = new Label("Your Score: " + score);
+        Label finalScoreLabel = new Label("Your Score: " + world.getScore());
         finalScoreLabel.setFont(Font.font("Arial", FontWeight.BOLD, 28));
         finalScoreLabel.setTextFill(Color.WHITE);
 
@@ -1014,7 +575,7 @@ public class SpaceShooter extends Application {
         winMsg.setFont(Font.font("Arial", FontWeight.BOLD, 60));
         winMsg.setTextFill(Color.GOLD);
 
-        Label finalScoreMsg = new Label("Final Score: " + this.score);
+        Label finalScoreMsg = new Label("Final Score: " + world.getScore());
         finalScoreMsg.setFont(Font.font("Arial", FontWeight.BOLD, 30));
         finalScoreMsg.setTextFill(Color.WHITE);
 
@@ -1056,6 +617,7 @@ public class SpaceShooter extends Application {
                 "Press SPACE to shoot bullets and destroy enemies.",
                 "Press SHIFT to toggle AI control mode.",
                 "Press P to PAUSE or RESUME the game.",
+                "Press F3 to show or hide the frame-time profiler.",
                 "If an enemy reaches the bottom of the screen, you lose a life.",
                 "The game ends if you lose all lives.",
                 "Collect power-ups to increase your score or gain benefits (max 5 lives).",
@@ -1083,19 +645,21 @@ public class SpaceShooter extends Application {
      * Khởi tạo các handler sự kiện bàn phím cho một Scene cụ thể.
      * - SHIFT: bật/tắt chế độ AI điều khiển.
      * - P: bật/tắt tạm dừng game.
+     * - F3: bật/tắt bảng thời gian từng pha của frame.
      * - Các phím di chuyển và bắn chỉ có tác dụng khi AI tắt, game đang chạy và không bị tạm dừng.
      *
      * @param targetScene Scene cần gán handler sự kiện
      */
     private void initEventHandlers(Scene targetScene) {
         targetScene.setOnKeyPressed(event -> {
+            Player player = world.getPlayer();
             if (event.getCode() == KeyCode.SHIFT) {
                 // Chuyển đổi chế độ AI điều khiển
-                isAIControlled = !isAIControlled;
+                world.setAIControlled(!world.isAIControlled());
                 player.resetMovementFlags(); // Reset trạng thái di chuyển
                 player.setWantsToShoot(false);
-                System.out.println("AI Control: " + isAIControlled);
-                if (isAIControlled) {
+                System.out.println("AI Control: " + world.isAIControlled());
+                if (world.isAIControlled()) {
                     // Xóa focus khỏi các nút để tránh bắt phím space
                     gameRootPane.requestFocus();
                 }
@@ -1103,13 +667,20 @@ public class SpaceShooter extends Application {
                 return; // Không xử lý thêm các phím khác trong trường hợp SHIFT
             }
 
+            if (event.getCode() == KeyCode.F3) {
+                // Bật/tắt bảng thời gian từng pha của frame
+                profiler.toggleOverlay();
+                event.consume();
+                return;
+            }
+
             if (event.getCode() == KeyCode.P && gameRunning) { // Chỉ cho phép pause khi game đang chạy
                 togglePause();
                 event.consume(); // Ngăn sự kiện được xử lý thêm
                 return;
             }
 
-            if (!isAIControlled && gameRunning && !player.isDead() && !gamePaused) {
+            if (!world.isAIControlled() && gameRunning && !player.isDead() && !gamePaused) {
                 // Xử lý các phím điều khiển khi AI tắt, game đang chạy, player không chết VÀ KHÔNG PAUSE
                 switch (event.getCode()) {
                     case LEFT, A -> player.setMoveLeft(true);
@@ -1122,7 +693,8 @@ public class SpaceShooter extends Application {
         });
 
         targetScene.setOnKeyReleased(event -> {
-            if (!isAIControlled && !gamePaused) { // Chỉ xử lý khi nhả phím nếu không AI và không pause
+            Player player = world.getPlayer();
+            if (!world.isAIControlled() && !gamePaused) { // Chỉ xử lý khi nhả phím nếu không AI và không pause
                 // Xử lý khi nhả phím để dừng di chuyển
                 switch (event.getCode()) {
                     case LEFT, A -> player.setMoveLeft(false);
@@ -1145,11 +717,12 @@ public class SpaceShooter extends Application {
             // Tùy chọn: Dừng âm thanh nếu có thể (AudioClip không hỗ trợ trực tiếp)
         } else {
             System.out.println("Game Resumed");
+            timestep.reset(); // Thời gian pause không được tính thành các tick bù
             // Tùy chọn: Tiếp tục âm thanh
             // Đảm bảo player không bị kẹt trạng thái di chuyển/bắn từ trước khi pause
-            if (!isAIControlled) { // Nếu người chơi đang điều khiển
-                player.resetMovementFlags(); // Reset các cờ di chuyển
-                player.setWantsToShoot(false); // Không muốn bắn ngay khi resume
+            if (!world.isAIControlled()) { // Nếu người chơi đang điều khiển
+                world.getPlayer().resetMovementFlags(); // Reset các cờ di chuyển
+                world.getPlayer().setWantsToShoot(false); // Không muốn bắn ngay khi resume
             }
         }
     }
@@ -0,0 +1,188 @@
+package uet.oop.spaceshootergamejavafx.entities;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Uniform spatial hash grid used as the collision broad phase.
+ * The playfield is divided into square cells; each object is inserted into
+ * every cell its bounding box overlaps, and queries only visit the cells
+ * covered by the query rectangle. All storage is kept in flat arrays that are
+ * reused between ticks, so rebuilding the grid every frame does not allocate
+ * once the arrays have grown to the working size.
+ */
+public class SpatialHashGrid {
+
+    /** Side length of one cell, in pixels. */
+    private final int cellSize;
+
+    /** Number of cell columns covering the playfield. */
+    private final int cols;
+
+    /** Number of cell rows covering the playfield. */
+    private final int rows;
+
+    /** Index of the first node of each cell, or -1 for an empty cell. */
+    private final int[] cellHead;
+
+    /** Next node in the same cell, or -1 at the end of the chain. */
+    private int[] nodeNext;
+
+    /** Object index referenced by each node. */
+    private int[] nodeObject;
+
+    /** Number of nodes currently in use. */
+    private int nodeCount;
+
+    /** Objects inserted since the last clear. */
+    private GameObject[] objects;
+
+    /** Number of objects currently inserted. */
+    private int objectCount;
+
+    /** Last query stamp seen by each object, used to skip duplicates. */
+    private int[] queryStamp;
+
+    /** Stamp of the query in progress. */
+    private int currentStamp;
+
+    /**
+     * Creates a grid covering a playfield of the given size.
+     *
+     * @param worldWidth  playfield width in pixels
+     * @param worldHeight playfield height in pixels
+     * @param cellSize    side length of a cell in pixels
+     */
+    public SpatialHashGrid(int worldWidth, int worldHeight, int cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("cellSize must be positive");
+        }
+        this.cellSize = cellSize;
+        this.cols = (worldWidth + cellSize - 1) / cellSize;
+        this.rows = (worldHeight + cellSize - 1) / cellSize;
+        this.cellHead = new int[cols * rows];
+        Arrays.fill(cellHead, -1);
+
+        int initialCapacity = 256;
+        this.nodeNext = new int[initialCapacity];
+        this.nodeObject = new int[initialCapacity];
+        this.objects = new GameObject[initialCapacity];
+        this.queryStamp = new int[initialCapacity];
+    }
+
+    /**
+     * Removes all objects from the grid. Call once per tick before re-inserting.
+     */
+    public void clear() {
+        Arrays.fill(cellHead, -1);
+        Arrays.fill(objects, 0, objectCount, null);
+        nodeCount = 0;
+        objectCount = 0;
+    }
+
+    /**
+     * Inserts an object into every cell its bounding box overlaps.
+     * Objects partially or fully outside the playfield are clamped to the border cells.
+     *
+     * @param obj the object to insert
+     */
+    public void insert(GameObject obj) {
+        if (objectCount == objects.length) {
+            int newCapacity = objects.length * 2;
+            objects = Arrays.copyOf(objects, newCapacity);
+            queryStamp = Arrays.copyOf(queryStamp, newCapacity);
+        }
+        int objIndex = objectCount++;
+        objects[objIndex] = obj;
+        queryStamp[objIndex] = 0;
+
+        double halfW = obj.getHalfWidth();
+        double halfH = obj.getHalfHeight();
+        int minCol = toCol(obj.getX() - halfW);
+        int maxCol = toCol(obj.getX() + halfW);
+        int minRow = toRow(obj.getY() - halfH);
+        int maxRow = toRow(obj.getY() + halfH);
+
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                if (nodeCount == nodeNext.length) {
+                    int newCapacity = nodeNext.length * 2;
+                    nodeNext = Arrays.copyOf(nodeNext, newCapacity);
+                    nodeObject = Arrays.copyOf(nodeObject, newCapacity);
+                }
+                int cell = row * cols + col;
+                int node = nodeCount++;
+                nodeObject[node] = objIndex;
+                nodeNext[node] = cellHead[cell];
+                cellHead[cell] = node;
+            }
+        }
+    }
+
+    /**
+     * Collects every object whose cells overlap the given rectangle.
+     * This is a broad-phase query: results may not actually intersect the
+     * rectangle and must still be checked precisely. Each object is reported at most once.
+     *
+     * @param minX left edge of the query rectangle
+     * @param minY top edge of the query rectangle
+     * @param maxX right edge of the query rectangle
+     * @param maxY bottom edge of the query rectangle
+     * @param out  list receiving the candidates; it is cleared first
+     */
+    public void query(double minX, double minY, double maxX, double maxY, List<GameObject> out) {
+        out.clear();
+        if (++currentStamp == Integer.MAX_VALUE) {
+            Arrays.fill(queryStamp, 0);
+            currentStamp = 1;
+        }
+
+        int minCol = toCol(minX);
+        int maxCol = toCol(maxX);
+        int minRow = toRow(minY);
+        int maxRow = toRow(maxY);
+
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                for (int node = cellHead[row * cols + col]; node != -1; node = nodeNext[node]) {
+                    int objIndex = nodeObject[node];
+                    if (queryStamp[objIndex] != currentStamp) {
+                        queryStamp[objIndex] = currentStamp;
+                        out.add(objects[objIndex]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Collects every object whose cells overlap the bounding box of the given object.
+     *
+     * @param obj the object to query around
+     * @param out list receiving the candidates; it is cleared first
+     */
+    public void queryAround(GameObject obj, List<GameObject> out) {
+        double halfW = obj.getHalfWidth();
+        double halfH = obj.getHalfHeight();
+        query(obj.getX() - halfW, obj.getY() - halfH, obj.getX() + halfW, obj.getY() + halfH, out);
+    }
+
+    /**
+     * Returns the number of objects currently inserted.
+     *
+     * @return object count
+     */
+    public int size() {
+        return objectCount;
+    }
+
+    private int toCol(double x) {
+        int col = (int) Math.floor(x / cellSize);
+        return col < 0 ? 0 : (col >= cols ? cols - 1 : col);
+    }
+
+    private int toRow(double y) {
+        int row = (int) Math.floor(y / cellSize);
+        return row < 0 ? 0 : (row >= rows ? rows - 1 : row);
+    }
+}
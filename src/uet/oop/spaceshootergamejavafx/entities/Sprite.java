@@ -0,0 +1,80 @@
+package uet.oop.spaceshootergamejavafx.entities;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+
+/**
+ * A rectangle of a texture holding one sprite: a region of the {@link SpriteAtlas},
+ * or a whole image for the sprites kept out of it.
+ * <p>
+ * Entities get their sprites from {@link Assets#getSprite(String)} and draw them
+ * through a {@link RenderQueue}, which groups the draws by {@link #getTexture()}.
+ */
+public final class Sprite {
+
+    private final Image texture;
+    private final double sourceX;
+    private final double sourceY;
+    private final double sourceWidth;
+    private final double sourceHeight;
+
+    /**
+     * Creates a sprite from a region of a texture.
+     *
+     * @param texture      image holding the sprite
+     * @param sourceX      left edge of the region in the texture
+     * @param sourceY      top edge of the region in the texture
+     * @param sourceWidth  region width
+     * @param sourceHeight region height
+     */
+    public Sprite(Image texture, double sourceX, double sourceY, double sourceWidth, double sourceHeight) {
+        this.texture = texture;
+        this.sourceX = sourceX;
+        this.sourceY = sourceY;
+        this.sourceWidth = sourceWidth;
+        this.sourceHeight = sourceHeight;
+    }
+
+    /**
+     * Creates a sprite covering a whole image.
+     *
+     * @param image image of the sprite
+     * @return sprite of the full image
+     */
+    public static Sprite of(Image image) {
+        return new Sprite(image, 0, 0, image.getWidth(), image.getHeight());
+    }
+
+    /**
+     * Draws the sprite scaled into a rectangle.
+     *
+     * @param gc     graphics context to draw on
+     * @param x      left edge of the destination
+     * @param y      top edge of the destination
+     * @param width  destination width
+     * @param height destination height
+     */
+    public void draw(GraphicsContext gc, double x, double y, double width, double height) {
+        gc.drawImage(texture, sourceX, sourceY, sourceWidth, sourceHeight, x, y, width, height);
+    }
+
+    public Image getTexture() {
+        return texture;
+    }
+
+    public double getSourceX() {
+        return sourceX;
+    }
+
+    public double getSourceY() {
+        return sourceY;
+    }
+
+    public double getSourceWidth() {
+        return sourceWidth;
+    }
+
+    public double getSourceHeight() {
+        return sourceHeight;
+    }
+}
@@ -0,0 +1,109 @@
+package uet.oop.spaceshootergamejavafx.entities;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Packs the static sprites into one texture, so that drawing any mix of them never
+ * switches textures.
+ * <p>
+ * Sprites are packed at their native size on shelves: sorted by height, tallest
+ * first, and placed left to right, a new shelf starting when a row would exceed
+ * {@link #MAX_WIDTH}. Each sprite is surrounded by {@link #PADDING} transparent
+ * pixels so that filtering at its edges never samples a neighbour.
+ * <p>
+ * Animated images cannot go into the atlas: copying their pixels keeps only the
+ * current frame. {@link Assets} leaves them out and draws them from their own image.
+ */
+public final class SpriteAtlas {
+
+    /** Widest row of sprites. */
+    public static final int MAX_WIDTH = 2048;
+    /** Transparent border around every sprite. */
+    public static final int PADDING = 2;
+
+    private final WritableImage texture;
+    private final Map<String, Sprite> sprites;
+
+    private SpriteAtlas(WritableImage texture, Map<String, Sprite> sprites) {
+        this.texture = texture;
+        this.sprites = sprites;
+    }
+
+    /**
+     * Packs images into a new atlas. Every image must be fully loaded.
+     *
+     * @param images images by resource path
+     * @return the atlas, holding one sprite per path
+     */
+    public static SpriteAtlas pack(Map<String, Image> images) {
+        List<Map.Entry<String, Image>> entries = new ArrayList<>(images.entrySet());
+        entries.sort((a, b) -> Double.compare(b.getValue().getHeight(), a.getValue().getHeight()));
+
+        // Place the sprites on shelves first, to know the size of the texture
+        int count = entries.size();
+        int[] placedX = new int[count];
+        int[] placedY = new int[count];
+        int shelfX = 0;
+        int shelfY = 0;
+        int shelfHeight = 0;
+        int atlasWidth = 1;
+        for (int i = 0; i < count; i++) {
+            Image image = entries.get(i).getValue();
+            int w = (int) image.getWidth() + 2 * PADDING;
+            int h = (int) image.getHeight() + 2 * PADDING;
+            if (shelfX > 0 && shelfX + w > MAX_WIDTH) {
+                shelfY += shelfHeight;
+                shelfX = 0;
+                shelfHeight = 0;
+            }
+            placedX[i] = shelfX + PADDING;
+            placedY[i] = shelfY + PADDING;
+            shelfX += w;
+            shelfHeight = Math.max(shelfHeight, h);
+            atlasWidth = Math.max(atlasWidth, shelfX);
+        }
+        int atlasHeight = Math.max(1, shelfY + shelfHeight);
+
+        WritableImage texture = new WritableImage(atlasWidth, atlasHeight);
+        PixelWriter writer = texture.getPixelWriter();
+        Map<String, Sprite> sprites = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            Image image = entries.get(i).getValue();
+            PixelReader reader = image.getPixelReader();
+            if (reader == null) {
+                throw new IllegalArgumentException("Pixels of " + entries.get(i).getKey() + " are not readable");
+            }
+            int w = (int) image.getWidth();
+            int h = (int) image.getHeight();
+            writer.setPixels(placedX[i], placedY[i], w, h, reader, 0, 0);
+            sprites.put(entries.get(i).getKey(), new Sprite(texture, placedX[i], placedY[i], w, h));
+        }
+        return new SpriteAtlas(texture, sprites);
+    }
+
+    /**
+     * Returns the sprite packed from a resource path.
+     *
+     * @param path resource path the image was packed under
+     * @return the sprite, or null if the path is not in the atlas
+     */
+    public Sprite get(String path) {
+        return sprites.get(path);
+    }
+
+    public Image getTexture() {
+        return texture;
+    }
+
+    public int size() {
+        return sprites.size();
+    }
+}
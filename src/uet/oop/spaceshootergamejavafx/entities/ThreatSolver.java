@@ -0,0 +1,112 @@
+package uet.oop.spaceshootergamejavafx.entities;
+
+/**
+ * Closed-form time-of-contact tests for projectiles moving in a straight line.
+ * A bullet at {@code (x, y)} with velocity {@code (vx, vy)} is at
+ * {@code (x + vx * t, y + vy * t)} at time {@code t}, so the moment it first
+ * touches a zone can be solved exactly instead of sampling the trajectory:
+ * a quadratic for a circular zone, and a slab intersection per axis for a
+ * rectangular one. Each test is a handful of arithmetic operations and cannot
+ * miss a fast bullet that crosses the zone between two samples.
+ * <p>
+ * Times are in the same unit the velocities are expressed in. Every method
+ * returns {@link #NO_CONTACT} when there is no contact within {@code [0, horizon]}.
+ */
+public final class ThreatSolver {
+
+    /** Returned when the projectile does not reach the zone within the horizon. */
+    public static final double NO_CONTACT = Double.POSITIVE_INFINITY;
+
+    private ThreatSolver() {
+    }
+
+    /**
+     * Earliest time at which a moving point comes strictly closer than
+     * {@code radius} to a fixed center.
+     *
+     * @param x       projectile x at time 0
+     * @param y       projectile y at time 0
+     * @param vx      projectile x velocity
+     * @param vy      projectile y velocity
+     * @param cx      zone center x
+     * @param cy      zone center y
+     * @param radius  zone radius, including the projectile's own extent
+     * @param horizon latest time of interest
+     * @return contact time in {@code [0, horizon]}, or {@link #NO_CONTACT}
+     */
+    public static double circleContactTime(double x, double y, double vx, double vy,
+                                           double cx, double cy, double radius, double horizon) {
+        // |d + v t|^2 < r^2  with d = p0 - c  ->  a t^2 + b t + c0 < 0
+        double dx = x - cx;
+        double dy = y - cy;
+        double c0 = dx * dx + dy * dy - radius * radius;
+        if (c0 < 0) {
+            return 0; // Already inside
+        }
+        double a = vx * vx + vy * vy;
+        if (a == 0) {
+            return NO_CONTACT; // Not moving and outside
+        }
+        double b = 2 * (dx * vx + dy * vy);
+        if (b >= 0) {
+            return NO_CONTACT; // Outside and not approaching
+        }
+        double discriminant = b * b - 4 * a * c0;
+        if (discriminant <= 0) {
+            return NO_CONTACT; // Passes by without getting strictly inside
+        }
+        double entry = (-b - Math.sqrt(discriminant)) / (2 * a);
+        return entry <= horizon ? entry : NO_CONTACT;
+    }
+
+    /**
+     * Earliest time at which the offset of a moving point from a fixed reference
+     * lies inside the rectangle {@code [minDx, maxDx] x [minDy, maxDy]}. Passing the
+     * sum of two half extents as symmetric bounds gives the swept AABB contact time.
+     *
+     * @param x       projectile x at time 0
+     * @param y       projectile y at time 0
+     * @param vx      projectile x velocity
+     * @param vy      projectile y velocity
+     * @param refX    reference x
+     * @param refY    reference y
+     * @param minDx   lowest allowed {@code projectileX - refX}
+     * @param maxDx   highest allowed {@code projectileX - refX}
+     * @param minDy   lowest allowed {@code projectileY - refY}
+     * @param maxDy   highest allowed {@code projectileY - refY}
+     * @param horizon latest time of interest
+     * @return contact time in {@code [0, horizon]}, or {@link #NO_CONTACT}
+     */
+    public static double boxContactTime(double x, double y, double vx, double vy,
+                                        double refX, double refY,
+                                        double minDx, double maxDx, double minDy, double maxDy,
+                                        double horizon) {
+        double enter = 0;
+        double exit = horizon;
+
+        // Slab for the x axis
+        double dx = x - refX;
+        if (vx == 0) {
+            if (dx < minDx || dx > maxDx) return NO_CONTACT;
+        } else {
+            double t1 = (minDx - dx) / vx;
+            double t2 = (maxDx - dx) / vx;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+            if (enter > exit) return NO_CONTACT;
+        }
+
+        // Slab for the y axis
+        double dy = y - refY;
+        if (vy == 0) {
+            if (dy < minDy || dy > maxDy) return NO_CONTACT;
+        } else {
+            double t1 = (minDy - dy) / vy;
+            double t2 = (maxDy - dy) / vy;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+            if (enter > exit) return NO_CONTACT;
+        }
+        return enter;
+    }
+}
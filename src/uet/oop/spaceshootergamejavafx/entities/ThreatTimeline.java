@@ -0,0 +1,162 @@
+package uet.oop.spaceshootergamejavafx.entities;
+
+import java.util.Arrays;
+
+/**
+ * Per-frame danger map of one horizontal row of the playfield.
+ * For every 1-pixel column {@code x} it stores the earliest time at which any enemy
+ * bullet comes within {@code radius} (plus the bullet's half width) of the point
+ * {@code (x, rowY)}, as solved by {@link ThreatSolver#circleContactTime}. It is built
+ * once from the bullet set, after which "is this spot safe for the next t seconds"
+ * becomes an array lookup and finding the nearest safe spot is a single outward scan.
+ * <p>
+ * A query at a fractional x uses the earlier of the two neighbouring columns, so
+ * lookups are never less cautious than the columns around them.
+ */
+public class ThreatTimeline {
+
+    /** Earliest contact time per column, or {@link ThreatSolver#NO_CONTACT}. */
+    private final double[] unsafeTime;
+
+    private double rowY = Double.NaN;
+    private double radius = Double.NaN;
+    private double horizon;
+
+    /**
+     * Creates an empty timeline covering columns {@code 0..width}.
+     *
+     * @param width width of the playfield, in pixels
+     */
+    public ThreatTimeline(int width) {
+        this.unsafeTime = new double[width + 1];
+    }
+
+    /**
+     * Rebuilds the timeline from the current bullets.
+     *
+     * @param projectiles projectile store; only live enemy and boss bullets are considered
+     * @param rowY        y of the row to map
+     * @param radius      safe-zone radius around each point of the row
+     * @param horizon     longest look-ahead any query will use
+     */
+    public void build(ProjectileStore projectiles, double rowY, double radius, double horizon) {
+        this.rowY = rowY;
+        this.radius = radius;
+        this.horizon = horizon;
+        Arrays.fill(unsafeTime, ThreatSolver.NO_CONTACT);
+        int lastColumn = unsafeTime.length - 1;
+
+        for (int i = 0; i < projectiles.size(); i++) {
+            if (!projectiles.isHostile(i) || projectiles.isDead(i)) continue;
+            double x = projectiles.getX(i);
+            double y = projectiles.getY(i);
+            double vx = projectiles.getVx(i);
+            double vy = projectiles.getVy(i);
+            double reach = radius + projectiles.getHalfWidth(i);
+
+            // Time window during which the bullet is vertically within reach of the row
+            double windowStart = 0;
+            double windowEnd = horizon;
+            if (vy == 0) {
+                if (Math.abs(y - rowY) >= reach) continue;
+            } else {
+                double t1 = (rowY - reach - y) / vy;
+                double t2 = (rowY + reach - y) / vy;
+                windowStart = Math.max(windowStart, Math.min(t1, t2));
+                windowEnd = Math.min(windowEnd, Math.max(t1, t2));
+                if (windowStart > windowEnd) continue;
+            }
+
+            // Only the columns the bullet can reach inside that window need solving
+            double xa = x + vx * windowStart;
+            double xb = x + vx * windowEnd;
+            int from = Math.max(0, (int) Math.ceil(Math.min(xa, xb) - reach));
+            int to = Math.min(lastColumn, (int) Math.floor(Math.max(xa, xb) + reach));
+            for (int column = from; column <= to; column++) {
+                double t = ThreatSolver.circleContactTime(x, y, vx, vy, column, rowY, reach, horizon);
+                if (t < unsafeTime[column]) {
+                    unsafeTime[column] = t;
+                }
+            }
+        }
+    }
+
+    /**
+     * Marks the timeline as out of date, so that {@link #covers} is false until the
+     * next {@link #build}.
+     */
+    public void invalidate() {
+        rowY = Double.NaN;
+    }
+
+    /**
+     * Returns whether a query can be answered from this timeline.
+     *
+     * @param queryY       y of the queried point
+     * @param queryRadius  safe-zone radius of the query
+     * @param queryHorizon look-ahead of the query
+     * @return true if the timeline was built for this row and radius and looks far enough ahead
+     */
+    public boolean covers(double queryY, double queryRadius, double queryHorizon) {
+        return queryY == rowY && queryRadius == radius && queryHorizon <= horizon;
+    }
+
+    /**
+     * Returns whether a point of the row stays clear for the given time.
+     * Points outside the playfield are never clear.
+     *
+     * @param x            x of the point
+     * @param queryHorizon look-ahead, at most the build horizon
+     * @return true if no bullet reaches the point within {@code queryHorizon}
+     */
+    public boolean isClear(double x, double queryHorizon) {
+        return earliestContact(x) > queryHorizon;
+    }
+
+    /**
+     * Returns the earliest contact time at a point of the row.
+     *
+     * @param x x of the point
+     * @return contact time, {@link ThreatSolver#NO_CONTACT} if none within the build
+     *         horizon, or 0 for points outside the playfield
+     */
+    public double earliestContact(double x) {
+        if (!(x >= 0 && x <= unsafeTime.length - 1)) {
+            return 0;
+        }
+        int left = (int) x;
+        int right = Math.min(left + 1, unsafeTime.length - 1);
+        return x == left ? unsafeTime[left] : Math.min(unsafeTime[left], unsafeTime[right]);
+    }
+
+    /**
+     * Finds the column nearest to {@code fromX} that stays clear for the given time,
+     * scanning outward one column at a time and preferring the right side on ties.
+     *
+     * @param fromX        start of the scan
+     * @param queryHorizon required clear time, at most the build horizon
+     * @param minX         smallest acceptable column (inclusive)
+     * @param maxX         largest acceptable column (inclusive)
+     * @param minDistance  nearest acceptable distance from {@code fromX}
+     * @param maxDistance  farthest acceptable distance from {@code fromX}
+     * @return x of the nearest clear column, or {@code Double.NaN} if there is none
+     */
+    public double nearestClearColumn(double fromX, double queryHorizon, double minX, double maxX,
+                                     double minDistance, double maxDistance) {
+        int lo = (int) Math.ceil(Math.max(0, minX));
+        int hi = (int) Math.floor(Math.min(unsafeTime.length - 1, maxX));
+        int start = (int) Math.round(fromX);
+        int first = (int) Math.ceil(minDistance);
+        int last = (int) Math.floor(maxDistance);
+        for (int d = first; d <= last; d++) {
+            int right = start + d;
+            int left = start - d;
+            if (right > hi && left < lo) {
+                break; // Both directions have left the acceptable range
+            }
+            if (right >= lo && right <= hi && unsafeTime[right] > queryHorizon) return right;
+            if (left >= lo && left <= hi && unsafeTime[left] > queryHorizon) return left;
+        }
+        return Double.NaN;
+    }
+}
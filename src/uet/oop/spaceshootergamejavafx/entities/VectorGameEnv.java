@@ -0,0 +1,267 @@
+package uet.oop.spaceshootergamejavafx.entities;
+
+import java.io.PrintStream;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Steps a batch of independent {@link GameEnv}s with one call.
+ * <p>
+ * The environments share flat arrays: environment {@code i} writes its
+ * observation to {@link #getObservations()} at {@code i * GameEnv.OBSERVATION_SIZE},
+ * and its reward and done flags to index {@code i} of {@link #getRewards()},
+ * {@link #getDones()} and {@link #getTruncations()}. The arrays are overwritten by
+ * every call, so a training loop reads them in place without any allocation.
+ * <p>
+ * An environment whose episode ends is reset at once: its reward and done flag
+ * belong to the step that ended the episode, while its observation is already the
+ * first one of the next episode. Episode {@code k} of environment {@code i} is
+ * played with seed {@code baseSeed + i + k * count}, so a batch is reproducible
+ * whatever the number of threads.
+ * <p>
+ * The environments are split into contiguous chunks, one per thread. The calling
+ * thread steps the first chunk, and the others run on a small pool of daemon
+ * threads that exit when idle. With one thread everything runs on the caller.
+ * <p>
+ * Usage: {@code VectorGameEnv [envs] [threads] [steps] [rounds]} measures the throughput
+ * with random actions.
+ */
+public class VectorGameEnv implements AutoCloseable {
+
+    private final GameEnv[] envs;
+    private final float[] observations;
+    private final float[] rewards;
+    private final boolean[] dones;
+    private final boolean[] truncations;
+    /** Episodes started by each environment since the last {@link #reset(long)}. */
+    private final long[] episodes;
+    private long baseSeed;
+
+    private final Chunk[] chunks;
+    private final ThreadPoolExecutor pool;      // Null when everything runs on the calling thread
+    private final Future<?>[] pending;
+
+    // Input of the current call, written before the chunks start
+    private int[] actions;
+    private boolean resetting;
+
+    /**
+     * Creates a batch of environments.
+     *
+     * @param count       number of environments
+     * @param parallelism number of threads stepping them, the calling one included
+     * @param maxTicks    ticks after which an episode is truncated
+     */
+    public VectorGameEnv(int count, int parallelism, long maxTicks) {
+        if (count <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("count and parallelism must be positive");
+        }
+        this.observations = new float[count * GameEnv.OBSERVATION_SIZE];
+        this.rewards = new float[count];
+        this.dones = new boolean[count];
+        this.truncations = new boolean[count];
+        this.episodes = new long[count];
+        this.envs = new GameEnv[count];
+        for (int i = 0; i < count; i++) {
+            envs[i] = new GameEnv(observations, i * GameEnv.OBSERVATION_SIZE, maxTicks);
+        }
+
+        int chunkCount = Math.min(parallelism, count);
+        this.chunks = new Chunk[chunkCount];
+        for (int c = 0; c < chunkCount; c++) {
+            chunks[c] = new Chunk(c * count / chunkCount, (c + 1) * count / chunkCount);
+        }
+        this.pending = new Future<?>[chunkCount];
+        if (chunkCount > 1) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            pool = new ThreadPoolExecutor(chunkCount - 1, chunkCount - 1, 1, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), task -> {
+                        Thread thread = new Thread(task, "vector-env-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            pool.allowCoreThreadTimeOut(true);
+        } else {
+            pool = null;
+        }
+    }
+
+    /**
+     * Starts a new episode in every environment.
+     *
+     * @param baseSeed seed of environment 0's first episode
+     * @return observations of all environments
+     */
+    public float[] reset(long baseSeed) {
+        this.baseSeed = baseSeed;
+        this.resetting = true;
+        runChunks();
+        return observations;
+    }
+
+    /**
+     * Plays one tick in every environment, resetting those whose episode ended.
+     *
+     * @param actions one action per environment, see {@link GameEnv#step(int)}
+     */
+    public void step(int[] actions) {
+        if (actions.length != envs.length) {
+            throw new IllegalArgumentException("Expected " + envs.length + " actions, got " + actions.length);
+        }
+        this.actions = actions;
+        this.resetting = false;
+        runChunks();
+    }
+
+    private void runChunks() {
+        for (int c = 1; c < chunks.length; c++) {
+            pending[c] = pool.submit(chunks[c]);
+        }
+        chunks[0].run();
+        for (int c = 1; c < chunks.length; c++) {
+            awaitChunk(c);
+        }
+    }
+
+    /**
+     * Waits for a chunk to finish, even if the calling thread is interrupted: until
+     * it does, the chunk still writes the rewards, flags and observations the caller
+     * is about to read, and submitting it again would step its environments on two
+     * threads. The wait lasts at most one step of the chunk. An interrupt is
+     * restored once the chunk is done.
+     */
+    private void awaitChunk(int c) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    pending[c].get();
+                    return;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Environment worker failed", e.getCause());
+        } finally {
+            pending[c] = null;
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * A contiguous range of environments stepped by one thread.
+     */
+    private final class Chunk implements Runnable {
+
+        private final int from;
+        private final int to;
+
+        Chunk(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public void run() {
+            for (int i = from; i < to; i++) {
+                if (resetting) {
+                    episodes[i] = 0;
+                    envs[i].reset(seed(i));
+                    rewards[i] = 0;
+                    dones[i] = false;
+                    truncations[i] = false;
+                    continue;
+                }
+                GameEnv.Transition transition = envs[i].step(actions[i]);
+                rewards[i] = transition.getReward();
+                dones[i] = transition.isDone();
+                truncations[i] = transition.isTruncated();
+                if (dones[i]) {
+                    episodes[i]++;
+                    envs[i].reset(seed(i));
+                }
+            }
+        }
+    }
+
+    private long seed(int i) {
+        return baseSeed + i + episodes[i] * envs.length;
+    }
+
+    public int size() {
+        return envs.length;
+    }
+
+    public GameEnv getEnv(int i) {
+        return envs[i];
+    }
+
+    /**
+     * Returns the observations of all environments, {@link GameEnv#OBSERVATION_SIZE} floats each.
+     *
+     * @return shared observation array
+     */
+    public float[] getObservations() {
+        return observations;
+    }
+
+    public float[] getRewards() {
+        return rewards;
+    }
+
+    public boolean[] getDones() {
+        return dones;
+    }
+
+    public boolean[] getTruncations() {
+        return truncations;
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long steps = args.length > 2 ? Long.parseLong(args[2]) : 5_000;
+        int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+
+        // The entities log a message on every hit; keep them out of the report
+        GameLog.setLevel(GameLog.Level.WARN);
+        PrintStream out = System.out;
+        try (VectorGameEnv env = new VectorGameEnv(count, threads, BatchRunner.DEFAULT_MAX_TICKS)) {
+            int[] actions = new int[count];
+            SplittableRandom random = new SplittableRandom(1L);
+            env.reset(1L);
+            // The first rounds include JIT compilation; later ones show the steady state
+            for (int round = 1; round <= rounds; round++) {
+                long episodes = 0;
+                long start = System.nanoTime();
+                for (long s = 0; s < steps; s++) {
+                    for (int i = 0; i < count; i++) {
+                        actions[i] = random.nextInt(GameEnv.ACTION_COUNT);
+                    }
+                    env.step(actions);
+                    for (int i = 0; i < count; i++) {
+                        if (env.getDones()[i]) episodes++;
+                    }
+                }
+                double seconds = (System.nanoTime() - start) / 1e9;
+                out.printf("Round %d: %d envs on %d threads, %d env-steps in %.2f s = %.0f env-steps/s, %d episodes finished%n",
+                        round, count, threads, steps * count, seconds, steps * count / seconds, episodes);
+            }
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package uet.oop.spaceshootergamejavafx.entities;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact copy of the parts of a {@link GameWorld} the AI reads: the player, the
+ * live enemies and bosses, the live power-ups and every live projectile. Entities
+ * are flattened into parallel primitive arrays and identified by their
+ * {@link GameObject#getEntityId() entity id}, so a snapshot holds no reference to
+ * a mutable game object and can be read on another thread while the simulation
+ * keeps running.
+ * <p>
+ * A snapshot is filled by {@link #capture(GameWorld)} on the simulation thread and
+ * must not be changed after it has been handed to a reader (see
+ * {@link SnapshotExchange}). Buffers are reused between captures; they only grow.
+ */
+public class WorldSnapshot {
+
+    private static final int INITIAL_CAPACITY = 32;
+
+    /** Publication number, strictly increasing per {@link SnapshotExchange}. */
+    private long sequence;
+
+    private long tick;
+    private long millis;
+    private int lives;
+
+    private double playerX;
+    private double playerY;
+    private boolean playerWantsToShoot;
+
+    /** Regular enemies first, then bosses, both in spawn order. */
+    private int enemyCount;
+    private int regularEnemyCount;
+    private int[] enemyId = new int[INITIAL_CAPACITY];
+    private double[] enemyX = new double[INITIAL_CAPACITY];
+    private double[] enemyY = new double[INITIAL_CAPACITY];
+    private double[] enemyHalfWidth = new double[INITIAL_CAPACITY];
+    private double[] enemyHalfHeight = new double[INITIAL_CAPACITY];
+    /** Vertical speed of regular enemies; 0 for bosses, which follow their own patterns. */
+    private double[] enemySpeed = new double[INITIAL_CAPACITY];
+    /** Regular enemy that has not fired its single shot yet. */
+    private boolean[] enemyShotPending = new boolean[INITIAL_CAPACITY];
+
+    private int powerUpCount;
+    private double[] powerUpX = new double[INITIAL_CAPACITY];
+    private double[] powerUpY = new double[INITIAL_CAPACITY];
+    private double[] powerUpHalfWidth = new double[INITIAL_CAPACITY];
+    private double[] powerUpHalfHeight = new double[INITIAL_CAPACITY];
+    private PowerUp.PowerUpType[] powerUpType = new PowerUp.PowerUpType[INITIAL_CAPACITY];
+
+    private final ProjectileStore projectiles = new ProjectileStore();
+
+    /**
+     * Replaces the contents of this snapshot with the current state of a world.
+     * Dead entities and projectiles are left out.
+     *
+     * @param world world to copy; it is only read
+     */
+    public void capture(GameWorld world) {
+        tick = world.getTickCount();
+        millis = world.getClock().millis();
+        lives = world.getLives();
+
+        Player player = world.getPlayer();
+        playerX = player.getX();
+        playerY = player.getY();
+        playerWantsToShoot = player.getWantsToShoot();
+
+        EntityRegistry entities = world.getEntities();
+        enemyCount = 0;
+        addEnemies(entities.getEnemies());
+        regularEnemyCount = enemyCount;
+        addEnemies(entities.getBosses());
+
+        List<PowerUp> powerUps = entities.getPowerUps();
+        powerUpCount = 0;
+        for (int i = 0; i < powerUps.size(); i++) {
+            PowerUp powerUp = powerUps.get(i);
+            if (powerUp.isDead()) continue;
+            if (powerUpCount == powerUpX.length) {
+                growPowerUps();
+            }
+            int k = powerUpCount++;
+            powerUpX[k] = powerUp.getX();
+            powerUpY[k] = powerUp.getY();
+            powerUpHalfWidth[k] = powerUp.getHalfWidth();
+            powerUpHalfHeight[k] = powerUp.getHalfHeight();
+            powerUpType[k] = powerUp.getType();
+        }
+
+        projectiles.copyFrom(world.getProjectiles());
+    }
+
+    private void addEnemies(List<? extends Enemy> source) {
+        for (int i = 0; i < source.size(); i++) {
+            Enemy enemy = source.get(i);
+            if (enemy.isDead()) continue;
+            if (enemyCount == enemyX.length) {
+                growEnemies();
+            }
+            int k = enemyCount++;
+            enemyId[k] = enemy.getEntityId();
+            enemyX[k] = enemy.getX();
+            enemyY[k] = enemy.getY();
+            enemyHalfWidth[k] = enemy.getHalfWidth();
+            enemyHalfHeight[k] = enemy.getHalfHeight();
+            boolean boss = enemy instanceof BossEnemy;
+            enemySpeed[k] = boss ? 0 : enemy.getSpeed();
+            enemyShotPending[k] = !boss && !enemy.hasFiredInitialShot();
+        }
+    }
+
+    private void growEnemies() {
+        int capacity = enemyX.length * 2;
+        enemyId = Arrays.copyOf(enemyId, capacity);
+        enemyX = Arrays.copyOf(enemyX, capacity);
+        enemyY = Arrays.copyOf(enemyY, capacity);
+        enemyHalfWidth = Arrays.copyOf(enemyHalfWidth, capacity);
+        enemyHalfHeight = Arrays.copyOf(enemyHalfHeight, capacity);
+        enemySpeed = Arrays.copyOf(enemySpeed, capacity);
+        enemyShotPending = Arrays.copyOf(enemyShotPending, capacity);
+    }
+
+    private void growPowerUps() {
+        int capacity = powerUpX.length * 2;
+        powerUpX = Arrays.copyOf(powerUpX, capacity);
+        powerUpY = Arrays.copyOf(powerUpY, capacity);
+        powerUpHalfWidth = Arrays.copyOf(powerUpHalfWidth, capacity);
+        powerUpHalfHeight = Arrays.copyOf(powerUpHalfHeight, capacity);
+        powerUpType = Arrays.copyOf(powerUpType, capacity);
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    /**
+     * Returns the tick of the world when this snapshot was captured.
+     *
+     * @return simulation tick
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Returns the game time when this snapshot was captured.
+     *
+     * @return simulation time in milliseconds
+     */
+    public long getMillis() {
+        return millis;
+    }
+
+    public int getLives() {
+        return lives;
+    }
+
+    public double getPlayerX() {
+        return playerX;
+    }
+
+    public double getPlayerY() {
+        return playerY;
+    }
+
+    public boolean getPlayerWantsToShoot() {
+        return playerWantsToShoot;
+    }
+
+    /**
+     * Returns the number of live enemies, bosses included. Indices
+     * {@code 0 .. getRegularEnemyCount() - 1} are regular enemies, the rest are bosses.
+     *
+     * @return enemy count
+     */
+    public int getEnemyCount() {
+        return enemyCount;
+    }
+
+    /**
+     * Returns the number of live regular enemies.
+     *
+     * @return regular enemy count
+     */
+    public int getRegularEnemyCount() {
+        return regularEnemyCount;
+    }
+
+    public boolean isBoss(int i) {
+        return i >= regularEnemyCount;
+    }
+
+    public int getEnemyId(int i) {
+        return enemyId[i];
+    }
+
+    public double getEnemyX(int i) {
+        return enemyX[i];
+    }
+
+    public double getEnemyY(int i) {
+        return enemyY[i];
+    }
+
+    public double getEnemyHalfWidth(int i) {
+        return enemyHalfWidth[i];
+    }
+
+    public double getEnemyHalfHeight(int i) {
+        return enemyHalfHeight[i];
+    }
+
+    /**
+     * Returns how far a regular enemy moves down per tick.
+     *
+     * @param i enemy index
+     * @return speed in pixels per tick, 0 for a boss
+     */
+    public double getEnemySpeed(int i) {
+        return enemySpeed[i];
+    }
+
+    /**
+     * Returns whether a regular enemy will still fire its single shot once it
+     * reaches the firing band (see {@link GameWorld#tick()}).
+     *
+     * @param i enemy index
+     * @return true if the shot is still pending, always false for a boss
+     */
+    public boolean isEnemyShotPending(int i) {
+        return enemyShotPending[i];
+    }
+
+    public int getPowerUpCount() {
+        return powerUpCount;
+    }
+
+    public double getPowerUpX(int i) {
+        return powerUpX[i];
+    }
+
+    public double getPowerUpY(int i) {
+        return powerUpY[i];
+    }
+
+    public double getPowerUpHalfWidth(int i) {
+        return powerUpHalfWidth[i];
+    }
+
+    public double getPowerUpHalfHeight(int i) {
+        return powerUpHalfHeight[i];
+    }
+
+    public PowerUp.PowerUpType getPowerUpType(int i) {
+        return powerUpType[i];
+    }
+
+    /**
+     * Returns the live projectiles at capture time. The store belongs to this
+     * snapshot and must only be read.
+     *
+     * @return projectile copy
+     */
+    public ProjectileStore getProjectiles() {
+        return projectiles;
+    }
+}